@@ -0,0 +1,132 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Anotação de uma entidade gerada (ex.: @Column(name = "id", nullable = false)).
+ *
+ * É o modelo comum aos dois destinos: o código-fonte (appendSource) e os ficheiros .class
+ * escritos directamente (ClassFileWriter), que assim têm sempre as mesmas anotações.
+ * Os valores podem ser String, Boolean, Integer, Long, EnumValue, AnnotationSpec ou List destes.
+ */
+final class AnnotationSpec {
+
+    /**
+     * Constante de um enum, ex.: FetchType.LAZY.
+     */
+    static final class EnumValue {
+        final String type;
+        final String constant;
+
+        EnumValue(String type, String constant) {
+            this.type = type;
+            this.constant = constant;
+        }
+    }
+
+    // Nome qualificado do tipo da anotação, ex.: "javax.persistence.Column"
+    final String type;
+    final List<String> names = new ArrayList<>(4);
+    final List<Object> values = new ArrayList<>(4);
+
+    private AnnotationSpec(String type) {
+        this.type = type;
+    }
+
+    static AnnotationSpec of(String type) {
+        return new AnnotationSpec(type);
+    }
+
+    AnnotationSpec with(String name, Object value) {
+        names.add(name);
+        values.add(value);
+        return this;
+    }
+
+    static EnumValue enumValue(String type, String constant) {
+        return new EnumValue(type, constant);
+    }
+
+    void appendSource(StringBuilder sb) {
+        appendSource(sb, "");
+    }
+
+    /**
+     * Como {@link #appendSource(StringBuilder)}; listas com várias anotações (ex.: indexes) ficam
+     * uma por linha, alinhadas pela indentação da anotação.
+     */
+    void appendSource(StringBuilder sb, String indent) {
+        sb.append('@').append(simpleName(type));
+        if (names.isEmpty()) {
+            return;
+        }
+        sb.append('(');
+        if (names.size() == 1 && names.get(0).equals("value")) {
+            // Elemento único "value" dispensa o nome, ex.: @NamedAttributeNode("orders")
+            appendValue(sb, values.get(0), indent);
+            sb.append(')');
+            return;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names.get(i)).append(" = ");
+            appendValue(sb, values.get(i), indent);
+        }
+        sb.append(')');
+    }
+
+    private static void appendValue(StringBuilder sb, Object value, String indent) {
+        if (value instanceof String) {
+            appendStringLiteral(sb, (String) value);
+        } else if (value instanceof EnumValue) {
+            EnumValue enumValue = (EnumValue) value;
+            sb.append(simpleName(enumValue.type)).append('.').append(enumValue.constant);
+        } else if (value instanceof AnnotationSpec) {
+            ((AnnotationSpec) value).appendSource(sb, indent);
+        } else if (value instanceof List && ((List<?>) value).size() == 1) {
+            // Um só elemento dispensa as chavetas, ex.: indexes = @Index(...)
+            appendValue(sb, ((List<?>) value).get(0), indent);
+        } else if (value instanceof List && ((List<?>) value).get(0) instanceof AnnotationSpec) {
+            List<?> list = (List<?>) value;
+            String elementIndent = indent + "        ";
+            sb.append("{\n");
+            for (int i = 0; i < list.size(); i++) {
+                sb.append(elementIndent);
+                ((AnnotationSpec) list.get(i)).appendSource(sb, elementIndent);
+                sb.append(i < list.size() - 1 ? ",\n" : "\n");
+            }
+            sb.append(indent).append('}');
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            sb.append('{');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                appendValue(sb, list.get(i), indent);
+            }
+            sb.append('}');
+        } else if (value instanceof Long) {
+            sb.append(value).append('L');
+        } else {
+            sb.append(value);
+        }
+    }
+
+    private static void appendStringLiteral(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    static String simpleName(String qualifiedName) {
+        return qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    }
+}
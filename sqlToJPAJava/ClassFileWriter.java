@@ -0,0 +1,701 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Escritor mínimo de ficheiros .class (versão 52, Java 8), suficiente para as entidades geradas:
+ * campos com anotações, métodos com código linear ou com saltos simples e StackMapTable.
+ *
+ * Os nomes de classes são internos (java/lang/String) e os tipos são descritores (Ljava/lang/String;).
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int JAVA_8 = 52;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    // Descritores dos tipos das anotações, partilhados entre classes
+    private static final Map<String, String> ANNOTATION_DESCRIPTORS = new ConcurrentHashMap<>();
+
+    // Constant pool: um índice por tipo de entrada, para não construir chaves compostas em cada consulta
+    private final Bytes pool = new Bytes(4096);
+    private final Map<String, Integer> utf8Index = new HashMap<>(512);
+    private final Map<String, Integer> classIndex = new HashMap<>(32);
+    private final Map<String, Integer> stringIndex = new HashMap<>(64);
+    private final Map<Object, Integer> numberIndex = new HashMap<>(8);
+    // Referências a campos e métodos, por nome (os nomes dos campos são as mesmas instâncias em cada
+    // chamada, por isso a consulta não calcula hashes de chaves novas)
+    private final Map<String, List<MemberRef>> memberIndex = new HashMap<>(128);
+    private int poolCount = 1;
+
+    private final int access;
+    private final int thisClass;
+    private final int superClass;
+    private final int[] interfaces;
+    private final Bytes fields = new Bytes(512);
+    private int fieldCount;
+    private final Bytes methods = new Bytes(2048);
+    private int methodCount;
+    private final List<AnnotationSpec> annotations = new ArrayList<>();
+
+    ClassFileWriter(int access, String internalName, String superName, String... interfaceNames) {
+        this.access = access;
+        this.thisClass = classRef(internalName);
+        this.superClass = classRef(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classRef(interfaceNames[i]);
+        }
+    }
+
+    void addAnnotations(List<AnnotationSpec> classAnnotations) {
+        annotations.addAll(classAnnotations);
+    }
+
+    /**
+     * Acrescenta um campo. constantValue (Integer, Long ou String) só se aplica a campos static final.
+     */
+    void addField(int fieldAccess, String name, String descriptor, Object constantValue,
+                  List<AnnotationSpec> fieldAnnotations) {
+        addField(fieldAccess, name, descriptor, null, constantValue, fieldAnnotations);
+    }
+
+    /**
+     * Como {@link #addField(int, String, String, Object, List)}, com a assinatura genérica
+     * do campo (ex.: Ljava/util/Set&lt;Lpkg/Orders;&gt;;), ou null se o tipo não for genérico.
+     */
+    void addField(int fieldAccess, String name, String descriptor, String signature, Object constantValue,
+                  List<AnnotationSpec> fieldAnnotations) {
+        fieldCount++;
+        fields.u2(fieldAccess).u2(utf8(name)).u2(utf8(descriptor));
+        fields.u2((constantValue != null ? 1 : 0) + (signature != null ? 1 : 0) + (fieldAnnotations.isEmpty() ? 0 : 1));
+        if (constantValue != null) {
+            fields.u2(utf8("ConstantValue")).u4(2).u2(constant(constantValue));
+        }
+        if (signature != null) {
+            fields.u2(utf8("Signature")).u4(2).u2(utf8(signature));
+        }
+        if (!fieldAnnotations.isEmpty()) {
+            writeAnnotationsAttribute(fields, fieldAnnotations);
+        }
+    }
+
+    /**
+     * Inicia um método; o código é escrito no Code devolvido e registado com {@link Code#end()}.
+     */
+    Code method(int methodAccess, String name, String descriptor) {
+        return new Code(methodAccess, name, descriptor, null);
+    }
+
+    /**
+     * Como {@link #method(int, String, String)}, com a assinatura genérica do método.
+     */
+    Code method(int methodAccess, String name, String descriptor, String signature) {
+        return new Code(methodAccess, name, descriptor, signature);
+    }
+
+    byte[] toByteArray() {
+        Bytes attributes = new Bytes(256);
+        int attributeCount = 0;
+        if (!annotations.isEmpty()) {
+            writeAnnotationsAttribute(attributes, annotations);
+            attributeCount++;
+        }
+
+        Bytes out = new Bytes(pool.length + fields.length + methods.length + attributes.length + 64);
+        out.u4(0xCAFEBABE).u2(0).u2(JAVA_8);
+        out.u2(poolCount).bytes(pool);
+        out.u2(access).u2(thisClass).u2(superClass);
+        out.u2(interfaces.length);
+        for (int index : interfaces) {
+            out.u2(index);
+        }
+        out.u2(fieldCount).bytes(fields);
+        out.u2(methodCount).bytes(methods);
+        out.u2(attributeCount).bytes(attributes);
+        return out.toByteArray();
+    }
+
+    // ---- constant pool ----
+
+    int utf8(String value) {
+        Integer index = utf8Index.get(value);
+        if (index != null) {
+            return index;
+        }
+        pool.u1(CONSTANT_UTF8).modifiedUtf8(value);
+        return register(utf8Index, value, 1);
+    }
+
+    int classRef(String internalName) {
+        Integer index = classIndex.get(internalName);
+        if (index != null) {
+            return index;
+        }
+        int name = utf8(internalName);
+        pool.u1(CONSTANT_CLASS).u2(name);
+        return register(classIndex, internalName, 1);
+    }
+
+    private int string(String value) {
+        Integer index = stringIndex.get(value);
+        if (index != null) {
+            return index;
+        }
+        int utf8 = utf8(value);
+        pool.u1(CONSTANT_STRING).u2(utf8);
+        return register(stringIndex, value, 1);
+    }
+
+    private int integer(int value) {
+        Integer index = numberIndex.get(value);
+        if (index != null) {
+            return index;
+        }
+        pool.u1(CONSTANT_INTEGER).u4(value);
+        return register(numberIndex, value, 1);
+    }
+
+    private int longConstant(long value) {
+        Integer index = numberIndex.get(value);
+        if (index != null) {
+            return index;
+        }
+        pool.u1(CONSTANT_LONG).u4((int) (value >>> 32)).u4((int) value);
+        // Constantes long ocupam duas entradas
+        return register(numberIndex, value, 2);
+    }
+
+    private int constant(Object value) {
+        if (value instanceof Integer) {
+            return integer((Integer) value);
+        }
+        if (value instanceof Long) {
+            return longConstant((Long) value);
+        }
+        return string((String) value);
+    }
+
+    /**
+     * Entrada Fieldref ou Methodref, com o NameAndType correspondente.
+     */
+    private static final class MemberRef {
+        final String owner;
+        final String descriptor;
+        final int nameAndType;
+        final int index;
+        final int argumentSlots;
+
+        MemberRef(String owner, String descriptor, int nameAndType, int index) {
+            this.owner = owner;
+            this.descriptor = descriptor;
+            this.nameAndType = nameAndType;
+            this.index = index;
+            this.argumentSlots = descriptor.charAt(0) == '(' ? ClassFileWriter.argumentSlots(descriptor) : 0;
+        }
+    }
+
+    private MemberRef memberRef(int tag, String owner, String name, String descriptor) {
+        List<MemberRef> refs = memberIndex.computeIfAbsent(name, key -> new ArrayList<>(1));
+        int nameAndType = 0;
+        // Um campo e um método nunca têm o mesmo descritor, por isso não é preciso comparar o tag
+        for (MemberRef ref : refs) {
+            if (ref.descriptor.equals(descriptor)) {
+                if (ref.owner.equals(owner)) {
+                    return ref;
+                }
+                nameAndType = ref.nameAndType;
+            }
+        }
+        int ownerIndex = classRef(owner);
+        if (nameAndType == 0) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            pool.u1(CONSTANT_NAME_AND_TYPE).u2(nameIndex).u2(descriptorIndex);
+            nameAndType = poolCount++;
+        }
+        pool.u1(tag).u2(ownerIndex).u2(nameAndType);
+        MemberRef ref = new MemberRef(owner, descriptor, nameAndType, poolCount++);
+        refs.add(ref);
+        return ref;
+    }
+
+    private <K> int register(Map<K, Integer> index, K key, int slots) {
+        int position = poolCount;
+        index.put(key, position);
+        poolCount += slots;
+        return position;
+    }
+
+    // ---- anotações ----
+
+    private void writeAnnotationsAttribute(Bytes out, List<AnnotationSpec> list) {
+        Bytes body = new Bytes(128);
+        body.u2(list.size());
+        for (AnnotationSpec annotation : list) {
+            writeAnnotation(body, annotation);
+        }
+        out.u2(utf8("RuntimeVisibleAnnotations")).u4(body.length).bytes(body);
+    }
+
+    private void writeAnnotation(Bytes out, AnnotationSpec annotation) {
+        out.u2(utf8(descriptorOf(annotation.type)));
+        out.u2(annotation.names.size());
+        for (int i = 0; i < annotation.names.size(); i++) {
+            out.u2(utf8(annotation.names.get(i)));
+            writeElementValue(out, annotation.values.get(i));
+        }
+    }
+
+    private void writeElementValue(Bytes out, Object value) {
+        if (value instanceof String) {
+            out.u1('s').u2(utf8((String) value));
+        } else if (value instanceof Boolean) {
+            out.u1('Z').u2(integer((Boolean) value ? 1 : 0));
+        } else if (value instanceof Integer) {
+            out.u1('I').u2(integer((Integer) value));
+        } else if (value instanceof Long) {
+            out.u1('J').u2(longConstant((Long) value));
+        } else if (value instanceof AnnotationSpec.EnumValue) {
+            AnnotationSpec.EnumValue enumValue = (AnnotationSpec.EnumValue) value;
+            out.u1('e').u2(utf8(descriptorOf(enumValue.type))).u2(utf8(enumValue.constant));
+        } else if (value instanceof AnnotationSpec) {
+            out.u1('@');
+            writeAnnotation(out, (AnnotationSpec) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.u1('[').u2(list.size());
+            for (Object element : list) {
+                writeElementValue(out, element);
+            }
+        } else {
+            throw new IllegalArgumentException("Valor de anotação não suportado: " + value);
+        }
+    }
+
+    private static String descriptorOf(String qualifiedName) {
+        return ANNOTATION_DESCRIPTORS.computeIfAbsent(qualifiedName, name -> "L" + name.replace('.', '/') + ";");
+    }
+
+    // ---- código ----
+
+    /**
+     * Posição no código, alvo de saltos. Cada alvo tem uma frame (tipos das variáveis locais) na StackMapTable.
+     */
+    static final class Label {
+        int offset = -1;
+        String[] locals;
+        final List<Integer> references = new ArrayList<>(2);
+    }
+
+    /**
+     * Código de um método. A profundidade da pilha é seguida por cada instrução, para calcular max_stack;
+     * o chamador indica as variáveis locais e os tipos nas frames (I, J, F, D ou nome interno).
+     */
+    final class Code {
+        private final int methodAccess;
+        private final String name;
+        private final String descriptor;
+        private final String signature;
+        private final Bytes code = new Bytes(128);
+        private final List<Label> frames = new ArrayList<>();
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private Code(int methodAccess, String name, String descriptor, String signature) {
+            this.methodAccess = methodAccess;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.signature = signature;
+            this.maxLocals = argumentSlots(descriptor) + ((methodAccess & ACC_STATIC) != 0 ? 0 : 1);
+        }
+
+        private void push(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        Code load(String typeDescriptor, int slot) {
+            char sort = typeDescriptor.charAt(0);
+            code.u1(loadOpcode(sort)).u1(slot);
+            push(slotSize(sort));
+            maxLocals = Math.max(maxLocals, slot + slotSize(sort));
+            return this;
+        }
+
+        Code store(String typeDescriptor, int slot) {
+            char sort = typeDescriptor.charAt(0);
+            code.u1(loadOpcode(sort) + 33).u1(slot); // xSTORE = xLOAD + 33
+            push(-slotSize(sort));
+            maxLocals = Math.max(maxLocals, slot + slotSize(sort));
+            return this;
+        }
+
+        Code returnValue(String typeDescriptor) {
+            char sort = typeDescriptor.charAt(0);
+            switch (sort) {
+                case 'V':
+                    code.u1(0xB1);
+                    break;
+                case 'J':
+                    code.u1(0xAD);
+                    break;
+                case 'F':
+                    code.u1(0xAE);
+                    break;
+                case 'D':
+                    code.u1(0xAF);
+                    break;
+                case 'L':
+                case '[':
+                    code.u1(0xB0);
+                    break;
+                default:
+                    code.u1(0xAC);
+            }
+            stack = 0;
+            return this;
+        }
+
+        Code iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                code.u1(0x03 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.u1(0x10).u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.u1(0x11).u2(value);
+            } else {
+                ldcIndex(integer(value));
+                return this;
+            }
+            push(1);
+            return this;
+        }
+
+        Code ldc(String value) {
+            ldcIndex(string(value));
+            return this;
+        }
+
+        private void ldcIndex(int index) {
+            if (index < 256) {
+                code.u1(0x12).u1(index);
+            } else {
+                code.u1(0x13).u2(index);
+            }
+            push(1);
+        }
+
+        /**
+         * Instrução sem operandos (ex.: 0x59 dup, 0x53 aastore), com o efeito indicado na pilha.
+         */
+        Code op(int opcode, int stackDelta) {
+            code.u1(opcode);
+            push(stackDelta);
+            return this;
+        }
+
+        Code newObject(String internalName) {
+            code.u1(0xBB).u2(classRef(internalName));
+            push(1);
+            return this;
+        }
+
+        Code anewarray(String internalName) {
+            code.u1(0xBD).u2(classRef(internalName));
+            return this;
+        }
+
+        Code checkcast(String internalName) {
+            code.u1(0xC0).u2(classRef(internalName));
+            return this;
+        }
+
+        Code getfield(String owner, String field, String fieldDescriptor) {
+            code.u1(0xB4).u2(memberRef(CONSTANT_FIELDREF, owner, field, fieldDescriptor).index);
+            push(slotSize(fieldDescriptor.charAt(0)) - 1);
+            return this;
+        }
+
+        Code putfield(String owner, String field, String fieldDescriptor) {
+            code.u1(0xB5).u2(memberRef(CONSTANT_FIELDREF, owner, field, fieldDescriptor).index);
+            push(-slotSize(fieldDescriptor.charAt(0)) - 1);
+            return this;
+        }
+
+        Code invokevirtual(String owner, String method, String methodDescriptor) {
+            return invoke(0xB6, owner, method, methodDescriptor, 1);
+        }
+
+        Code invokespecial(String owner, String method, String methodDescriptor) {
+            return invoke(0xB7, owner, method, methodDescriptor, 1);
+        }
+
+        Code invokestatic(String owner, String method, String methodDescriptor) {
+            return invoke(0xB8, owner, method, methodDescriptor, 0);
+        }
+
+        private Code invoke(int opcode, String owner, String method, String methodDescriptor, int receiver) {
+            MemberRef ref = memberRef(CONSTANT_METHODREF, owner, method, methodDescriptor);
+            code.u1(opcode).u2(ref.index);
+            char returnType = methodDescriptor.charAt(methodDescriptor.lastIndexOf(')') + 1);
+            push(-ref.argumentSlots - receiver + slotSize(returnType));
+            return this;
+        }
+
+        /**
+         * Salto (if*, if_acmp*, goto) para um alvo ainda por marcar ou já marcado.
+         */
+        Code jump(int opcode, Label target) {
+            int stackDelta;
+            if (opcode == 0xA7) {
+                stackDelta = 0; // goto
+            } else if (opcode >= 0x9F && opcode <= 0xA6) {
+                stackDelta = -2; // if_icmp*, if_acmp*
+            } else {
+                stackDelta = -1; // ifeq, ifne, ifnull, ...
+            }
+            target.references.add(code.length);
+            code.u1(opcode).u2(0);
+            push(stackDelta);
+            return this;
+        }
+
+        /**
+         * Marca o alvo na posição corrente, com a pilha vazia e as variáveis locais indicadas.
+         */
+        Code mark(Label label, String... locals) {
+            label.offset = code.length;
+            label.locals = locals;
+            frames.add(label);
+            stack = 0;
+            return this;
+        }
+
+        void end() {
+            for (Label label : frames) {
+                for (int reference : label.references) {
+                    code.patchU2(reference + 1, label.offset - reference);
+                }
+            }
+
+            methodCount++;
+            methods.u2(methodAccess).u2(utf8(name)).u2(utf8(descriptor));
+            methods.u2(signature != null ? 2 : 1);
+
+            Bytes stackMap = frames.isEmpty() ? null : stackMapTable();
+            int codeAttributeLength = 12 + code.length
+                + (stackMap != null ? 6 + stackMap.length : 0);
+            methods.u2(utf8("Code")).u4(codeAttributeLength);
+            methods.u2(maxStack).u2(maxLocals).u4(code.length).bytes(code);
+            methods.u2(0); // exception_table
+            if (stackMap != null) {
+                methods.u2(1).u2(utf8("StackMapTable")).u4(stackMap.length).bytes(stackMap);
+            } else {
+                methods.u2(0);
+            }
+            if (signature != null) {
+                methods.u2(utf8("Signature")).u4(2).u2(utf8(signature));
+            }
+        }
+
+        /**
+         * Uma full_frame por alvo de salto: simples e sempre válida para o código linear destas classes.
+         */
+        private Bytes stackMapTable() {
+            frames.sort((a, b) -> Integer.compare(a.offset, b.offset));
+            Bytes out = new Bytes(64);
+            int count = 0;
+            Bytes entries = new Bytes(64);
+            int previous = -1;
+            for (Label label : frames) {
+                if (label.offset == previous) {
+                    continue;
+                }
+                int delta = previous < 0 ? label.offset : label.offset - previous - 1;
+                entries.u1(255).u2(delta).u2(label.locals.length);
+                for (String local : label.locals) {
+                    writeVerificationType(entries, local);
+                }
+                entries.u2(0);
+                previous = label.offset;
+                count++;
+            }
+            out.u2(count).bytes(entries);
+            return out;
+        }
+
+        private void writeVerificationType(Bytes out, String type) {
+            switch (type) {
+                case "I":
+                    out.u1(1);
+                    break;
+                case "F":
+                    out.u1(2);
+                    break;
+                case "D":
+                    out.u1(3);
+                    break;
+                case "J":
+                    out.u1(4);
+                    break;
+                default:
+                    out.u1(7).u2(classRef(type));
+            }
+        }
+    }
+
+    private static int loadOpcode(char sort) {
+        switch (sort) {
+            case 'J':
+                return 0x16;
+            case 'F':
+                return 0x17;
+            case 'D':
+                return 0x18;
+            case 'L':
+            case '[':
+                return 0x19;
+            default:
+                return 0x15; // int, short, byte, char, boolean
+        }
+    }
+
+    static int slotSize(char sort) {
+        switch (sort) {
+            case 'V':
+                return 0;
+            case 'J':
+            case 'D':
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Número de posições de variáveis locais ocupadas pelos argumentos de um descritor de método.
+     */
+    static int argumentSlots(String methodDescriptor) {
+        int slots = 0;
+        int i = 1;
+        while (methodDescriptor.charAt(i) != ')') {
+            char c = methodDescriptor.charAt(i);
+            slots += slotSize(c);
+            while (c == '[') {
+                c = methodDescriptor.charAt(++i);
+            }
+            if (c == 'L') {
+                i = methodDescriptor.indexOf(';', i);
+            }
+            i++;
+        }
+        return slots;
+    }
+
+    /**
+     * Buffer de bytes em big-endian, como no formato .class.
+     */
+    private static final class Bytes {
+        private byte[] data;
+        private int length;
+
+        Bytes(int capacity) {
+            data = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+
+        Bytes u1(int value) {
+            ensure(1);
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        Bytes u2(int value) {
+            ensure(2);
+            data[length++] = (byte) (value >>> 8);
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        Bytes u4(int value) {
+            ensure(4);
+            data[length++] = (byte) (value >>> 24);
+            data[length++] = (byte) (value >>> 16);
+            data[length++] = (byte) (value >>> 8);
+            data[length++] = (byte) value;
+            return this;
+        }
+
+        /**
+         * Comprimento e bytes no formato UTF-8 modificado da JVM (o de DataOutputStream.writeUTF).
+         */
+        Bytes modifiedUtf8(String value) {
+            int length = value.length();
+            ensure(2 + length * 3);
+            int start = this.length;
+            this.length += 2;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x01 && c <= 0x7F) {
+                    data[this.length++] = (byte) c;
+                } else if (c <= 0x7FF) {
+                    data[this.length++] = (byte) (0xC0 | (c >> 6));
+                    data[this.length++] = (byte) (0x80 | (c & 0x3F));
+                } else {
+                    data[this.length++] = (byte) (0xE0 | (c >> 12));
+                    data[this.length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    data[this.length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            int encodedLength = this.length - start - 2;
+            if (encodedLength > 0xFFFF) {
+                throw new IllegalArgumentException("Constante demasiado longa: " + encodedLength + " bytes");
+            }
+            patchU2(start, encodedLength);
+            return this;
+        }
+
+        Bytes bytes(Bytes other) {
+            return bytes(other.data, 0, other.length);
+        }
+
+        Bytes bytes(byte[] source, int offset, int count) {
+            ensure(count);
+            System.arraycopy(source, offset, data, length, count);
+            length += count;
+            return this;
+        }
+
+        void patchU2(int position, int value) {
+            data[position] = (byte) (value >>> 8);
+            data[position + 1] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(data, length);
+        }
+    }
+}
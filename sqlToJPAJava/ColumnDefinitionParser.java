@@ -0,0 +1,1156 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser descendente recursivo para instruções CREATE TABLE (e CREATE SEQUENCE, CREATE INDEX,
+ * ALTER TABLE e DROP TABLE).
+ *
+ * Lê o corpo da tabela elemento a elemento (colunas e restrições) numa única passagem
+ * sobre os tokens do {@link SQLLexer}, sem retrocesso: o tempo é linear no tamanho da instrução,
+ * mesmo com ENUMs longos ou expressões DEFAULT/CHECK complexas.
+ */
+final class ColumnDefinitionParser {
+
+    private final SQLLexer lexer;
+
+    ColumnDefinitionParser(String sql) {
+        this.lexer = new SQLLexer(sql);
+    }
+
+    /**
+     * Interpreta uma instrução CREATE TABLE completa.
+     * Devolve null se a instrução não tiver lista de colunas (ex.: CREATE TABLE ... AS SELECT).
+     */
+    SQLParserJPAGenerator.TableInfo parseCreateTable() {
+        if (!lexer.accept("CREATE")) {
+            return null;
+        }
+        if (lexer.accept("OR")) {
+            lexer.accept("REPLACE");
+        }
+        lexer.accept("GLOBAL");
+        lexer.accept("LOCAL");
+        if (!lexer.accept("TEMPORARY")) {
+            lexer.accept("TEMP");
+        }
+        lexer.accept("UNLOGGED");
+        if (!lexer.accept("TABLE")) {
+            return null;
+        }
+        if (lexer.accept("IF")) {
+            lexer.accept("NOT");
+            lexer.accept("EXISTS");
+        }
+
+        String tableName = parseQualifiedName();
+        if (tableName == null || tableName.trim().isEmpty() || lexer.type() != SQLLexer.LPAREN) {
+            return null;
+        }
+        lexer.next();
+
+        SQLParserJPAGenerator.TableInfo table = new SQLParserJPAGenerator.TableInfo();
+        table.name = tableName.trim();
+
+        while (lexer.type() != SQLLexer.EOF && lexer.type() != SQLLexer.RPAREN) {
+            int elementStart = lexer.start();
+            if (!parseTableElement(table)) {
+                skipToElementEnd();
+                String element = lexer.slice(elementStart, lexer.start()).trim();
+                if (table.unparsedElements.isEmpty()) {
+                    table.unparsedElements = new ArrayList<>();
+                }
+                table.unparsedElements.add(element);
+                GeneratorLog.warn("Aviso: Não foi possível parsear a definição da coluna: " + element);
+            }
+            if (lexer.type() == SQLLexer.COMMA) {
+                lexer.next();
+            } else if (lexer.type() != SQLLexer.RPAREN && lexer.type() != SQLLexer.EOF) {
+                // Restos inesperados no fim do elemento
+                skipToElementEnd();
+                if (lexer.type() == SQLLexer.COMMA) {
+                    lexer.next();
+                }
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Interpreta uma instrução CREATE SEQUENCE: o nome, START WITH e INCREMENT BY.
+     * As restantes opções (MINVALUE, CACHE, CYCLE, OWNED BY, ...) são ignoradas.
+     * Devolve null se a instrução não for um CREATE SEQUENCE com nome.
+     */
+    SQLParserJPAGenerator.SequenceInfo parseCreateSequence() {
+        if (!lexer.accept("CREATE")) {
+            return null;
+        }
+        if (lexer.accept("OR")) {
+            lexer.accept("REPLACE");
+        }
+        if (!lexer.accept("TEMPORARY")) {
+            lexer.accept("TEMP");
+        }
+        lexer.accept("UNLOGGED");
+        if (!lexer.accept("SEQUENCE")) {
+            return null;
+        }
+        if (lexer.accept("IF")) {
+            lexer.accept("NOT");
+            lexer.accept("EXISTS");
+        }
+
+        String name = parseQualifiedName();
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        SQLParserJPAGenerator.SequenceInfo sequence = new SQLParserJPAGenerator.SequenceInfo();
+        sequence.name = name.trim();
+
+        while (lexer.type() != SQLLexer.EOF) {
+            if (lexer.accept("INCREMENT")) {
+                lexer.accept("BY");
+                Long increment = parseSignedNumber();
+                if (increment != null) {
+                    sequence.increment = increment;
+                }
+            } else if (lexer.accept("START")) {
+                lexer.accept("WITH");
+                Long start = parseSignedNumber();
+                if (start != null) {
+                    sequence.start = start;
+                }
+            } else {
+                lexer.next();
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Interpreta uma definição de coluna isolada (ex.: "price DECIMAL(10, 2) NOT NULL").
+     * Devolve null se a definição não for válida.
+     */
+    SQLParserJPAGenerator.ColumnInfo parseColumnDefinition() {
+        SQLParserJPAGenerator.TableInfo table = new SQLParserJPAGenerator.TableInfo();
+        return parseColumn(table);
+    }
+
+    /**
+     * Interpreta uma instrução CREATE [UNIQUE] INDEX ... ON tabela (colunas).
+     * Devolve uma tabela só com o nome e o índice, ou null se a instrução não for um CREATE INDEX
+     * ou o índice for sobre expressões.
+     */
+    SQLParserJPAGenerator.TableInfo parseCreateIndex() {
+        if (!lexer.accept("CREATE")) {
+            return null;
+        }
+        boolean unique = lexer.accept("UNIQUE");
+        if (!lexer.accept("CLUSTERED")) {
+            lexer.accept("NONCLUSTERED");
+        }
+        if (!lexer.accept("INDEX")) {
+            return null;
+        }
+        lexer.accept("CONCURRENTLY");
+        if (lexer.accept("IF")) {
+            lexer.accept("NOT");
+            lexer.accept("EXISTS");
+        }
+        String indexName = null;
+        if (lexer.isIdentifier() && !lexer.isWord("ON") && !lexer.isWord("USING")) {
+            indexName = parseQualifiedName();
+        }
+        skipIndexOptions();
+        if (!lexer.accept("ON")) {
+            return null;
+        }
+        lexer.accept("ONLY");
+        String tableName = parseQualifiedName();
+        if (tableName == null || tableName.trim().isEmpty()) {
+            return null;
+        }
+
+        SQLParserJPAGenerator.TableInfo table = new SQLParserJPAGenerator.TableInfo();
+        table.name = tableName.trim();
+        if (!parseIndex(table, indexName, unique) || table.indexes.isEmpty()) {
+            return null;
+        }
+        return table;
+    }
+
+    /**
+     * Interpreta uma instrução DROP TABLE e devolve os nomes das tabelas (null se não for um DROP TABLE).
+     */
+    List<String> parseDropTable() {
+        if (!lexer.accept("DROP")) {
+            return null;
+        }
+        if (!lexer.accept("TEMPORARY")) {
+            lexer.accept("TEMP");
+        }
+        if (!lexer.accept("TABLE")) {
+            return null;
+        }
+        if (lexer.accept("IF")) {
+            lexer.accept("EXISTS");
+        }
+        List<String> names = new ArrayList<>();
+        while (true) {
+            String name = parseQualifiedName();
+            if (name == null || name.trim().isEmpty()) {
+                break;
+            }
+            names.add(name.trim());
+            if (lexer.type() != SQLLexer.COMMA) {
+                break;
+            }
+            lexer.next();
+        }
+        return names;
+    }
+
+    /**
+     * Interpreta o início de uma instrução ALTER TABLE e devolve o nome da tabela
+     * (null se não for um ALTER TABLE). As acções lêem-se depois com {@link #parseAlterActions}.
+     */
+    String parseAlterTableName() {
+        if (!lexer.accept("ALTER") || !lexer.accept("TABLE")) {
+            return null;
+        }
+        if (lexer.accept("IF")) {
+            lexer.accept("EXISTS");
+        }
+        lexer.accept("ONLY");
+        String name = parseQualifiedName();
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        if (lexer.isSymbol('*')) {
+            lexer.next();
+        }
+        return name.trim();
+    }
+
+    /**
+     * Aplica à tabela as acções de um ALTER TABLE, separadas por vírgulas: ADD/DROP/MODIFY/CHANGE/ALTER
+     * de colunas, ADD/DROP de restrições e índices, e RENAME de colunas, restrições e da própria tabela.
+     * Acções sem efeito no modelo (OWNER TO, ENGINE=, triggers, ...) são ignoradas.
+     * Devolve false se alguma acção reconhecida não pôde ser interpretada.
+     */
+    boolean parseAlterActions(SQLParserJPAGenerator.TableInfo table) {
+        boolean parsed = true;
+        while (lexer.type() != SQLLexer.EOF) {
+            parsed &= parseAlterAction(table);
+            skipToElementEnd();
+            if (lexer.type() == SQLLexer.COMMA || lexer.type() == SQLLexer.RPAREN) {
+                lexer.next();
+            }
+        }
+        return parsed;
+    }
+
+    private boolean parseAlterAction(SQLParserJPAGenerator.TableInfo table) {
+        if (lexer.accept("ADD")) {
+            if (lexer.type() == SQLLexer.LPAREN) {
+                // Oracle: ADD (coluna tipo, ...)
+                lexer.next();
+                boolean parsed = true;
+                while (lexer.type() != SQLLexer.EOF && lexer.type() != SQLLexer.RPAREN) {
+                    parsed &= parseAddedElement(table);
+                    skipToElementEnd();
+                    if (lexer.type() == SQLLexer.COMMA) {
+                        lexer.next();
+                    }
+                }
+                return parsed;
+            }
+            lexer.accept("COLUMN");
+            if (lexer.accept("IF")) {
+                lexer.accept("NOT");
+                lexer.accept("EXISTS");
+            }
+            return parseAddedElement(table);
+        }
+        if (lexer.accept("DROP")) {
+            return parseDrop(table);
+        }
+        if (lexer.accept("MODIFY")) {
+            lexer.accept("COLUMN");
+            return replaceColumn(table, null);
+        }
+        if (lexer.accept("CHANGE")) {
+            lexer.accept("COLUMN");
+            if (!lexer.isIdentifier()) {
+                return false;
+            }
+            String oldName = lexer.identifier();
+            lexer.next();
+            return replaceColumn(table, oldName);
+        }
+        if (lexer.accept("ALTER")) {
+            lexer.accept("COLUMN");
+            return parseAlterColumn(table);
+        }
+        if (lexer.accept("RENAME")) {
+            return parseRename(table);
+        }
+        return true;
+    }
+
+    /**
+     * Coluna ou restrição acrescentada por ALTER TABLE ... ADD. Uma coluna que já existe
+     * (ADD COLUMN IF NOT EXISTS) mantém a definição anterior.
+     */
+    private boolean parseAddedElement(SQLParserJPAGenerator.TableInfo table) {
+        if (lexer.isWord("CONSTRAINT") || isConstraintKeyword()) {
+            return parseTableElement(table);
+        }
+        SQLParserJPAGenerator.ColumnInfo column = parseColumn(table);
+        if (column == null) {
+            return false;
+        }
+        if (findColumn(table, column.name) < 0) {
+            table.columns.add(column);
+        }
+        return true;
+    }
+
+    private boolean parseDrop(SQLParserJPAGenerator.TableInfo table) {
+        if (lexer.accept("CONSTRAINT")) {
+            return dropConstraint(table, parseDroppedName());
+        }
+        if (lexer.accept("PRIMARY")) {
+            lexer.accept("KEY");
+            dropPrimaryKey(table);
+            return true;
+        }
+        if (lexer.accept("FOREIGN")) {
+            lexer.accept("KEY");
+            return dropConstraint(table, parseDroppedName());
+        }
+        if (lexer.accept("INDEX") || lexer.accept("KEY")) {
+            return dropConstraint(table, parseDroppedName());
+        }
+        if (lexer.accept("CHECK")) {
+            return true;
+        }
+        lexer.accept("COLUMN");
+        String name = parseDroppedName();
+        if (name == null) {
+            return false;
+        }
+        dropColumn(table, name);
+        return true;
+    }
+
+    private String parseDroppedName() {
+        if (lexer.accept("IF")) {
+            lexer.accept("EXISTS");
+        }
+        if (!lexer.isIdentifier()) {
+            return null;
+        }
+        String name = lexer.identifier();
+        lexer.next();
+        return name;
+    }
+
+    /**
+     * MODIFY coluna definição (oldName == null) ou CHANGE antiga nova definição: a nova definição
+     * substitui a anterior na mesma posição.
+     */
+    private boolean replaceColumn(SQLParserJPAGenerator.TableInfo table, String oldName) {
+        SQLParserJPAGenerator.ColumnInfo column = parseColumn(table);
+        if (column == null) {
+            return false;
+        }
+        int position = findColumn(table, oldName != null ? oldName : column.name);
+        if (position < 0) {
+            return false;
+        }
+        String previousName = table.columns.get(position).name;
+        table.columns.set(position, column);
+        if (!previousName.equals(column.name)) {
+            renameColumnReferences(table, previousName, column.name);
+        }
+        return true;
+    }
+
+    /**
+     * ALTER [COLUMN] coluna {TYPE tipo | SET/DROP NOT NULL | SET/DROP DEFAULT | ADD GENERATED ... AS IDENTITY
+     * | DROP IDENTITY}, ou, em SQL Server, ALTER COLUMN coluna tipo [NULL | NOT NULL].
+     */
+    private boolean parseAlterColumn(SQLParserJPAGenerator.TableInfo table) {
+        if (!lexer.isIdentifier()) {
+            return false;
+        }
+        int position = findColumn(table, lexer.identifier());
+        lexer.next();
+        if (position < 0) {
+            return false;
+        }
+        SQLParserJPAGenerator.ColumnInfo column = table.columns.get(position);
+
+        if (lexer.accept("TYPE")) {
+            return parseDataType(column);
+        }
+        if (lexer.accept("SET")) {
+            if (lexer.accept("DATA")) {
+                lexer.accept("TYPE");
+                return parseDataType(column);
+            }
+            if (lexer.accept("NOT")) {
+                lexer.accept("NULL");
+                column.nullable = false;
+            } else if (lexer.accept("DEFAULT")) {
+                column.defaultValue = parseExpression();
+            }
+            return true;
+        }
+        if (lexer.accept("DROP")) {
+            if (lexer.accept("NOT")) {
+                lexer.accept("NULL");
+                column.nullable = true;
+            } else if (lexer.accept("DEFAULT")) {
+                column.defaultValue = null;
+            } else if (lexer.accept("IDENTITY")) {
+                column.autoIncrement = false;
+            }
+            return true;
+        }
+        if (lexer.accept("ADD")) {
+            // ADD GENERATED {ALWAYS | BY DEFAULT} AS IDENTITY
+            parseColumnAttribute(column, table);
+            return true;
+        }
+        if (lexer.type() == SQLLexer.WORD) {
+            // SQL Server: a nova definição substitui o tipo e a nulidade
+            if (!parseDataType(column)) {
+                return false;
+            }
+            column.nullable = true;
+            while (lexer.type() != SQLLexer.EOF && lexer.type() != SQLLexer.COMMA && lexer.type() != SQLLexer.RPAREN) {
+                parseColumnAttribute(column, table);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * RENAME [COLUMN] a TO b, RENAME {CONSTRAINT | INDEX | KEY} a TO b e RENAME [TO | AS] nova_tabela.
+     */
+    private boolean parseRename(SQLParserJPAGenerator.TableInfo table) {
+        if (lexer.accept("COLUMN")) {
+            return parseRenameColumn(table);
+        }
+        if (lexer.accept("CONSTRAINT") || lexer.accept("INDEX") || lexer.accept("KEY")) {
+            String oldName = parseDroppedName();
+            if (oldName == null || !lexer.accept("TO") || !lexer.isIdentifier()) {
+                return false;
+            }
+            renameConstraint(table, oldName, lexer.identifier());
+            lexer.next();
+            return true;
+        }
+        if (!lexer.accept("TO")) {
+            lexer.accept("AS");
+        }
+        if (!lexer.isIdentifier()) {
+            return false;
+        }
+        String name = parseQualifiedName();
+        if (name == null) {
+            return false;
+        }
+        if (lexer.isWord("TO")) {
+            // PostgreSQL: RENAME a TO b também renomeia uma coluna
+            return parseRenameColumnFrom(table, name);
+        }
+        table.name = name.trim();
+        return true;
+    }
+
+    private boolean parseRenameColumn(SQLParserJPAGenerator.TableInfo table) {
+        if (!lexer.isIdentifier()) {
+            return false;
+        }
+        String oldName = lexer.identifier();
+        lexer.next();
+        return parseRenameColumnFrom(table, oldName);
+    }
+
+    private boolean parseRenameColumnFrom(SQLParserJPAGenerator.TableInfo table, String oldName) {
+        if (!lexer.accept("TO") || !lexer.isIdentifier()) {
+            return false;
+        }
+        String newName = lexer.identifier();
+        lexer.next();
+        int position = findColumn(table, oldName);
+        if (position < 0) {
+            return false;
+        }
+        SQLParserJPAGenerator.ColumnInfo column = table.columns.get(position);
+        String previousName = column.name;
+        column.name = newName;
+        renameColumnReferences(table, previousName, newName);
+        return true;
+    }
+
+    private static int findColumn(SQLParserJPAGenerator.TableInfo table, String name) {
+        if (name == null) {
+            return -1;
+        }
+        for (int i = 0; i < table.columns.size(); i++) {
+            if (table.columns.get(i).name.equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remove a coluna e, como a base de dados, as chaves e os índices que a usam.
+     */
+    private static void dropColumn(SQLParserJPAGenerator.TableInfo table, String name) {
+        int position = findColumn(table, name);
+        if (position < 0) {
+            return;
+        }
+        String columnName = table.columns.remove(position).name;
+        table.primaryKeys.removeIf(key -> key.equalsIgnoreCase(columnName));
+        table.foreignKeys.removeIf(fk -> containsColumn(fk.columnName, columnName));
+        table.indexes.removeIf(index -> indexContains(index, columnName));
+    }
+
+    private static boolean indexContains(SQLParserJPAGenerator.IndexInfo index, String columnName) {
+        for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+            if (column.name.equalsIgnoreCase(columnName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void dropPrimaryKey(SQLParserJPAGenerator.TableInfo table) {
+        table.primaryKeys.clear();
+        table.primaryKeyName = null;
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            column.primaryKey = false;
+        }
+    }
+
+    /**
+     * Remove a chave estrangeira, o índice ou a chave primária com este nome. Restrições sem nome
+     * são encontradas pelo nome que o PostgreSQL lhes dá (tabela_pkey, tabela_coluna_fkey, tabela_coluna_key).
+     * Restrições desconhecidas (ex.: CHECK) não têm efeito.
+     */
+    private static boolean dropConstraint(SQLParserJPAGenerator.TableInfo table, String name) {
+        if (name == null) {
+            return false;
+        }
+        if (table.foreignKeys.removeIf(fk -> name.equalsIgnoreCase(constraintName(table, fk)))) {
+            return true;
+        }
+        for (int i = 0; i < table.indexes.size(); i++) {
+            SQLParserJPAGenerator.IndexInfo index = table.indexes.get(i);
+            if (name.equalsIgnoreCase(constraintName(table, index))) {
+                table.indexes.remove(i);
+                if (index.name == null && index.unique && index.columns.size() == 1) {
+                    // UNIQUE na definição da coluna
+                    int position = findColumn(table, index.columns.get(0).name);
+                    if (position >= 0) {
+                        table.columns.get(position).unique = false;
+                    }
+                }
+                return true;
+            }
+        }
+        if (!table.primaryKeys.isEmpty() && name.equalsIgnoreCase(primaryKeyName(table))) {
+            dropPrimaryKey(table);
+        }
+        return true;
+    }
+
+    private static void renameConstraint(SQLParserJPAGenerator.TableInfo table, String oldName, String newName) {
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            if (oldName.equalsIgnoreCase(constraintName(table, fk))) {
+                fk.name = newName;
+                return;
+            }
+        }
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            if (oldName.equalsIgnoreCase(constraintName(table, index))) {
+                index.name = newName;
+                return;
+            }
+        }
+        if (!table.primaryKeys.isEmpty() && oldName.equalsIgnoreCase(primaryKeyName(table))) {
+            table.primaryKeyName = newName;
+        }
+    }
+
+    private static String primaryKeyName(SQLParserJPAGenerator.TableInfo table) {
+        return table.primaryKeyName != null ? table.primaryKeyName : table.name + "_pkey";
+    }
+
+    private static String constraintName(SQLParserJPAGenerator.TableInfo table, SQLParserJPAGenerator.ForeignKeyInfo fk) {
+        return fk.name != null ? fk.name : table.name + "_" + fk.columnName.replace(", ", "_") + "_fkey";
+    }
+
+    private static String constraintName(SQLParserJPAGenerator.TableInfo table, SQLParserJPAGenerator.IndexInfo index) {
+        if (index.name != null) {
+            return index.name;
+        }
+        StringBuilder name = new StringBuilder(table.name);
+        for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+            name.append('_').append(column.name);
+        }
+        return name.append(index.unique ? "_key" : "_idx").toString();
+    }
+
+    /**
+     * Actualiza a chave primária, as chaves estrangeiras e os índices da tabela depois de renomear uma coluna.
+     */
+    private static void renameColumnReferences(SQLParserJPAGenerator.TableInfo table, String oldName, String newName) {
+        table.primaryKeys.replaceAll(key -> key.equalsIgnoreCase(oldName) ? newName : key);
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            if (containsColumn(fk.columnName, oldName)) {
+                String[] columns = fk.columnName.split(", ");
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].equalsIgnoreCase(oldName)) {
+                        columns[i] = newName;
+                    }
+                }
+                fk.columnName = String.join(", ", columns);
+            }
+        }
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+                if (column.name.equalsIgnoreCase(oldName)) {
+                    column.name = newName;
+                }
+            }
+        }
+    }
+
+    private static boolean containsColumn(String columnList, String name) {
+        for (String column : columnList.split(", ")) {
+            if (column.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean parseTableElement(SQLParserJPAGenerator.TableInfo table) {
+        if (lexer.type() == SQLLexer.WORD) {
+            if (lexer.isWord("CONSTRAINT")) {
+                lexer.next();
+                String constraintName = null;
+                if (lexer.isIdentifier() && !isConstraintKeyword()) {
+                    constraintName = lexer.identifier();
+                    lexer.next();
+                }
+                return parseConstraint(table, constraintName);
+            }
+            if (isConstraintKeyword()) {
+                return parseConstraint(table, null);
+            }
+            if (lexer.isWord("LIKE") || lexer.isWord("PERIOD")) {
+                skipToElementEnd();
+                return true;
+            }
+        }
+
+        SQLParserJPAGenerator.ColumnInfo column = parseColumn(table);
+        if (column == null) {
+            return false;
+        }
+        table.columns.add(column);
+        return true;
+    }
+
+    private boolean isConstraintKeyword() {
+        return lexer.isWord("PRIMARY") || lexer.isWord("FOREIGN") || lexer.isWord("UNIQUE")
+            || lexer.isWord("KEY") || lexer.isWord("INDEX") || lexer.isWord("CHECK")
+            || lexer.isWord("FULLTEXT") || lexer.isWord("SPATIAL");
+    }
+
+    private boolean parseConstraint(SQLParserJPAGenerator.TableInfo table, String constraintName) {
+        if (lexer.accept("PRIMARY")) {
+            if (!lexer.accept("KEY")) {
+                return false;
+            }
+            skipIndexOptions();
+            List<String> columns = parseColumnList();
+            if (columns == null) {
+                return false;
+            }
+            table.primaryKeys.addAll(columns);
+            table.primaryKeyName = constraintName;
+            skipToElementEnd();
+            return true;
+        }
+
+        if (lexer.accept("FOREIGN")) {
+            if (!lexer.accept("KEY")) {
+                return false;
+            }
+            String indexName = null;
+            if (lexer.isIdentifier()) {
+                indexName = lexer.identifier(); // nome do índice (MySQL)
+                lexer.next();
+            }
+            List<String> columns = parseColumnList();
+            if (columns == null || !lexer.accept("REFERENCES")) {
+                return false;
+            }
+            SQLParserJPAGenerator.ForeignKeyInfo fk = parseReference(String.join(", ", columns));
+            if (fk == null) {
+                return false;
+            }
+            fk.name = constraintName != null ? constraintName : indexName;
+            table.foreignKeys.add(fk);
+            return true;
+        }
+
+        if (lexer.accept("UNIQUE")) {
+            if (!lexer.accept("KEY")) {
+                lexer.accept("INDEX");
+            }
+            return parseIndex(table, constraintName, true);
+        }
+
+        if (lexer.accept("KEY") || lexer.accept("INDEX")) {
+            return parseIndex(table, constraintName, false);
+        }
+
+        // FULLTEXT, SPATIAL e CHECK não têm equivalente em JPA
+        skipToElementEnd();
+        return true;
+    }
+
+    /**
+     * Lê o resto de um índice ou restrição UNIQUE: [CLUSTERED] [nome] [USING tipo] (colunas) [opções].
+     * Índices sobre expressões não têm equivalente em @Index e são ignorados.
+     */
+    private boolean parseIndex(SQLParserJPAGenerator.TableInfo table, String constraintName, boolean unique) {
+        if (!lexer.accept("CLUSTERED")) {
+            lexer.accept("NONCLUSTERED");
+        }
+        if (lexer.accept("NULLS")) {
+            // PostgreSQL 15: UNIQUE NULLS [NOT] DISTINCT
+            lexer.accept("NOT");
+            lexer.accept("DISTINCT");
+        }
+        SQLParserJPAGenerator.IndexInfo index = new SQLParserJPAGenerator.IndexInfo();
+        index.unique = unique;
+        // Em MySQL o nome do índice tem precedência sobre o da restrição
+        index.name = constraintName;
+        if (lexer.isIdentifier() && !lexer.isWord("USING")) {
+            index.name = lexer.identifier();
+            lexer.next();
+        }
+        skipIndexOptions();
+        if (lexer.type() != SQLLexer.LPAREN) {
+            return false;
+        }
+        boolean mappable = parseIndexColumns(index);
+        skipToElementEnd();
+        if (mappable && !index.columns.isEmpty()) {
+            table.indexes.add(index);
+        }
+        return true;
+    }
+
+    /**
+     * Lê as colunas de um índice, com o comprimento de prefixo e a ordem de cada uma.
+     * Devolve false se alguma parte for uma expressão em vez de uma coluna.
+     */
+    private boolean parseIndexColumns(SQLParserJPAGenerator.IndexInfo index) {
+        lexer.next();
+        boolean mappable = true;
+        while (lexer.type() != SQLLexer.RPAREN && lexer.type() != SQLLexer.EOF) {
+            if (lexer.isIdentifier()) {
+                SQLParserJPAGenerator.IndexColumnInfo column = new SQLParserJPAGenerator.IndexColumnInfo();
+                column.name = lexer.identifier();
+                lexer.next();
+                if (lexer.type() == SQLLexer.LPAREN) {
+                    // Prefixo, ex.: name(10)
+                    lexer.next();
+                    if (lexer.type() == SQLLexer.NUMBER) {
+                        column.prefixLength = parseLength(lexer.text());
+                    }
+                    while (lexer.type() != SQLLexer.RPAREN && lexer.type() != SQLLexer.EOF) {
+                        lexer.next();
+                    }
+                    lexer.next();
+                }
+                index.columns.add(column);
+                // ASC/DESC, NULLS FIRST/LAST, COLLATE, classes de operadores
+                while (lexer.type() != SQLLexer.COMMA && lexer.type() != SQLLexer.RPAREN
+                        && lexer.type() != SQLLexer.EOF) {
+                    if (lexer.accept("DESC")) {
+                        column.descending = true;
+                    } else if (lexer.type() == SQLLexer.LPAREN) {
+                        skipParenthesized();
+                    } else {
+                        lexer.next();
+                    }
+                }
+            } else {
+                mappable = false;
+                while (lexer.type() != SQLLexer.COMMA && lexer.type() != SQLLexer.RPAREN
+                        && lexer.type() != SQLLexer.EOF) {
+                    if (lexer.type() == SQLLexer.LPAREN) {
+                        skipParenthesized();
+                    } else {
+                        lexer.next();
+                    }
+                }
+            }
+            if (lexer.type() == SQLLexer.COMMA) {
+                lexer.next();
+            }
+        }
+        if (lexer.type() == SQLLexer.RPAREN) {
+            lexer.next();
+        }
+        return mappable;
+    }
+
+    private Long parseSignedNumber() {
+        boolean negative = false;
+        if (lexer.isSymbol('-')) {
+            negative = true;
+            lexer.next();
+        } else if (lexer.isSymbol('+')) {
+            lexer.next();
+        }
+        if (lexer.type() != SQLLexer.NUMBER) {
+            return null;
+        }
+        try {
+            long value = Long.parseLong(lexer.text());
+            lexer.next();
+            return negative ? -value : value;
+        } catch (NumberFormatException e) {
+            lexer.next();
+            return null;
+        }
+    }
+
+    private static int parseLength(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private SQLParserJPAGenerator.ColumnInfo parseColumn(SQLParserJPAGenerator.TableInfo table) {
+        if (!lexer.isIdentifier()) {
+            return null;
+        }
+        SQLParserJPAGenerator.ColumnInfo column = new SQLParserJPAGenerator.ColumnInfo();
+        column.name = lexer.identifier();
+        lexer.next();
+
+        if (!parseDataType(column)) {
+            return null;
+        }
+
+        while (lexer.type() != SQLLexer.EOF && lexer.type() != SQLLexer.COMMA && lexer.type() != SQLLexer.RPAREN) {
+            parseColumnAttribute(column, table);
+        }
+
+        return column;
+    }
+
+    private boolean parseDataType(SQLParserJPAGenerator.ColumnInfo column) {
+        if (lexer.type() != SQLLexer.WORD) {
+            return false;
+        }
+        // Os mesmos poucos nomes de tipo repetem-se em todas as colunas: uma só instância de cada
+        column.sqlType = lexer.text().toUpperCase().intern();
+        lexer.next();
+
+        // Tipos compostos por várias palavras mantêm a primeira como tipo base
+        if (column.sqlType.equals("DOUBLE")) {
+            lexer.accept("PRECISION");
+        } else if (column.sqlType.equals("CHARACTER") || column.sqlType.equals("CHAR")) {
+            lexer.accept("VARYING");
+        } else if (column.sqlType.equals("LONG")) {
+            if (lexer.accept("VARCHAR")) {
+                column.sqlType = "TEXT";
+            }
+        }
+
+        if (lexer.type() == SQLLexer.LPAREN) {
+            // Comprimento ou precisão, ex.: VARCHAR(255), NVARCHAR(MAX), DECIMAL(10, 2)
+            lexer.next();
+            if (lexer.type() == SQLLexer.NUMBER) {
+                column.length = parseLength(lexer.text());
+            } else if (lexer.isWord("MAX")) {
+                column.length = SQLParserJPAGenerator.ColumnInfo.MAX_LENGTH;
+            }
+            while (lexer.type() != SQLLexer.RPAREN && lexer.type() != SQLLexer.EOF) {
+                if (lexer.type() == SQLLexer.LPAREN) {
+                    skipParenthesized();
+                } else {
+                    lexer.next();
+                }
+            }
+            lexer.next();
+        }
+
+        while (true) {
+            if (lexer.accept("UNSIGNED")) {
+                column.unsigned = true;
+            } else if (lexer.accept("SIGNED") || lexer.accept("ZEROFILL")) {
+                // sem efeito no tipo Java
+            } else if (lexer.isWord("WITH") || lexer.isWord("WITHOUT")) {
+                lexer.next();
+                lexer.accept("TIME");
+                lexer.accept("ZONE");
+            } else {
+                return true;
+            }
+        }
+    }
+
+    private void parseColumnAttribute(SQLParserJPAGenerator.ColumnInfo column, SQLParserJPAGenerator.TableInfo table) {
+        if (lexer.accept("NOT")) {
+            if (lexer.accept("NULL")) {
+                column.nullable = false;
+            }
+        } else if (lexer.accept("NULL")) {
+            column.nullable = true;
+        } else if (lexer.accept("AUTO_INCREMENT") || lexer.accept("AUTOINCREMENT")) {
+            column.autoIncrement = true;
+        } else if (lexer.accept("IDENTITY")) {
+            column.autoIncrement = true;
+            if (lexer.type() == SQLLexer.LPAREN) {
+                skipParenthesized();
+            }
+        } else if (lexer.accept("GENERATED")) {
+            // GENERATED {ALWAYS | BY DEFAULT} AS {IDENTITY | (expressão)}
+            if (!lexer.accept("ALWAYS") && lexer.accept("BY")) {
+                lexer.accept("DEFAULT");
+            }
+            lexer.accept("AS");
+            if (lexer.accept("IDENTITY")) {
+                column.autoIncrement = true;
+            }
+            if (lexer.type() == SQLLexer.LPAREN) {
+                skipParenthesized();
+            }
+        } else if (lexer.accept("PRIMARY")) {
+            lexer.accept("KEY");
+            markPrimaryKey(column, table);
+        } else if (lexer.accept("KEY")) {
+            markPrimaryKey(column, table);
+        } else if (lexer.accept("UNIQUE")) {
+            column.unique = true;
+            if (!lexer.accept("KEY")) {
+                lexer.accept("INDEX");
+            }
+        } else if (lexer.accept("DEFAULT")) {
+            column.defaultValue = parseExpression();
+        } else if (lexer.accept("ON")) {
+            // ON UPDATE <expressão>
+            lexer.accept("UPDATE");
+            parseExpression();
+        } else if (lexer.accept("REFERENCES")) {
+            SQLParserJPAGenerator.ForeignKeyInfo fk = parseReference(column.name);
+            if (fk != null) {
+                table.foreignKeys.add(fk);
+            }
+        } else if (lexer.accept("CONSTRAINT")) {
+            if (lexer.isIdentifier()) {
+                lexer.next();
+            }
+        } else if (lexer.accept("COLLATE") || lexer.accept("CHARSET")
+            || lexer.accept("COLUMN_FORMAT") || lexer.accept("STORAGE")) {
+            lexer.next();
+        } else if (lexer.accept("CHARACTER")) {
+            lexer.accept("SET");
+            lexer.next();
+        } else if (lexer.accept("COMMENT")) {
+            lexer.next();
+        } else if (lexer.type() == SQLLexer.LPAREN) {
+            // CHECK (...), AS (...) e outras expressões entre parênteses
+            skipParenthesized();
+        } else {
+            lexer.next();
+        }
+    }
+
+    private void markPrimaryKey(SQLParserJPAGenerator.ColumnInfo column, SQLParserJPAGenerator.TableInfo table) {
+        column.primaryKey = true;
+        if (!table.primaryKeys.contains(column.name)) {
+            table.primaryKeys.add(column.name);
+        }
+    }
+
+    /**
+     * Lê uma expressão DEFAULT/ON UPDATE e devolve o seu texto original.
+     */
+    private String parseExpression() {
+        int from = lexer.start();
+        if (lexer.type() == SQLLexer.LPAREN) {
+            skipParenthesized();
+        } else {
+            if (lexer.isSymbol('-') || lexer.isSymbol('+')) {
+                lexer.next();
+            }
+            if (lexer.type() == SQLLexer.WORD && lexer.isFollowedImmediatelyBy('\'')) {
+                lexer.next(); // prefixos de literais: b'0101', x'1F', N'texto'
+            }
+            if (lexer.type() == SQLLexer.EOF) {
+                return null;
+            }
+            lexer.next();
+            if (lexer.type() == SQLLexer.LPAREN) {
+                skipParenthesized(); // chamadas de função, ex.: CURRENT_TIMESTAMP(3)
+            }
+        }
+        // Conversões ao estilo PostgreSQL: 'abc'::text
+        while (lexer.isSymbol(':')) {
+            lexer.next();
+            if (lexer.isSymbol(':')) {
+                lexer.next();
+            }
+            if (lexer.type() == SQLLexer.WORD) {
+                lexer.next();
+            }
+        }
+        return lexer.slice(from, lexer.start()).trim();
+    }
+
+    private SQLParserJPAGenerator.ForeignKeyInfo parseReference(String columnName) {
+        String referencedTable = parseQualifiedName();
+        if (referencedTable == null) {
+            return null;
+        }
+        SQLParserJPAGenerator.ForeignKeyInfo fk = new SQLParserJPAGenerator.ForeignKeyInfo();
+        fk.columnName = columnName;
+        fk.referencedTable = referencedTable;
+        if (lexer.type() == SQLLexer.LPAREN) {
+            List<String> referencedColumns = parseColumnList();
+            if (referencedColumns == null) {
+                return null;
+            }
+            fk.referencedColumn = String.join(", ", referencedColumns);
+        }
+
+        // MATCH ..., ON DELETE ..., ON UPDATE ...
+        while (true) {
+            if (lexer.accept("MATCH")) {
+                lexer.next();
+            } else if (lexer.accept("ON")) {
+                lexer.next(); // DELETE | UPDATE
+                if (lexer.accept("SET")) {
+                    lexer.next(); // NULL | DEFAULT
+                } else if (lexer.accept("NO")) {
+                    lexer.next(); // ACTION
+                } else {
+                    lexer.next(); // CASCADE | RESTRICT
+                }
+            } else {
+                return fk;
+            }
+        }
+    }
+
+    /**
+     * Lê um nome possivelmente qualificado (esquema.tabela) e devolve a última parte.
+     */
+    private String parseQualifiedName() {
+        if (!lexer.isIdentifier()) {
+            return null;
+        }
+        String name = lexer.identifier();
+        lexer.next();
+        while (lexer.isSymbol('.')) {
+            lexer.next();
+            if (!lexer.isIdentifier()) {
+                return null;
+            }
+            name = lexer.identifier();
+            lexer.next();
+        }
+        return name;
+    }
+
+    /**
+     * Lê uma lista de colunas entre parênteses, ignorando comprimentos de prefixo e ASC/DESC.
+     */
+    private List<String> parseColumnList() {
+        if (lexer.type() != SQLLexer.LPAREN) {
+            return null;
+        }
+        lexer.next();
+        List<String> columns = new ArrayList<>();
+        while (lexer.type() != SQLLexer.RPAREN && lexer.type() != SQLLexer.EOF) {
+            if (lexer.isIdentifier()) {
+                columns.add(lexer.identifier());
+                lexer.next();
+            } else if (lexer.type() == SQLLexer.LPAREN) {
+                skipParenthesized();
+            } else {
+                lexer.next();
+            }
+            // Saltar prefixo (n), ASC/DESC e outros modificadores até à próxima coluna
+            while (lexer.type() != SQLLexer.COMMA && lexer.type() != SQLLexer.RPAREN && lexer.type() != SQLLexer.EOF) {
+                if (lexer.type() == SQLLexer.LPAREN) {
+                    skipParenthesized();
+                } else {
+                    lexer.next();
+                }
+            }
+            if (lexer.type() == SQLLexer.COMMA) {
+                lexer.next();
+            }
+        }
+        if (lexer.type() == SQLLexer.RPAREN) {
+            lexer.next();
+        }
+        return columns;
+    }
+
+    private void skipIndexOptions() {
+        while (lexer.accept("USING") || lexer.accept("BTREE") || lexer.accept("HASH")) {
+            // ignorar
+        }
+    }
+
+    /**
+     * Salta um bloco entre parênteses (com aninhamento), começando no '(' corrente.
+     */
+    private void skipParenthesized() {
+        int depth = 0;
+        do {
+            if (lexer.type() == SQLLexer.LPAREN) {
+                depth++;
+            } else if (lexer.type() == SQLLexer.RPAREN) {
+                depth--;
+            }
+            lexer.next();
+        } while (depth > 0 && lexer.type() != SQLLexer.EOF);
+    }
+
+    /**
+     * Avança até à vírgula ou parêntese que termina o elemento corrente do corpo da tabela.
+     */
+    private void skipToElementEnd() {
+        while (lexer.type() != SQLLexer.EOF && lexer.type() != SQLLexer.COMMA && lexer.type() != SQLLexer.RPAREN) {
+            if (lexer.type() == SQLLexer.LPAREN) {
+                skipParenthesized();
+            } else {
+                lexer.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escreve cada ficheiro gerado directamente num FileChannel, em UTF-8.
+ *
+ * O codificador e os buffers são reutilizados por thread, e um ficheiro cujo conteúdo
+ * não mudou não é reescrito (mantém a data de modificação).
+ */
+class DirectorySourceSink implements SourceSink {
+
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+    private static final ThreadLocal<CharsetEncoder> ENCODER =
+        ThreadLocal.withInitial(() -> StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    private static final ThreadLocal<ByteBuffer[]> BUFFERS =
+        ThreadLocal.withInitial(() -> new ByteBuffer[] {
+            ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE), ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE)
+        });
+
+    private final File directory;
+    private final LongAdder bytesWritten = new LongAdder();
+
+    DirectorySourceSink(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public boolean write(String packageName, String fileName, CharSequence content) throws IOException {
+        ByteBuffer[] buffers = BUFFERS.get();
+        return writeIfChanged(new File(directory, fileName).toPath(), encode(content, buffers), buffers);
+    }
+
+    @Override
+    public boolean write(String packageName, String fileName, byte[] content) throws IOException {
+        return writeIfChanged(new File(directory, fileName).toPath(), ByteBuffer.wrap(content), BUFFERS.get());
+    }
+
+    private boolean writeIfChanged(Path file, ByteBuffer encoded, ByteBuffer[] buffers) throws IOException {
+        if (hasSameContent(file, encoded, buffers)) {
+            return false;
+        }
+        // Ficheiros de subpacotes (ex.: "projection/CustomersSummary.java") vão para subdirectórios
+        Path parent = file.getParent();
+        if (parent != null && !parent.toFile().isDirectory()) {
+            Files.createDirectories(parent);
+        }
+
+        bytesWritten.add(encoded.remaining());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public long bytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public void close() {
+        // nada a libertar: cada ficheiro é fechado logo após a escrita
+    }
+
+    /**
+     * Codifica o conteúdo em UTF-8 para o buffer reutilizável da thread (buffers[0]),
+     * aumentando-o quando necessário. Devolve o buffer pronto a ler.
+     */
+    private static ByteBuffer encode(CharSequence content, ByteBuffer[] buffers) {
+        CharsetEncoder encoder = ENCODER.get();
+        encoder.reset();
+
+        // Código gerado é quase todo ASCII: um byte por carácter, com alguma folga
+        int estimate = content.length() + (content.length() >> 4) + 16;
+        ByteBuffer out = ensureCapacity(buffers, 0, estimate);
+        out.clear();
+
+        CharBuffer in = CharBuffer.wrap(content);
+        while (encoder.encode(in, out, true).isOverflow()) {
+            out = grow(buffers, 0);
+        }
+        while (encoder.flush(out).isOverflow()) {
+            out = grow(buffers, 0);
+        }
+        out.flip();
+        return out;
+    }
+
+    private static boolean hasSameContent(Path file, ByteBuffer encoded, ByteBuffer[] buffers) throws IOException {
+        if (!file.toFile().isFile()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != encoded.remaining()) {
+                return false;
+            }
+            ByteBuffer existing = ensureCapacity(buffers, 1, encoded.remaining());
+            existing.clear();
+            existing.limit(encoded.remaining());
+            while (existing.hasRemaining() && channel.read(existing) >= 0) {
+                // ler até ao fim
+            }
+            existing.flip();
+            return existing.equals(encoded);
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer[] buffers, int index, int capacity) {
+        if (buffers[index].capacity() < capacity) {
+            buffers[index] = ByteBuffer.allocateDirect(Integer.highestOneBit(capacity - 1) << 1);
+        }
+        return buffers[index];
+    }
+
+    private static ByteBuffer grow(ByteBuffer[] buffers, int index) {
+        ByteBuffer old = buffers[index];
+        ByteBuffer bigger = ByteBuffer.allocateDirect(old.capacity() * 2);
+        old.flip();
+        bigger.put(old);
+        buffers[index] = bigger;
+        return bigger;
+    }
+}
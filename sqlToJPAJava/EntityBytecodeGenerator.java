@@ -0,0 +1,406 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gera o ficheiro .class de uma entidade directamente a partir do modelo, sem passar pelo javac.
+ *
+ * A classe tem os mesmos membros, pela mesma ordem, e as mesmas anotações que o código-fonte
+ * de {@link SQLParserJPAGenerator#renderEntityClass}: sob reflexão as duas são equivalentes.
+ */
+class EntityBytecodeGenerator {
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECTS = "java/util/Objects";
+    private static final String ARRAYS = "java/util/Arrays";
+    private static final String STRING_BUILDER = "java/lang/StringBuilder";
+    private static final String SET = "Ljava/util/Set;";
+    private static final String HASH_SET = "java/util/HashSet";
+
+    // Descritores já calculados, por tipo Java (há poucos tipos distintos e muitas colunas)
+    private static final Map<String, String> DESCRIPTORS = new ConcurrentHashMap<>();
+
+    private final SQLParserJPAGenerator generator;
+
+    EntityBytecodeGenerator(SQLParserJPAGenerator generator) {
+        this.generator = generator;
+    }
+
+    byte[] generate(SQLParserJPAGenerator.TableInfo table, String packageName) {
+        String className = internalName(packageName, table.className);
+        ClassFileWriter cw = new ClassFileWriter(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_SUPER,
+            className, OBJECT, "java/io/Serializable");
+        cw.addAnnotations(generator.entityAnnotations(table));
+
+        cw.addField(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC | ClassFileWriter.ACC_FINAL,
+            "serialVersionUID", "J", 1L, Collections.emptyList());
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            cw.addField(ClassFileWriter.ACC_PRIVATE, column.fieldName, descriptor(column.javaType), null,
+                generator.columnAnnotations(column));
+        }
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            if (fk.referencedTableInfo != null) {
+                cw.addField(ClassFileWriter.ACC_PRIVATE, fk.fieldName, relationshipDescriptor(fk, packageName),
+                    null, generator.relationshipAnnotations(fk));
+            }
+        }
+        for (SQLParserJPAGenerator.InverseRelationInfo inverse : generator.inverseRelationships(table)) {
+            cw.addField(ClassFileWriter.ACC_PRIVATE, inverse.fieldName, SET, setSignature(inverse, packageName), null,
+                generator.inverseRelationshipAnnotations(inverse));
+        }
+
+        generateConstructors(cw, className, table, packageName);
+
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            generateGetterSetter(cw, className, column.fieldName, descriptor(column.javaType), null);
+        }
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            if (fk.referencedTableInfo != null) {
+                generateGetterSetter(cw, className, fk.fieldName, relationshipDescriptor(fk, packageName), null);
+            }
+        }
+        for (SQLParserJPAGenerator.InverseRelationInfo inverse : generator.inverseRelationships(table)) {
+            generateGetterSetter(cw, className, inverse.fieldName, SET, setSignature(inverse, packageName));
+        }
+
+        List<SQLParserJPAGenerator.ColumnInfo> pkColumns = SQLParserJPAGenerator.primaryKeyColumns(table);
+        if (!pkColumns.isEmpty()) {
+            generateEquals(cw, className, pkColumns);
+            generateHashCode(cw, className, pkColumns);
+        }
+        generateToString(cw, className, table);
+
+        return cw.toByteArray();
+    }
+
+    private void generateConstructors(ClassFileWriter cw, String className, SQLParserJPAGenerator.TableInfo table,
+                                      String packageName) {
+        ClassFileWriter.Code code = cw.method(ClassFileWriter.ACC_PUBLIC, "<init>", "()V");
+        code.load("L", 0).invokespecial(OBJECT, "<init>", "()V");
+        initializeCollections(code, className, table);
+        code.returnValue("V");
+        code.end();
+
+        List<SQLParserJPAGenerator.ColumnInfo> requiredColumns = SQLParserJPAGenerator.requiredColumns(table);
+        if (requiredColumns.isEmpty()) {
+            return;
+        }
+        StringBuilder descriptor = new StringBuilder("(");
+        for (SQLParserJPAGenerator.ColumnInfo column : requiredColumns) {
+            descriptor.append(descriptor(column.javaType));
+        }
+        descriptor.append(")V");
+
+        code = cw.method(ClassFileWriter.ACC_PUBLIC, "<init>", descriptor.toString());
+        code.load("L", 0).invokespecial(OBJECT, "<init>", "()V");
+        initializeCollections(code, className, table);
+        int slot = 1;
+        for (SQLParserJPAGenerator.ColumnInfo column : requiredColumns) {
+            String fieldDescriptor = descriptor(column.javaType);
+            code.load("L", 0).load(fieldDescriptor, slot).putfield(className, column.fieldName, fieldDescriptor);
+            slot += ClassFileWriter.slotSize(fieldDescriptor.charAt(0));
+        }
+        code.returnValue("V");
+        code.end();
+    }
+
+    /**
+     * Inicializadores dos campos Set (= new HashSet&lt;&gt;()), que o javac copia para cada construtor.
+     */
+    private void initializeCollections(ClassFileWriter.Code code, String className,
+                                       SQLParserJPAGenerator.TableInfo table) {
+        for (SQLParserJPAGenerator.InverseRelationInfo inverse : generator.inverseRelationships(table)) {
+            code.load("L", 0).newObject(HASH_SET).op(0x59, 1) // dup
+                .invokespecial(HASH_SET, "<init>", "()V")
+                .putfield(className, inverse.fieldName, SET);
+        }
+    }
+
+    private void generateGetterSetter(ClassFileWriter cw, String className, String fieldName, String fieldDescriptor,
+                                      String fieldSignature) {
+        String capitalizedFieldName = generator.capitalizeFirst(fieldName);
+
+        ClassFileWriter.Code getter = cw.method(ClassFileWriter.ACC_PUBLIC, "get" + capitalizedFieldName,
+            "()" + fieldDescriptor, fieldSignature != null ? "()" + fieldSignature : null);
+        getter.load("L", 0).getfield(className, fieldName, fieldDescriptor).returnValue(fieldDescriptor);
+        getter.end();
+
+        ClassFileWriter.Code setter = cw.method(ClassFileWriter.ACC_PUBLIC, "set" + capitalizedFieldName,
+            "(" + fieldDescriptor + ")V", fieldSignature != null ? "(" + fieldSignature + ")V" : null);
+        setter.load("L", 0).load(fieldDescriptor, 1).putfield(className, fieldName, fieldDescriptor).returnValue("V");
+        setter.end();
+    }
+
+    /**
+     * if (this == o) return true;
+     * if (o == null || getClass() != o.getClass()) return false;
+     * return Objects.equals(a, that.a) &amp;&amp; b == that.b &amp;&amp; Arrays.equals(c, that.c) &amp;&amp; ...;
+     */
+    private void generateEquals(ClassFileWriter cw, String className,
+                                List<SQLParserJPAGenerator.ColumnInfo> pkColumns) {
+        ClassFileWriter.Label notSame = new ClassFileWriter.Label();
+        ClassFileWriter.Label returnFalse = new ClassFileWriter.Label();
+        ClassFileWriter.Label sameClass = new ClassFileWriter.Label();
+        ClassFileWriter.Label notEqual = new ClassFileWriter.Label();
+
+        ClassFileWriter.Code code = cw.method(ClassFileWriter.ACC_PUBLIC, "equals", "(Ljava/lang/Object;)Z");
+        code.load("L", 0).load("L", 1).jump(0xA6, notSame) // if_acmpne
+            .iconst(1).returnValue("Z");
+
+        code.mark(notSame, className, OBJECT)
+            .load("L", 1).jump(0xC6, returnFalse) // ifnull
+            .load("L", 0).invokevirtual(OBJECT, "getClass", "()Ljava/lang/Class;")
+            .load("L", 1).invokevirtual(OBJECT, "getClass", "()Ljava/lang/Class;")
+            .jump(0xA5, sameClass); // if_acmpeq
+
+        code.mark(returnFalse, className, OBJECT)
+            .iconst(0).returnValue("Z");
+
+        code.mark(sameClass, className, OBJECT)
+            .load("L", 1).checkcast(className).store("L", 2);
+        for (SQLParserJPAGenerator.ColumnInfo column : pkColumns) {
+            String fieldDescriptor = descriptor(column.javaType);
+            code.load("L", 0).getfield(className, column.fieldName, fieldDescriptor)
+                .load("L", 2).getfield(className, column.fieldName, fieldDescriptor);
+            switch (fieldDescriptor) {
+                case "J":
+                    code.op(0x94, -3).jump(0x9A, notEqual); // lcmp, ifne
+                    break;
+                case "D":
+                    code.invokestatic("java/lang/Double", "compare", "(DD)I").jump(0x9A, notEqual);
+                    break;
+                case "F":
+                    code.invokestatic("java/lang/Float", "compare", "(FF)I").jump(0x9A, notEqual);
+                    break;
+                case "Z":
+                case "B":
+                case "C":
+                case "S":
+                case "I":
+                    code.jump(0xA0, notEqual); // if_icmpne
+                    break;
+                default:
+                    if (fieldDescriptor.startsWith("[")) {
+                        String array = arrayParameter(fieldDescriptor);
+                        code.invokestatic(ARRAYS, "equals", "(" + array + array + ")Z");
+                    } else {
+                        code.invokestatic(OBJECTS, "equals", "(Ljava/lang/Object;Ljava/lang/Object;)Z");
+                    }
+                    code.jump(0x99, notEqual); // ifeq
+            }
+        }
+        code.iconst(1).returnValue("Z");
+
+        code.mark(notEqual, className, OBJECT, className)
+            .iconst(0).returnValue("Z");
+        code.end();
+    }
+
+    /**
+     * return Objects.hash(a, Arrays.hashCode(c), ...);
+     * ou, com --inline-object-methods, result = 31 * result + Integer.hashCode(a); ... return result;
+     */
+    private void generateHashCode(ClassFileWriter cw, String className,
+                                  List<SQLParserJPAGenerator.ColumnInfo> pkColumns) {
+        ClassFileWriter.Code code = cw.method(ClassFileWriter.ACC_PUBLIC, "hashCode", "()I");
+        if (generator.options.inlineObjectMethods) {
+            code.iconst(1).store("I", 1);
+            for (SQLParserJPAGenerator.ColumnInfo column : pkColumns) {
+                String fieldDescriptor = descriptor(column.javaType);
+                code.iconst(31).load("I", 1).op(0x68, -1) // imul
+                    .load("L", 0).getfield(className, column.fieldName, fieldDescriptor);
+                String wrapper = wrapper(fieldDescriptor);
+                if (wrapper != null) {
+                    code.invokestatic(wrapper, "hashCode", "(" + fieldDescriptor + ")I");
+                } else if (fieldDescriptor.startsWith("[")) {
+                    code.invokestatic(ARRAYS, "hashCode", "(" + arrayParameter(fieldDescriptor) + ")I");
+                } else {
+                    code.invokestatic(OBJECTS, "hashCode", "(Ljava/lang/Object;)I");
+                }
+                code.op(0x60, -1).store("I", 1); // iadd
+            }
+            code.load("I", 1).returnValue("I");
+            code.end();
+            return;
+        }
+        code.iconst(pkColumns.size()).anewarray(OBJECT);
+        for (int i = 0; i < pkColumns.size(); i++) {
+            SQLParserJPAGenerator.ColumnInfo column = pkColumns.get(i);
+            String fieldDescriptor = descriptor(column.javaType);
+            code.op(0x59, 1).iconst(i) // dup
+                .load("L", 0).getfield(className, column.fieldName, fieldDescriptor);
+            if (fieldDescriptor.startsWith("[")) {
+                code.invokestatic(ARRAYS, "hashCode", "(" + arrayParameter(fieldDescriptor) + ")I");
+                box(code, "I");
+            } else {
+                box(code, fieldDescriptor);
+            }
+            code.op(0x53, -3); // aastore
+        }
+        code.invokestatic(OBJECTS, "hash", "([Ljava/lang/Object;)I").returnValue("I");
+        code.end();
+    }
+
+    /**
+     * return "Classe{" + "a=" + a + ", " + ... + '}', com um StringBuilder como o javac para Java 8,
+     * ou, com --inline-object-methods, new StringBuilder(capacidade).append("Classe{a=").append(a)...
+     */
+    private void generateToString(ClassFileWriter cw, String className, SQLParserJPAGenerator.TableInfo table) {
+        ClassFileWriter.Code code = cw.method(ClassFileWriter.ACC_PUBLIC, "toString", "()Ljava/lang/String;");
+        String simpleName = className.substring(className.lastIndexOf('/') + 1);
+        List<SQLParserJPAGenerator.ColumnInfo> columns = generator.toStringColumns(table);
+        code.newObject(STRING_BUILDER).op(0x59, 1); // dup
+
+        boolean started = false;
+        if (generator.options.inlineObjectMethods) {
+            code.iconst(SQLParserJPAGenerator.toStringCapacity(table, columns))
+                .invokespecial(STRING_BUILDER, "<init>", "(I)V");
+            started = true;
+        }
+
+        String prefix = simpleName + "{";
+        for (SQLParserJPAGenerator.ColumnInfo column : columns) {
+            String literal = prefix + column.fieldName + "=";
+            if (!started) {
+                code.ldc(literal).invokespecial(STRING_BUILDER, "<init>", "(Ljava/lang/String;)V");
+                started = true;
+            } else {
+                code.ldc(literal);
+                append(code, "Ljava/lang/String;");
+            }
+            String fieldDescriptor = descriptor(column.javaType);
+            code.load("L", 0).getfield(className, column.fieldName, fieldDescriptor);
+            append(code, fieldDescriptor);
+            prefix = ", ";
+        }
+        if (!started) {
+            code.ldc(prefix).invokespecial(STRING_BUILDER, "<init>", "(Ljava/lang/String;)V");
+        } else if (columns.isEmpty()) {
+            code.ldc(prefix);
+            append(code, "Ljava/lang/String;");
+        }
+        code.iconst('}');
+        code.invokevirtual(STRING_BUILDER, "append", "(C)Ljava/lang/StringBuilder;")
+            .invokevirtual(STRING_BUILDER, "toString", "()Ljava/lang/String;")
+            .returnValue("L");
+        code.end();
+    }
+
+    /**
+     * Chama a variante de StringBuilder.append adequada ao tipo do valor no topo da pilha.
+     */
+    private static void append(ClassFileWriter.Code code, String valueDescriptor) {
+        String parameter;
+        switch (valueDescriptor) {
+            case "Ljava/lang/String;":
+            case "Z":
+            case "C":
+            case "I":
+            case "J":
+            case "F":
+            case "D":
+                parameter = valueDescriptor;
+                break;
+            case "B":
+            case "S":
+                parameter = "I";
+                break;
+            default:
+                parameter = "Ljava/lang/Object;";
+        }
+        code.invokevirtual(STRING_BUILDER, "append", "(" + parameter + ")Ljava/lang/StringBuilder;");
+    }
+
+    /**
+     * Converte um valor primitivo no topo da pilha no tipo embrulhado (Integer.valueOf, ...).
+     */
+    private static void box(ClassFileWriter.Code code, String valueDescriptor) {
+        String wrapper = wrapper(valueDescriptor);
+        if (wrapper != null) {
+            code.invokestatic(wrapper, "valueOf", "(" + valueDescriptor + ")L" + wrapper + ";");
+        }
+    }
+
+    /**
+     * Classe embrulho de um tipo primitivo (java/lang/Integer para I, ...), ou null para referências.
+     */
+    private static String wrapper(String valueDescriptor) {
+        switch (valueDescriptor) {
+            case "Z":
+                return "java/lang/Boolean";
+            case "B":
+                return "java/lang/Byte";
+            case "C":
+                return "java/lang/Character";
+            case "S":
+                return "java/lang/Short";
+            case "I":
+                return "java/lang/Integer";
+            case "J":
+                return "java/lang/Long";
+            case "F":
+                return "java/lang/Float";
+            case "D":
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Tipo do parâmetro de Arrays.equals/hashCode para um array: o próprio para arrays de primitivos,
+     * Object[] para os restantes.
+     */
+    private static String arrayParameter(String arrayDescriptor) {
+        return arrayDescriptor.length() == 2 ? arrayDescriptor : "[Ljava/lang/Object;";
+    }
+
+    /**
+     * Ljava/util/Set&lt;Lpkg/Filha;&gt;; para uma colecção @OneToMany.
+     */
+    private static String setSignature(SQLParserJPAGenerator.InverseRelationInfo inverse, String packageName) {
+        return "Ljava/util/Set<L" + internalName(packageName, inverse.table.className) + ";>;";
+    }
+
+    private static String relationshipDescriptor(SQLParserJPAGenerator.ForeignKeyInfo fk, String packageName) {
+        return "L" + internalName(packageName, fk.referencedTableInfo.className) + ";";
+    }
+
+    private static String internalName(String packageName, String className) {
+        return packageName.isEmpty() ? className : packageName.replace('.', '/') + "/" + className;
+    }
+
+    /**
+     * Descritor JVM de um tipo dos campos gerados (ex.: "Long" -> "Ljava/lang/Long;", "byte[]" -> "[B").
+     */
+    static String descriptor(String javaType) {
+        return DESCRIPTORS.computeIfAbsent(javaType, EntityBytecodeGenerator::computeDescriptor);
+    }
+
+    private static String computeDescriptor(String javaType) {
+        if (javaType.endsWith("[]")) {
+            return "[" + computeDescriptor(javaType.substring(0, javaType.length() - 2));
+        }
+        switch (javaType) {
+            case "boolean":
+                return "Z";
+            case "byte":
+                return "B";
+            case "char":
+                return "C";
+            case "short":
+                return "S";
+            case "int":
+                return "I";
+            case "long":
+                return "J";
+            case "float":
+                return "F";
+            case "double":
+                return "D";
+            default:
+                return "L" + SQLParserJPAGenerator.qualifiedJavaType(javaType).replace('.', '/') + ";";
+        }
+    }
+}
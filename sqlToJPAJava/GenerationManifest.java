@@ -0,0 +1,142 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Manifesto guardado no directório de saída com a impressão digital de cada entidade gerada.
+ *
+ * Permite saltar tabelas cuja definição não mudou desde a última execução e remover
+ * as entidades de tabelas que deixaram de existir. Guarda também o tamanho e a data de modificação
+ * de cada ficheiro, para regenerar os que foram alterados ou truncados à mão.
+ */
+class GenerationManifest {
+
+    static final String FILE_NAME = ".sqltojpa-manifest";
+    private static final String HEADER = "# sqlToJPA manifest v2";
+    // Manifestos v1, sem tamanho nem data: só servem para encontrar entidades órfãs
+    private static final String HEADER_V1 = "# sqlToJPA manifest v1";
+
+    private final Map<String, Entry> previous;
+    private final Map<String, String> current = new TreeMap<>();
+
+    private static final class Entry {
+        final String fingerprint;
+        final long size;
+        final long lastModified;
+
+        Entry(String fingerprint, long size, long lastModified) {
+            this.fingerprint = fingerprint;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private GenerationManifest(Map<String, Entry> previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Lê o manifesto do directório de saída; um manifesto inexistente ou inválido é tratado como vazio.
+     */
+    static GenerationManifest load(File outputDir) throws IOException {
+        Path path = new File(outputDir, FILE_NAME).toPath();
+        Map<String, Entry> entries = new HashMap<>();
+        if (!Files.isRegularFile(path)) {
+            return new GenerationManifest(entries);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (!HEADER.equals(header) && !HEADER_V1.equals(header)) {
+                return new GenerationManifest(entries);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // ficheiro \t impressão digital [\t tamanho \t data de modificação]
+                String[] fields = line.split("\t");
+                if (fields.length < 2 || fields[0].isEmpty()) {
+                    continue;
+                }
+                long size = -1;
+                long lastModified = -1;
+                if (fields.length >= 4) {
+                    try {
+                        size = Long.parseLong(fields[2]);
+                        lastModified = Long.parseLong(fields[3]);
+                    } catch (NumberFormatException e) {
+                        size = -1;
+                    }
+                }
+                entries.put(fields[0], new Entry(fields[1], size, lastModified));
+            }
+        }
+        return new GenerationManifest(entries);
+    }
+
+    /**
+     * Regista a impressão digital de um ficheiro gerado nesta execução.
+     */
+    void record(String fileName, String fingerprint) {
+        current.put(fileName, fingerprint);
+    }
+
+    /**
+     * Indica se o ficheiro foi gerado com a mesma impressão digital e continua com o tamanho e a data
+     * de modificação registados no fim dessa execução (não foi alterado, truncado nem apagado).
+     */
+    boolean isUnchanged(String fileName, String fingerprint, File outputDir) {
+        Entry entry = previous.get(fileName);
+        if (entry == null || entry.size < 0 || !fingerprint.equals(entry.fingerprint)) {
+            return false;
+        }
+        File file = new File(outputDir, fileName);
+        return file.isFile() && file.length() == entry.size && file.lastModified() == entry.lastModified;
+    }
+
+    /**
+     * Ficheiros gerados numa execução anterior que já não correspondem a nenhuma tabela.
+     */
+    List<String> orphans() {
+        List<String> orphans = new ArrayList<>();
+        for (String fileName : previous.keySet()) {
+            if (!current.containsKey(fileName)) {
+                orphans.add(fileName);
+            }
+        }
+        orphans.sort(null);
+        return orphans;
+    }
+
+    /**
+     * Grava o manifesto, com o tamanho e a data de modificação actuais dos ficheiros gerados.
+     */
+    void save(File outputDir) throws IOException {
+        Path path = new File(outputDir, FILE_NAME).toPath();
+        Path temp = new File(outputDir, FILE_NAME + ".tmp").toPath();
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (Map.Entry<String, String> entry : current.entrySet()) {
+                File file = new File(outputDir, entry.getKey());
+                writer.write(entry.getKey());
+                writer.write('\t');
+                writer.write(entry.getValue());
+                writer.write('\t');
+                writer.write(Long.toString(file.isFile() ? file.length() : -1));
+                writer.write('\t');
+                writer.write(Long.toString(file.isFile() ? file.lastModified() : -1));
+                writer.write('\n');
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
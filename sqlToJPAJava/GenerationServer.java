@@ -0,0 +1,466 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import sqltojpa.SchemaModel;
+
+/**
+ * Modo --serve: mantém o gerador activo e responde a pedidos de geração em JSON, sem pagar
+ * o arranque da JVM nem voltar a analisar esquemas já vistos.
+ *
+ * Com --serve=PORTA os pedidos chegam por HTTP em 127.0.0.1 (POST /generate, GET /stats);
+ * com --serve, um pedido por linha na entrada padrão e uma resposta por linha na saída padrão,
+ * com o "id" do pedido (as respostas podem sair por outra ordem).
+ *
+ * Cada pedido corre numa thread virtual (Java 21+; nas versões anteriores, numa thread de um conjunto).
+ * Os modelos analisados ficam numa cache LRU limitada (--schema-cache), indexada pelo SHA-256 do SQL:
+ * pedidos com o mesmo esquema e outro pacote ou outras opções só geram o código.
+ */
+class GenerationServer {
+
+    // Latências guardadas para os percentis (as mais recentes)
+    private static final int LATENCY_SAMPLES = 4096;
+
+    // Opções que não fazem sentido num pedido: só afectam a execução da linha de comandos
+    private static final String REJECTED_OPTIONS = "--srcjar, --bytecode, --lint, --watch, --serve, --stats";
+
+    /**
+     * Cache LRU de modelos analisados. A análise corre fora do bloqueio; pedidos simultâneos
+     * com o mesmo esquema esperam pela mesma análise.
+     */
+    static final class SchemaCache {
+        private final int capacity;
+        private final LinkedHashMap<String, FutureTask<SchemaModel>> entries;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        SchemaCache(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<String, FutureTask<SchemaModel>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, FutureTask<SchemaModel>> eldest) {
+                    return size() > SchemaCache.this.capacity;
+                }
+            };
+        }
+
+        /**
+         * Devolve a análise em cache para a chave ou, se não houver, corre e guarda parse.
+         * A tarefa devolvida já terminou; é parse só quando a chave não estava em cache.
+         */
+        FutureTask<SchemaModel> get(String key, FutureTask<SchemaModel> parse) {
+            FutureTask<SchemaModel> task;
+            synchronized (entries) {
+                task = entries.get(key);
+                if (task == null) {
+                    entries.put(key, parse);
+                }
+            }
+            if (task != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                task = parse;
+                task.run();
+            }
+            if (isFailed(task)) {
+                // Um esquema que falhou não fica em cache
+                synchronized (entries) {
+                    entries.remove(key, task);
+                }
+            }
+            return task;
+        }
+
+        private static boolean isFailed(FutureTask<SchemaModel> task) {
+            try {
+                task.get();
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                return true;
+            }
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+    }
+
+    private final GeneratorOptions serverOptions;
+    private final SchemaCache cache;
+    // Geradores por conjunto de opções dos pedidos (são imutáveis e podem ser partilhados)
+    private final Map<List<String>, SQLParserJPAGenerator> generators = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long latencyCount;
+
+    GenerationServer(GeneratorOptions serverOptions) {
+        this.serverOptions = serverOptions;
+        this.cache = new SchemaCache(serverOptions.schemaCacheSize);
+    }
+
+    /**
+     * Atende pedidos até a entrada terminar (modo stdin/stdout) ou o processo ser terminado (modo HTTP).
+     */
+    void run() throws IOException, InterruptedException {
+        ExecutorService executor = newRequestExecutor();
+        try {
+            if (serverOptions.servePort > 0) {
+                serveHttp(executor);
+            } else {
+                serveStdio(executor, System.in, System.out);
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void serveHttp(ExecutorService executor) throws IOException, InterruptedException {
+        HttpServer server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), serverOptions.servePort), 0);
+        server.setExecutor(executor);
+        server.createContext("/generate", exchange -> {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\": \"Use POST\"}");
+                return;
+            }
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            StringBuilder response = new StringBuilder();
+            boolean ok = handle(body, response);
+            respond(exchange, ok ? 200 : 400, response.toString());
+        });
+        server.createContext("/stats", exchange -> respond(exchange, 200, stats()));
+        server.start();
+        GeneratorLog.info("A atender pedidos em http://127.0.0.1:" + server.getAddress().getPort()
+            + "/generate (Ctrl+C para terminar)");
+        Thread.currentThread().join();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Uma linha por pedido. {"stats": true} devolve as estatísticas do servidor.
+     * As mensagens do gerador vão só para stderr, para não se misturarem com as respostas.
+     */
+    void serveStdio(ExecutorService executor, InputStream in, PrintStream out) throws IOException {
+        GeneratorLog.setLevel(Math.min(serverOptions.logLevel, GeneratorLog.WARN));
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String request = line;
+            executor.execute(() -> {
+                StringBuilder response = new StringBuilder();
+                handle(request, response);
+                synchronized (out) {
+                    out.println(response);
+                    out.flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Trata um pedido e escreve a resposta em JSON. Devolve false se o pedido foi recusado ou falhou.
+     *
+     * Pedido: {"id": ..., "sql": "CREATE TABLE ..." ou "path": "schema.sql", "package": "com.example",
+     * "options": ["--primitives", ...], "output": "directório"}. Sem "output", a resposta traz o código
+     * de cada classe em "entities"; com "output", os ficheiros são escritos aí e a resposta traz os nomes.
+     */
+    boolean handle(String body, StringBuilder response) {
+        long start = System.nanoTime();
+        requests.increment();
+        Object id = null;
+        try {
+            Object parsed = JsonReader.parse(body);
+            if (!(parsed instanceof Map)) {
+                throw new IllegalArgumentException("O pedido tem de ser um objecto JSON");
+            }
+            Map<?, ?> request = (Map<?, ?>) parsed;
+            id = request.get("id");
+            if (Boolean.TRUE.equals(request.get("stats"))) {
+                response.append(stats());
+                return true;
+            }
+            generate(request, id, start, response);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            errors.increment();
+            response.setLength(0);
+            response.append('{');
+            appendId(response, id);
+            response.append("\"error\": ");
+            GeneratorStats.appendString(response, String.valueOf(e.getMessage()));
+            response.append('}');
+            return false;
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private void generate(Map<?, ?> request, Object id, long start, StringBuilder response) throws IOException {
+        List<String> flags = new ArrayList<>();
+        Object options = request.get("options");
+        if (options instanceof List) {
+            for (Object option : (List<?>) options) {
+                flags.add(String.valueOf(option));
+            }
+        } else if (options != null) {
+            throw new IllegalArgumentException("\"options\" tem de ser uma lista");
+        }
+        SQLParserJPAGenerator generator = generator(flags);
+        String packageName = stringField(request, "package", "com.example.entities");
+        String output = stringField(request, "output", null);
+
+        // Modelo do esquema, da cache se o mesmo SQL já foi analisado: o modelo não depende das opções
+        // (os tipos que dependem delas, como --primitives e --lob-streams, só são decididos na geração).
+        // Directórios de migrações são analisados a cada pedido.
+        Path directory = null;
+        String sql = stringField(request, "sql", null);
+        String path = stringField(request, "path", null);
+        if ((sql == null) == (path == null)) {
+            throw new IllegalArgumentException("O pedido tem de ter \"sql\" ou \"path\"");
+        }
+        if (path != null) {
+            Path file = Paths.get(path);
+            if (Files.isDirectory(file)) {
+                directory = file;
+            } else {
+                sql = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            }
+        }
+        SchemaModel schema;
+        boolean cached = false;
+        if (directory != null) {
+            cache.misses.increment();
+            schema = generator.parse(directory);
+        } else {
+            String text = sql;
+            String key = contentHash(text);
+            FutureTask<SchemaModel> parse = new FutureTask<>(() -> generator.parse(text));
+            FutureTask<SchemaModel> task = cache.get(key, parse);
+            cached = task != parse;
+            schema = await(task);
+        }
+
+        Map<String, CharSequence> sources = generator.generate(schema, packageName);
+        response.append('{');
+        appendId(response, id);
+        response.append("\"cached\": ").append(cached);
+        if (output != null) {
+            SourceSink sink = new DirectorySourceSink(new File(output));
+            Files.createDirectories(Paths.get(output));
+            int written = 0;
+            response.append(", \"files\": [");
+            String separator = "";
+            for (Map.Entry<String, CharSequence> entry : sources.entrySet()) {
+                String fileName = fileName(entry.getKey(), packageName);
+                if (sink.write(packageName, fileName, entry.getValue())) {
+                    written++;
+                }
+                response.append(separator);
+                GeneratorStats.appendString(response, fileName);
+                separator = ", ";
+            }
+            response.append("], \"written\": ").append(written);
+        } else {
+            response.append(", \"entities\": {");
+            String separator = "";
+            for (Map.Entry<String, CharSequence> entry : sources.entrySet()) {
+                response.append(separator);
+                GeneratorStats.appendString(response, entry.getKey());
+                response.append(": ");
+                GeneratorStats.appendString(response, entry.getValue().toString());
+                separator = ", ";
+            }
+            response.append('}');
+        }
+        response.append(", \"millis\": ").append(format((System.nanoTime() - start) / 1_000_000.0)).append('}');
+    }
+
+    private static SchemaModel await(FutureTask<SchemaModel> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Pedido interrompido");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private SQLParserJPAGenerator generator(List<String> flags) {
+        return generators.computeIfAbsent(flags, key -> {
+            GeneratorOptions options = GeneratorOptions.parse(key);
+            if (options.srcJar != null || options.bytecodeJar != null || options.lintFile != null
+                    || options.watch || options.servePort >= 0 || options.statsFile != null) {
+                throw new IllegalArgumentException("Opções não suportadas num pedido: " + REJECTED_OPTIONS);
+            }
+            return new SQLParserJPAGenerator(options);
+        });
+    }
+
+    /**
+     * Caminho do ficheiro relativo ao directório do pacote, ex.: "Customers.java" ou "projection/CustomersSummary.java".
+     */
+    private static String fileName(String qualifiedClassName, String packageName) {
+        String relative = packageName.isEmpty() || !qualifiedClassName.startsWith(packageName + ".")
+            ? qualifiedClassName
+            : qualifiedClassName.substring(packageName.length() + 1);
+        return relative.replace('.', '/') + ".java";
+    }
+
+    private static String stringField(Map<?, ?> request, String name, String defaultValue) {
+        Object value = request.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("\"" + name + "\" tem de ser texto");
+        }
+        return (String) value;
+    }
+
+    private static void appendId(StringBuilder sb, Object id) {
+        if (id == null) {
+            return;
+        }
+        sb.append("\"id\": ");
+        if (id instanceof String) {
+            GeneratorStats.appendString(sb, (String) id);
+        } else if (id instanceof Number || id instanceof Boolean) {
+            sb.append(id);
+        } else {
+            GeneratorStats.appendString(sb, id.toString());
+        }
+        sb.append(", ");
+    }
+
+    private static String contentHash(String sql) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] hash = digest.digest(sql.getBytes(StandardCharsets.UTF_8));
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[(int) (latencyCount++ % LATENCY_SAMPLES)] = nanos;
+    }
+
+    /**
+     * Pedidos, erros, estado da cache e percentis da latência dos últimos pedidos, em JSON.
+     */
+    String stats() {
+        long[] samples;
+        long count;
+        synchronized (this) {
+            count = latencyCount;
+            samples = Arrays.copyOf(latencies, (int) Math.min(count, LATENCY_SAMPLES));
+        }
+        Arrays.sort(samples);
+        long hits = cache.hits.sum();
+        long misses = cache.misses.sum();
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"requests\": ").append(requests.sum());
+        sb.append(", \"errors\": ").append(errors.sum());
+        sb.append(", \"schemaCache\": {\"entries\": ").append(cache.size());
+        sb.append(", \"capacity\": ").append(cache.capacity);
+        sb.append(", \"hits\": ").append(hits);
+        sb.append(", \"misses\": ").append(misses);
+        sb.append(", \"hitRate\": ").append(format(hits + misses == 0 ? 0 : hits / (double) (hits + misses)));
+        sb.append("}, \"latencyMillis\": {\"samples\": ").append(samples.length);
+        sb.append(", \"p50\": ").append(format(percentile(samples, 0.50)));
+        sb.append(", \"p90\": ").append(format(percentile(samples, 0.90)));
+        sb.append(", \"p99\": ").append(format(percentile(samples, 0.99)));
+        sb.append(", \"max\": ").append(format(samples.length == 0 ? 0 : samples[samples.length - 1] / 1_000_000.0));
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Uma thread virtual por pedido quando o Java as tem (21+); caso contrário, um conjunto de threads
+     * que cresce com os pedidos. O código é compilado para Java 11, por isso o método é procurado por reflexão.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            GeneratorLog.debug("Threads virtuais indisponíveis neste Java; a usar um conjunto de threads");
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
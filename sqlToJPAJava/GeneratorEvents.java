@@ -0,0 +1,95 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Eventos JFR do gerador. Sem uma gravação activa (ex.: -XX:StartFlightRecording) não têm custo
+ * relevante; com ela permitem encontrar as tabelas mais lentas num esquema real.
+ */
+final class GeneratorEvents {
+
+    private GeneratorEvents() {
+    }
+
+    @Name("sqltojpa.TableParsed")
+    @Label("Table Parsed")
+    @Category("sqlToJPA")
+    @Description("Análise de uma instrução CREATE TABLE")
+    static final class TableParsed extends Event {
+        @Label("Table")
+        String table;
+
+        @Label("Columns")
+        int columns;
+
+        @Label("DDL Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Cached")
+        @Description("Reutilizada da execução anterior (--watch)")
+        boolean cached;
+    }
+
+    @Name("sqltojpa.EntityRendered")
+    @Label("Entity Rendered")
+    @Category("sqlToJPA")
+    @Description("Geração do código de uma entidade")
+    static final class EntityRendered extends Event {
+        @Label("Class")
+        String className;
+
+        @Label("Source Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("sqltojpa.Phase")
+    @Label("Generation Phase")
+    @Category("sqlToJPA")
+    @Description("Tempo total de uma fase numa execução, somado entre threads")
+    static final class Phase extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("sqltojpa.Generation")
+    @Label("Generation")
+    @Category("sqlToJPA")
+    @Description("Execução completa do gerador")
+    static final class Generation extends Event {
+        @Label("SQL File")
+        String sqlFile;
+
+        @Label("Tables")
+        int tables;
+
+        @Label("Columns")
+        long columns;
+
+        @Label("Entities Written")
+        int written;
+
+        @Label("Entities Unchanged")
+        int unchanged;
+
+        @Label("Parse Failures")
+        long parseFailures;
+
+        @Label("Peak Heap")
+        @DataAmount
+        long peakHeap;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Mensagens da linha de comandos, por nível.
+ *
+ * Por omissão só aparecem avisos, erros e o resumo de cada execução; as mensagens por tabela
+ * ficam no nível DEBUG (--verbose), porque em esquemas grandes escrevê-las atrasa a geração.
+ */
+final class GeneratorLog {
+
+    static final int ERROR = 0;
+    static final int WARN = 1;
+    static final int INFO = 2;
+    static final int DEBUG = 3;
+
+    private static volatile int level = INFO;
+
+    private GeneratorLog() {
+    }
+
+    static void setLevel(int newLevel) {
+        level = newLevel;
+    }
+
+    static boolean isDebugEnabled() {
+        return level >= DEBUG;
+    }
+
+    static void error(String message) {
+        if (level >= ERROR) {
+            System.err.println(message);
+        }
+    }
+
+    static void warn(String message) {
+        if (level >= WARN) {
+            System.err.println(message);
+        }
+    }
+
+    static void info(String message) {
+        if (level >= INFO) {
+            System.out.println(message);
+        }
+    }
+
+    static void debug(String message) {
+        if (level >= DEBUG) {
+            System.out.println(message);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Opções de geração indicadas na linha de comandos como --nome ou --nome=valor.
+ */
+class GeneratorOptions {
+
+    static final String ID_IDENTITY = "identity";
+    static final String ID_SEQUENCE = "sequence";
+    static final String ID_TABLE = "table";
+
+    static final String FETCH_BATCH = "batch";
+    static final String FETCH_SUBSELECT = "subselect";
+    static final String FETCH_NONE = "none";
+
+    static final String USAGE =
+        "Opções:\n" +
+        "  --threads[=N]   Analisa e gera entidades em paralelo com N threads (por omissão: número de processadores)\n" +
+        "  --full          Regenera todas as entidades, mesmo as que não mudaram desde a última execução\n" +
+        "  --srcjar=FICH   Escreve todas as entidades num único arquivo .srcjar em vez do directório de saída\n" +
+        "  --bytecode=FICH Escreve as entidades já compiladas (.class) num arquivo .jar, sem passar pelo javac\n" +
+        "  --primitives    Usa tipos primitivos (int, long, boolean, ...) nas colunas NOT NULL não geradas\n" +
+        "  --inline-object-methods\n" +
+        "                  Gera equals/hashCode/toString sem alocações (sem Objects.hash nem concatenação)\n" +
+        "  --tostring-skip-large\n" +
+        "                  Omite de toString as colunas de texto longo e binárias (TEXT, BLOB, JSON, ...)\n" +
+        "  --id-strategy=ESTRATÉGIA[,tabela:ESTRATÉGIA...]\n" +
+        "                  Geração das chaves AUTO_INCREMENT/IDENTITY: identity (por omissão), sequence ou table,\n" +
+        "                  para todas as tabelas ou só para as indicadas\n" +
+        "  --allocation-size=N\n" +
+        "                  Identificadores reservados de cada vez com sequence/table (por omissão: 50)\n" +
+        "  --one-to-many[=batch[:N]|subselect|none]\n" +
+        "                  Gera o lado inverso (@OneToMany, Set preguiçoso) de cada chave estrangeira, com\n" +
+        "                  @BatchSize(size = N) (por omissão, N = 25) ou @Fetch(SUBSELECT), e @NamedEntityGraph\n" +
+        "  --cache[=auto|tabela,...]\n" +
+        "                  @Cacheable e @Cache(NONSTRICT_READ_WRITE) nas tabelas indicadas e, com auto (por omissão),\n" +
+        "                  nas tabelas de referência: pequenas, referidas por outras e sem colunas voláteis\n" +
+        "  --dynamic-update[=auto|tabela,...]\n" +
+        "                  @DynamicUpdate nas tabelas indicadas e, com auto (por omissão), nas tabelas largas\n" +
+        "                  com colunas voláteis (updated_at, status, quantity, ...)\n" +
+        "  --lob-threshold=N\n" +
+        "                  Trata também como LOB as colunas de texto ou binárias com comprimento acima de N\n" +
+        "                  (ex.: VARCHAR(8000)); TEXT, BLOB, JSON, ... e VARCHAR(MAX) são-no sempre\n" +
+        "  --lob-streams   Usa java.sql.Clob/Blob em vez de String/byte[] nas colunas @Lob\n" +
+        "  --projections   Gera também um record XSummary (subpacote projection, Java 16+) sem as colunas de texto\n" +
+        "                  longo e binárias, e um repositório Spring Data XRepository (subpacote repository)\n" +
+        "                  com consultas JPQL \"select new\" que só lêem essas colunas\n" +
+        "  --lint=FICH     Não gera entidades: analisa o esquema (chaves estrangeiras sem índice, índices\n" +
+        "                  duplicados ou redundantes, linhas largas, ...) e escreve os resultados em FICH (JSON)\n" +
+        "  --fail-on=SEVERIDADE\n" +
+        "                  Com --lint, termina com código 1 se houver resultados desta severidade (info, warning\n" +
+        "                  ou error) ou superior\n" +
+        "  --schemas=ESQ,...\n" +
+        "                  Com um URL JDBC no lugar do ficheiro SQL, lê só estes esquemas (por omissão: todos os\n" +
+        "                  que não são de sistema)\n" +
+        "  --jdbc-connections=N\n" +
+        "                  Ligações à base de dados usadas em paralelo, um esquema por ligação (por omissão: 4)\n" +
+        "  --jdbc-user=UTIL\n" +
+        "                  Utilizador da ligação JDBC; a palavra-passe é lida de " + JdbcSchemaReader.PASSWORD_ENV + "\n" +
+        "  --watch         Mantém o gerador activo e regenera as entidades sempre que o ficheiro SQL muda\n" +
+        "  --serve[=PORTA] Não gera nada: fica activo e atende pedidos de geração em JSON, por HTTP em\n" +
+        "                  127.0.0.1:PORTA (POST /generate, GET /stats) ou, sem porta, um por linha em stdin/stdout\n" +
+        "  --schema-cache=N\n" +
+        "                  Com --serve, número de esquemas analisados mantidos em memória (por omissão: 32)\n" +
+        "  --stats=FICH    Escreve tempos por fase e contadores de cada execução em FICH (JSON)\n" +
+        "  --verbose       Mostra cada tabela e entidade processada e o resumo de tempos\n" +
+        "  --quiet         Mostra apenas avisos e erros\n";
+
+    // Número de threads para análise e geração (1 = sequencial)
+    int threads = 1;
+
+    // Regenerar todas as tabelas, mesmo as inalteradas
+    boolean full = false;
+
+    // Arquivo .srcjar de destino (null = ficheiros .java no directório de saída)
+    String srcJar;
+
+    // Arquivo .jar de destino com as classes compiladas (null = código-fonte)
+    String bytecodeJar;
+
+    // Campos primitivos para colunas NOT NULL que não são geradas pela base de dados
+    boolean primitives = false;
+
+    // equals/hashCode/toString com aritmética e StringBuilder explícitos, sem alocações intermédias
+    boolean inlineObjectMethods = false;
+
+    // Omitir de toString as colunas de texto longo e binárias
+    boolean toStringSkipLarge = false;
+
+    // Estratégia de geração das chaves (identity, sequence ou table), global e por tabela (nome em minúsculas)
+    String idStrategy = ID_IDENTITY;
+    Map<String, String> tableIdStrategies = new HashMap<>();
+
+    // allocationSize de @SequenceGenerator/@TableGenerator para sequências e tabelas novas
+    int allocationSize = 50;
+
+    // Gerar o lado inverso (@OneToMany) das chaves estrangeiras, e como carregar as colecções
+    boolean oneToMany = false;
+    String collectionFetch = FETCH_BATCH;
+    int batchSize = 25;
+
+    // Cache de segundo nível: tabelas escolhidas pela análise (auto) e indicadas (nome em minúsculas)
+    boolean cacheAuto = false;
+    Set<String> cacheTables = new HashSet<>();
+
+    // @DynamicUpdate: tabelas escolhidas pela análise (auto) e indicadas (nome em minúsculas)
+    boolean dynamicUpdateAuto = false;
+    Set<String> dynamicUpdateTables = new HashSet<>();
+
+    // Comprimento acima do qual colunas de texto e binárias são tratadas como LOB (0 = só os tipos LOB)
+    int lobThreshold = 0;
+
+    // Clob/Blob em vez de String/byte[] nas colunas @Lob
+    boolean lobStreams = false;
+
+    // Gerar um record de projecção e um repositório Spring Data por entidade
+    boolean projections = false;
+
+    // Relatório JSON da análise do esquema (null = gerar entidades)
+    String lintFile;
+
+    // Severidade mínima dos resultados de --lint que fazem a execução falhar (null = nunca)
+    SchemaLint.Severity failOn;
+
+    // Esquemas lidos de um URL JDBC (vazio = todos os que não são de sistema)
+    List<String> schemas = new ArrayList<>();
+
+    // Máximo de ligações JDBC abertas ao mesmo tempo (uma por esquema em leitura)
+    int jdbcConnections = 4;
+
+    // Utilizador da ligação JDBC (null = o do URL)
+    String jdbcUser;
+
+    // Observar o ficheiro SQL e regenerar a cada alteração
+    boolean watch = false;
+
+    // Modo servidor: -1 = desligado, 0 = pedidos em stdin/stdout, >0 = porta HTTP
+    int servePort = -1;
+
+    // Esquemas analisados guardados na cache LRU do modo servidor
+    int schemaCacheSize = 32;
+
+    // Ficheiro JSON com as estatísticas da execução (null = não escrever)
+    String statsFile;
+
+    // Nível das mensagens na consola (GeneratorLog.ERROR a DEBUG)
+    int logLevel = GeneratorLog.INFO;
+
+    /**
+     * Interpreta as opções da linha de comandos.
+     * Lança IllegalArgumentException para opções desconhecidas ou valores inválidos.
+     */
+    static GeneratorOptions parse(List<String> flags) {
+        GeneratorOptions options = new GeneratorOptions();
+        for (String flag : flags) {
+            int equals = flag.indexOf('=');
+            String name = equals == -1 ? flag : flag.substring(0, equals);
+            String value = equals == -1 ? null : flag.substring(equals + 1);
+
+            switch (name) {
+                case "--threads":
+                    options.threads = value == null
+                        ? Runtime.getRuntime().availableProcessors()
+                        : parsePositiveInt(name, value);
+                    break;
+                case "--full":
+                    options.full = true;
+                    break;
+                case "--srcjar":
+                    options.srcJar = requireValue(name, value);
+                    break;
+                case "--bytecode":
+                    options.bytecodeJar = requireValue(name, value);
+                    break;
+                case "--primitives":
+                    options.primitives = true;
+                    break;
+                case "--inline-object-methods":
+                    options.inlineObjectMethods = true;
+                    break;
+                case "--tostring-skip-large":
+                    options.toStringSkipLarge = true;
+                    break;
+                case "--id-strategy":
+                    parseIdStrategies(options, requireValue(name, value));
+                    break;
+                case "--allocation-size":
+                    options.allocationSize = parsePositiveInt(name, value);
+                    break;
+                case "--one-to-many":
+                    options.oneToMany = true;
+                    if (value != null) {
+                        parseCollectionFetch(options, value);
+                    }
+                    break;
+                case "--cache":
+                    options.cacheAuto = parseTableSelection(name, value, options.cacheTables);
+                    break;
+                case "--dynamic-update":
+                    options.dynamicUpdateAuto = parseTableSelection(name, value, options.dynamicUpdateTables);
+                    break;
+                case "--lob-threshold":
+                    options.lobThreshold = parsePositiveInt(name, value);
+                    break;
+                case "--lob-streams":
+                    options.lobStreams = true;
+                    break;
+                case "--projections":
+                    options.projections = true;
+                    break;
+                case "--lint":
+                    options.lintFile = requireValue(name, value);
+                    break;
+                case "--fail-on":
+                    options.failOn = SchemaLint.Severity.parse(requireValue(name, value));
+                    break;
+                case "--schemas":
+                    for (String schema : requireValue(name, value).split(",")) {
+                        if (!schema.trim().isEmpty()) {
+                            options.schemas.add(schema.trim());
+                        }
+                    }
+                    break;
+                case "--jdbc-connections":
+                    options.jdbcConnections = parsePositiveInt(name, value);
+                    break;
+                case "--jdbc-user":
+                    options.jdbcUser = requireValue(name, value);
+                    break;
+                case "--watch":
+                    options.watch = true;
+                    break;
+                case "--serve":
+                    options.servePort = value == null ? 0 : parsePositiveInt(name, value);
+                    break;
+                case "--schema-cache":
+                    options.schemaCacheSize = parsePositiveInt(name, value);
+                    break;
+                case "--stats":
+                    options.statsFile = requireValue(name, value);
+                    break;
+                case "--verbose":
+                    options.logLevel = GeneratorLog.DEBUG;
+                    break;
+                case "--quiet":
+                    options.logLevel = GeneratorLog.WARN;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opção desconhecida: " + flag);
+            }
+        }
+        if (options.srcJar != null && options.bytecodeJar != null) {
+            throw new IllegalArgumentException("As opções --srcjar e --bytecode não podem ser usadas em conjunto");
+        }
+        if (options.failOn != null && options.lintFile == null) {
+            throw new IllegalArgumentException("A opção --fail-on só pode ser usada com --lint");
+        }
+        if (options.lintFile != null && options.watch) {
+            throw new IllegalArgumentException("As opções --lint e --watch não podem ser usadas em conjunto");
+        }
+        if (options.servePort >= 0 && (options.watch || options.lintFile != null)) {
+            throw new IllegalArgumentException("A opção --serve não pode ser usada com --watch nem com --lint");
+        }
+        if (options.projections && options.bytecodeJar != null) {
+            // Records e repositórios só fazem sentido como código-fonte, compilado com o resto da aplicação
+            throw new IllegalArgumentException("As opções --projections e --bytecode não podem ser usadas em conjunto");
+        }
+        return options;
+    }
+
+    /**
+     * Representação das opções que alteram o código gerado, incluída na impressão digital de cada tabela.
+     * Opções que só afectam a execução (threads, full, srcjar, bytecode, lint, jdbc, watch, serve, stats, verbose,
+     * quiet) não entram.
+     */
+    String fingerprint() {
+        StringJoiner joiner = new StringJoiner(",");
+        if (primitives) {
+            joiner.add("primitives");
+        }
+        if (inlineObjectMethods) {
+            joiner.add("inline-object-methods");
+        }
+        if (toStringSkipLarge) {
+            joiner.add("tostring-skip-large");
+        }
+        if (!idStrategy.equals(ID_IDENTITY) || !tableIdStrategies.isEmpty()) {
+            joiner.add("id-strategy=" + idStrategy + new TreeMap<>(tableIdStrategies));
+            joiner.add("allocation-size=" + allocationSize);
+        }
+        if (oneToMany) {
+            joiner.add("one-to-many=" + collectionFetch + (collectionFetch.equals(FETCH_BATCH) ? ":" + batchSize : ""));
+        }
+        if (cacheAuto || !cacheTables.isEmpty()) {
+            joiner.add("cache=" + (cacheAuto ? "auto" : "") + new TreeSet<>(cacheTables));
+        }
+        if (dynamicUpdateAuto || !dynamicUpdateTables.isEmpty()) {
+            joiner.add("dynamic-update=" + (dynamicUpdateAuto ? "auto" : "") + new TreeSet<>(dynamicUpdateTables));
+        }
+        if (lobThreshold > 0) {
+            joiner.add("lob-threshold=" + lobThreshold);
+        }
+        if (lobStreams) {
+            joiner.add("lob-streams");
+        }
+        if (projections) {
+            joiner.add("projections");
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Estratégia de geração das chaves para uma tabela: a indicada para essa tabela ou a global.
+     */
+    String idStrategy(String tableName) {
+        return tableIdStrategies.getOrDefault(tableName.toLowerCase(), idStrategy);
+    }
+
+    /**
+     * Interpreta "sequence", "orders:sequence,audit_log:identity" ou uma combinação das duas formas.
+     */
+    private static void parseIdStrategies(GeneratorOptions options, String value) {
+        for (String item : value.split(",")) {
+            String trimmed = item.trim();
+            int colon = trimmed.lastIndexOf(':');
+            String strategy = (colon == -1 ? trimmed : trimmed.substring(colon + 1)).trim().toLowerCase();
+            if (!strategy.equals(ID_IDENTITY) && !strategy.equals(ID_SEQUENCE) && !strategy.equals(ID_TABLE)) {
+                throw new IllegalArgumentException("Valor inválido para --id-strategy: " + item
+                    + " (esperado identity, sequence ou table)");
+            }
+            if (colon == -1) {
+                options.idStrategy = strategy;
+            } else {
+                String table = trimmed.substring(0, colon).trim();
+                if (table.isEmpty()) {
+                    throw new IllegalArgumentException("Valor inválido para --id-strategy: " + item);
+                }
+                options.tableIdStrategies.put(table.toLowerCase(), strategy);
+            }
+        }
+    }
+
+    /**
+     * Interpreta "auto", "categories,currencies" ou "auto,currencies": acrescenta as tabelas indicadas
+     * ao conjunto e devolve true se a análise automática também foi pedida (ou se não há valor).
+     */
+    private static boolean parseTableSelection(String name, String value, Set<String> tables) {
+        if (value == null) {
+            return true;
+        }
+        boolean auto = false;
+        for (String item : value.split(",")) {
+            String table = item.trim();
+            if (table.isEmpty()) {
+                throw new IllegalArgumentException("Valor inválido para " + name + ": " + value);
+            }
+            if (table.equalsIgnoreCase("auto")) {
+                auto = true;
+            } else {
+                tables.add(table.toLowerCase());
+            }
+        }
+        return auto;
+    }
+
+    /**
+     * Interpreta "batch", "batch:N", "subselect" ou "none".
+     */
+    private static void parseCollectionFetch(GeneratorOptions options, String value) {
+        String fetch = value.trim().toLowerCase();
+        if (fetch.startsWith(FETCH_BATCH + ":")) {
+            options.batchSize = parsePositiveInt("--one-to-many", fetch.substring(FETCH_BATCH.length() + 1));
+            fetch = FETCH_BATCH;
+        }
+        if (!fetch.equals(FETCH_BATCH) && !fetch.equals(FETCH_SUBSELECT) && !fetch.equals(FETCH_NONE)) {
+            throw new IllegalArgumentException("Valor inválido para --one-to-many: " + value
+                + " (esperado batch, batch:N, subselect ou none)");
+        }
+        options.collectionFetch = fetch;
+    }
+
+    private static String requireValue(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("A opção " + name + " requer um valor (" + name + "=...)");
+        }
+        return value;
+    }
+
+    private static int parsePositiveInt(String name, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // tratado abaixo
+        }
+        throw new IllegalArgumentException("Valor inválido para " + name + ": " + value);
+    }
+}
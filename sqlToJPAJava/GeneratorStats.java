@@ -0,0 +1,339 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Tempos e contadores de uma execução do gerador, por fase.
+ *
+ * Os tempos das fases executadas em paralelo (parse, emit, write) são somados entre threads;
+ * o tempo total da execução é o tempo real. Pode ser consultado com --verbose, escrito em JSON
+ * com --stats=FICH e é publicado como eventos JFR.
+ *
+ * Carregar as classes de eventos JFR e os MXBeans de memória custa centenas de milissegundos no
+ * arranque, por isso só são usados quando há uma gravação JFR activa ou um relatório pedido.
+ */
+class GeneratorStats {
+
+    enum Phase {
+        // Leitura e descodificação do ficheiro SQL
+        READ("read"),
+        // Remoção de comentários e separação em instruções
+        CLEAN("clean"),
+        // Análise das instruções CREATE TABLE
+        PARSE("parse"),
+        // Resolução das chaves estrangeiras
+        RELATIONSHIPS("relationships"),
+        // Geração do código das entidades
+        EMIT("emit"),
+        // Escrita dos ficheiros (bytes UTF-8 efectivamente escritos)
+        WRITE("write");
+
+        final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+    }
+
+    // Número de tabelas mais lentas incluídas no relatório
+    private static final int SLOWEST_TABLES = 10;
+
+    private final String sqlFile;
+    private final int threads;
+    private final long startNanos = System.nanoTime();
+    // Há um relatório a produzir (--stats ou --verbose): medir o pico de heap e as tabelas lentas
+    private final boolean report;
+    // Há uma gravação JFR activa: publicar eventos
+    private final boolean events;
+    private final GeneratorEvents.Generation event;
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final LongAdder[] phaseBytes = new LongAdder[Phase.values().length];
+    private final LongAdder columns = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final Map<String, Long> tableNanos = new ConcurrentHashMap<>();
+
+    private int tables;
+    private int written;
+    private int unchanged;
+    private int removed;
+    private long wallNanos;
+    private long peakHeapBytes;
+
+    GeneratorStats(String sqlFile, int threads, boolean report) {
+        this.sqlFile = sqlFile;
+        this.threads = threads;
+        this.report = report;
+        this.events = FlightRecorder.isInitialized();
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+            phaseBytes[i] = new LongAdder();
+        }
+        if (report || events) {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    pool.resetPeakUsage();
+                }
+            }
+        }
+        event = events ? new GeneratorEvents.Generation() : null;
+        if (event != null) {
+            event.begin();
+        }
+    }
+
+    /**
+     * Evento JFR a iniciar antes de analisar uma tabela, ou null sem gravação activa.
+     */
+    GeneratorEvents.TableParsed beginTableParsed() {
+        if (!events) {
+            return null;
+        }
+        GeneratorEvents.TableParsed parsed = new GeneratorEvents.TableParsed();
+        parsed.begin();
+        return parsed;
+    }
+
+    /**
+     * Evento JFR a iniciar antes de gerar uma entidade, ou null sem gravação activa.
+     */
+    GeneratorEvents.EntityRendered beginEntityRendered() {
+        if (!events) {
+            return null;
+        }
+        GeneratorEvents.EntityRendered rendered = new GeneratorEvents.EntityRendered();
+        rendered.begin();
+        return rendered;
+    }
+
+    void add(Phase phase, long nanos, long bytes) {
+        phaseNanos[phase.ordinal()].add(nanos);
+        phaseBytes[phase.ordinal()].add(bytes);
+    }
+
+    /**
+     * Regista a análise de uma tabela; a duração do evento JFR termina aqui.
+     */
+    void tableParsed(GeneratorEvents.TableParsed parsed, SQLParserJPAGenerator.TableInfo table,
+                     long bytes, long nanos, boolean cached) {
+        add(Phase.PARSE, nanos, bytes);
+        if (report) {
+            tableNanos.merge(table.name, nanos, Long::sum);
+        }
+        columns.add(table.columns.size());
+        parseFailures.add(table.unparsedElements.size());
+        if (parsed != null) {
+            parsed.end();
+        }
+        if (parsed != null && parsed.shouldCommit()) {
+            parsed.table = table.name;
+            parsed.columns = table.columns.size();
+            parsed.bytes = bytes;
+            parsed.cached = cached;
+            parsed.commit();
+        }
+    }
+
+    /**
+     * Instrução CREATE TABLE que não foi possível interpretar.
+     */
+    void statementFailed(long nanos, long bytes) {
+        add(Phase.PARSE, nanos, bytes);
+        parseFailures.increment();
+    }
+
+    void entityRendered(GeneratorEvents.EntityRendered rendered, SQLParserJPAGenerator.TableInfo table,
+                        long chars, long nanos) {
+        add(Phase.EMIT, nanos, chars);
+        if (report) {
+            tableNanos.merge(table.name, nanos, Long::sum);
+        }
+        if (rendered != null) {
+            rendered.end();
+        }
+        if (rendered != null && rendered.shouldCommit()) {
+            rendered.className = table.className;
+            rendered.bytes = chars;
+            rendered.commit();
+        }
+    }
+
+    void setTables(int tables) {
+        this.tables = tables;
+    }
+
+    void entityWritten() {
+        written++;
+    }
+
+    void entityUnchanged() {
+        unchanged++;
+    }
+
+    void entityRemoved() {
+        removed++;
+    }
+
+    int written() {
+        return written;
+    }
+
+    int unchanged() {
+        return unchanged;
+    }
+
+    /**
+     * Fecha a execução: regista o tempo total, o pico de heap e publica os eventos JFR.
+     */
+    void finish() {
+        wallNanos = System.nanoTime() - startNanos;
+        if (!report && !events) {
+            return;
+        }
+        peakHeapBytes = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                peakHeapBytes += pool.getPeakUsage().getUsed();
+            }
+        }
+        if (!events) {
+            return;
+        }
+
+        for (Phase phase : Phase.values()) {
+            GeneratorEvents.Phase phaseEvent = new GeneratorEvents.Phase();
+            if (phaseEvent.shouldCommit()) {
+                phaseEvent.phase = phase.key;
+                phaseEvent.time = phaseNanos[phase.ordinal()].sum();
+                phaseEvent.bytes = phaseBytes[phase.ordinal()].sum();
+                phaseEvent.commit();
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.sqlFile = sqlFile;
+            event.tables = tables;
+            event.columns = columns.sum();
+            event.written = written;
+            event.unchanged = unchanged;
+            event.parseFailures = parseFailures.sum();
+            event.peakHeap = peakHeapBytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Resumo legível, mostrado com --verbose.
+     */
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Tempo total: %.1f ms (%d tabelas, %d colunas, %.0f tabelas/s)%n",
+            millis(wallNanos), tables, columns.sum(), perSecond(tables)));
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format(Locale.ROOT, "  %-13s %10.1f ms %14d bytes%n",
+                phase.key, millis(phaseNanos[phase.ordinal()].sum()), phaseBytes[phase.ordinal()].sum()));
+        }
+        sb.append(String.format(Locale.ROOT, "Falhas de análise: %d, pico de heap: %d MB",
+            parseFailures.sum(), peakHeapBytes / (1024 * 1024)));
+        return sb.toString();
+    }
+
+    void writeJson(Path file) throws IOException {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("{\n");
+        sb.append("  \"sqlFile\": ");
+        appendString(sb, sqlFile);
+        sb.append(",\n  \"threads\": ").append(threads);
+        sb.append(",\n  \"wallMillis\": ").append(format(millis(wallNanos)));
+        sb.append(",\n  \"tables\": ").append(tables);
+        sb.append(",\n  \"columns\": ").append(columns.sum());
+        sb.append(",\n  \"tablesPerSecond\": ").append(format(perSecond(tables)));
+        sb.append(",\n  \"columnsPerSecond\": ").append(format(perSecond(columns.sum())));
+        sb.append(",\n  \"entitiesWritten\": ").append(written);
+        sb.append(",\n  \"entitiesUnchanged\": ").append(unchanged);
+        sb.append(",\n  \"entitiesRemoved\": ").append(removed);
+        sb.append(",\n  \"parseFailures\": ").append(parseFailures.sum());
+        sb.append(",\n  \"peakHeapBytes\": ").append(peakHeapBytes);
+        sb.append(",\n  \"phases\": {");
+        for (Phase phase : Phase.values()) {
+            sb.append(phase.ordinal() == 0 ? "\n    " : ",\n    ");
+            appendString(sb, phase.key);
+            sb.append(": {\"millis\": ").append(format(millis(phaseNanos[phase.ordinal()].sum())))
+                .append(", \"bytes\": ").append(phaseBytes[phase.ordinal()].sum()).append('}');
+        }
+        sb.append("\n  },\n  \"slowestTables\": [");
+        List<Map.Entry<String, Long>> slowest = new ArrayList<>(tableNanos.entrySet());
+        slowest.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (int i = 0; i < Math.min(SLOWEST_TABLES, slowest.size()); i++) {
+            sb.append(i == 0 ? "\n    {\"table\": " : ",\n    {\"table\": ");
+            appendString(sb, slowest.get(i).getKey());
+            sb.append(", \"millis\": ").append(format(millis(slowest.get(i).getValue()))).append('}');
+        }
+        sb.append(slowest.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private double perSecond(long count) {
+        return wallNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / wallNanos;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,568 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.JDBCType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Lê o modelo das tabelas directamente de uma base de dados, através de java.sql.DatabaseMetaData,
+ * em vez de analisar DDL. O driver JDBC tem de estar no classpath.
+ *
+ * Cada esquema é lido numa tarefa própria, com uma ligação de um conjunto limitado (--jdbc-connections).
+ * As colunas, chaves primárias, chaves estrangeiras e índices de um esquema são pedidos de uma só vez,
+ * sem nome de tabela; com drivers que o exigem (ex.: Derby, MySQL) ou que com a tabela null devolvem um
+ * resultado vazio (Oracle) os pedidos são feitos tabela a tabela.
+ */
+class JdbcSchemaReader {
+
+    // Variável de ambiente com a palavra-passe (não é aceite na linha de comandos)
+    static final String PASSWORD_ENV = "SQLTOJPA_JDBC_PASSWORD";
+
+    // Esquemas de sistema ignorados quando --schemas não é indicado
+    private static final Set<String> SYSTEM_SCHEMAS = new HashSet<>(Arrays.asList(
+        "INFORMATION_SCHEMA", "PG_CATALOG", "PG_TOAST", "SYS", "GUEST", "SQLJ", "NULLID",
+        "SYSCAT", "SYSCS_DIAG", "SYSCS_UTIL", "SYSFUN", "SYSIBM", "SYSPROC", "SYSSTAT",
+        "MYSQL", "PERFORMANCE_SCHEMA"));
+
+    // Bases cujo driver devolve um resultado vazio, em vez de falhar, quando a tabela é null
+    private static final Set<String> NULL_TABLE_IGNORED = new HashSet<>(Arrays.asList("ORACLE"));
+    private static final List<String> TABLE_QUERIES = Arrays.asList("getPrimaryKeys", "getImportedKeys", "getIndexInfo");
+
+    // Tipos JDBC sem nome equivalente nos tipos SQL conhecidos do gerador
+    private static final Map<JDBCType, String> JDBC_TYPE_NAMES = new HashMap<>();
+
+    static {
+        JDBC_TYPE_NAMES.put(JDBCType.LONGVARCHAR, "TEXT");
+        JDBC_TYPE_NAMES.put(JDBCType.LONGNVARCHAR, "NTEXT");
+        JDBC_TYPE_NAMES.put(JDBCType.LONGVARBINARY, "LONGBLOB");
+        JDBC_TYPE_NAMES.put(JDBCType.TIME_WITH_TIMEZONE, "TIME");
+        JDBC_TYPE_NAMES.put(JDBCType.TIMESTAMP_WITH_TIMEZONE, "TIMESTAMP");
+        JDBC_TYPE_NAMES.put(JDBCType.SQLXML, "XML");
+    }
+
+    /**
+     * Esquema (ou, em bases sem esquemas como o MySQL, catálogo) lido numa tarefa.
+     */
+    private static final class Scope {
+        final String catalog;
+        final String schema;
+
+        Scope(String catalog, String schema) {
+            this.catalog = catalog;
+            this.schema = schema;
+        }
+
+        @Override
+        public String toString() {
+            return schema != null ? schema : String.valueOf(catalog);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MetadataQuery {
+        ResultSet run(String table) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void row(ResultSet rs) throws SQLException;
+    }
+
+    private final SQLParserJPAGenerator generator;
+    private final String url;
+    private final Properties info = new Properties();
+    private final List<String> schemas;
+    private final int maxConnections;
+
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private final List<Connection> opened = new ArrayList<>();
+    // Consultas que o driver não aceita sem nome de tabela
+    private final Set<String> perTable = ConcurrentHashMap.newKeySet();
+
+    JdbcSchemaReader(SQLParserJPAGenerator generator, String url) {
+        this.generator = generator;
+        this.url = url;
+        this.schemas = generator.options.schemas;
+        this.maxConnections = generator.options.jdbcConnections;
+        if (generator.options.jdbcUser != null) {
+            info.setProperty("user", generator.options.jdbcUser);
+        }
+        String password = System.getenv(PASSWORD_ENV);
+        if (password != null) {
+            info.setProperty("password", password);
+        }
+    }
+
+    static boolean isJdbcUrl(String source) {
+        return source.regionMatches(true, 0, "jdbc:", 0, 5);
+    }
+
+    /**
+     * Lê todas as tabelas dos esquemas pedidos, pela ordem dos esquemas e, em cada um, pela ordem do catálogo.
+     */
+    SchemaReplay read(GeneratorStats stats) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(maxConnections);
+        try {
+            List<Scope> scopes = scopes();
+            List<Future<List<SQLParserJPAGenerator.TableInfo>>> results = new ArrayList<>(scopes.size());
+            for (Scope scope : scopes) {
+                results.add(executor.submit(() -> readScope(scope)));
+            }
+            SchemaReplay replay = new SchemaReplay(generator);
+            for (Future<List<SQLParserJPAGenerator.TableInfo>> result : results) {
+                for (SQLParserJPAGenerator.TableInfo table : await(result)) {
+                    replay.create(table);
+                }
+            }
+            stats.add(GeneratorStats.Phase.READ, System.nanoTime() - start, 0);
+            stats.setTables(replay.tables().size());
+            return replay;
+        } catch (SQLException e) {
+            throw new IOException("Erro ao ler os metadados de " + url + ": " + e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+            closeConnections();
+        }
+    }
+
+    /**
+     * Esquemas de --schemas (com o nome tal como está guardado no catálogo) ou todos os que não são de sistema.
+     */
+    private List<Scope> scopes() throws SQLException, InterruptedIOException {
+        Connection connection = acquire();
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String product = metaData.getDatabaseProductName();
+            if (product != null && NULL_TABLE_IGNORED.contains(product.toUpperCase())) {
+                perTable.addAll(TABLE_QUERIES);
+            }
+            Map<String, Scope> available = new LinkedHashMap<>();
+            try (ResultSet rs = metaData.getSchemas()) {
+                while (rs.next()) {
+                    String schema = rs.getString("TABLE_SCHEM");
+                    available.put(schema.toUpperCase(), new Scope(rs.getString("TABLE_CATALOG"), schema));
+                }
+            }
+            if (available.isEmpty()) {
+                // Bases sem esquemas (MySQL): os catálogos fazem esse papel
+                try (ResultSet rs = metaData.getCatalogs()) {
+                    while (rs.next()) {
+                        String catalog = rs.getString("TABLE_CAT");
+                        available.put(catalog.toUpperCase(), new Scope(catalog, null));
+                    }
+                }
+                if (schemas.isEmpty()) {
+                    return Arrays.asList(new Scope(connection.getCatalog(), null));
+                }
+            }
+
+            List<Scope> scopes = new ArrayList<>();
+            if (schemas.isEmpty()) {
+                for (Scope scope : available.values()) {
+                    String name = scope.schema.toUpperCase();
+                    if (!SYSTEM_SCHEMAS.contains(name) && !name.startsWith("PG_TEMP") && !name.startsWith("DB_")) {
+                        scopes.add(scope);
+                    }
+                }
+                return scopes;
+            }
+            for (String schema : schemas) {
+                Scope scope = available.get(schema.toUpperCase());
+                if (scope == null) {
+                    throw new IllegalArgumentException("Esquema não encontrado em " + url + ": " + schema);
+                }
+                scopes.add(scope);
+            }
+            return scopes;
+        } finally {
+            release(connection);
+        }
+    }
+
+    private List<SQLParserJPAGenerator.TableInfo> readScope(Scope scope) throws SQLException, InterruptedIOException {
+        long start = System.nanoTime();
+        Map<String, SQLParserJPAGenerator.TableInfo> tables = new LinkedHashMap<>();
+        Connection connection = acquire();
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String schemaPattern = escape(metaData, scope.schema);
+            try (ResultSet rs = metaData.getTables(scope.catalog, schemaPattern, "%", new String[] {"TABLE"})) {
+                while (rs.next()) {
+                    SQLParserJPAGenerator.TableInfo table = new SQLParserJPAGenerator.TableInfo();
+                    table.name = rs.getString("TABLE_NAME");
+                    tables.put(table.name, table);
+                }
+            }
+            if (tables.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            // getColumns aceita padrões em todos os drivers: um só pedido para o esquema inteiro
+            try (ResultSet rs = metaData.getColumns(scope.catalog, schemaPattern, "%", "%")) {
+                while (rs.next()) {
+                    SQLParserJPAGenerator.TableInfo table = tables.get(rs.getString("TABLE_NAME"));
+                    if (table != null) {
+                        table.columns.add(readColumn(rs));
+                    }
+                }
+            }
+
+            Map<String, TreeMap<Integer, String>> primaryKeys = new HashMap<>();
+            query("getPrimaryKeys", tables.keySet(),
+                table -> metaData.getPrimaryKeys(scope.catalog, scope.schema, table),
+                rs -> {
+                    SQLParserJPAGenerator.TableInfo table = tables.get(rs.getString("TABLE_NAME"));
+                    if (table != null) {
+                        primaryKeys.computeIfAbsent(table.name, name -> new TreeMap<>())
+                            .put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                        table.primaryKeyName = rs.getString("PK_NAME");
+                    }
+                });
+            for (Map.Entry<String, TreeMap<Integer, String>> entry : primaryKeys.entrySet()) {
+                tables.get(entry.getKey()).primaryKeys.addAll(entry.getValue().values());
+            }
+
+            // As linhas vêm ordenadas pela tabela referida e KEY_SEQ: as chaves compostas são agrupadas pelo nome
+            Map<List<String>, TreeMap<Integer, String[]>> foreignKeys = new LinkedHashMap<>();
+            query("getImportedKeys", tables.keySet(),
+                table -> metaData.getImportedKeys(scope.catalog, scope.schema, table),
+                rs -> {
+                    String tableName = rs.getString("FKTABLE_NAME");
+                    if (tables.containsKey(tableName)) {
+                        List<String> key = Arrays.asList(tableName, rs.getString("FK_NAME"), rs.getString("PKTABLE_NAME"));
+                        foreignKeys.computeIfAbsent(key, k -> new TreeMap<>()).put(rs.getInt("KEY_SEQ"),
+                            new String[] {rs.getString("FKCOLUMN_NAME"), rs.getString("PKCOLUMN_NAME")});
+                    }
+                });
+            for (Map.Entry<List<String>, TreeMap<Integer, String[]>> entry : foreignKeys.entrySet()) {
+                SQLParserJPAGenerator.ForeignKeyInfo fk = new SQLParserJPAGenerator.ForeignKeyInfo();
+                fk.name = entry.getKey().get(1);
+                fk.referencedTable = entry.getKey().get(2);
+                List<String> columns = new ArrayList<>();
+                List<String> referenced = new ArrayList<>();
+                for (String[] pair : entry.getValue().values()) {
+                    columns.add(pair[0]);
+                    referenced.add(pair[1]);
+                }
+                fk.columnName = String.join(", ", columns);
+                fk.referencedColumn = String.join(", ", referenced);
+                tables.get(entry.getKey().get(0)).foreignKeys.add(fk);
+            }
+
+            Map<List<String>, SQLParserJPAGenerator.IndexInfo> indexes = new LinkedHashMap<>();
+            Set<List<String>> expressionIndexes = new HashSet<>();
+            query("getIndexInfo", tables.keySet(),
+                table -> metaData.getIndexInfo(scope.catalog, scope.schema, table, false, true),
+                rs -> {
+                    SQLParserJPAGenerator.TableInfo table = tables.get(rs.getString("TABLE_NAME"));
+                    String indexName = rs.getString("INDEX_NAME");
+                    if (table == null || indexName == null || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                        return;
+                    }
+                    List<String> key = Arrays.asList(table.name, indexName);
+                    SQLParserJPAGenerator.IndexInfo index = indexes.computeIfAbsent(key, k -> new SQLParserJPAGenerator.IndexInfo());
+                    index.name = indexName;
+                    index.unique = !rs.getBoolean("NON_UNIQUE");
+                    String columnName = rs.getString("COLUMN_NAME");
+                    if (columnName == null || !hasColumn(table, columnName)) {
+                        // Índices sobre expressões não têm equivalente em @Index
+                        expressionIndexes.add(key);
+                        return;
+                    }
+                    SQLParserJPAGenerator.IndexColumnInfo column = new SQLParserJPAGenerator.IndexColumnInfo();
+                    column.name = columnName;
+                    column.descending = "D".equals(rs.getString("ASC_OR_DESC"));
+                    index.columns.add(column);
+                });
+            for (Map.Entry<List<String>, SQLParserJPAGenerator.IndexInfo> entry : indexes.entrySet()) {
+                SQLParserJPAGenerator.TableInfo table = tables.get(entry.getKey().get(0));
+                SQLParserJPAGenerator.IndexInfo index = entry.getValue();
+                if (!expressionIndexes.contains(entry.getKey()) && !isPrimaryKeyIndex(table, index)) {
+                    table.indexes.add(index);
+                }
+            }
+        } finally {
+            release(connection);
+        }
+
+        List<SQLParserJPAGenerator.TableInfo> result = new ArrayList<>(tables.size());
+        for (SQLParserJPAGenerator.TableInfo table : tables.values()) {
+            table.ddl = describe(scope, table);
+            generator.resolveTypes(table);
+            result.add(table);
+        }
+        if (GeneratorLog.isDebugEnabled()) {
+            GeneratorLog.debug("Esquema " + scope + ": " + result.size() + " tabelas em "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return result;
+    }
+
+    private static SQLParserJPAGenerator.ColumnInfo readColumn(ResultSet rs) throws SQLException {
+        SQLParserJPAGenerator.ColumnInfo column = new SQLParserJPAGenerator.ColumnInfo();
+        column.name = rs.getString("COLUMN_NAME");
+        String typeName = rs.getString("TYPE_NAME");
+        int dataType = rs.getInt("DATA_TYPE");
+        column.sqlType = sqlType(typeName, dataType).intern();
+        column.unsigned = typeName != null && typeName.toUpperCase().contains("UNSIGNED");
+        if (hasLength(dataType)) {
+            column.length = rs.getInt("COLUMN_SIZE");
+        }
+        column.nullable = rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
+        column.defaultValue = rs.getString("COLUMN_DEF");
+        column.autoIncrement = "YES".equals(rs.getString("IS_AUTOINCREMENT"));
+        return column;
+    }
+
+    /**
+     * Nome do tipo como aparece no DDL (ex.: INT, VARCHAR, TEXT) ou, se o nome do driver não for conhecido
+     * (int4, CHARACTER VARYING, ...), o nome do tipo JDBC.
+     */
+    private static String sqlType(String typeName, int dataType) {
+        String name = typeName == null ? "" : typeName.toUpperCase();
+        int paren = name.indexOf('(');
+        if (paren >= 0) {
+            name = name.substring(0, paren);
+        }
+        name = name.replace(" UNSIGNED", "").trim();
+        if (SQLParserJPAGenerator.isKnownSqlType(name)) {
+            return name;
+        }
+        try {
+            JDBCType type = JDBCType.valueOf(dataType);
+            return JDBC_TYPE_NAMES.getOrDefault(type, type.getName());
+        } catch (IllegalArgumentException e) {
+            // Tipo específico do driver
+            return name;
+        }
+    }
+
+    private static boolean hasLength(int dataType) {
+        switch (dataType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Faz a consulta para todas as tabelas do esquema de uma vez (tabela null); um resultado vazio é válido
+     * (ex.: um esquema sem chaves estrangeiras). Se o driver recusar a tabela null, esta consulta e as
+     * seguintes do mesmo tipo são feitas tabela a tabela, tal como nas bases de NULL_TABLE_IGNORED.
+     */
+    private void query(String kind, Collection<String> tables, MetadataQuery query, RowHandler handler)
+            throws SQLException {
+        if (!perTable.contains(kind)) {
+            ResultSet bulk = null;
+            try {
+                bulk = query.run(null);
+            } catch (SQLException e) {
+                if (perTable.add(kind)) {
+                    GeneratorLog.debug(kind + " sem nome de tabela não é suportado pelo driver: " + e.getMessage());
+                }
+            }
+            if (bulk != null) {
+                try (ResultSet rs = bulk) {
+                    while (rs.next()) {
+                        handler.row(rs);
+                    }
+                }
+                return;
+            }
+        }
+        for (String table : tables) {
+            try (ResultSet rs = query.run(table)) {
+                while (rs.next()) {
+                    handler.row(rs);
+                }
+            }
+        }
+    }
+
+    private static boolean hasColumn(SQLParserJPAGenerator.TableInfo table, String name) {
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            if (column.name.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * O índice que a base de dados cria para a chave primária já está representado pelos @Id.
+     */
+    private static boolean isPrimaryKeyIndex(SQLParserJPAGenerator.TableInfo table, SQLParserJPAGenerator.IndexInfo index) {
+        if (!index.unique || index.columns.size() != table.primaryKeys.size()) {
+            return false;
+        }
+        for (int i = 0; i < index.columns.size(); i++) {
+            if (!index.columns.get(i).name.equals(table.primaryKeys.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Texto equivalente a um CREATE TABLE, usado como DDL da tabela (impressão digital e modelo público).
+     */
+    private static String describe(Scope scope, SQLParserJPAGenerator.TableInfo table) {
+        StringBuilder sb = new StringBuilder("CREATE TABLE ");
+        if (scope.schema != null) {
+            sb.append(scope.schema).append('.');
+        }
+        sb.append(table.name).append(" (");
+        String separator = "";
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            sb.append(separator).append(column.name).append(' ').append(column.sqlType);
+            separator = ", ";
+            if (column.length > 0) {
+                sb.append('(').append(column.length).append(')');
+            }
+            if (column.unsigned) {
+                sb.append(" UNSIGNED");
+            }
+            if (!column.nullable) {
+                sb.append(" NOT NULL");
+            }
+            if (column.defaultValue != null) {
+                sb.append(" DEFAULT ").append(column.defaultValue);
+            }
+            if (column.autoIncrement) {
+                sb.append(" AUTO_INCREMENT");
+            }
+        }
+        if (!table.primaryKeys.isEmpty()) {
+            sb.append(separator);
+            appendConstraintName(sb, table.primaryKeyName);
+            sb.append("PRIMARY KEY (").append(String.join(", ", table.primaryKeys)).append(')');
+        }
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            sb.append(", ");
+            appendConstraintName(sb, fk.name);
+            sb.append("FOREIGN KEY (").append(fk.columnName).append(") REFERENCES ").append(fk.referencedTable)
+                .append(" (").append(fk.referencedColumn).append(')');
+        }
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            sb.append(", ").append(index.unique ? "UNIQUE INDEX " : "INDEX ").append(index.name).append(" (");
+            for (int i = 0; i < index.columns.size(); i++) {
+                SQLParserJPAGenerator.IndexColumnInfo column = index.columns.get(i);
+                sb.append(i == 0 ? "" : ", ").append(column.name).append(column.descending ? " DESC" : "");
+            }
+            sb.append(')');
+        }
+        return sb.append(')').toString();
+    }
+
+    private static void appendConstraintName(StringBuilder sb, String name) {
+        if (name != null) {
+            sb.append("CONSTRAINT ").append(name).append(' ');
+        }
+    }
+
+    /**
+     * Os argumentos de esquema de getTables/getColumns são padrões LIKE: '_' e '%' no nome têm de ser escapados.
+     */
+    private static String escape(DatabaseMetaData metaData, String name) throws SQLException {
+        String escape = metaData.getSearchStringEscape();
+        if (name == null || escape == null || escape.isEmpty()) {
+            return name;
+        }
+        return name.replace(escape, escape + escape).replace("_", escape + "_").replace("%", escape + "%");
+    }
+
+    private Connection acquire() throws SQLException, InterruptedIOException {
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        synchronized (opened) {
+            if (opened.size() < maxConnections) {
+                connection = DriverManager.getConnection(url, info);
+                opened.add(connection);
+                return connection;
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura dos metadados interrompida");
+        }
+    }
+
+    private void release(Connection connection) {
+        idle.add(connection);
+    }
+
+    private void closeConnections() {
+        synchronized (opened) {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    GeneratorLog.debug("Erro ao fechar a ligação: " + e.getMessage());
+                }
+            }
+            opened.clear();
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException, SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura dos metadados interrompida");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
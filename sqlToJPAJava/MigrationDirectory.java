@@ -0,0 +1,335 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Directório de migrações ao estilo do Flyway (V&lt;versão&gt;__&lt;descrição&gt;.sql, também em subdirectórios),
+ * ordenadas por versão, e a cache do modelo que resulta de as aplicar.
+ *
+ * A cache fica no directório de saída e guarda as tabelas e sequências depois da última migração,
+ * com o caminho, o tamanho e a data de modificação de cada migração aplicada. Se essas migrações
+ * continuarem iguais e forem as primeiras da lista, a execução seguinte só aplica as novas;
+ * qualquer outra diferença (migração alterada, removida ou com versão intermédia) obriga a aplicar tudo.
+ */
+class MigrationDirectory {
+
+    static final String CACHE_FILE_NAME = ".sqltojpa-migrations";
+    private static final String HEADER = "sqlToJPA migrations v1";
+    private static final Pattern VERSIONED = Pattern.compile("V(\\d+(?:[._]\\d+)*)__.*\\.sql");
+
+    static final class Migration {
+        final Path path;
+        // Caminho relativo ao directório, com '/'
+        final String name;
+        final String version;
+        final long size;
+        final long lastModified;
+        private final long[] versionParts;
+
+        private Migration(Path path, String name, String version, long size, long lastModified) {
+            this.path = path;
+            this.name = name;
+            this.version = version;
+            this.size = size;
+            this.lastModified = lastModified;
+            String[] parts = version.split("[._]");
+            this.versionParts = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                versionParts[i] = Long.parseLong(parts[i]);
+            }
+        }
+
+        /**
+         * Compara versões parte a parte; partes em falta valem 0 (1 e 1.0 são a mesma versão).
+         */
+        private int compareVersion(Migration other) {
+            int length = Math.max(versionParts.length, other.versionParts.length);
+            for (int i = 0; i < length; i++) {
+                long a = i < versionParts.length ? versionParts[i] : 0;
+                long b = i < other.versionParts.length ? other.versionParts[i] : 0;
+                if (a != b) {
+                    return Long.compare(a, b);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Modelo guardado em cache e número de migrações (as primeiras da lista) já aplicadas nele.
+     */
+    static final class Snapshot {
+        final int applied;
+        final List<SQLParserJPAGenerator.TableInfo> tables;
+        final Map<String, SQLParserJPAGenerator.SequenceInfo> sequences;
+
+        private Snapshot(int applied, List<SQLParserJPAGenerator.TableInfo> tables,
+                         Map<String, SQLParserJPAGenerator.SequenceInfo> sequences) {
+            this.applied = applied;
+            this.tables = tables;
+            this.sequences = sequences;
+        }
+    }
+
+    private MigrationDirectory() {
+    }
+
+    /**
+     * Migrações versionadas do directório, por ordem de versão. Outros ficheiros .sql
+     * (ex.: migrações repetíveis R__) são ignorados com um aviso; versões repetidas são um erro.
+     */
+    static List<Migration> list(Path directory) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            if (!fileName.toLowerCase().endsWith(".sql")) {
+                continue;
+            }
+            String name = directory.relativize(file).toString().replace(File.separatorChar, '/');
+            Matcher matcher = VERSIONED.matcher(fileName);
+            if (!matcher.matches()) {
+                GeneratorLog.warn("Aviso: Ficheiro ignorado (não é uma migração V<versão>__<descrição>.sql): " + name);
+                continue;
+            }
+            migrations.add(new Migration(file, name, matcher.group(1).replace('_', '.'),
+                Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+        }
+        migrations.sort(Migration::compareVersion);
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i - 1).compareVersion(migrations.get(i)) == 0) {
+                throw new IllegalArgumentException("Versão de migração repetida: " + migrations.get(i - 1).name
+                    + " e " + migrations.get(i).name);
+            }
+        }
+        return migrations;
+    }
+
+    /**
+     * Lê a cache do directório de saída. Devolve null se não existir, for inválida, tiver sido criada
+     * com outras opções (key) ou as migrações que aplicou já não forem as primeiras da lista, sem alterações.
+     */
+    static Snapshot load(File outputDir, String key, List<Migration> migrations) {
+        Path path = new File(outputDir, CACHE_FILE_NAME).toPath();
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (!HEADER.equals(readString(in)) || !key.equals(readString(in))) {
+                return null;
+            }
+            int applied = in.readInt();
+            if (applied > migrations.size()) {
+                return null;
+            }
+            for (int i = 0; i < applied; i++) {
+                Migration migration = migrations.get(i);
+                if (!migration.name.equals(readString(in)) || migration.size != in.readLong()
+                        || migration.lastModified != in.readLong()) {
+                    return null;
+                }
+            }
+            int tableCount = in.readInt();
+            List<SQLParserJPAGenerator.TableInfo> tables = new ArrayList<>(tableCount);
+            for (int i = 0; i < tableCount; i++) {
+                tables.add(readTable(in));
+            }
+            int sequenceCount = in.readInt();
+            Map<String, SQLParserJPAGenerator.SequenceInfo> sequences = new LinkedHashMap<>();
+            for (int i = 0; i < sequenceCount; i++) {
+                SQLParserJPAGenerator.SequenceInfo sequence = new SQLParserJPAGenerator.SequenceInfo();
+                sequence.name = readString(in);
+                sequence.start = in.readLong();
+                sequence.increment = in.readLong();
+                sequences.put(sequence.name.toLowerCase(), sequence);
+            }
+            return new Snapshot(applied, tables, sequences);
+        } catch (IOException | RuntimeException e) {
+            // Cache truncada ou de outra versão: aplicar todas as migrações
+            return null;
+        }
+    }
+
+    /**
+     * Guarda o modelo depois de aplicar todas as migrações da lista.
+     */
+    static void save(File outputDir, String key, List<Migration> migrations,
+                     Collection<SQLParserJPAGenerator.TableInfo> tables,
+                     Collection<SQLParserJPAGenerator.SequenceInfo> sequences) throws IOException {
+        Path path = new File(outputDir, CACHE_FILE_NAME).toPath();
+        Path temp = new File(outputDir, CACHE_FILE_NAME + ".tmp").toPath();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            writeString(out, HEADER);
+            writeString(out, key);
+            out.writeInt(migrations.size());
+            for (Migration migration : migrations) {
+                writeString(out, migration.name);
+                out.writeLong(migration.size);
+                out.writeLong(migration.lastModified);
+            }
+            out.writeInt(tables.size());
+            for (SQLParserJPAGenerator.TableInfo table : tables) {
+                writeTable(out, table);
+            }
+            out.writeInt(sequences.size());
+            for (SQLParserJPAGenerator.SequenceInfo sequence : sequences) {
+                writeString(out, sequence.name);
+                out.writeLong(sequence.start);
+                out.writeLong(sequence.increment);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Só o que vem do SQL: relacionamentos, geradores de ids e sugestões de cache são recalculados em cada execução
+    private static void writeTable(DataOutputStream out, SQLParserJPAGenerator.TableInfo table) throws IOException {
+        writeString(out, table.name);
+        writeString(out, table.ddl);
+        writeString(out, table.className);
+        out.writeInt(table.columns.size());
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            writeString(out, column.name);
+            writeString(out, column.fieldName);
+            writeString(out, column.sqlType);
+            writeString(out, column.javaType);
+            out.writeBoolean(column.unsigned);
+            out.writeBoolean(column.nullable);
+            out.writeBoolean(column.primaryKey);
+            out.writeBoolean(column.autoIncrement);
+            writeString(out, column.defaultValue);
+            out.writeBoolean(column.unique);
+            out.writeInt(column.length);
+        }
+        writeStrings(out, table.primaryKeys);
+        writeString(out, table.primaryKeyName);
+        out.writeInt(table.foreignKeys.size());
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            writeString(out, fk.name);
+            writeString(out, fk.columnName);
+            writeString(out, fk.referencedTable);
+            writeString(out, fk.referencedColumn);
+        }
+        out.writeInt(table.indexes.size());
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            writeString(out, index.name);
+            out.writeBoolean(index.unique);
+            out.writeInt(index.columns.size());
+            for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+                writeString(out, column.name);
+                out.writeInt(column.prefixLength);
+                out.writeBoolean(column.descending);
+            }
+        }
+        writeStrings(out, table.unparsedElements);
+    }
+
+    private static SQLParserJPAGenerator.TableInfo readTable(DataInputStream in) throws IOException {
+        SQLParserJPAGenerator.TableInfo table = new SQLParserJPAGenerator.TableInfo();
+        table.name = readString(in);
+        table.ddl = readString(in);
+        table.className = readString(in);
+        int columnCount = in.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            SQLParserJPAGenerator.ColumnInfo column = new SQLParserJPAGenerator.ColumnInfo();
+            column.name = readString(in);
+            column.fieldName = readString(in);
+            String sqlType = readString(in);
+            column.sqlType = sqlType != null ? sqlType.intern() : null;
+            column.javaType = readString(in);
+            column.unsigned = in.readBoolean();
+            column.nullable = in.readBoolean();
+            column.primaryKey = in.readBoolean();
+            column.autoIncrement = in.readBoolean();
+            column.defaultValue = readString(in);
+            column.unique = in.readBoolean();
+            column.length = in.readInt();
+            table.columns.add(column);
+        }
+        readStrings(in, table.primaryKeys);
+        table.primaryKeyName = readString(in);
+        int fkCount = in.readInt();
+        for (int i = 0; i < fkCount; i++) {
+            SQLParserJPAGenerator.ForeignKeyInfo fk = new SQLParserJPAGenerator.ForeignKeyInfo();
+            fk.name = readString(in);
+            fk.columnName = readString(in);
+            fk.referencedTable = readString(in);
+            fk.referencedColumn = readString(in);
+            table.foreignKeys.add(fk);
+        }
+        int indexCount = in.readInt();
+        for (int i = 0; i < indexCount; i++) {
+            SQLParserJPAGenerator.IndexInfo index = new SQLParserJPAGenerator.IndexInfo();
+            index.name = readString(in);
+            index.unique = in.readBoolean();
+            int indexColumnCount = in.readInt();
+            for (int j = 0; j < indexColumnCount; j++) {
+                SQLParserJPAGenerator.IndexColumnInfo column = new SQLParserJPAGenerator.IndexColumnInfo();
+                column.name = readString(in);
+                column.prefixLength = in.readInt();
+                column.descending = in.readBoolean();
+                index.columns.add(column);
+            }
+            table.indexes.add(index);
+        }
+        List<String> unparsedElements = new ArrayList<>();
+        readStrings(in, unparsedElements);
+        if (!unparsedElements.isEmpty()) {
+            table.unparsedElements = unparsedElements;
+        }
+        return table;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    private static void readStrings(DataInputStream in, List<String> values) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            values.add(readString(in));
+        }
+    }
+
+    // writeUTF limita cada texto a 64 KB, e o DDL acumulado de uma tabela pode passar disso
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Gera, para cada entidade, um record de projecção (subpacote "projection") e um repositório
+ * Spring Data (subpacote "repository") com consultas JPQL de construtor que só lêem essas colunas.
+ *
+ * Os objectos devolvidos pelas consultas não são entidades geridas: o contexto de persistência não
+ * guarda cópias para o dirty checking, e as colunas de texto longo e binárias não chegam a ser lidas.
+ */
+class ProjectionGenerator {
+
+    static final String PROJECTION_PACKAGE = "projection";
+    static final String REPOSITORY_PACKAGE = "repository";
+
+    private final SQLParserJPAGenerator generator;
+
+    ProjectionGenerator(SQLParserJPAGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Colunas da projecção: todas menos as de texto longo e binárias.
+     */
+    List<SQLParserJPAGenerator.ColumnInfo> projectionColumns(SQLParserJPAGenerator.TableInfo table) {
+        List<SQLParserJPAGenerator.ColumnInfo> columns = new ArrayList<>(table.columns.size());
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            if (!generator.isLargeColumn(column)) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    static String projectionClassName(SQLParserJPAGenerator.TableInfo table) {
+        return table.className + "Summary";
+    }
+
+    static String repositoryClassName(SQLParserJPAGenerator.TableInfo table) {
+        return table.className + "Repository";
+    }
+
+    /**
+     * Pacote de um subpacote do pacote das entidades, ex.: "com.example.entities.projection".
+     */
+    static String subPackage(String packageName, String name) {
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    /**
+     * Record com as colunas da projecção, pela ordem da tabela.
+     */
+    StringBuilder renderProjection(SQLParserJPAGenerator.TableInfo table, String packageName) {
+        List<SQLParserJPAGenerator.ColumnInfo> columns = projectionColumns(table);
+        StringBuilder sb = new StringBuilder(512 + columns.size() * 48);
+
+        Set<String> imports = new TreeSet<>();
+        for (SQLParserJPAGenerator.ColumnInfo column : columns) {
+            addTypeImport(imports, column.javaType);
+        }
+
+        sb.append("package ").append(subPackage(packageName, PROJECTION_PACKAGE)).append(";\n\n");
+        appendImports(sb, imports);
+
+        sb.append("/**\n");
+        sb.append(" * Projecção só de leitura da tabela ").append(table.name);
+        if (columns.size() < table.columns.size()) {
+            sb.append(", sem as colunas de texto longo e binárias");
+        }
+        sb.append("\n");
+        sb.append(" * Gerada automaticamente pelo SQLParserJPAGenerator\n");
+        sb.append(" */\n");
+        sb.append("public record ").append(projectionClassName(table)).append("(");
+        for (int i = 0; i < columns.size(); i++) {
+            SQLParserJPAGenerator.ColumnInfo column = columns.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    ").append(column.javaType).append(" ").append(column.fieldName);
+        }
+        sb.append(columns.isEmpty() ? ") {\n" : "\n) {\n");
+        sb.append("}\n");
+        return sb;
+    }
+
+    /**
+     * Repositório da entidade com consultas que devolvem a projecção: todas as linhas, uma página
+     * (com consulta de contagem explícita) e, se a tabela tiver chave primária, uma linha pela chave.
+     */
+    StringBuilder renderRepository(SQLParserJPAGenerator.TableInfo table, String packageName) {
+        String projectionPackage = subPackage(packageName, PROJECTION_PACKAGE);
+        String repositoryPackage = subPackage(packageName, REPOSITORY_PACKAGE);
+        String projection = projectionClassName(table);
+        List<SQLParserJPAGenerator.ColumnInfo> keys = SQLParserJPAGenerator.primaryKeyColumns(table);
+        StringBuilder sb = new StringBuilder(2048);
+
+        Set<String> imports = new TreeSet<>();
+        if (!packageName.isEmpty()) {
+            imports.add(packageName + "." + table.className);
+        }
+        imports.add(projectionPackage + "." + projection);
+        imports.add("java.util.List");
+        imports.add("org.springframework.data.domain.Page");
+        imports.add("org.springframework.data.domain.Pageable");
+        imports.add("org.springframework.data.jpa.repository.JpaRepository");
+        imports.add("org.springframework.data.jpa.repository.Query");
+        if (!keys.isEmpty()) {
+            imports.add("java.util.Optional");
+            imports.add("org.springframework.data.repository.query.Param");
+            for (SQLParserJPAGenerator.ColumnInfo key : keys) {
+                addTypeImport(imports, key.javaType);
+            }
+        }
+
+        // Com chave composta (vários @Id, sem @IdClass) o Hibernate usa a própria entidade como identificador
+        String idType = keys.size() == 1
+            ? SQLParserJPAGenerator.boxedType(keys.get(0).javaType)
+            : table.className;
+
+        sb.append("package ").append(repositoryPackage).append(";\n\n");
+        appendImports(sb, imports);
+
+        sb.append("/**\n");
+        sb.append(" * Repositório Spring Data da entidade ").append(table.className)
+            .append(", com consultas de leitura que devolvem ").append(projection).append("\n");
+        sb.append(" * Gerado automaticamente pelo SQLParserJPAGenerator\n");
+        sb.append(" */\n");
+        sb.append("public interface ").append(repositoryClassName(table))
+            .append(" extends JpaRepository<").append(table.className).append(", ").append(idType).append("> {\n\n");
+
+        String select = selectProjection(table, projectionPackage + "." + projection);
+
+        sb.append("    @Query(\"").append(select).append("\")\n");
+        sb.append("    List<").append(projection).append("> findAllSummaries();\n\n");
+
+        sb.append("    @Query(value = \"").append(select).append("\",\n");
+        sb.append("           countQuery = \"select count(e) from ").append(table.className).append(" e\")\n");
+        sb.append("    Page<").append(projection).append("> findAllSummaries(Pageable pageable);\n");
+
+        if (!keys.isEmpty()) {
+            sb.append("\n");
+            sb.append("    @Query(\"").append(select).append(" where ");
+            for (int i = 0; i < keys.size(); i++) {
+                String field = keys.get(i).fieldName;
+                sb.append(i == 0 ? "" : " and ").append("e.").append(field).append(" = :").append(field);
+            }
+            sb.append("\")\n");
+            sb.append("    Optional<").append(projection).append("> findSummaryById(");
+            for (int i = 0; i < keys.size(); i++) {
+                SQLParserJPAGenerator.ColumnInfo key = keys.get(i);
+                sb.append(i == 0 ? "" : ", ")
+                    .append("@Param(\"").append(key.fieldName).append("\") ")
+                    .append(key.javaType).append(" ").append(key.fieldName);
+            }
+            sb.append(");\n");
+        }
+
+        sb.append("}\n");
+        return sb;
+    }
+
+    /**
+     * "select new pacote.XSummary(e.a, e.b) from X e"
+     */
+    private String selectProjection(SQLParserJPAGenerator.TableInfo table, String qualifiedProjection) {
+        StringBuilder select = new StringBuilder("select new ").append(qualifiedProjection).append("(");
+        List<SQLParserJPAGenerator.ColumnInfo> columns = projectionColumns(table);
+        for (int i = 0; i < columns.size(); i++) {
+            select.append(i == 0 ? "" : ", ").append("e.").append(columns.get(i).fieldName);
+        }
+        return select.append(") from ").append(table.className).append(" e").toString();
+    }
+
+    private static void addTypeImport(Set<String> imports, String javaType) {
+        if (SQLParserJPAGenerator.isPrimitive(javaType) || javaType.endsWith("[]")) {
+            return;
+        }
+        String qualified = SQLParserJPAGenerator.qualifiedJavaType(javaType);
+        if (!qualified.startsWith("java.lang.")) {
+            imports.add(qualified);
+        }
+    }
+
+    private static void appendImports(StringBuilder sb, Set<String> imports) {
+        if (imports.isEmpty()) {
+            return;
+        }
+        for (String imp : imports) {
+            sb.append("import ").append(imp).append(";\n");
+        }
+        sb.append("\n");
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Analisador léxico mínimo para definições SQL.
+ *
+ * Percorre o texto uma única vez e expõe apenas o token corrente (tipo e posições),
+ * sem criar objectos por token; o texto só é materializado quando pedido.
+ */
+final class SQLLexer {
+
+    static final int EOF = 0;
+    static final int WORD = 1;
+    static final int QUOTED_IDENTIFIER = 2;
+    static final int STRING = 3;
+    static final int NUMBER = 4;
+    static final int LPAREN = 5;
+    static final int RPAREN = 6;
+    static final int COMMA = 7;
+    static final int SYMBOL = 8;
+
+    private final String input;
+    private final int length;
+    private int pos;
+
+    private int type;
+    private int start;
+    private int end;
+
+    SQLLexer(String input) {
+        this.input = input;
+        this.length = input.length();
+        next();
+    }
+
+    int type() {
+        return type;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return end;
+    }
+
+    /**
+     * Avança para o próximo token e devolve o seu tipo.
+     */
+    int next() {
+        while (pos < length && Character.isWhitespace(input.charAt(pos))) {
+            pos++;
+        }
+        start = pos;
+        if (pos >= length) {
+            end = pos;
+            return type = EOF;
+        }
+
+        char c = input.charAt(pos);
+        switch (c) {
+            case '(':
+                pos++;
+                type = LPAREN;
+                break;
+            case ')':
+                pos++;
+                type = RPAREN;
+                break;
+            case ',':
+                pos++;
+                type = COMMA;
+                break;
+            case '\'':
+                pos = skipQuoted(pos, '\'', true);
+                type = STRING;
+                break;
+            case '`':
+                pos = skipQuoted(pos, '`', false);
+                type = QUOTED_IDENTIFIER;
+                break;
+            case '"':
+                pos = skipQuoted(pos, '"', false);
+                type = QUOTED_IDENTIFIER;
+                break;
+            case '[':
+                pos = skipQuoted(pos, ']', false);
+                type = QUOTED_IDENTIFIER;
+                break;
+            default:
+                if (Character.isDigit(c)) {
+                    pos++;
+                    while (pos < length && (Character.isDigit(input.charAt(pos)) || input.charAt(pos) == '.')) {
+                        pos++;
+                    }
+                    type = NUMBER;
+                } else if (isWordStart(c)) {
+                    pos++;
+                    while (pos < length && isWordPart(input.charAt(pos))) {
+                        pos++;
+                    }
+                    type = WORD;
+                } else {
+                    pos++;
+                    type = SYMBOL;
+                }
+        }
+        end = pos;
+        return type;
+    }
+
+    /**
+     * Verifica, sem distinguir maiúsculas, se o token corrente é a palavra indicada.
+     * A palavra deve ser passada em maiúsculas.
+     */
+    boolean isWord(String keyword) {
+        return type == WORD && end - start == keyword.length()
+            && input.regionMatches(true, start, keyword, 0, keyword.length());
+    }
+
+    boolean isSymbol(char symbol) {
+        return type == SYMBOL && input.charAt(start) == symbol;
+    }
+
+    /**
+     * Consome a palavra indicada se for o token corrente.
+     */
+    boolean accept(String keyword) {
+        if (isWord(keyword)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    boolean isIdentifier() {
+        return type == WORD || type == QUOTED_IDENTIFIER;
+    }
+
+    /**
+     * Texto do token corrente tal como aparece na entrada.
+     */
+    String text() {
+        return input.substring(start, end);
+    }
+
+    /**
+     * Nome do identificador corrente, sem as aspas delimitadoras (a de fecho pode faltar no fim do texto).
+     */
+    String identifier() {
+        if (type == QUOTED_IDENTIFIER) {
+            char close = input.charAt(start) == '[' ? ']' : input.charAt(start);
+            int to = end - start >= 2 && input.charAt(end - 1) == close ? end - 1 : end;
+            return input.substring(start + 1, to);
+        }
+        return text();
+    }
+
+    String slice(int from, int to) {
+        return input.substring(from, to);
+    }
+
+    /**
+     * Indica se o próximo carácter (sem saltar espaços) está colado ao token corrente.
+     */
+    boolean isFollowedImmediatelyBy(char c) {
+        return end < length && input.charAt(end) == c;
+    }
+
+    private int skipQuoted(int from, char close, boolean backslashEscapes) {
+        int i = from + 1;
+        while (i < length) {
+            char c = input.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i += 2;
+                continue;
+            }
+            i++;
+            if (c == close) {
+                // Aspas duplicadas representam a própria aspa
+                if (i < length && input.charAt(i) == close && close != ']') {
+                    i++;
+                    continue;
+                }
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_' || c == '$' || c == '@';
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
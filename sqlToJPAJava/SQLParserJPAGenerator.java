@@ -1,382 +1,1424 @@
 import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class SQLParserJPAGenerator {
-    
-    private static final Map<String, String> SQL_TO_JAVA_TYPE_MAP = new HashMap<>();
-    private static final Map<String, String> IMPORT_MAP = new HashMap<>();
-    
-    static {
-        // Mapeamento de tipos SQL para Java
-        SQL_TO_JAVA_TYPE_MAP.put("VARCHAR", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("CHAR", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("TEXT", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("LONGTEXT", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("MEDIUMTEXT", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("TINYTEXT", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("CLOB", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("NVARCHAR", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("NCHAR", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("NTEXT", "String");
-        
-        SQL_TO_JAVA_TYPE_MAP.put("INT", "Integer");
-        SQL_TO_JAVA_TYPE_MAP.put("INTEGER", "Integer");
-        SQL_TO_JAVA_TYPE_MAP.put("SMALLINT", "Short");
-        SQL_TO_JAVA_TYPE_MAP.put("TINYINT", "Byte");
-        SQL_TO_JAVA_TYPE_MAP.put("BIGINT", "Long");
-        SQL_TO_JAVA_TYPE_MAP.put("MEDIUMINT", "Integer");
-        
-        SQL_TO_JAVA_TYPE_MAP.put("DECIMAL", "BigDecimal");
-        SQL_TO_JAVA_TYPE_MAP.put("NUMERIC", "BigDecimal");
-        SQL_TO_JAVA_TYPE_MAP.put("MONEY", "BigDecimal");
-        SQL_TO_JAVA_TYPE_MAP.put("SMALLMONEY", "BigDecimal");
-        SQL_TO_JAVA_TYPE_MAP.put("FLOAT", "Float");
-        SQL_TO_JAVA_TYPE_MAP.put("REAL", "Float");
-        SQL_TO_JAVA_TYPE_MAP.put("DOUBLE", "Double");
-        
-        SQL_TO_JAVA_TYPE_MAP.put("DATE", "LocalDate");
-        SQL_TO_JAVA_TYPE_MAP.put("TIME", "LocalTime");
-        SQL_TO_JAVA_TYPE_MAP.put("TIMESTAMP", "LocalDateTime");
-        SQL_TO_JAVA_TYPE_MAP.put("DATETIME", "LocalDateTime");
-        SQL_TO_JAVA_TYPE_MAP.put("DATETIME2", "LocalDateTime");
-        SQL_TO_JAVA_TYPE_MAP.put("SMALLDATETIME", "LocalDateTime");
-        
-        SQL_TO_JAVA_TYPE_MAP.put("BOOLEAN", "Boolean");
-        SQL_TO_JAVA_TYPE_MAP.put("BOOL", "Boolean");
-        SQL_TO_JAVA_TYPE_MAP.put("BIT", "Boolean");
-        
-        SQL_TO_JAVA_TYPE_MAP.put("BLOB", "byte[]");
-        SQL_TO_JAVA_TYPE_MAP.put("LONGBLOB", "byte[]");
-        SQL_TO_JAVA_TYPE_MAP.put("MEDIUMBLOB", "byte[]");
-        SQL_TO_JAVA_TYPE_MAP.put("TINYBLOB", "byte[]");
-        SQL_TO_JAVA_TYPE_MAP.put("BINARY", "byte[]");
-        SQL_TO_JAVA_TYPE_MAP.put("VARBINARY", "byte[]");
-        SQL_TO_JAVA_TYPE_MAP.put("IMAGE", "byte[]");
-        
-        SQL_TO_JAVA_TYPE_MAP.put("JSON", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("JSONB", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("XML", "String");
-        SQL_TO_JAVA_TYPE_MAP.put("UUID", "UUID");
-        
-        // Mapeamento de imports necessários
-        IMPORT_MAP.put("BigDecimal", "java.math.BigDecimal");
-        IMPORT_MAP.put("BigInteger", "java.math.BigInteger");
-        IMPORT_MAP.put("LocalDate", "java.time.LocalDate");
-        IMPORT_MAP.put("LocalTime", "java.time.LocalTime");
-        IMPORT_MAP.put("LocalDateTime", "java.time.LocalDateTime");
-        IMPORT_MAP.put("UUID", "java.util.UUID");
-        IMPORT_MAP.put("Objects", "java.util.Objects");
+import sqltojpa.EntityGenerator;
+import sqltojpa.SchemaModel;
+
+public class SQLParserJPAGenerator implements EntityGenerator {
+    
+    // Alterar sempre que o código gerado mudar, para invalidar os manifestos existentes
+    private static final String GENERATOR_VERSION = "5";
+    
+    // Instruções lidas do SQL: as restantes (INSERT, rotinas, etc.) são saltadas pelo leitor
+    private static final String[] SCHEMA_STATEMENTS = {
+        "CREATE TABLE", "CREATE SEQUENCE", "ALTER TABLE", "DROP TABLE", "CREATE INDEX", "CREATE UNIQUE",
+        "CREATE CLUSTERED", "CREATE NONCLUSTERED"};
+    
+    // Buffer de geração reutilizado por thread (evita um StringBuilder novo por tabela)
+    private static final ThreadLocal<StringBuilder> SOURCE_BUFFER =
+        ThreadLocal.withInitial(() -> new StringBuilder(16 * 1024));
+    
+    // Limites da análise de --cache e --dynamic-update
+    private static final int LOOKUP_MAX_COLUMNS = 8;
+    private static final int DYNAMIC_UPDATE_MIN_COLUMNS = 10;
+    
+    // As tabelas de tipos são switch sobre String (sem HashMap preenchido no arranque) e as expressões
+    // regulares usadas só em algumas opções ficam em classes internas, compiladas no primeiro uso
+    private static final class NextvalPattern {
+        static final Pattern PATTERN = Pattern.compile("(?i)nextval\\s*\\(\\s*'([^']+)'");
+    }
+    
+    // Colunas que indicam dados alterados com frequência (datas de alteração, contadores, estados, versões)
+    private static final class VolatileColumnName {
+        static final Pattern PATTERN = Pattern.compile(
+            "(?i)(^|_)(version|status|state|quantity|stock|balance|count|counter)(_|$)|_at$|^last_|updated|modified");
     }
     
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.out.println("Uso: java SQLParserJPAGenerator <caminho_ficheiro_sql> [pacote_destino] [directorio_saida]");
-            System.out.println("Exemplo: java SQLParserJPAGenerator schema.sql com.example.entities ./src/main/java");
+        // Separar argumentos posicionais das opções (--nome[=valor])
+        List<String> positional = new ArrayList<>();
+        List<String> flags = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                flags.add(arg);
+            } else {
+                positional.add(arg);
+            }
+        }
+        
+        GeneratorOptions options;
+        try {
+            options = GeneratorOptions.parse(flags);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.out.print(GeneratorOptions.USAGE);
+            return;
+        }
+        GeneratorLog.setLevel(options.logLevel);
+        
+        if (options.servePort >= 0) {
+            try {
+                new GenerationServer(options).run();
+            } catch (Exception e) {
+                GeneratorLog.error("Erro no modo servidor: " + e.getMessage());
+                e.printStackTrace();
+            }
             return;
         }
         
-        String sqlFilePath = args[0];
-        String packageName = args.length > 1 ? args[1] : "com.example.entities";
-        String outputDir = args.length > 2 ? args[2] : "./generated-entities";
+        if (positional.isEmpty()) {
+            System.out.println("Uso: java SQLParserJPAGenerator <caminho_ficheiro_sql> [pacote_destino] [directorio_saida] [opções]");
+            System.out.println("     java SQLParserJPAGenerator --serve[=PORTA] [opções]");
+            System.out.println("Exemplo: java SQLParserJPAGenerator schema.sql com.example.entities ./src/main/java --threads=8");
+            System.out.println("         java -cp .:h2.jar SQLParserJPAGenerator jdbc:h2:./db com.example.entities ./src/main/java --schemas=PUBLIC");
+            System.out.print(GeneratorOptions.USAGE);
+            return;
+        }
+        
+        String sqlFilePath = positional.get(0);
+        String packageName = positional.size() > 1 ? positional.get(1) : "com.example.entities";
+        String outputDir = positional.size() > 2 ? positional.get(2) : "./generated-entities";
+        
+        if (options.watch && JdbcSchemaReader.isJdbcUrl(sqlFilePath)) {
+            System.err.println("A opção --watch não pode ser usada com um URL JDBC");
+            return;
+        }
         
         try {
-            SQLParserJPAGenerator generator = new SQLParserJPAGenerator();
-            generator.generateEntitiesFromSQL(sqlFilePath, packageName, outputDir);
+            SQLParserJPAGenerator generator = new SQLParserJPAGenerator(options);
+            if (options.lintFile != null) {
+                if (!generator.lintSQL(sqlFilePath)) {
+                    System.exit(1);
+                }
+            } else if (options.watch) {
+                new SchemaWatcher(generator, sqlFilePath, packageName, outputDir).run();
+            } else {
+                generator.generateEntitiesFromSQL(sqlFilePath, packageName, outputDir);
+            }
         } catch (Exception e) {
-            System.err.println("Erro ao gerar entidades: " + e.getMessage());
+            GeneratorLog.error("Erro ao gerar entidades: " + e.getMessage());
             e.printStackTrace();
         }
     }
     
+    final GeneratorOptions options;
+    
+    // Tabelas da última execução, indexadas pela instrução CREATE TABLE normalizada
+    private volatile Map<String, TableInfo> parsedTables = Collections.emptyMap();
+    
+    public SQLParserJPAGenerator() {
+        this(new GeneratorOptions());
+    }
+    
+    /**
+     * Gerador com opções no formato da linha de comandos (ex.: "--threads=4").
+     */
+    public SQLParserJPAGenerator(List<String> options) {
+        this(GeneratorOptions.parse(options));
+    }
+    
+    SQLParserJPAGenerator(GeneratorOptions options) {
+        this.options = options;
+    }
+    
     public void generateEntitiesFromSQL(String sqlFilePath, String packageName, String outputDir) throws IOException {
-        // Criar directório de saída
+        // Criar directório de saída (não é usado quando as entidades vão para um .srcjar ou .jar)
         File outputDirectory = new File(outputDir);
-        if (!outputDirectory.exists()) {
+        String archive = options.bytecodeJar != null ? options.bytecodeJar : options.srcJar;
+        boolean incremental = archive == null;
+        if (incremental && !outputDirectory.exists()) {
             outputDirectory.mkdirs();
         }
         
-        String sqlContent = new String(Files.readAllBytes(Paths.get(sqlFilePath)));
-        
-        // Limpar e normalizar o SQL
-        sqlContent = cleanSQL(sqlContent);
-        
-        // Extrair informações das tabelas
-        List<TableInfo> tables = parseSQL(sqlContent);
-        
-        // Processar relacionamentos
-        processRelationships(tables, sqlContent);
-        
-        // Gerar classes
-        for (TableInfo table : tables) {
-            generateEntityClass(table, packageName, outputDir);
+        // Com mais de uma thread, a análise e a geração de cada tabela são tarefas independentes;
+        // os resultados são sempre recolhidos pela ordem do ficheiro, por isso a saída não depende do escalonamento
+        ExecutorService executor = options.threads > 1 ? new ForkJoinPool(options.threads) : null;
+        GeneratorStats stats = new GeneratorStats(sqlFilePath, options.threads,
+            options.statsFile != null || GeneratorLog.isDebugEnabled());
+        try {
+            // Ler o SQL instrução a instrução (sem comentários e com espaços normalizados)
+            // e extrair informações das tabelas
+            // (ou, se o caminho for um directório, aplicar as migrações por ordem de versão)
+            Map<String, SequenceInfo> sequences = new LinkedHashMap<>();
+            SchemaReplay replay = readSchema(sqlFilePath, executor, stats, parsedTables, sequences,
+                incremental ? outputDirectory : null);
+            List<TableInfo> tables = replay.tables();
+            
+            // Manter o modelo analisado em memória para a próxima execução
+            Map<String, TableInfo> parsed = new HashMap<>();
+            for (TableInfo table : replay.created()) {
+                parsed.put(table.ddl, table);
+            }
+            parsedTables = parsed;
+            
+            // Processar relacionamentos (barreira entre a análise e a geração)
+            long relationshipsStart = System.nanoTime();
+            processRelationships(tables);
+            assignIdGenerators(tables, sequences);
+            narrowTypes(tables);
+            assignCacheHints(tables);
+            stats.add(GeneratorStats.Phase.RELATIONSHIPS, System.nanoTime() - relationshipsStart, 0);
+            
+            // Saltar tabelas cuja impressão digital não mudou desde a última execução
+            GenerationManifest manifest = GenerationManifest.load(outputDirectory);
+            
+            // Gerar classes
+            try (SourceSink sink = incremental
+                    ? new DirectorySourceSink(outputDirectory)
+                    : new SrcJarSourceSink(Paths.get(archive))) {
+                // A entidade, a projecção e o repositório de cada tabela são escritos juntos, pela ordem
+                // das tabelas: o conteúdo do .srcjar não depende do número de threads
+                Deque<PendingEntity> pending = new ArrayDeque<>();
+                int maxPending = Math.max(1, options.threads * 4);
+                for (TableInfo table : entitiesToGenerate(tables)) {
+                    String fingerprint = incremental ? fingerprint(table, packageName) : null;
+                    PendingEntity entity = new PendingEntity(table);
+                    if (options.projections) {
+                        entity.projection = isStale(projectionFile(table), fingerprint, manifest, outputDirectory);
+                        entity.repository = isStale(repositoryFile(table), fingerprint, manifest, outputDirectory);
+                    }
+                    boolean unchanged = false;
+                    if (incremental) {
+                        String fileName = table.className + ".java";
+                        manifest.record(fileName, fingerprint);
+                        unchanged = !options.full && manifest.isUnchanged(fileName, fingerprint, outputDirectory);
+                    }
+                    if (unchanged) {
+                        stats.entityUnchanged();
+                        if (!entity.projection && !entity.repository) {
+                            continue;
+                        }
+                    } else {
+                        entity.source = submit(executor, () -> generateEntityClass(table, packageName, sink, stats));
+                    }
+                    pending.add(entity);
+                    while (pending.size() >= maxPending) {
+                        writeEntityClass(pending.poll(), packageName, sink, stats);
+                    }
+                }
+                while (!pending.isEmpty()) {
+                    writeEntityClass(pending.poll(), packageName, sink, stats);
+                }
+                sink.commit();
+                stats.add(GeneratorStats.Phase.WRITE, 0, sink.bytesWritten());
+            }
+            
+            if (incremental) {
+                // Remover entidades de tabelas que deixaram de existir
+                for (String orphan : manifest.orphans()) {
+                    if (Files.deleteIfExists(new File(outputDirectory, orphan).toPath())) {
+                        stats.entityRemoved();
+                        GeneratorLog.info("Entidade removida: " + orphan);
+                    }
+                }
+                manifest.save(outputDirectory);
+            }
+            
+            stats.finish();
+            // Só as entidades escritas nesta execução; as inalteradas e as tabelas com o nome de
+            // classe de outra não contam
+            GeneratorLog.info("Geração concluída! " + stats.written() + " entidades geradas em: "
+                + (incremental ? outputDir : archive)
+                + (stats.unchanged() > 0 ? " (" + stats.unchanged() + " inalteradas)" : ""));
+            if (GeneratorLog.isDebugEnabled()) {
+                GeneratorLog.debug(stats.summary());
+            }
+            if (options.statsFile != null) {
+                stats.writeJson(Paths.get(options.statsFile));
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
         }
-        
-        System.out.println("Geração concluída! " + tables.size() + " entidades criadas em: " + outputDir);
     }
     
-    private String cleanSQL(String sqlContent) {
-        // Remove comentários de linha
-        sqlContent = sqlContent.replaceAll("--.*$", "");
-        
-        // Remove comentários de bloco
-        sqlContent = sqlContent.replaceAll("/\\*[\\s\\S]*?\\*/", "");
-        
-        // Normalizar espaços
-        sqlContent = sqlContent.replaceAll("\\s+", " ");
-        
-        return sqlContent;
+    /**
+     * Analisa o esquema sem gerar entidades e escreve os resultados em JSON no ficheiro de --lint.
+     * Devolve false se houver resultados com a severidade de --fail-on ou superior.
+     */
+    public boolean lintSQL(String sqlFilePath) throws IOException {
+        ExecutorService executor = options.threads > 1 ? new ForkJoinPool(options.threads) : null;
+        try {
+            GeneratorStats stats = new GeneratorStats(sqlFilePath, options.threads, false);
+            List<TableInfo> tables = readSchema(sqlFilePath, executor, stats, Collections.emptyMap(),
+                new LinkedHashMap<>(), null).tables();
+            processRelationships(tables);
+            
+            List<SchemaLint.Finding> findings = new SchemaLint(this).analyze(tables);
+            SchemaLint.writeJson(Paths.get(options.lintFile), sqlFilePath, findings);
+            
+            int failures = 0;
+            for (SchemaLint.Finding finding : findings) {
+                GeneratorLog.info("[" + finding.severity.key + "] " + finding.table + ": " + finding.message
+                    + " (" + finding.rule + ")");
+                if (options.failOn != null && finding.severity.compareTo(options.failOn) >= 0) {
+                    failures++;
+                }
+            }
+            GeneratorLog.info("Análise concluída: " + tables.size() + " tabelas, " + findings.size()
+                + " resultados em " + options.lintFile);
+            if (failures > 0) {
+                GeneratorLog.error(failures + " resultados com severidade " + options.failOn.key + " ou superior");
+                return false;
+            }
+            return true;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
     }
     
-    private List<TableInfo> parseSQL(String sqlContent) {
-        List<TableInfo> tables = new ArrayList<>();
-        
-        // Regex melhorada para CREATE TABLE
-        Pattern createTablePattern = Pattern.compile(
-            "CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?(?:`([^`]+)`|([\\w_]+))\\s*\\((.*?)\\)\\s*(?:ENGINE|DEFAULT|COMMENT|;|$)",
-            Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-        );
-        
-        Matcher matcher = createTablePattern.matcher(sqlContent);
-        
-        while (matcher.find()) {
-            String tableName = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
-            String tableDefinition = matcher.group(3);
-            
-            if (tableName != null && !tableName.trim().isEmpty()) {
-                TableInfo table = new TableInfo();
-                table.name = tableName.trim();
-                table.className = toCamelCase(table.name);
-                table.columns = parseColumns(tableDefinition);
-                table.primaryKeys = findPrimaryKeys(tableDefinition);
-                table.foreignKeys = findForeignKeys(tableDefinition);
-                
-                // Marcar colunas como chave primária
-                for (String pkColumn : table.primaryKeys) {
-                    table.columns.stream()
-                        .filter(col -> col.name.equals(pkColumn))
-                        .findFirst()
-                        .ifPresent(col -> col.primaryKey = true);
+    @Override
+    public SchemaModel parse(CharSequence sql) {
+        try (SQLStatementReader reader = new SQLStatementReader(CharBuffer.wrap(sql), SCHEMA_STATEMENTS)) {
+            return parse((executor, stats, sequences) ->
+                readTables(reader, executor, stats, Collections.emptyMap(), sequences));
+        } catch (IOException e) {
+            // Um CharBuffer não lança IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public SchemaModel parse(Reader sql) throws IOException {
+        try (SQLStatementReader reader = new SQLStatementReader(sql, SCHEMA_STATEMENTS)) {
+            return parse((executor, stats, sequences) ->
+                readTables(reader, executor, stats, Collections.emptyMap(), sequences));
+        }
+    }
+    
+    @Override
+    public SchemaModel parse(Path sqlFile) throws IOException {
+        return parse((executor, stats, sequences) ->
+            readSchema(sqlFile, executor, stats, Collections.emptyMap(), sequences, null));
+    }
+    
+    /**
+     * Leitura de um esquema com o executor e as estatísticas de uma chamada à API.
+     */
+    @FunctionalInterface
+    private interface SchemaSource {
+        SchemaReplay read(ExecutorService executor, GeneratorStats stats, Map<String, SequenceInfo> sequences)
+            throws IOException;
+    }
+    
+    private SchemaModel parse(SchemaSource source) throws IOException {
+        ExecutorService executor = options.threads > 1 ? new ForkJoinPool(options.threads) : null;
+        try {
+            // Sem cache: cada chamada tem tabelas próprias, que nenhuma outra chamada altera
+            GeneratorStats stats = new GeneratorStats("-", options.threads, false);
+            Map<String, SequenceInfo> sequences = new LinkedHashMap<>();
+            List<TableInfo> tables = source.read(executor, stats, sequences).tables();
+            processRelationships(tables);
+            return toSchemaModel(tables, sequences.values());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+    
+    @Override
+    public Map<String, CharSequence> generate(SchemaModel schema, String packageName) {
+        Map<String, CharSequence> sources = new LinkedHashMap<>();
+        try {
+            generate(schema, packageName, (className, source) -> sources.put(className, source.toString()));
+        } catch (IOException e) {
+            // O callback acima não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        return Collections.unmodifiableMap(sources);
+    }
+    
+    @Override
+    public void generate(SchemaModel schema, String packageName, SourceCallback callback) throws IOException {
+        List<TableInfo> tables = fromSchemaModel(schema);
+        processRelationships(tables);
+        assignIdGenerators(tables, fromSchemaModelSequences(schema));
+        narrowTypes(tables);
+        assignCacheHints(tables);
+        String prefix = packageName.isEmpty() ? "" : packageName + ".";
+        for (TableInfo table : entitiesToGenerate(tables)) {
+            callback.accept(prefix + table.className, renderEntityClass(table, packageName));
+            if (options.projections) {
+                ProjectionGenerator projections = new ProjectionGenerator(this);
+                callback.accept(ProjectionGenerator.subPackage(packageName, ProjectionGenerator.PROJECTION_PACKAGE)
+                    + "." + ProjectionGenerator.projectionClassName(table),
+                    projections.renderProjection(table, packageName));
+                callback.accept(ProjectionGenerator.subPackage(packageName, ProjectionGenerator.REPOSITORY_PACKAGE)
+                    + "." + ProjectionGenerator.repositoryClassName(table),
+                    projections.renderRepository(table, packageName));
+            }
+        }
+    }
+    
+    private static SchemaModel toSchemaModel(List<TableInfo> tables, Collection<SequenceInfo> sequences) {
+        List<SchemaModel.Table> modelTables = new ArrayList<>(tables.size());
+        for (TableInfo table : tables) {
+            List<SchemaModel.Column> columns = new ArrayList<>(table.columns.size());
+            for (ColumnInfo column : table.columns) {
+                columns.add(new SchemaModel.Column(column.name, column.fieldName, column.sqlType, column.javaType,
+                    column.unsigned, column.nullable, column.primaryKey, column.autoIncrement, column.defaultValue,
+                    column.unique, column.length));
+            }
+            List<SchemaModel.ForeignKey> foreignKeys = new ArrayList<>(table.foreignKeys.size());
+            for (ForeignKeyInfo fk : table.foreignKeys) {
+                foreignKeys.add(new SchemaModel.ForeignKey(fk.columnName, fk.referencedTable, fk.referencedColumn,
+                    fk.referencedTableInfo != null ? fk.referencedTableInfo.className : null));
+            }
+            List<SchemaModel.Index> indexes = new ArrayList<>(table.indexes.size());
+            for (IndexInfo index : table.indexes) {
+                List<SchemaModel.IndexColumn> indexColumns = new ArrayList<>(index.columns.size());
+                for (IndexColumnInfo column : index.columns) {
+                    indexColumns.add(new SchemaModel.IndexColumn(column.name, column.prefixLength, column.descending));
                 }
-                
-                tables.add(table);
-                System.out.println("Tabela encontrada: " + table.name + " (" + table.columns.size() + " colunas)");
+                indexes.add(new SchemaModel.Index(index.name, index.unique, indexColumns));
             }
+            modelTables.add(new SchemaModel.Table(table.name, table.className, table.ddl, columns,
+                table.primaryKeys, foreignKeys, indexes));
+        }
+        List<SchemaModel.Sequence> modelSequences = new ArrayList<>(sequences.size());
+        for (SequenceInfo sequence : sequences) {
+            modelSequences.add(new SchemaModel.Sequence(sequence.name, sequence.start, sequence.increment));
+        }
+        return new SchemaModel(modelTables, modelSequences);
+    }
+    
+    /**
+     * Cópia mutável do modelo público, para a geração (que resolve as chaves estrangeiras nas tabelas).
+     */
+    private static List<TableInfo> fromSchemaModel(SchemaModel schema) {
+        List<TableInfo> tables = new ArrayList<>(schema.getTables().size());
+        for (SchemaModel.Table modelTable : schema.getTables()) {
+            TableInfo table = new TableInfo();
+            table.name = modelTable.getName();
+            table.className = modelTable.getClassName();
+            table.ddl = modelTable.getDdl();
+            for (SchemaModel.Column modelColumn : modelTable.getColumns()) {
+                ColumnInfo column = new ColumnInfo();
+                column.name = modelColumn.getName();
+                column.fieldName = modelColumn.getFieldName();
+                column.sqlType = modelColumn.getSqlType();
+                column.javaType = modelColumn.getJavaType();
+                column.unsigned = modelColumn.isUnsigned();
+                column.nullable = modelColumn.isNullable();
+                column.primaryKey = modelColumn.isPrimaryKey();
+                column.autoIncrement = modelColumn.isAutoIncrement();
+                column.defaultValue = modelColumn.getDefaultValue();
+                column.unique = modelColumn.isUnique();
+                column.length = modelColumn.getLength();
+                table.columns.add(column);
+            }
+            table.primaryKeys.addAll(modelTable.getPrimaryKeys());
+            for (SchemaModel.ForeignKey modelKey : modelTable.getForeignKeys()) {
+                ForeignKeyInfo fk = new ForeignKeyInfo();
+                fk.columnName = modelKey.getColumnName();
+                fk.referencedTable = modelKey.getReferencedTable();
+                fk.referencedColumn = modelKey.getReferencedColumn();
+                table.foreignKeys.add(fk);
+            }
+            for (SchemaModel.Index modelIndex : modelTable.getIndexes()) {
+                IndexInfo index = new IndexInfo();
+                index.name = modelIndex.getName();
+                index.unique = modelIndex.isUnique();
+                for (SchemaModel.IndexColumn modelColumn : modelIndex.getColumns()) {
+                    IndexColumnInfo column = new IndexColumnInfo();
+                    column.name = modelColumn.getName();
+                    column.prefixLength = modelColumn.getPrefixLength();
+                    column.descending = modelColumn.isDescending();
+                    index.columns.add(column);
+                }
+                table.indexes.add(index);
+            }
+            tables.add(table);
         }
-        
         return tables;
     }
     
-    private List<ColumnInfo> parseColumns(String tableDefinition) {
-        List<ColumnInfo> columns = new ArrayList<>();
-        
-        // Dividir por vírgulas, mas ignorar vírgulas dentro de parênteses
-        String[] lines = splitByCommaIgnoringParentheses(tableDefinition);
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.isEmpty() || isConstraintLine(line)) {
+    private static Map<String, SequenceInfo> fromSchemaModelSequences(SchemaModel schema) {
+        Map<String, SequenceInfo> sequences = new LinkedHashMap<>();
+        for (SchemaModel.Sequence modelSequence : schema.getSequences()) {
+            SequenceInfo sequence = new SequenceInfo();
+            sequence.name = modelSequence.getName();
+            sequence.start = modelSequence.getStart();
+            sequence.increment = modelSequence.getIncrement();
+            sequences.put(sequence.name.toLowerCase(), sequence);
+        }
+        return sequences;
+    }
+    
+    /**
+     * Lê o esquema de um URL JDBC (jdbc:...) através dos metadados da base de dados,
+     * ou de um ficheiro SQL ou directório de migrações.
+     */
+    private SchemaReplay readSchema(String source, ExecutorService executor, GeneratorStats stats,
+                                    Map<String, TableInfo> cache, Map<String, SequenceInfo> sequences,
+                                    File cacheDirectory) throws IOException {
+        if (JdbcSchemaReader.isJdbcUrl(source)) {
+            return new JdbcSchemaReader(this, source).read(stats);
+        }
+        return readSchema(Paths.get(source), executor, stats, cache, sequences, cacheDirectory);
+    }
+    
+    /**
+     * Lê o esquema de um ficheiro SQL ou, se o caminho for um directório, de um directório de migrações.
+     * Com cacheDirectory, o modelo das migrações é guardado aí para a execução seguinte.
+     */
+    private SchemaReplay readSchema(Path path, ExecutorService executor, GeneratorStats stats,
+                                    Map<String, TableInfo> cache, Map<String, SequenceInfo> sequences,
+                                    File cacheDirectory) throws IOException {
+        if (Files.isDirectory(path)) {
+            return readMigrations(path, executor, stats, sequences, cacheDirectory);
+        }
+        try (SQLStatementReader reader = new SQLStatementReader(path, SCHEMA_STATEMENTS)) {
+            return readTables(reader, executor, stats, cache, sequences);
+        }
+    }
+    
+    /**
+     * Lê e analisa todas as instruções CREATE TABLE, pela ordem do ficheiro, e aplica-lhes as instruções
+     * ALTER TABLE, DROP TABLE e CREATE INDEX que vêm depois.
+     * Instruções presentes em cache (a execução anterior, em --watch) não voltam a ser analisadas.
+     * As instruções CREATE SEQUENCE são analisadas logo na leitura e guardadas em sequences (nome em minúsculas).
+     */
+    private SchemaReplay readTables(SQLStatementReader reader, ExecutorService executor, GeneratorStats stats,
+                                    Map<String, TableInfo> cache, Map<String, SequenceInfo> sequences)
+            throws IOException {
+        SchemaReplay replay = new SchemaReplay(this);
+        Deque<Future<TableInfo>> pending = new ArrayDeque<>();
+        int maxPending = Math.max(1, options.threads * 4);
+        long readerNanos = 0;
+        long statementChars = 0;
+        while (true) {
+            long start = System.nanoTime();
+            String statement = reader.nextStatement();
+            readerNanos += System.nanoTime() - start;
+            if (statement == null) {
+                break;
+            }
+            statementChars += statement.length();
+            if (statement.regionMatches(true, 0, "CREATE SEQUENCE", 0, 15)) {
+                SequenceInfo sequence = new ColumnDefinitionParser(statement).parseCreateSequence();
+                if (sequence != null) {
+                    sequences.put(sequence.name.toLowerCase(), sequence);
+                }
                 continue;
             }
-            
-            ColumnInfo column = parseColumn(line);
-            if (column != null) {
-                columns.add(column);
+            if (!isCreateTable(statement)) {
+                // ALTER/DROP TABLE e CREATE INDEX aplicam-se às tabelas criadas antes
+                while (!pending.isEmpty()) {
+                    collectTable(pending.poll(), replay);
+                }
+                replay.apply(statement);
+                continue;
+            }
+            pending.add(submit(executor, () -> parseStatement(statement, stats, cache)));
+            // Limitar o número de instruções em memória à espera de análise
+            while (pending.size() >= maxPending) {
+                collectTable(pending.poll(), replay);
             }
         }
-        
-        return columns;
+        while (!pending.isEmpty()) {
+            collectTable(pending.poll(), replay);
+        }
+        stats.add(GeneratorStats.Phase.READ, reader.readNanos(), reader.bytesRead());
+        stats.add(GeneratorStats.Phase.CLEAN, readerNanos - reader.readNanos(), statementChars);
+        stats.setTables(replay.tables().size());
+        return replay;
     }
     
-    private String[] splitByCommaIgnoringParentheses(String input) {
-        List<String> result = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
-        int parenthesesCount = 0;
+    private static boolean isCreateTable(String statement) {
+        return statement.regionMatches(true, 0, "CREATE TABLE", 0, 12);
+    }
+    
+    /**
+     * Aplica as migrações de um directório por ordem de versão. Cada ficheiro é lido e as suas instruções
+     * CREATE TABLE analisadas numa tarefa própria; só a aplicação das instruções ao modelo é sequencial.
+     * Se a cache em cacheDirectory corresponder às primeiras migrações, só as seguintes são lidas.
+     */
+    private SchemaReplay readMigrations(Path directory, ExecutorService executor, GeneratorStats stats,
+                                        Map<String, SequenceInfo> sequences, File cacheDirectory)
+            throws IOException {
+        List<MigrationDirectory.Migration> migrations = MigrationDirectory.list(directory);
+        String cacheKey = GENERATOR_VERSION + "\n" + options.fingerprint();
+        SchemaReplay replay = new SchemaReplay(this);
+        int first = 0;
+        if (cacheDirectory != null && !options.full) {
+            MigrationDirectory.Snapshot snapshot = MigrationDirectory.load(cacheDirectory, cacheKey, migrations);
+            if (snapshot != null) {
+                for (TableInfo table : snapshot.tables) {
+                    replay.restore(table);
+                }
+                sequences.putAll(snapshot.sequences);
+                first = snapshot.applied;
+                GeneratorLog.info("Modelo em cache até à migração " + (first > 0 ? migrations.get(first - 1).name : "-")
+                    + "; " + (migrations.size() - first) + " migrações novas");
+            }
+        }
         
-        for (char c : input.toCharArray()) {
-            if (c == '(') {
-                parenthesesCount++;
-            } else if (c == ')') {
-                parenthesesCount--;
-            } else if (c == ',' && parenthesesCount == 0) {
-                result.add(current.toString().trim());
-                current = new StringBuilder();
-                continue;
+        Deque<Future<List<Object>>> pending = new ArrayDeque<>();
+        Deque<MigrationDirectory.Migration> reading = new ArrayDeque<>();
+        int maxPending = Math.max(1, options.threads * 2);
+        for (int i = first; i < migrations.size(); i++) {
+            MigrationDirectory.Migration migration = migrations.get(i);
+            reading.add(migration);
+            pending.add(submit(executor, () -> readMigration(migration, stats)));
+            while (pending.size() >= maxPending) {
+                applyMigration(reading.poll(), await(pending.poll()), replay, sequences);
             }
-            current.append(c);
+        }
+        while (!pending.isEmpty()) {
+            applyMigration(reading.poll(), await(pending.poll()), replay, sequences);
         }
         
-        if (current.length() > 0) {
-            result.add(current.toString().trim());
+        if (cacheDirectory != null && (first < migrations.size() || options.full)) {
+            MigrationDirectory.save(cacheDirectory, cacheKey, migrations, replay.tables(), sequences.values());
+        }
+        stats.setTables(replay.tables().size());
+        return replay;
+    }
+    
+    /**
+     * Lê uma migração e devolve as suas instruções pela ordem do ficheiro: TableInfo para CREATE TABLE
+     * (já analisado), SequenceInfo para CREATE SEQUENCE e o texto das restantes.
+     */
+    private List<Object> readMigration(MigrationDirectory.Migration migration, GeneratorStats stats)
+            throws IOException {
+        List<Object> statements = new ArrayList<>();
+        try (SQLStatementReader reader = new SQLStatementReader(migration.path, SCHEMA_STATEMENTS)) {
+            long readerNanos = 0;
+            long statementChars = 0;
+            while (true) {
+                long start = System.nanoTime();
+                String statement = reader.nextStatement();
+                readerNanos += System.nanoTime() - start;
+                if (statement == null) {
+                    break;
+                }
+                statementChars += statement.length();
+                if (statement.regionMatches(true, 0, "CREATE SEQUENCE", 0, 15)) {
+                    SequenceInfo sequence = new ColumnDefinitionParser(statement).parseCreateSequence();
+                    if (sequence != null) {
+                        statements.add(sequence);
+                    }
+                } else if (isCreateTable(statement)) {
+                    TableInfo table = parseStatement(statement, stats, Collections.emptyMap());
+                    if (table != null) {
+                        statements.add(table);
+                    }
+                } else {
+                    statements.add(statement);
+                }
+            }
+            stats.add(GeneratorStats.Phase.READ, reader.readNanos(), reader.bytesRead());
+            stats.add(GeneratorStats.Phase.CLEAN, readerNanos - reader.readNanos(), statementChars);
+        }
+        return statements;
+    }
+    
+    private static void applyMigration(MigrationDirectory.Migration migration, List<Object> statements,
+                                       SchemaReplay replay, Map<String, SequenceInfo> sequences) {
+        for (Object statement : statements) {
+            if (statement instanceof TableInfo) {
+                replay.create((TableInfo) statement);
+            } else if (statement instanceof SequenceInfo) {
+                SequenceInfo sequence = (SequenceInfo) statement;
+                sequences.put(sequence.name.toLowerCase(), sequence);
+            } else {
+                replay.apply((String) statement);
+            }
+        }
+        if (GeneratorLog.isDebugEnabled()) {
+            GeneratorLog.debug("Migração aplicada: " + migration.name + " (versão " + migration.version + ")");
+        }
+    }
+    
+    /**
+     * Tabelas com o mesmo nome de classe escrevem o mesmo ficheiro: só a última é gerada,
+     * como aconteceria ao gerá-las em sequência, e uma instrução repetida só é gerada uma vez.
+     */
+    private static List<TableInfo> entitiesToGenerate(List<TableInfo> tables) {
+        Map<String, TableInfo> lastByClassName = new HashMap<>();
+        for (TableInfo table : tables) {
+            lastByClassName.put(table.className, table);
+        }
+        List<TableInfo> entities = new ArrayList<>(lastByClassName.size());
+        for (TableInfo table : tables) {
+            if (lastByClassName.remove(table.className, table)) {
+                entities.add(table);
+            }
+        }
+        return entities;
+    }
+    
+    private void writeEntityClass(PendingEntity entity, String packageName, SourceSink sink,
+                                  GeneratorStats stats) throws IOException {
+        if (entity.source != null) {
+            writeEntityClass(entity.table, entity.source, packageName, sink, stats);
+        }
+        if (entity.projection || entity.repository) {
+            writeProjections(entity, packageName, sink, stats);
+        }
+    }
+    
+    private void writeEntityClass(TableInfo table, Future<Object> future, String packageName,
+                                  SourceSink sink, GeneratorStats stats) throws IOException {
+        Object content = await(future);
+        // Destinos sem escrita concorrente recebem o conteúdo aqui, pela ordem das tabelas
+        if (content instanceof byte[]) {
+            long start = System.nanoTime();
+            sink.write(packageName, table.className + ".class", (byte[]) content);
+            stats.add(GeneratorStats.Phase.WRITE, System.nanoTime() - start, 0);
+        } else if (content != null) {
+            long start = System.nanoTime();
+            sink.write(packageName, table.className + ".java", (CharSequence) content);
+            stats.add(GeneratorStats.Phase.WRITE, System.nanoTime() - start, 0);
+        }
+        stats.entityWritten();
+        if (GeneratorLog.isDebugEnabled()) {
+            GeneratorLog.debug("Entidade gerada: " + table.className + (options.bytecodeJar != null ? ".class" : ".java"));
+        }
+    }
+    
+    /**
+     * Escreve a projecção e o repositório de uma entidade nos subdirectórios dos respectivos subpacotes,
+     * logo a seguir à entidade. São pequenos e gerados na thread que escreve, pela ordem das tabelas.
+     */
+    private void writeProjections(PendingEntity entity, String packageName, SourceSink sink,
+                                  GeneratorStats stats) throws IOException {
+        ProjectionGenerator projections = new ProjectionGenerator(this);
+        long start = System.nanoTime();
+        if (entity.projection) {
+            sink.write(packageName, projectionFile(entity.table), projections.renderProjection(entity.table, packageName));
+        }
+        if (entity.repository) {
+            sink.write(packageName, repositoryFile(entity.table), projections.renderRepository(entity.table, packageName));
+        }
+        stats.add(GeneratorStats.Phase.WRITE, System.nanoTime() - start, 0);
+    }
+    
+    private static String projectionFile(TableInfo table) {
+        return ProjectionGenerator.PROJECTION_PACKAGE + "/" + ProjectionGenerator.projectionClassName(table) + ".java";
+    }
+    
+    private static String repositoryFile(TableInfo table) {
+        return ProjectionGenerator.REPOSITORY_PACKAGE + "/" + ProjectionGenerator.repositoryClassName(table) + ".java";
+    }
+    
+    /**
+     * Regista o ficheiro no manifesto (se a saída for incremental) e indica se tem de ser gerado.
+     */
+    private boolean isStale(String fileName, String fingerprint, GenerationManifest manifest, File outputDirectory) {
+        if (fingerprint == null) {
+            return true;
+        }
+        manifest.record(fileName, fingerprint);
+        return options.full || !manifest.isUnchanged(fileName, fingerprint, outputDirectory);
+    }
+    
+    private void collectTable(Future<TableInfo> future, SchemaReplay replay) throws IOException {
+        TableInfo table = await(future);
+        if (table != null) {
+            replay.create(table);
+            if (GeneratorLog.isDebugEnabled()) {
+                GeneratorLog.debug("Tabela encontrada: " + table.name + " (" + table.columns.size() + " colunas)");
+            }
+        }
+    }
+    
+    private TableInfo parseStatement(String statement, GeneratorStats stats, Map<String, TableInfo> cache) {
+        GeneratorEvents.TableParsed event = stats.beginTableParsed();
+        long start = System.nanoTime();
+        // Instruções iguais às da execução anterior reutilizam a tabela já analisada
+        TableInfo cached = cache.get(statement);
+        TableInfo table = cached != null ? cached : parseSQL(statement);
+        long elapsed = System.nanoTime() - start;
+        if (table != null) {
+            stats.tableParsed(event, table, statement.length(), elapsed, cached != null);
+        } else {
+            stats.statementFailed(elapsed, statement.length());
+            GeneratorLog.warn("Aviso: Não foi possível interpretar a instrução: " + abbreviate(statement));
+        }
+        return table;
+    }
+    
+    static String abbreviate(String statement) {
+        return statement.length() <= 80 ? statement : statement.substring(0, 77) + "...";
+    }
+    
+    /**
+     * Impressão digital de uma tabela: DDL normalizado, destinos resolvidos das chaves estrangeiras
+     * e opções de geração. Se não mudar, o ficheiro gerado também não muda.
+     */
+    private String fingerprint(TableInfo table, String packageName) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(GENERATOR_VERSION).append('\n');
+        sb.append(packageName).append('\n');
+        sb.append(options.fingerprint()).append('\n');
+        sb.append(table.ddl).append('\n');
+        for (ForeignKeyInfo fk : table.foreignKeys) {
+            sb.append(fk.columnName).append("->").append(fk.referencedTable).append(':')
+                .append(fk.referencedTableInfo != null ? fk.referencedTableInfo.className : "-")
+                .append(':').append(fk.fieldName).append('\n');
+        }
+        // As colecções e os grafos dependem das tabelas filhas
+        for (InverseRelationInfo inverse : inverseRelationships(table)) {
+            sb.append(inverse.fieldName).append("<-").append(inverse.table.className).append('.').append(inverse.fk.fieldName);
+            for (ForeignKeyInfo fk : inverse.table.foreignKeys) {
+                sb.append(',').append(fk.fieldName);
+            }
+            sb.append('\n');
+        }
+        // A análise de --cache depende das tabelas que referem esta
+        if (table.cacheable || table.dynamicUpdate) {
+            sb.append(table.cacheable ? "cacheable" : "").append(':').append(table.dynamicUpdate ? "dynamic-update" : "").append('\n');
         }
+        // A sequência usada pode vir de outra instrução (CREATE SEQUENCE)
+        for (ColumnInfo column : table.columns) {
+            IdGeneratorInfo generator = column.idGenerator;
+            if (generator != null) {
+                sb.append(column.name).append(':').append(generator.strategy).append(':').append(generator.sequenceName)
+                    .append(':').append(generator.initialValue).append(':').append(generator.allocationSize).append('\n');
+            }
+        }
+        byte[] hash = digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
         
-        return result.toArray(new String[0]);
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
     }
     
-    private boolean isConstraintLine(String line) {
-        String upperLine = line.toUpperCase();
-        return upperLine.startsWith("PRIMARY KEY") || 
-               upperLine.startsWith("FOREIGN KEY") || 
-               upperLine.startsWith("KEY") ||
-               upperLine.startsWith("INDEX") || 
-               upperLine.startsWith("UNIQUE") ||
-               upperLine.startsWith("CONSTRAINT") ||
-               upperLine.startsWith("CHECK");
+    private static <T> Future<T> submit(ExecutorService executor, Callable<T> task) {
+        if (executor != null) {
+            return executor.submit(task);
+        }
+        // Modo sequencial: executar já, na thread corrente
+        FutureTask<T> future = new FutureTask<>(task);
+        future.run();
+        return future;
+    }
+    
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Geração interrompida");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
     }
     
-    private ColumnInfo parseColumn(String columnDefinition) {
-        // Regex mais robusta para parsing de colunas
-        Pattern columnPattern = Pattern.compile(
-            "(?:`([^`]+)`|([\\w_]+))\\s+" +                           // nome da coluna
-            "([\\w()\\s,]+?)\\s*" +                                   // tipo
-            "(?:\\s+(NOT\\s+NULL|NULL))?\\s*" +                       // nullability
-            "(?:\\s+(AUTO_INCREMENT|IDENTITY))?\\s*" +                // auto increment
-            "(?:\\s+(PRIMARY\\s+KEY))?\\s*" +                         // primary key
-            "(?:\\s+DEFAULT\\s+([^,\\s]+))?\\s*" +                    // default value
-            "(?:\\s+COMMENT\\s+['\"]([^'\"]*)['\"])?",               // comment
-            Pattern.CASE_INSENSITIVE
-        );
+    TableInfo parseSQL(String statement) {
+        TableInfo table = new ColumnDefinitionParser(statement).parseCreateTable();
+        if (table == null) {
+            return null;
+        }
         
-        Matcher matcher = columnPattern.matcher(columnDefinition);
+        table.ddl = statement;
+        resolveTypes(table);
+        return table;
+    }
+    
+    /**
+     * Nome da classe, nomes e tipos Java dos campos, chave primária e restrições UNIQUE de uma tabela
+     * acabada de analisar. Pode ser repetido depois de cada ALTER TABLE: tudo é derivado outra vez do SQL.
+     */
+    void resolveTypes(TableInfo table) {
+        table.className = toCamelCase(table.name);
         
-        if (matcher.find()) {
-            ColumnInfo column = new ColumnInfo();
-            column.name = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+        for (ColumnInfo column : table.columns) {
             column.fieldName = toCamelCase(column.name, false);
-            
-            String sqlType = matcher.group(3).trim().toUpperCase();
-            column.sqlType = extractBaseType(sqlType);
             column.javaType = convertSQLTypeToJava(column.sqlType);
             
             // Verificar se é unsigned
-            if (sqlType.contains("UNSIGNED")) {
+            if (column.unsigned) {
                 column.javaType = adjustForUnsigned(column.javaType);
             }
-            
-            String nullability = matcher.group(4);
-            column.nullable = nullability == null || nullability.toUpperCase().contains("NULL");
-            
-            String autoIncrement = matcher.group(5);
-            column.autoIncrement = autoIncrement != null;
-            
-            String primaryKey = matcher.group(6);
-            column.primaryKey = primaryKey != null;
-            
-            String defaultValue = matcher.group(7);
-            column.defaultValue = defaultValue;
-            
-            return column;
-        } else {
-            System.err.println("Aviso: Não foi possível parsear a definição da coluna: " + columnDefinition);
+        }
+        
+        // Marcar colunas como chave primária
+        for (String pkColumn : table.primaryKeys) {
+            ColumnInfo column = findColumnExact(table, pkColumn);
+            if (column != null) {
+                column.primaryKey = true;
+            }
+        }
+        
+        // UNIQUE numa coluna e UNIQUE (coluna) sem nome são a mesma restrição: a coluna fica com
+        // @Column(unique = true) e a restrição aparece uma vez no modelo de índices
+        for (ColumnInfo column : table.columns) {
+            if (column.unique && findSingleColumnUnique(table, column.name) == null) {
+                IndexInfo index = new IndexInfo();
+                index.unique = true;
+                IndexColumnInfo indexColumn = new IndexColumnInfo();
+                indexColumn.name = column.name;
+                index.columns.add(indexColumn);
+                table.indexes.add(index);
+            }
+        }
+        for (IndexInfo index : table.indexes) {
+            if (isColumnUnique(index)) {
+                ColumnInfo column = findColumnExact(table, index.columns.get(0).name);
+                if (column != null) {
+                    column.unique = true;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Tipos Java que dependem das opções de geração: primitivos com --primitives e Clob/Blob com --lob-streams.
+     * É feito na geração e não na análise, para que o modelo analisado (e a cache de --serve) não dependa
+     * das opções. Pode ser repetido sobre as mesmas tabelas.
+     */
+    void narrowTypes(List<TableInfo> tables) {
+        for (TableInfo table : tables) {
+            for (ColumnInfo column : table.columns) {
+                // Colunas geradas ficam com o tipo embrulhado: o JPA usa null para reconhecer entidades novas
+                if (options.primitives && !column.nullable && !isGenerated(column)) {
+                    column.javaType = primitiveType(column.javaType);
+                }
+                // Com --lob-streams os LOB são lidos através de localizadores, sem copiar o conteúdo
+                if (options.lobStreams && isLob(column)) {
+                    column.javaType = column.javaType.equals("byte[]") || column.javaType.equals("Blob") ? "Blob" : "Clob";
+                }
+            }
+        }
+    }
+    
+    /**
+     * Colunas com valor gerado: AUTO_INCREMENT/IDENTITY, DEFAULT nextval('...') ou chave com um gerador
+     * SEQUENCE/TABLE de --id-strategy (por isso narrowTypes corre depois de assignIdGenerators).
+     */
+    private static boolean isGenerated(ColumnInfo column) {
+        return column.autoIncrement || column.idGenerator != null || sequenceInDefault(column.defaultValue) != null;
+    }
+    
+    private static ColumnInfo findColumnExact(TableInfo table, String name) {
+        for (ColumnInfo column : table.columns) {
+            if (column.name.equals(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+    
+    private static IndexInfo findSingleColumnUnique(TableInfo table, String columnName) {
+        for (IndexInfo index : table.indexes) {
+            if (isColumnUnique(index) && index.columns.get(0).name.equals(columnName)) {
+                return index;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Restrição UNIQUE sem nome sobre uma coluna inteira, representada por @Column(unique = true).
+     */
+    private static boolean isColumnUnique(IndexInfo index) {
+        return index.unique && index.name == null && index.columns.size() == 1
+            && index.columns.get(0).prefixLength == 0;
+    }
+    
+    private String adjustForUnsigned(String javaType) {
+        // Ajustar tipos para unsigned
+        switch (javaType) {
+            case "Byte":
+                return "Short";
+            case "Short":
+                return "Integer";
+            case "Integer":
+                return "Long";
+            case "Long":
+                return "BigInteger";
+            default:
+                return javaType;
+        }
+    }
+    
+    /**
+     * Marca as tabelas com cache de segundo nível (--cache) e com @DynamicUpdate (--dynamic-update):
+     * as indicadas na opção e, com "auto", as escolhidas pela análise do grafo de chaves estrangeiras.
+     *
+     * Uma tabela de referência (ex.: Categories) é pequena, é referida por outras tabelas, não tem colunas
+     * voláteis e só referencia outras tabelas de referência. Uma tabela larga com colunas voláteis
+     * (ex.: updated_at, status) fica com @DynamicUpdate, para o UPDATE só enviar as colunas alteradas.
+     */
+    void assignCacheHints(List<TableInfo> tables) {
+        Map<TableInfo, Integer> inbound = new HashMap<>();
+        for (TableInfo table : tables) {
+            for (ForeignKeyInfo fk : table.foreignKeys) {
+                if (fk.referencedTableInfo != null && fk.referencedTableInfo != table) {
+                    inbound.merge(fk.referencedTableInfo, 1, Integer::sum);
+                }
+            }
+        }
+        
+        Set<TableInfo> lookups = new HashSet<>();
+        if (options.cacheAuto) {
+            for (TableInfo table : tables) {
+                if (inbound.containsKey(table) && table.columns.size() <= LOOKUP_MAX_COLUMNS && !hasVolatileColumn(table)) {
+                    lookups.add(table);
+                }
+            }
+            // Uma tabela que referencia dados transaccionais (ex.: Addresses -> Customers) não é de referência;
+            // repetir até estabilizar, porque retirar uma tabela pode excluir as que a referenciam
+            boolean changed = true;
+            while (changed) {
+                changed = lookups.removeIf(table -> {
+                    for (ForeignKeyInfo fk : table.foreignKeys) {
+                        if (fk.referencedTableInfo != null && fk.referencedTableInfo != table
+                                && !lookups.contains(fk.referencedTableInfo)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                });
+            }
+        }
+        
+        for (TableInfo table : tables) {
+            String name = table.name.toLowerCase();
+            table.cacheable = lookups.contains(table) || options.cacheTables.contains(name);
+            table.dynamicUpdate = options.dynamicUpdateTables.contains(name) || options.dynamicUpdateAuto
+                && table.columns.size() >= DYNAMIC_UPDATE_MIN_COLUMNS && hasVolatileColumn(table);
+            if (GeneratorLog.isDebugEnabled() && (table.cacheable || table.dynamicUpdate)) {
+                GeneratorLog.debug("Tabela " + table.name + ":" + (table.cacheable ? " @Cacheable" : "")
+                    + (table.dynamicUpdate ? " @DynamicUpdate" : "")
+                    + (lookups.contains(table) ? " (tabela de referência, " + inbound.get(table) + " FK de entrada)" : ""));
+            }
+        }
+    }
+    
+    private static boolean hasVolatileColumn(TableInfo table) {
+        for (ColumnInfo column : table.columns) {
+            if (isVolatileSqlType(column.sqlType) || VolatileColumnName.PATTERN.matcher(column.name).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Escolhe como é gerada cada chave primária AUTO_INCREMENT/IDENTITY (ou com DEFAULT nextval('...')),
+     * segundo --id-strategy: IDENTITY, como até aqui, ou um gerador SEQUENCE/TABLE com pré-alocação,
+     * que permite ao Hibernate agrupar os INSERT em lotes JDBC.
+     *
+     * Com SEQUENCE, uma sequência declarada no SQL para a coluna é reutilizada, com allocationSize igual
+     * ao seu INCREMENT BY (o optimizador pooled exige que sejam iguais); sem ela, usa-se a sequência
+     * tabela_seq com --allocation-size.
+     */
+    void assignIdGenerators(List<TableInfo> tables, Map<String, SequenceInfo> sequences) {
+        for (TableInfo table : tables) {
+            String strategy = options.idStrategy(table.name);
+            for (ColumnInfo column : table.columns) {
+                column.idGenerator = null;
+                if (!column.primaryKey || strategy.equals(GeneratorOptions.ID_IDENTITY)) {
+                    continue;
+                }
+                String defaultSequence = sequenceInDefault(column.defaultValue);
+                if (!column.autoIncrement && defaultSequence == null) {
+                    continue;
+                }
+                
+                IdGeneratorInfo generator = new IdGeneratorInfo();
+                generator.name = table.className + "IdGenerator";
+                generator.allocationSize = options.allocationSize;
+                if (strategy.equals(GeneratorOptions.ID_TABLE)) {
+                    generator.strategy = "TABLE";
+                    generator.sequenceName = table.name;
+                } else {
+                    generator.strategy = "SEQUENCE";
+                    SequenceInfo sequence = findSequence(table, column, defaultSequence, sequences);
+                    if (sequence != null) {
+                        generator.sequenceName = sequence.name;
+                        generator.initialValue = sequence.start;
+                        generator.allocationSize = (int) Math.max(1, Math.min(sequence.increment, Integer.MAX_VALUE));
+                        if (generator.allocationSize < options.allocationSize) {
+                            GeneratorLog.info("Sequência " + sequence.name + " com INCREMENT BY " + sequence.increment
+                                + ": " + table.className + " usa allocationSize = " + generator.allocationSize
+                                + " (ALTER SEQUENCE " + sequence.name + " INCREMENT BY " + options.allocationSize
+                                + " permite pré-alocar " + options.allocationSize + ")");
+                        }
+                    } else if (defaultSequence != null) {
+                        // Sequência existente mas não declarada no SQL: o incremento é desconhecido
+                        generator.sequenceName = defaultSequence;
+                        generator.allocationSize = 1;
+                    } else {
+                        generator.sequenceName = table.name + "_seq";
+                    }
+                }
+                column.idGenerator = generator;
+            }
+        }
+    }
+    
+    /**
+     * Sequência declarada para a coluna: a do DEFAULT nextval('...'), ou tabela_coluna_seq,
+     * tabela_seq ou seq_tabela (sem distinguir maiúsculas).
+     */
+    private static SequenceInfo findSequence(TableInfo table, ColumnInfo column, String defaultSequence,
+                                             Map<String, SequenceInfo> sequences) {
+        String tableName = table.name.toLowerCase();
+        String[] candidates = {
+            defaultSequence,
+            tableName + "_" + column.name.toLowerCase() + "_seq",
+            tableName + "_seq",
+            "seq_" + tableName
+        };
+        for (String candidate : candidates) {
+            if (candidate != null && sequences.containsKey(candidate.toLowerCase())) {
+                return sequences.get(candidate.toLowerCase());
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Nome da sequência num DEFAULT nextval('esquema.nome'::regclass), sem o esquema, ou null.
+     */
+    static String sequenceInDefault(String defaultValue) {
+        if (defaultValue == null) {
+            return null;
+        }
+        Matcher matcher = NextvalPattern.PATTERN.matcher(defaultValue);
+        if (!matcher.find()) {
             return null;
         }
+        String name = matcher.group(1).replace("\"", "");
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+    
+    void processRelationships(List<TableInfo> tables) {
+        // Processar relacionamentos entre tabelas
+        Map<String, TableInfo> tableMap = new HashMap<>();
+        for (TableInfo table : tables) {
+            tableMap.put(table.name, table);
+            table.inverseRelationships = Collections.emptyList();
+        }
+        
+        for (TableInfo table : tables) {
+            Set<String> usedNames = fieldNames(table);
+            for (ForeignKeyInfo fk : table.foreignKeys) {
+                // Tabelas reutilizadas entre execuções (--watch) podem ter perdido o destino
+                fk.referencedTableInfo = tableMap.get(fk.referencedTable);
+                fk.fieldName = fk.referencedTableInfo != null ? relationshipFieldName(table, fk, usedNames) : null;
+            }
+        }
+        
+        // Lado inverso (@OneToMany), depois de todos os campos @ManyToOne terem nome
+        if (options.oneToMany) {
+            for (TableInfo table : tables) {
+                for (ForeignKeyInfo fk : table.foreignKeys) {
+                    if (fk.referencedTableInfo != null) {
+                        InverseRelationInfo inverse = new InverseRelationInfo();
+                        inverse.table = table;
+                        inverse.fk = fk;
+                        TableInfo referenced = fk.referencedTableInfo;
+                        if (referenced.inverseRelationships.isEmpty()) {
+                            referenced.inverseRelationships = new ArrayList<>();
+                        }
+                        referenced.inverseRelationships.add(inverse);
+                    }
+                }
+            }
+            for (TableInfo table : tables) {
+                if (!table.inverseRelationships.isEmpty()) {
+                    nameInverseRelationships(table);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Nome do campo @ManyToOne: o da tabela referenciada (ex.: customers) ou, quando há várias chaves para
+     * a mesma tabela, a tabela se referencia a si própria ou o nome já existe, o da coluna sem _id
+     * (ex.: shipping_address_id -> shippingAddress).
+     */
+    private String relationshipFieldName(TableInfo table, ForeignKeyInfo fk, Set<String> usedNames) {
+        String name = toCamelCase(fk.referencedTable, false);
+        int sameTarget = 0;
+        for (ForeignKeyInfo other : table.foreignKeys) {
+            if (other.referencedTable.equals(fk.referencedTable)) {
+                sameTarget++;
+            }
+        }
+        if (sameTarget > 1 || fk.referencedTable.equals(table.name) || usedNames.contains(name)) {
+            String base = withoutIdSuffix(fk.columnName);
+            name = base.isEmpty() ? "" : toCamelCase(base, false);
+            if (name.isEmpty() || usedNames.contains(name)) {
+                name = toCamelCase(fk.columnName, false) + capitalizeFirst(toCamelCase(fk.referencedTable, false));
+            }
+        }
+        return uniqueName(name, usedNames);
+    }
+    
+    /**
+     * Nome da coluna sem o sufixo _id (em qualquer capitalização) ou Id.
+     */
+    private static String withoutIdSuffix(String columnName) {
+        int length = columnName.length();
+        if (columnName.regionMatches(true, length - 3, "_id", 0, 3)) {
+            return columnName.substring(0, length - 3);
+        }
+        return columnName.endsWith("Id") ? columnName.substring(0, length - 2) : columnName;
+    }
+    
+    /**
+     * Nomes das colecções @OneToMany: a tabela filha (ex.: orders) ou, com várias chaves da mesma tabela
+     * ou auto-referências, a tabela filha e o campo @ManyToOne (ex.: ordersByShippingAddress).
+     */
+    private void nameInverseRelationships(TableInfo table) {
+        Set<String> usedNames = fieldNames(table);
+        for (ForeignKeyInfo fk : table.foreignKeys) {
+            if (fk.fieldName != null) {
+                usedNames.add(fk.fieldName);
+            }
+        }
+        for (InverseRelationInfo inverse : table.inverseRelationships) {
+            String name = toCamelCase(inverse.table.name, false);
+            int sameChild = 0;
+            for (InverseRelationInfo other : table.inverseRelationships) {
+                if (other.table == inverse.table) {
+                    sameChild++;
+                }
+            }
+            if (sameChild > 1 || inverse.table == table || usedNames.contains(name)) {
+                name = name + "By" + capitalizeFirst(inverse.fk.fieldName);
+            }
+            inverse.fieldName = uniqueName(name, usedNames);
+        }
+    }
+    
+    private static Set<String> fieldNames(TableInfo table) {
+        Set<String> names = new HashSet<>();
+        for (ColumnInfo column : table.columns) {
+            names.add(column.fieldName);
+        }
+        return names;
+    }
+    
+    private static String uniqueName(String name, Set<String> usedNames) {
+        String unique = name;
+        for (int i = 2; !usedNames.add(unique); i++) {
+            unique = name + i;
+        }
+        return unique;
     }
     
-    private String extractBaseType(String sqlType) {
-        // Extrair tipo base (sem parâmetros)
-        int parenIndex = sqlType.indexOf('(');
-        if (parenIndex != -1) {
-            sqlType = sqlType.substring(0, parenIndex);
-        }
-        
-        // Remover UNSIGNED se presente
-        sqlType = sqlType.replaceAll("\\s+UNSIGNED", "");
-        
-        return sqlType.trim();
+    private String convertSQLTypeToJava(String sqlType) {
+        String javaType = javaTypeOf(sqlType);
+        return javaType != null ? javaType : "String";
     }
     
-    private String adjustForUnsigned(String javaType) {
-        // Ajustar tipos para unsigned
-        switch (javaType) {
-            case "Byte":
-                return "Short";
-            case "Short":
+    static boolean isKnownSqlType(String sqlType) {
+        return javaTypeOf(sqlType) != null;
+    }
+    
+    /**
+     * Tipo Java de um tipo SQL, ou null se o tipo não for conhecido.
+     */
+    private static String javaTypeOf(String sqlType) {
+        if (sqlType == null) {
+            return null;
+        }
+        switch (sqlType) {
+            case "VARCHAR":
+            case "CHAR":
+            case "TEXT":
+            case "LONGTEXT":
+            case "MEDIUMTEXT":
+            case "TINYTEXT":
+            case "CLOB":
+            case "NVARCHAR":
+            case "NCHAR":
+            case "NTEXT":
+            case "NCLOB":
+            case "JSON":
+            case "JSONB":
+            case "XML":
+                return "String";
+            case "INT":
+            case "INTEGER":
+            case "MEDIUMINT":
                 return "Integer";
-            case "Integer":
+            case "SMALLINT":
+                return "Short";
+            case "TINYINT":
+                return "Byte";
+            case "BIGINT":
                 return "Long";
-            case "Long":
-                return "BigInteger";
+            case "DECIMAL":
+            case "NUMERIC":
+            case "MONEY":
+            case "SMALLMONEY":
+                return "BigDecimal";
+            case "FLOAT":
+            case "REAL":
+                return "Float";
+            case "DOUBLE":
+                return "Double";
+            case "DATE":
+                return "LocalDate";
+            case "TIME":
+                return "LocalTime";
+            case "TIMESTAMP":
+            case "DATETIME":
+            case "DATETIME2":
+            case "SMALLDATETIME":
+                return "LocalDateTime";
+            case "BOOLEAN":
+            case "BOOL":
+            case "BIT":
+                return "Boolean";
+            case "BLOB":
+            case "LONGBLOB":
+            case "MEDIUMBLOB":
+            case "TINYBLOB":
+            case "BINARY":
+            case "VARBINARY":
+            case "IMAGE":
+            case "BYTEA":
+            case "RAW":
+                return "byte[]";
+            case "UUID":
+                return "UUID";
             default:
-                return javaType;
+                return null;
         }
     }
     
-    private List<String> findPrimaryKeys(String tableDefinition) {
-        List<String> primaryKeys = new ArrayList<>();
-        
-        Pattern pkPattern = Pattern.compile(
-            "PRIMARY\\s+KEY\\s*\\(([^)]+)\\)",
-            Pattern.CASE_INSENSITIVE
-        );
-        
-        Matcher matcher = pkPattern.matcher(tableDefinition);
-        if (matcher.find()) {
-            String pkColumns = matcher.group(1);
-            String[] columns = pkColumns.split(",");
-            for (String column : columns) {
-                column = column.trim().replaceAll("`", "");
-                primaryKeys.add(column);
-            }
+    /**
+     * Nome qualificado dos tipos que precisam de import, ou null.
+     */
+    private static String importOf(String simpleName) {
+        if (simpleName == null) {
+            return null;
         }
-        
-        return primaryKeys;
-    }
-    
-    private List<ForeignKeyInfo> findForeignKeys(String tableDefinition) {
-        List<ForeignKeyInfo> foreignKeys = new ArrayList<>();
-        
-        Pattern fkPattern = Pattern.compile(
-            "FOREIGN\\s+KEY\\s*\\(([^)]+)\\)\\s*REFERENCES\\s+(?:`([^`]+)`|([\\w_]+))\\s*\\(([^)]+)\\)",
-            Pattern.CASE_INSENSITIVE
-        );
-        
-        Matcher matcher = fkPattern.matcher(tableDefinition);
-        while (matcher.find()) {
-            ForeignKeyInfo fk = new ForeignKeyInfo();
-            fk.columnName = matcher.group(1).trim().replaceAll("`", "");
-            fk.referencedTable = matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
-            fk.referencedColumn = matcher.group(4).trim().replaceAll("`", "");
-            
-            foreignKeys.add(fk);
+        switch (simpleName) {
+            case "BigDecimal":
+                return "java.math.BigDecimal";
+            case "BigInteger":
+                return "java.math.BigInteger";
+            case "LocalDate":
+                return "java.time.LocalDate";
+            case "LocalTime":
+                return "java.time.LocalTime";
+            case "LocalDateTime":
+                return "java.time.LocalDateTime";
+            case "UUID":
+                return "java.util.UUID";
+            case "Objects":
+                return "java.util.Objects";
+            case "Arrays":
+                return "java.util.Arrays";
+            case "Set":
+                return "java.util.Set";
+            case "HashSet":
+                return "java.util.HashSet";
+            case "Blob":
+                return "java.sql.Blob";
+            case "Clob":
+                return "java.sql.Clob";
+            default:
+                return null;
         }
-        
-        return foreignKeys;
     }
     
-    private void processRelationships(List<TableInfo> tables, String sqlContent) {
-        // Processar relacionamentos entre tabelas
-        Map<String, TableInfo> tableMap = new HashMap<>();
-        for (TableInfo table : tables) {
-            tableMap.put(table.name, table);
+    /**
+     * Gera a classe da entidade. Se o destino aceitar escrita concorrente o ficheiro é escrito já,
+     * a partir do buffer da thread, e devolve null; caso contrário devolve uma cópia do código
+     * ou, com --bytecode, o conteúdo do ficheiro .class.
+     */
+    private Object generateEntityClass(TableInfo table, String packageName, SourceSink sink,
+                                       GeneratorStats stats) throws IOException {
+        GeneratorEvents.EntityRendered event = stats.beginEntityRendered();
+        long start = System.nanoTime();
+        if (options.bytecodeJar != null) {
+            byte[] classFile = new EntityBytecodeGenerator(this).generate(table, packageName);
+            stats.entityRendered(event, table, classFile.length, System.nanoTime() - start);
+            return classFile;
         }
-        
-        for (TableInfo table : tables) {
-            for (ForeignKeyInfo fk : table.foreignKeys) {
-                if (tableMap.containsKey(fk.referencedTable)) {
-                    fk.referencedTableInfo = tableMap.get(fk.referencedTable);
-                }
-            }
+        StringBuilder sb = renderEntityClass(table, packageName);
+        stats.entityRendered(event, table, sb.length(), System.nanoTime() - start);
+        if (sink.isConcurrent()) {
+            start = System.nanoTime();
+            sink.write(packageName, table.className + ".java", sb);
+            stats.add(GeneratorStats.Phase.WRITE, System.nanoTime() - start, 0);
+            return null;
         }
+        return sb.toString();
     }
     
-    private String convertSQLTypeToJava(String sqlType) {
-        return SQL_TO_JAVA_TYPE_MAP.getOrDefault(sqlType, "String");
-    }
-    
-    private void generateEntityClass(TableInfo table, String packageName, String outputDir) throws IOException {
-        StringBuilder sb = new StringBuilder();
+    /**
+     * Gera o código da entidade no buffer reutilizável da thread corrente.
+     * O conteúdo só é válido até à próxima chamada na mesma thread.
+     */
+    StringBuilder renderEntityClass(TableInfo table, String packageName) {
+        StringBuilder sb = SOURCE_BUFFER.get();
+        sb.setLength(0);
+        sb.ensureCapacity(2048 + table.columns.size() * 640);
         
         // Determinar imports necessários
-        Set<String> imports = new HashSet<>();
+        Set<String> imports = new TreeSet<>();
         imports.add("javax.persistence.*");
         imports.add("java.io.Serializable");
         
+        List<AnnotationSpec> classAnnotations = entityAnnotations(table);
+        addAnnotationImports(imports, classAnnotations);
+        
+        if (options.oneToMany && !table.inverseRelationships.isEmpty()) {
+            imports.add("java.util.Set");
+            imports.add("java.util.HashSet");
+            addAnnotationImports(imports, inverseRelationshipAnnotations(table.inverseRelationships.get(0)));
+        }
+        
         for (ColumnInfo column : table.columns) {
-            if (IMPORT_MAP.containsKey(column.javaType)) {
-                imports.add(IMPORT_MAP.get(column.javaType));
+            String imported = importOf(column.javaType);
+            if (imported != null) {
+                imports.add(imported);
+            }
+            // equals/hashCode usam java.util.Objects (só com Objects.hash, ou para objectos com
+            // --inline-object-methods) e java.util.Arrays para arrays
+            if (column.primaryKey) {
+                if (column.javaType.endsWith("[]")) {
+                    imports.add("java.util.Arrays");
+                }
+                if (!options.inlineObjectMethods
+                    || (!isPrimitive(column.javaType) && !column.javaType.endsWith("[]"))) {
+                    imports.add("java.util.Objects");
+                }
             }
         }
         
@@ -384,7 +1426,7 @@ public class SQLParserJPAGenerator {
         sb.append("package ").append(packageName).append(";\n\n");
         
         // Imports
-        for (String imp : imports.stream().sorted().toArray(String[]::new)) {
+        for (String imp : imports) {
             sb.append("import ").append(imp).append(";\n");
         }
         sb.append("\n");
@@ -396,8 +1438,7 @@ public class SQLParserJPAGenerator {
         sb.append(" */\n");
         
         // Anotações da classe
-        sb.append("@Entity\n");
-        sb.append("@Table(name = \"").append(table.name).append("\")\n");
+        appendAnnotations(sb, "", classAnnotations);
         sb.append("public class ").append(table.className).append(" implements Serializable {\n\n");
         
         sb.append("    private static final long serialVersionUID = 1L;\n\n");
@@ -413,6 +1454,9 @@ public class SQLParserJPAGenerator {
                 generateRelationshipField(sb, fk);
             }
         }
+        for (InverseRelationInfo inverse : inverseRelationships(table)) {
+            generateInverseRelationshipField(sb, inverse);
+        }
         
         // Construtores
         generateConstructors(sb, table);
@@ -427,6 +1471,9 @@ public class SQLParserJPAGenerator {
                 generateRelationshipGetterSetter(sb, fk);
             }
         }
+        for (InverseRelationInfo inverse : inverseRelationships(table)) {
+            generateInverseRelationshipGetterSetter(sb, inverse);
+        }
         
         // equals e hashCode
         generateEqualsHashCode(sb, table);
@@ -436,14 +1483,7 @@ public class SQLParserJPAGenerator {
         
         sb.append("}\n");
         
-        // Escrever ficheiro
-        String fileName = table.className + ".java";
-        File file = new File(outputDir, fileName);
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-            writer.print(sb.toString());
-        }
-        
-        System.out.println("Entidade gerada: " + fileName);
+        return sb;
     }
     
     private void generateField(StringBuilder sb, ColumnInfo column) {
@@ -456,25 +1496,7 @@ public class SQLParserJPAGenerator {
         sb.append("\n     */\n");
         
         // Anotações
-        if (column.primaryKey) {
-            sb.append("    @Id\n");
-            if (column.autoIncrement) {
-                sb.append("    @GeneratedValue(strategy = GenerationType.IDENTITY)\n");
-            }
-        }
-        
-        sb.append("    @Column(name = \"").append(column.name).append("\"");
-        if (!column.nullable) {
-            sb.append(", nullable = false");
-        }
-        if (column.defaultValue != null && !column.primaryKey) {
-            sb.append(", columnDefinition = \"").append(column.sqlType);
-            if (!column.nullable) {
-                sb.append(" NOT NULL");
-            }
-            sb.append(" DEFAULT ").append(column.defaultValue).append("\"");
-        }
-        sb.append(")\n");
+        appendAnnotations(sb, "    ", columnAnnotations(column));
         
         // Declaração do campo
         sb.append("    private ").append(column.javaType).append(" ").append(column.fieldName).append(";\n\n");
@@ -482,16 +1504,270 @@ public class SQLParserJPAGenerator {
     
     private void generateRelationshipField(StringBuilder sb, ForeignKeyInfo fk) {
         String referencedClassName = fk.referencedTableInfo.className;
-        String fieldName = toCamelCase(fk.referencedTable, false);
+        String fieldName = fk.fieldName;
         
         sb.append("    /**\n");
         sb.append("     * Relacionamento com ").append(fk.referencedTable).append("\n");
         sb.append("     */\n");
-        sb.append("    @ManyToOne(fetch = FetchType.LAZY)\n");
-        sb.append("    @JoinColumn(name = \"").append(fk.columnName).append("\")\n");
+        appendAnnotations(sb, "    ", relationshipAnnotations(fk));
         sb.append("    private ").append(referencedClassName).append(" ").append(fieldName).append(";\n\n");
     }
     
+    private void generateInverseRelationshipField(StringBuilder sb, InverseRelationInfo inverse) {
+        sb.append("    /**\n");
+        sb.append("     * Relacionamento inverso com ").append(inverse.table.name)
+            .append(" (").append(inverse.fk.columnName).append(")\n");
+        sb.append("     */\n");
+        appendAnnotations(sb, "    ", inverseRelationshipAnnotations(inverse));
+        sb.append("    private Set<").append(inverse.table.className).append("> ").append(inverse.fieldName)
+            .append(" = new HashSet<>();\n\n");
+    }
+    
+    /**
+     * Colecções @OneToMany da entidade (vazio sem --one-to-many).
+     */
+    List<InverseRelationInfo> inverseRelationships(TableInfo table) {
+        return options.oneToMany ? table.inverseRelationships : Collections.emptyList();
+    }
+    
+    /**
+     * Imports dos tipos de anotação (e dos enums dos valores) fora de javax.persistence, ex.: @BatchSize.
+     */
+    private static void addAnnotationImports(Set<String> imports, List<AnnotationSpec> annotations) {
+        for (AnnotationSpec annotation : annotations) {
+            if (!annotation.type.startsWith("javax.persistence.")) {
+                imports.add(annotation.type);
+            }
+            for (Object value : annotation.values) {
+                if (value instanceof AnnotationSpec.EnumValue
+                        && !((AnnotationSpec.EnumValue) value).type.startsWith("javax.persistence.")) {
+                    imports.add(((AnnotationSpec.EnumValue) value).type);
+                }
+            }
+        }
+    }
+    
+    private static void appendAnnotations(StringBuilder sb, String indent, List<AnnotationSpec> annotations) {
+        for (AnnotationSpec annotation : annotations) {
+            sb.append(indent);
+            annotation.appendSource(sb, indent);
+            sb.append('\n');
+        }
+    }
+    
+    /**
+     * Anotações da classe da entidade (comuns ao código-fonte e ao bytecode).
+     */
+    List<AnnotationSpec> entityAnnotations(TableInfo table) {
+        List<AnnotationSpec> annotations = new ArrayList<>(2);
+        annotations.add(AnnotationSpec.of("javax.persistence.Entity"));
+        
+        AnnotationSpec tableAnnotation = AnnotationSpec.of("javax.persistence.Table").with("name", table.name);
+        List<AnnotationSpec> indexes = new ArrayList<>();
+        List<AnnotationSpec> uniqueConstraints = new ArrayList<>();
+        for (IndexInfo index : table.indexes) {
+            if (isColumnUnique(index) || !isMappable(table, index)) {
+                continue;
+            }
+            List<String> columnNames = new ArrayList<>(index.columns.size());
+            for (IndexColumnInfo column : index.columns) {
+                columnNames.add(column.name);
+            }
+            if (index.unique) {
+                AnnotationSpec constraint = AnnotationSpec.of("javax.persistence.UniqueConstraint");
+                if (index.name != null) {
+                    constraint.with("name", index.name);
+                }
+                uniqueConstraints.add(constraint.with("columnNames", columnNames));
+            } else {
+                // O JPA não tem prefixos: o índice cobre as colunas inteiras
+                StringBuilder columnList = new StringBuilder();
+                for (IndexColumnInfo column : index.columns) {
+                    if (columnList.length() > 0) {
+                        columnList.append(", ");
+                    }
+                    columnList.append(column.name).append(column.descending ? " DESC" : "");
+                }
+                AnnotationSpec indexAnnotation = AnnotationSpec.of("javax.persistence.Index");
+                if (index.name != null) {
+                    indexAnnotation.with("name", index.name);
+                }
+                indexes.add(indexAnnotation.with("columnList", columnList.toString()));
+            }
+        }
+        if (!indexes.isEmpty()) {
+            tableAnnotation.with("indexes", indexes);
+        }
+        if (!uniqueConstraints.isEmpty()) {
+            tableAnnotation.with("uniqueConstraints", uniqueConstraints);
+        }
+        annotations.add(tableAnnotation);
+        
+        // Cache de segundo nível para tabelas de referência, que mudam raramente
+        if (table.cacheable) {
+            annotations.add(AnnotationSpec.of("javax.persistence.Cacheable"));
+            annotations.add(AnnotationSpec.of("org.hibernate.annotations.Cache")
+                .with("usage", AnnotationSpec.enumValue("org.hibernate.annotations.CacheConcurrencyStrategy",
+                    "NONSTRICT_READ_WRITE")));
+        }
+        if (table.dynamicUpdate) {
+            annotations.add(AnnotationSpec.of("org.hibernate.annotations.DynamicUpdate"));
+        }
+        
+        // Um grafo por colecção, para carregar a entidade com os filhos (e os pais destes) numa só consulta
+        List<AnnotationSpec> graphs = new ArrayList<>();
+        for (InverseRelationInfo inverse : inverseRelationships(table)) {
+            graphs.add(entityGraph(table, inverse));
+        }
+        if (graphs.size() == 1) {
+            annotations.add(graphs.get(0));
+        } else if (!graphs.isEmpty()) {
+            annotations.add(AnnotationSpec.of("javax.persistence.NamedEntityGraphs").with("value", graphs));
+        }
+        return annotations;
+    }
+    
+    /**
+     * @NamedEntityGraph "Entidade.colecção" com a colecção e, num subgrafo, os outros @ManyToOne dos filhos.
+     */
+    private static AnnotationSpec entityGraph(TableInfo table, InverseRelationInfo inverse) {
+        AnnotationSpec graph = AnnotationSpec.of("javax.persistence.NamedEntityGraph")
+            .with("name", table.className + "." + inverse.fieldName);
+        AnnotationSpec node = AnnotationSpec.of("javax.persistence.NamedAttributeNode").with("value", inverse.fieldName);
+        List<AnnotationSpec> childNodes = new ArrayList<>();
+        for (ForeignKeyInfo fk : inverse.table.foreignKeys) {
+            if (fk != inverse.fk && fk.referencedTableInfo != null) {
+                childNodes.add(AnnotationSpec.of("javax.persistence.NamedAttributeNode").with("value", fk.fieldName));
+            }
+        }
+        if (childNodes.isEmpty()) {
+            return graph.with("attributeNodes", Collections.singletonList(node));
+        }
+        node.with("subgraph", inverse.fieldName);
+        AnnotationSpec subgraph = AnnotationSpec.of("javax.persistence.NamedSubgraph")
+            .with("name", inverse.fieldName)
+            .with("attributeNodes", childNodes);
+        return graph.with("attributeNodes", Collections.singletonList(node))
+            .with("subgraphs", Collections.singletonList(subgraph));
+    }
+    
+    /**
+     * Um índice só é gerado se todas as colunas existem na tabela e nenhuma precisa de prefixo
+     * (em MySQL, um índice sobre TEXT ou BLOB sem comprimento não pode ser criado).
+     */
+    private static boolean isMappable(TableInfo table, IndexInfo index) {
+        for (IndexColumnInfo indexColumn : index.columns) {
+            ColumnInfo column = null;
+            for (ColumnInfo candidate : table.columns) {
+                if (candidate.name.equals(indexColumn.name)) {
+                    column = candidate;
+                    break;
+                }
+            }
+            if (column == null) {
+                return false;
+            }
+            if (indexColumn.prefixLength > 0 && (column.sqlType.endsWith("TEXT") || column.sqlType.endsWith("BLOB"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Anotações do campo de uma coluna (comuns ao código-fonte e ao bytecode).
+     */
+    List<AnnotationSpec> columnAnnotations(ColumnInfo column) {
+        List<AnnotationSpec> annotations = new ArrayList<>(3);
+        if (isLargeColumn(column)) {
+            // Só são lidas quando acedidas (com enhancement do Hibernate, ou através de Blob/Clob)
+            if (isLob(column)) {
+                annotations.add(AnnotationSpec.of("javax.persistence.Lob"));
+            }
+            annotations.add(AnnotationSpec.of("javax.persistence.Basic")
+                .with("fetch", AnnotationSpec.enumValue("javax.persistence.FetchType", "LAZY")));
+        }
+        if (column.primaryKey) {
+            annotations.add(AnnotationSpec.of("javax.persistence.Id"));
+            if (column.idGenerator != null) {
+                annotations.addAll(idGeneratorAnnotations(column.idGenerator));
+            } else if (column.autoIncrement) {
+                annotations.add(AnnotationSpec.of("javax.persistence.GeneratedValue")
+                    .with("strategy", AnnotationSpec.enumValue("javax.persistence.GenerationType", "IDENTITY")));
+            }
+        }
+        
+        AnnotationSpec columnAnnotation = AnnotationSpec.of("javax.persistence.Column").with("name", column.name);
+        if (!column.nullable) {
+            columnAnnotation.with("nullable", false);
+        }
+        if (column.unique) {
+            columnAnnotation.with("unique", true);
+        }
+        if (column.defaultValue != null && !column.primaryKey) {
+            columnAnnotation.with("columnDefinition", column.sqlType
+                + (column.nullable ? "" : " NOT NULL") + " DEFAULT " + column.defaultValue);
+        }
+        annotations.add(columnAnnotation);
+        return annotations;
+    }
+    
+    /**
+     * @GeneratedValue com o gerador nomeado, e a respectiva @SequenceGenerator ou @TableGenerator.
+     */
+    private static List<AnnotationSpec> idGeneratorAnnotations(IdGeneratorInfo generator) {
+        AnnotationSpec generatedValue = AnnotationSpec.of("javax.persistence.GeneratedValue")
+            .with("strategy", AnnotationSpec.enumValue("javax.persistence.GenerationType", generator.strategy))
+            .with("generator", generator.name);
+        AnnotationSpec definition;
+        if (generator.strategy.equals("TABLE")) {
+            // Tabela e colunas por omissão do Hibernate, com uma linha por entidade
+            definition = AnnotationSpec.of("javax.persistence.TableGenerator")
+                .with("name", generator.name)
+                .with("table", "hibernate_sequences")
+                .with("pkColumnName", "sequence_name")
+                .with("valueColumnName", "next_val")
+                .with("pkColumnValue", generator.sequenceName);
+        } else {
+            definition = AnnotationSpec.of("javax.persistence.SequenceGenerator")
+                .with("name", generator.name)
+                .with("sequenceName", generator.sequenceName);
+            if (generator.initialValue != 1 && generator.initialValue == (int) generator.initialValue) {
+                definition.with("initialValue", (int) generator.initialValue);
+            }
+        }
+        definition.with("allocationSize", generator.allocationSize);
+        return Arrays.asList(generatedValue, definition);
+    }
+    
+    /**
+     * Anotações do campo de um relacionamento (comuns ao código-fonte e ao bytecode).
+     */
+    List<AnnotationSpec> relationshipAnnotations(ForeignKeyInfo fk) {
+        List<AnnotationSpec> annotations = new ArrayList<>(2);
+        annotations.add(AnnotationSpec.of("javax.persistence.ManyToOne")
+            .with("fetch", AnnotationSpec.enumValue("javax.persistence.FetchType", "LAZY")));
+        // A coluna também é mapeada como campo simples, que é o que a escreve
+        annotations.add(AnnotationSpec.of("javax.persistence.JoinColumn").with("name", fk.columnName)
+            .with("insertable", false).with("updatable", false));
+        return annotations;
+    }
+    
+    /**
+     * Anotações de uma colecção @OneToMany (comuns ao código-fonte e ao bytecode).
+     */
+    List<AnnotationSpec> inverseRelationshipAnnotations(InverseRelationInfo inverse) {
+        List<AnnotationSpec> annotations = new ArrayList<>(2);
+        annotations.add(AnnotationSpec.of("javax.persistence.OneToMany").with("mappedBy", inverse.fk.fieldName));
+        if (options.collectionFetch.equals(GeneratorOptions.FETCH_BATCH)) {
+            annotations.add(AnnotationSpec.of("org.hibernate.annotations.BatchSize").with("size", options.batchSize));
+        } else if (options.collectionFetch.equals(GeneratorOptions.FETCH_SUBSELECT)) {
+            annotations.add(AnnotationSpec.of("org.hibernate.annotations.Fetch")
+                .with("value", AnnotationSpec.enumValue("org.hibernate.annotations.FetchMode", "SUBSELECT")));
+        }
+        return annotations;
+    }
+    
     private void generateConstructors(StringBuilder sb, TableInfo table) {
         // Construtor vazio
         sb.append("    /**\n");
@@ -501,9 +1777,7 @@ public class SQLParserJPAGenerator {
         sb.append("    }\n\n");
         
         // Construtor com campos obrigatórios
-        List<ColumnInfo> requiredColumns = table.columns.stream()
-            .filter(col -> !col.nullable && !col.autoIncrement)
-            .collect(java.util.stream.Collectors.toList());
+        List<ColumnInfo> requiredColumns = requiredColumns(table);
         
         if (!requiredColumns.isEmpty()) {
             sb.append("    /**\n");
@@ -545,7 +1819,7 @@ public class SQLParserJPAGenerator {
     
     private void generateRelationshipGetterSetter(StringBuilder sb, ForeignKeyInfo fk) {
         String referencedClassName = fk.referencedTableInfo.className;
-        String fieldName = toCamelCase(fk.referencedTable, false);
+        String fieldName = fk.fieldName;
         String capitalizedFieldName = capitalizeFirst(fieldName);
         
         // Getter
@@ -559,10 +1833,24 @@ public class SQLParserJPAGenerator {
         sb.append("    }\n\n");
     }
     
+    private void generateInverseRelationshipGetterSetter(StringBuilder sb, InverseRelationInfo inverse) {
+        String type = "Set<" + inverse.table.className + ">";
+        String fieldName = inverse.fieldName;
+        String capitalizedFieldName = capitalizeFirst(fieldName);
+        
+        // Getter
+        sb.append("    public ").append(type).append(" get").append(capitalizedFieldName).append("() {\n");
+        sb.append("        return ").append(fieldName).append(";\n");
+        sb.append("    }\n\n");
+        
+        // Setter
+        sb.append("    public void set").append(capitalizedFieldName).append("(").append(type).append(" ").append(fieldName).append(") {\n");
+        sb.append("        this.").append(fieldName).append(" = ").append(fieldName).append(";\n");
+        sb.append("    }\n\n");
+    }
+    
     private void generateEqualsHashCode(StringBuilder sb, TableInfo table) {
-        List<ColumnInfo> pkColumns = table.columns.stream()
-            .filter(col -> col.primaryKey)
-            .collect(java.util.stream.Collectors.toList());
+        List<ColumnInfo> pkColumns = primaryKeyColumns(table);
         
         if (!pkColumns.isEmpty()) {
             sb.append("    @Override\n");
@@ -574,7 +1862,16 @@ public class SQLParserJPAGenerator {
             
             for (int i = 0; i < pkColumns.size(); i++) {
                 ColumnInfo col = pkColumns.get(i);
-                sb.append("Objects.equals(").append(col.fieldName).append(", that.").append(col.fieldName).append(")");
+                if (col.javaType.equals("double") || col.javaType.equals("float")) {
+                    sb.append(col.javaType.equals("double") ? "Double" : "Float").append(".compare(")
+                        .append(col.fieldName).append(", that.").append(col.fieldName).append(") == 0");
+                } else if (isPrimitive(col.javaType)) {
+                    sb.append(col.fieldName).append(" == that.").append(col.fieldName);
+                } else if (col.javaType.endsWith("[]")) {
+                    sb.append("Arrays.equals(").append(col.fieldName).append(", that.").append(col.fieldName).append(")");
+                } else {
+                    sb.append("Objects.equals(").append(col.fieldName).append(", that.").append(col.fieldName).append(")");
+                }
                 if (i < pkColumns.size() - 1) {
                     sb.append(" && ");
                 }
@@ -585,30 +1882,70 @@ public class SQLParserJPAGenerator {
             
             sb.append("    @Override\n");
             sb.append("    public int hashCode() {\n");
-            sb.append("        return Objects.hash(");
-            
-            for (int i = 0; i < pkColumns.size(); i++) {
-                ColumnInfo col = pkColumns.get(i);
-                sb.append(col.fieldName);
-                if (i < pkColumns.size() - 1) {
-                    sb.append(", ");
+            if (options.inlineObjectMethods) {
+                // Mesmo valor que o Objects.hash abaixo, sem o array de argumentos nem conversões para objectos
+                sb.append("        int result = 1;\n");
+                for (ColumnInfo col : pkColumns) {
+                    sb.append("        result = 31 * result + ");
+                    if (isPrimitive(col.javaType)) {
+                        sb.append(boxedType(col.javaType)).append(".hashCode(").append(col.fieldName).append(")");
+                    } else if (col.javaType.endsWith("[]")) {
+                        sb.append("Arrays.hashCode(").append(col.fieldName).append(")");
+                    } else {
+                        sb.append("Objects.hashCode(").append(col.fieldName).append(")");
+                    }
+                    sb.append(";\n");
+                }
+                sb.append("        return result;\n");
+            } else {
+                sb.append("        return Objects.hash(");
+                
+                for (int i = 0; i < pkColumns.size(); i++) {
+                    ColumnInfo col = pkColumns.get(i);
+                    // Os arrays contam pelo conteúdo, como em equals (Objects.hash usaria a identidade)
+                    if (col.javaType.endsWith("[]")) {
+                        sb.append("Arrays.hashCode(").append(col.fieldName).append(")");
+                    } else {
+                        sb.append(col.fieldName);
+                    }
+                    if (i < pkColumns.size() - 1) {
+                        sb.append(", ");
+                    }
                 }
+                
+                sb.append(");\n");
             }
-            
-            sb.append(");\n");
             sb.append("    }\n\n");
         }
     }
     
     private void generateToString(StringBuilder sb, TableInfo table) {
+        List<ColumnInfo> columns = toStringColumns(table);
         sb.append("    @Override\n");
         sb.append("    public String toString() {\n");
+        
+        if (options.inlineObjectMethods) {
+            sb.append("        return new StringBuilder(").append(toStringCapacity(table, columns)).append(")\n");
+            String prefix = table.className + "{";
+            for (ColumnInfo column : columns) {
+                sb.append("                .append(\"").append(prefix).append(column.fieldName).append("=\").append(")
+                    .append(column.fieldName).append(")\n");
+                prefix = ", ";
+            }
+            if (columns.isEmpty()) {
+                sb.append("                .append(\"").append(prefix).append("\")\n");
+            }
+            sb.append("                .append('}').toString();\n");
+            sb.append("    }\n");
+            return;
+        }
+        
         sb.append("        return \"").append(table.className).append("{\" +\n");
         
-        for (int i = 0; i < table.columns.size(); i++) {
-            ColumnInfo column = table.columns.get(i);
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnInfo column = columns.get(i);
             sb.append("                \"").append(column.fieldName).append("=\" + ").append(column.fieldName);
-            if (i < table.columns.size() - 1) {
+            if (i < columns.size() - 1) {
                 sb.append(" + \", \" +\n");
             } else {
                 sb.append(" +\n");
@@ -619,35 +1956,202 @@ public class SQLParserJPAGenerator {
         sb.append("    }\n");
     }
     
-    private String toCamelCase(String input) {
-        return toCamelCase(input, true);
+    /**
+     * Colunas mostradas em toString: todas, ou sem as grandes com --tostring-skip-large.
+     */
+    List<ColumnInfo> toStringColumns(TableInfo table) {
+        if (!options.toStringSkipLarge) {
+            return table.columns;
+        }
+        List<ColumnInfo> columns = new ArrayList<>(table.columns.size());
+        for (ColumnInfo column : table.columns) {
+            if (!isLargeColumn(column)) {
+                columns.add(column);
+            }
+        }
+        return columns;
     }
     
-    private String toCamelCase(String input, boolean capitalizeFirst) {
-        if (input == null || input.isEmpty()) {
-            return input;
+    /**
+     * Capacidade inicial do StringBuilder de toString: o texto fixo mais 16 caracteres por valor.
+     */
+    static int toStringCapacity(TableInfo table, List<ColumnInfo> columns) {
+        int capacity = table.className.length() + 2;
+        for (ColumnInfo column : columns) {
+            capacity += column.fieldName.length() + 3 + 16;
         }
-        
-        StringBuilder result = new StringBuilder();
-        boolean capitalizeNext = capitalizeFirst;
-        
-        for (int i = 0; i < input.length(); i++) {
-            char c = input.charAt(i);
-            
-            if (c == '_' || c == '-') {
-                capitalizeNext = true;
-            } else if (capitalizeNext) {
-                result.append(Character.toUpperCase(c));
-                capitalizeNext = false;
-            } else {
-                result.append(Character.toLowerCase(c));
+        return capacity;
+    }
+    
+    /**
+     * Colunas de texto longo ou binárias, carregadas só quando acedidas e omitidas das projecções:
+     * tipos LOB, VARCHAR(MAX) e, com --lob-threshold=N, texto ou binário com comprimento acima de N.
+     */
+    boolean isLargeColumn(ColumnInfo column) {
+        if (column.primaryKey) {
+            return false;
+        }
+        if (isLargeSqlType(column.sqlType) || column.length == ColumnInfo.MAX_LENGTH) {
+            return true;
+        }
+        String baseType = convertSQLTypeToJava(column.sqlType);
+        return options.lobThreshold > 0 && column.length > options.lobThreshold
+            && (baseType.equals("String") || baseType.equals("byte[]"));
+    }
+    
+    /**
+     * Colunas grandes mapeadas com @Lob (BYTEA e JSONB ficam só com @Basic(fetch = LAZY)).
+     */
+    boolean isLob(ColumnInfo column) {
+        // Tipos do PostgreSQL lidos como valores normais: com @Lob o Hibernate usaria a API de large objects (oid)
+        return isLargeColumn(column) && !"BYTEA".equals(column.sqlType) && !"JSONB".equals(column.sqlType);
+    }
+    
+    private static boolean isLargeSqlType(String sqlType) {
+        if (sqlType == null) {
+            return false;
+        }
+        switch (sqlType) {
+            case "TEXT":
+            case "MEDIUMTEXT":
+            case "LONGTEXT":
+            case "CLOB":
+            case "NCLOB":
+            case "NTEXT":
+            case "BLOB":
+            case "MEDIUMBLOB":
+            case "LONGBLOB":
+            case "BYTEA":
+            case "IMAGE":
+            case "JSON":
+            case "JSONB":
+            case "XML":
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    private static boolean isVolatileSqlType(String sqlType) {
+        if (sqlType == null) {
+            return false;
+        }
+        switch (sqlType) {
+            case "TIMESTAMP":
+            case "TIMESTAMPTZ":
+            case "DATETIME":
+            case "DATETIME2":
+            case "SMALLDATETIME":
+            case "DATETIMEOFFSET":
+            case "ROWVERSION":
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Colunas do construtor com campos obrigatórios (NOT NULL e sem auto incremento).
+     */
+    static List<ColumnInfo> requiredColumns(TableInfo table) {
+        List<ColumnInfo> columns = new ArrayList<>();
+        for (ColumnInfo column : table.columns) {
+            if (!column.nullable && !column.autoIncrement) {
+                columns.add(column);
             }
         }
-        
-        return result.toString();
+        return columns;
+    }
+    
+    /**
+     * Colunas usadas em equals e hashCode.
+     */
+    static List<ColumnInfo> primaryKeyColumns(TableInfo table) {
+        List<ColumnInfo> columns = new ArrayList<>(1);
+        for (ColumnInfo column : table.columns) {
+            if (column.primaryKey) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+    
+    static boolean isPrimitive(String javaType) {
+        return !boxedType(javaType).equals(javaType);
+    }
+    
+    /**
+     * Tipo primitivo usado com --primitives para um tipo embrulhado (ex.: "Long" -> "long"); os outros ficam iguais.
+     */
+    private static String primitiveType(String javaType) {
+        switch (javaType) {
+            case "Integer":
+                return "int";
+            case "Long":
+                return "long";
+            case "Short":
+                return "short";
+            case "Byte":
+                return "byte";
+            case "Boolean":
+                return "boolean";
+            case "Double":
+                return "double";
+            case "Float":
+                return "float";
+            default:
+                return javaType;
+        }
+    }
+    
+    /**
+     * Tipo embrulhado de um tipo primitivo (ex.: "long" -> "Long"); os outros tipos ficam iguais.
+     */
+    static String boxedType(String javaType) {
+        if (javaType == null) {
+            return null;
+        }
+        switch (javaType) {
+            case "int":
+                return "Integer";
+            case "long":
+                return "Long";
+            case "short":
+                return "Short";
+            case "byte":
+                return "Byte";
+            case "boolean":
+                return "Boolean";
+            case "double":
+                return "Double";
+            case "float":
+                return "Float";
+            default:
+                return javaType;
+        }
+    }
+    
+    /**
+     * Nome qualificado de um tipo Java dos campos gerados (ex.: "BigDecimal" -> "java.math.BigDecimal").
+     */
+    static String qualifiedJavaType(String javaType) {
+        String imported = importOf(javaType);
+        if (imported != null) {
+            return imported;
+        }
+        return javaType.indexOf('.') == -1 && !javaType.endsWith("[]") ? "java.lang." + javaType : javaType;
+    }
+    
+    String toCamelCase(String input) {
+        return toCamelCase(input, true);
+    }
+    
+    String toCamelCase(String input, boolean capitalizeFirst) {
+        // A mesma regra deriva os nomes omitidos no modelo compacto (SchemaModel)
+        return SchemaModel.javaName(input, capitalizeFirst);
     }
     
-    private String capitalizeFirst(String input) {
+    String capitalizeFirst(String input) {
         if (input == null || input.isEmpty()) {
             return input;
         }
@@ -657,10 +2161,23 @@ public class SQLParserJPAGenerator {
     // Classes auxiliares
     static class TableInfo {
         String name;
+        String ddl;
         String className;
         List<ColumnInfo> columns = new ArrayList<>();
         List<String> primaryKeys = new ArrayList<>();
+        // Nome da restrição PRIMARY KEY (null se não tiver nome)
+        String primaryKeyName;
         List<ForeignKeyInfo> foreignKeys = new ArrayList<>();
+        // Índices e restrições UNIQUE, pela ordem do SQL (sem a chave primária)
+        List<IndexInfo> indexes = new ArrayList<>();
+        // Elementos da definição que não foi possível interpretar (quase sempre nenhum: a lista só é criada
+        // no primeiro, para não reter uma ArrayList vazia por tabela em catálogos grandes)
+        List<String> unparsedElements = Collections.emptyList();
+        // Chaves estrangeiras de outras tabelas para esta (preenchido com --one-to-many, criada na primeira)
+        List<InverseRelationInfo> inverseRelationships = Collections.emptyList();
+        // @Cacheable e @DynamicUpdate (definidos com --cache e --dynamic-update)
+        boolean cacheable;
+        boolean dynamicUpdate;
     }
     
     static class ColumnInfo {
@@ -668,16 +2185,83 @@ public class SQLParserJPAGenerator {
         String fieldName;
         String sqlType;
         String javaType;
+        boolean unsigned = false;
         boolean nullable = true;
         boolean primaryKey = false;
         boolean autoIncrement = false;
         String defaultValue;
+        // UNIQUE só sobre esta coluna, sem nome
+        boolean unique = false;
+        // Gerador SEQUENCE/TABLE escolhido com --id-strategy (null = IDENTITY, se autoIncrement)
+        IdGeneratorInfo idGenerator;
+        // Comprimento declarado, ex.: VARCHAR(255) (0 = sem comprimento, MAX_LENGTH = VARCHAR(MAX))
+        int length;
+        
+        static final int MAX_LENGTH = Integer.MAX_VALUE;
     }
     
     static class ForeignKeyInfo {
+        // Nome da restrição (null se não tiver nome)
+        String name;
         String columnName;
         String referencedTable;
         String referencedColumn;
         TableInfo referencedTableInfo;
+        // Nome do campo @ManyToOne (definido ao resolver os relacionamentos)
+        String fieldName;
+    }
+    
+    static class InverseRelationInfo {
+        // Tabela filha, que tem a chave estrangeira
+        TableInfo table;
+        ForeignKeyInfo fk;
+        // Nome do campo Set na tabela referenciada
+        String fieldName;
+    }
+    
+    static class IndexInfo {
+        // null se o índice não tem nome
+        String name;
+        boolean unique;
+        List<IndexColumnInfo> columns = new ArrayList<>();
+    }
+    
+    static class IndexColumnInfo {
+        String name;
+        // Comprimento do prefixo (ex.: name(10)); 0 = coluna inteira
+        int prefixLength;
+        boolean descending;
+    }
+    
+    /**
+     * Entidade à espera de ser escrita: o código gerado (null se o ficheiro não mudou) e os ficheiros
+     * de --projections que também têm de ser escritos.
+     */
+    private static final class PendingEntity {
+        final TableInfo table;
+        Future<Object> source;
+        boolean projection;
+        boolean repository;
+        
+        PendingEntity(TableInfo table) {
+            this.table = table;
+        }
+    }
+    
+    static class SequenceInfo {
+        String name;
+        long start = 1;
+        long increment = 1;
+    }
+    
+    static class IdGeneratorInfo {
+        // SEQUENCE ou TABLE (GenerationType)
+        String strategy;
+        // Nome do gerador, único na unidade de persistência
+        String name;
+        // Nome da sequência ou, com TABLE, da linha em hibernate_sequences
+        String sequenceName;
+        long initialValue = 1;
+        int allocationSize;
     }
 }
\ No newline at end of file
@@ -0,0 +1,343 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lê instruções SQL de um ficheiro numa única passagem, por blocos.
+ *
+ * Remove comentários e normaliza espaços à medida que lê, e só guarda em memória
+ * a instrução corrente quando esta começa por um dos prefixos pedidos (ex.: "CREATE TABLE").
+ * As restantes instruções (INSERT, rotinas, etc.) são percorridas sem serem acumuladas.
+ *
+ * A entrada pode ser um canal de bytes (UTF-8) ou uma fonte de caracteres já descodificados
+ * (Reader, CharBuffer); neste caso não é fechada por close().
+ */
+class SQLStatementReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NONE = -2;
+    private static final String DELIMITER_COMMAND = "DELIMITER ";
+
+    private final ReadableByteChannel channel;
+    private final Readable source;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private final String[] prefixes;
+    private final int decisionLength;
+
+    private final StringBuilder statement = new StringBuilder();
+    private String delimiter = ";";
+    private int pushback = NONE;
+    private boolean endOfInput;
+    private boolean finished;
+
+    // Bytes lidos do canal (ou caracteres lidos da fonte) e tempo gasto a lê-los e descodificá-los
+    private long bytesRead;
+    private long readNanos;
+
+    SQLStatementReader(Path path, String... prefixes) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ), prefixes);
+    }
+
+    SQLStatementReader(ReadableByteChannel channel, String... prefixes) {
+        this(channel, null, prefixes);
+    }
+
+    SQLStatementReader(Readable source, String... prefixes) {
+        this(null, source, prefixes);
+    }
+
+    private SQLStatementReader(ReadableByteChannel channel, Readable source, String... prefixes) {
+        this.channel = channel;
+        this.source = source;
+        if (channel != null) {
+            this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            this.bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.bytes.flip();
+        } else {
+            this.decoder = null;
+            this.bytes = null;
+        }
+        this.chars = CharBuffer.allocate(BUFFER_SIZE);
+        this.chars.flip();
+        this.prefixes = new String[prefixes.length];
+
+        int longest = DELIMITER_COMMAND.length();
+        for (int i = 0; i < prefixes.length; i++) {
+            this.prefixes[i] = prefixes[i].toUpperCase();
+            longest = Math.max(longest, prefixes[i].length());
+        }
+        this.decisionLength = longest;
+    }
+
+    /**
+     * Devolve a próxima instrução aceite (sem o delimitador, com espaços normalizados),
+     * ou null no fim do ficheiro.
+     */
+    String nextStatement() throws IOException {
+        statement.setLength(0);
+        boolean decided = false;
+        boolean keep = false;
+        int delimiterMatched = 0;
+        int c;
+
+        while ((c = read()) != -1) {
+            // Comentários de linha (-- e #) e de bloco contam como espaço
+            if (c == '-' && peekIs('-') || c == '#') {
+                skipLineComment();
+                c = ' ';
+            } else if (c == '/' && peekIs('*')) {
+                skipBlockComment();
+                c = ' ';
+            }
+
+            // O comando DELIMITER do cliente mysql termina no fim da linha
+            if (c == '\n' && isDelimiterCommand()) {
+                delimiter = statement.substring(DELIMITER_COMMAND.length()).trim();
+                statement.setLength(0);
+                decided = false;
+                delimiterMatched = 0;
+                continue;
+            }
+
+            if (!decided && startsWithIgnoreCase(DELIMITER_COMMAND) && !Character.isWhitespace(c)) {
+                statement.append((char) c);
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                delimiterMatched = 0;
+                if (!decided || keep) {
+                    int length = statement.length();
+                    if (length > 0 && statement.charAt(length - 1) != ' ') {
+                        statement.append(' ');
+                    }
+                }
+                continue;
+            }
+
+            if (c == delimiter.charAt(delimiterMatched)) {
+                delimiterMatched++;
+                if (delimiterMatched == delimiter.length()) {
+                    // Remover a parte do delimitador já acumulada
+                    if (!decided || keep) {
+                        statement.setLength(Math.max(0, statement.length() - (delimiter.length() - 1)));
+                    }
+                    if (accept(decided, keep)) {
+                        return currentStatement();
+                    }
+                    statement.setLength(0);
+                    decided = false;
+                    keep = false;
+                    delimiterMatched = 0;
+                    continue;
+                }
+            } else {
+                delimiterMatched = c == delimiter.charAt(0) ? 1 : 0;
+            }
+
+            if (!decided || keep) {
+                statement.append((char) c);
+            }
+
+            if (c == '\'' || c == '"' || c == '`') {
+                copyQuoted(c, !decided || keep);
+            }
+
+            if (!decided && statement.length() >= decisionLength) {
+                decided = true;
+                keep = matchesPrefix();
+                if (!keep) {
+                    statement.setLength(0);
+                }
+            }
+        }
+
+        if (accept(decided, keep)) {
+            return currentStatement();
+        }
+        return null;
+    }
+
+    /**
+     * Total de bytes (ou de caracteres, numa fonte de caracteres) lidos até agora.
+     */
+    long bytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Tempo gasto a ler e descodificar o ficheiro (o resto de nextStatement é limpeza).
+     */
+    long readNanos() {
+        return readNanos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private boolean accept(boolean decided, boolean keep) {
+        if (decided) {
+            return keep && statement.length() > 0;
+        }
+        return statement.length() > 0 && matchesPrefix();
+    }
+
+    private String currentStatement() {
+        int end = statement.length();
+        if (end > 0 && statement.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return statement.substring(0, end);
+    }
+
+    private boolean matchesPrefix() {
+        for (String prefix : prefixes) {
+            if (startsWithIgnoreCase(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWithIgnoreCase(String prefix) {
+        if (statement.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toUpperCase(statement.charAt(i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isDelimiterCommand() {
+        return statement.length() > DELIMITER_COMMAND.length() && startsWithIgnoreCase(DELIMITER_COMMAND);
+    }
+
+    private void skipLineComment() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            // ignorar
+        }
+        if (c == '\n') {
+            pushback = '\n';
+        }
+    }
+
+    private void skipBlockComment() throws IOException {
+        read(); // '*'
+        int previous = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (previous == '*' && c == '/') {
+                return;
+            }
+            previous = c;
+        }
+    }
+
+    private void copyQuoted(int quote, boolean append) throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (append) {
+                statement.append((char) c);
+            }
+            if (c == '\\' && quote != '`') {
+                int escaped = read();
+                if (escaped == -1) {
+                    return;
+                }
+                if (append) {
+                    statement.append((char) escaped);
+                }
+            } else if (c == quote) {
+                return;
+            }
+        }
+    }
+
+    private boolean peekIs(char expected) throws IOException {
+        int c = read();
+        if (c == expected) {
+            pushback = c;
+            return true;
+        }
+        pushback = c == -1 ? NONE : c;
+        return false;
+    }
+
+    private int read() throws IOException {
+        if (pushback != NONE) {
+            int c = pushback;
+            pushback = NONE;
+            return c;
+        }
+        while (!chars.hasRemaining()) {
+            if (!decodeMore()) {
+                return -1;
+            }
+        }
+        return chars.get();
+    }
+
+    private boolean decodeMore() throws IOException {
+        if (finished) {
+            return false;
+        }
+        long start = System.nanoTime();
+        chars.clear();
+        if (source != null) {
+            int read;
+            while ((read = source.read(chars)) == 0) {
+                // fontes podem devolver 0 caracteres sem estarem no fim
+            }
+            if (read < 0) {
+                finished = true;
+            } else {
+                bytesRead += read;
+            }
+            chars.flip();
+            readNanos += System.nanoTime() - start;
+            return chars.hasRemaining();
+        }
+        while (true) {
+            if (!endOfInput) {
+                bytes.compact();
+                int read = channel.read(bytes);
+                endOfInput = read < 0;
+                bytesRead += Math.max(read, 0);
+                bytes.flip();
+            }
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (endOfInput && result.isUnderflow()) {
+                decoder.flush(chars);
+                finished = true;
+                break;
+            }
+            if (chars.position() > 0) {
+                break;
+            }
+        }
+        chars.flip();
+        readNanos += System.nanoTime() - start;
+        return chars.hasRemaining();
+    }
+}
@@ -0,0 +1,337 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Análise de desempenho do esquema (--lint): procura chaves estrangeiras sem índice, índices
+ * duplicados ou redundantes, linhas muito largas, colunas grandes sem projecção e chaves compostas.
+ *
+ * O modelo de índices de cada tabela é a chave primária mais os índices e restrições UNIQUE
+ * declarados; o relatório é escrito em JSON.
+ */
+class SchemaLint {
+
+    enum Severity {
+        INFO("info"),
+        WARNING("warning"),
+        ERROR("error");
+
+        final String key;
+
+        Severity(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Lança IllegalArgumentException para valores diferentes de info, warning ou error.
+         */
+        static Severity parse(String value) {
+            for (Severity severity : values()) {
+                if (severity.key.equalsIgnoreCase(value)) {
+                    return severity;
+                }
+            }
+            throw new IllegalArgumentException("Severidade inválida: " + value + " (esperado info, warning ou error)");
+        }
+    }
+
+    static class Finding {
+        final String rule;
+        final Severity severity;
+        final String table;
+        final List<String> columns;
+        final String message;
+
+        Finding(String rule, Severity severity, String table, List<String> columns, String message) {
+            this.rule = rule;
+            this.severity = severity;
+            this.table = table;
+            this.columns = columns;
+            this.message = message;
+        }
+    }
+
+    // Tamanho máximo de uma linha no SQL Server, e metade de uma página do InnoDB
+    private static final int WIDE_ROW_BYTES = 8060;
+    private static final int WIDE_ROW_COLUMNS = 50;
+    // Espaço ocupado na linha por uma coluna LOB guardada fora dela (ponteiro e prefixo)
+    private static final int LOB_POINTER_BYTES = 20;
+
+    private final SQLParserJPAGenerator generator;
+
+    SchemaLint(SQLParserJPAGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Analisa as tabelas, já com as chaves estrangeiras resolvidas; os resultados vêm pela ordem das tabelas.
+     */
+    List<Finding> analyze(List<SQLParserJPAGenerator.TableInfo> tables) {
+        List<Finding> findings = new ArrayList<>();
+        for (SQLParserJPAGenerator.TableInfo table : tables) {
+            List<List<String>> accessPaths = accessPaths(table);
+            checkForeignKeys(table, accessPaths, findings);
+            checkIndexes(table, findings);
+            checkRowWidth(table, findings);
+            checkLargeColumns(table, findings);
+            checkPrimaryKey(table, findings);
+        }
+        return findings;
+    }
+
+    /**
+     * Listas de colunas (em minúsculas) pelas quais a tabela pode ser lida por índice: a chave primária e cada índice.
+     */
+    private static List<List<String>> accessPaths(SQLParserJPAGenerator.TableInfo table) {
+        List<List<String>> paths = new ArrayList<>(table.indexes.size() + 1);
+        if (!table.primaryKeys.isEmpty()) {
+            paths.add(lowerCase(table.primaryKeys));
+        }
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            paths.add(indexColumns(index));
+        }
+        return paths;
+    }
+
+    /**
+     * Uma chave estrangeira sem índice que comece pela sua coluna obriga a percorrer a tabela inteira
+     * em cada junção, e em cada DELETE ou UPDATE da chave na tabela referida (com bloqueios mais largos).
+     */
+    private static void checkForeignKeys(SQLParserJPAGenerator.TableInfo table, List<List<String>> accessPaths,
+                                         List<Finding> findings) {
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            String column = fk.columnName.toLowerCase();
+            boolean covered = false;
+            for (List<String> path : accessPaths) {
+                if (path.get(0).equals(column)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) {
+                findings.add(new Finding("unindexed-foreign-key", Severity.ERROR, table.name,
+                    Collections.singletonList(fk.columnName),
+                    "A chave estrangeira " + fk.columnName + " -> " + fk.referencedTable
+                        + " não é a primeira coluna de nenhum índice"));
+            }
+        }
+    }
+
+    /**
+     * Índices com as mesmas colunas que a chave primária ou outro índice, e índices não únicos cujas
+     * colunas são o início de outro índice: só custam escrita e espaço.
+     */
+    private static void checkIndexes(SQLParserJPAGenerator.TableInfo table, List<Finding> findings) {
+        List<String> primaryKey = lowerCase(table.primaryKeys);
+        for (int i = 0; i < table.indexes.size(); i++) {
+            SQLParserJPAGenerator.IndexInfo index = table.indexes.get(i);
+            List<String> columns = indexColumns(index);
+            if (columns.equals(primaryKey)) {
+                findings.add(new Finding("duplicate-index", Severity.WARNING, table.name, columnNames(index),
+                    "O índice " + describe(index) + " tem as mesmas colunas que a chave primária"));
+                continue;
+            }
+            boolean reported = false;
+            for (int j = 0; j < i && !reported; j++) {
+                if (columns.equals(indexColumns(table.indexes.get(j)))) {
+                    findings.add(new Finding("duplicate-index", Severity.WARNING, table.name, columnNames(index),
+                        "O índice " + describe(index) + " repete o índice " + describe(table.indexes.get(j))));
+                    reported = true;
+                }
+            }
+            if (reported || index.unique) {
+                continue;
+            }
+            if (isPrefix(columns, primaryKey)) {
+                findings.add(new Finding("redundant-index", Severity.INFO, table.name, columnNames(index),
+                    "O índice " + describe(index) + " é o início da chave primária"));
+                continue;
+            }
+            for (SQLParserJPAGenerator.IndexInfo other : table.indexes) {
+                if (other != index && isPrefix(columns, indexColumns(other))) {
+                    findings.add(new Finding("redundant-index", Severity.INFO, table.name, columnNames(index),
+                        "O índice " + describe(index) + " é o início do índice " + describe(other)));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Linhas com mais do que WIDE_ROW_BYTES no pior caso, ou com mais de WIDE_ROW_COLUMNS colunas:
+     * cada leitura da entidade copia tudo, e linhas longas ocupam mais páginas.
+     */
+    private void checkRowWidth(SQLParserJPAGenerator.TableInfo table, List<Finding> findings) {
+        long bytes = 0;
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            bytes += estimatedBytes(column);
+        }
+        if (bytes > WIDE_ROW_BYTES || table.columns.size() > WIDE_ROW_COLUMNS) {
+            findings.add(new Finding("wide-row", Severity.WARNING, table.name, Collections.emptyList(),
+                "Linha com até ~" + bytes + " bytes em " + table.columns.size() + " colunas"));
+        }
+    }
+
+    /**
+     * Sem --projections, ler uma lista destas entidades copia também o texto longo e os binários
+     * (ou, com LOB preguiçosos sem enhancement, lê-os à mesma).
+     */
+    private void checkLargeColumns(SQLParserJPAGenerator.TableInfo table, List<Finding> findings) {
+        if (generator.options.projections) {
+            return;
+        }
+        List<String> large = new ArrayList<>();
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            if (generator.isLargeColumn(column)) {
+                large.add(column.name);
+            }
+        }
+        if (!large.isEmpty()) {
+            findings.add(new Finding("large-column-without-projection", Severity.INFO, table.name, large,
+                "Colunas grandes (" + String.join(", ", large) + ") sem projecção que as exclua; usar --projections"));
+        }
+    }
+
+    /**
+     * Uma chave composta gera vários @Id sem @IdClass: equals, hashCode, as chaves estrangeiras
+     * que a referem e a cache do contexto de persistência trabalham sobre todas as colunas.
+     */
+    private static void checkPrimaryKey(SQLParserJPAGenerator.TableInfo table, List<Finding> findings) {
+        if (table.primaryKeys.size() > 1) {
+            findings.add(new Finding("composite-primary-key", Severity.INFO, table.name, table.primaryKeys,
+                "Chave primária composta por " + table.primaryKeys.size() + " colunas"));
+        }
+    }
+
+    /**
+     * Tamanho máximo aproximado de uma coluna na linha, em bytes.
+     */
+    private long estimatedBytes(SQLParserJPAGenerator.ColumnInfo column) {
+        if (generator.isLargeColumn(column)) {
+            return LOB_POINTER_BYTES;
+        }
+        switch (column.sqlType) {
+            case "TINYINT":
+            case "BOOLEAN":
+            case "BOOL":
+            case "BIT":
+                return 1;
+            case "SMALLINT":
+            case "ENUM":
+                return 2;
+            case "MEDIUMINT":
+            case "DATE":
+            case "TIME":
+                return 3;
+            case "INT":
+            case "INTEGER":
+            case "FLOAT":
+            case "REAL":
+                return 4;
+            case "BIGINT":
+            case "DOUBLE":
+            case "DATETIME":
+            case "TIMESTAMP":
+                return 8;
+            case "UUID":
+                return 16;
+            case "DECIMAL":
+            case "NUMERIC":
+                return column.length > 0 ? column.length / 2 + 1 : 9;
+            case "NCHAR":
+            case "NVARCHAR":
+                return 2L * Math.max(column.length, 1);
+            default:
+                // Texto e binário com comprimento declarado; outros tipos contam como 16 bytes
+                return column.length > 0 ? column.length : 16;
+        }
+    }
+
+    /**
+     * Escreve o relatório em JSON: o ficheiro analisado, o número de resultados por severidade e os resultados.
+     */
+    static void writeJson(Path file, String sqlFile, List<Finding> findings) throws IOException {
+        int[] counts = new int[Severity.values().length];
+        for (Finding finding : findings) {
+            counts[finding.severity.ordinal()]++;
+        }
+
+        StringBuilder sb = new StringBuilder(256 + findings.size() * 200);
+        sb.append("{\n  \"sqlFile\": ");
+        GeneratorStats.appendString(sb, sqlFile);
+        sb.append(",\n  \"summary\": {");
+        for (Severity severity : Severity.values()) {
+            sb.append(severity.ordinal() == 0 ? "" : ", ");
+            GeneratorStats.appendString(sb, severity.key);
+            sb.append(": ").append(counts[severity.ordinal()]);
+        }
+        sb.append("},\n  \"findings\": [");
+        for (int i = 0; i < findings.size(); i++) {
+            Finding finding = findings.get(i);
+            sb.append(i == 0 ? "\n    {\"rule\": " : ",\n    {\"rule\": ");
+            GeneratorStats.appendString(sb, finding.rule);
+            sb.append(", \"severity\": ");
+            GeneratorStats.appendString(sb, finding.severity.key);
+            sb.append(", \"table\": ");
+            GeneratorStats.appendString(sb, finding.table);
+            sb.append(", \"columns\": [");
+            for (int j = 0; j < finding.columns.size(); j++) {
+                sb.append(j == 0 ? "" : ", ");
+                GeneratorStats.appendString(sb, finding.columns.get(j));
+            }
+            sb.append("], \"message\": ");
+            GeneratorStats.appendString(sb, finding.message);
+            sb.append('}');
+        }
+        sb.append(findings.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private static List<String> indexColumns(SQLParserJPAGenerator.IndexInfo index) {
+        List<String> columns = new ArrayList<>(index.columns.size());
+        for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+            columns.add(column.name.toLowerCase());
+        }
+        return columns;
+    }
+
+    private static List<String> columnNames(SQLParserJPAGenerator.IndexInfo index) {
+        List<String> columns = new ArrayList<>(index.columns.size());
+        for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+            columns.add(column.name);
+        }
+        return columns;
+    }
+
+    private static List<String> lowerCase(List<String> names) {
+        List<String> lower = new ArrayList<>(names.size());
+        for (String name : names) {
+            lower.add(name.toLowerCase());
+        }
+        return lower;
+    }
+
+    private static boolean isPrefix(List<String> prefix, List<String> columns) {
+        return prefix.size() < columns.size() && columns.subList(0, prefix.size()).equals(prefix);
+    }
+
+    /**
+     * Nome do índice, ou a lista das colunas se não tiver nome.
+     */
+    private static String describe(SQLParserJPAGenerator.IndexInfo index) {
+        String columns = "(" + String.join(", ", columnNames(index)) + ")";
+        return index.name != null ? index.name + " " + columns : (index.unique ? "UNIQUE " : "") + columns;
+    }
+}
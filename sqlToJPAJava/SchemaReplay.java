@@ -0,0 +1,245 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Constrói o modelo final de um esquema aplicando as instruções pela ordem em que aparecem:
+ * CREATE TABLE, ALTER TABLE, DROP TABLE e CREATE INDEX.
+ *
+ * As tabelas criadas podem vir da cache de análise (--watch) e ser partilhadas com a execução anterior:
+ * antes da primeira alteração cada uma é copiada. O DDL da cópia acumula as instruções aplicadas,
+ * para que a impressão digital da tabela mude com elas.
+ */
+class SchemaReplay {
+
+    private final SQLParserJPAGenerator generator;
+
+    // Tabelas pela ordem de criação; as removidas ficam a null até ao fim
+    private final List<SQLParserJPAGenerator.TableInfo> tables = new ArrayList<>();
+    private final Map<SQLParserJPAGenerator.TableInfo, Integer> positions = new IdentityHashMap<>();
+    // Última tabela criada com cada nome (em minúsculas)
+    private final Map<String, SQLParserJPAGenerator.TableInfo> byName = new HashMap<>();
+    // Tabelas que só esta instância conhece e podem ser alteradas directamente
+    private final Map<SQLParserJPAGenerator.TableInfo, Boolean> owned = new IdentityHashMap<>();
+    // Tabelas tal como foram analisadas a partir do CREATE TABLE, antes de qualquer alteração
+    private final List<SQLParserJPAGenerator.TableInfo> created = new ArrayList<>();
+
+    SchemaReplay(SQLParserJPAGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Acrescenta uma tabela de um CREATE TABLE.
+     */
+    void create(SQLParserJPAGenerator.TableInfo table) {
+        created.add(table);
+        add(table);
+    }
+
+    /**
+     * Acrescenta uma tabela do modelo guardado em cache, que já não é partilhada com ninguém.
+     */
+    void restore(SQLParserJPAGenerator.TableInfo table) {
+        add(table);
+        owned.put(table, Boolean.TRUE);
+    }
+
+    private void add(SQLParserJPAGenerator.TableInfo table) {
+        positions.put(table, tables.size());
+        tables.add(table);
+        byName.put(table.name.toLowerCase(), table);
+    }
+
+    /**
+     * Aplica uma instrução ALTER TABLE, DROP TABLE ou CREATE INDEX.
+     * Devolve false (com um aviso) se a instrução não pôde ser interpretada ou refere uma tabela desconhecida.
+     */
+    boolean apply(String statement) {
+        ColumnDefinitionParser parser = new ColumnDefinitionParser(statement);
+        if (statement.regionMatches(true, 0, "ALTER", 0, 5)) {
+            String name = parser.parseAlterTableName();
+            SQLParserJPAGenerator.TableInfo table = find(name, statement);
+            if (table == null) {
+                return false;
+            }
+            SQLParserJPAGenerator.TableInfo target = writable(table);
+            String previousName = target.name;
+            boolean parsed = parser.parseAlterActions(target);
+            target.ddl = target.ddl + "\n" + statement;
+            if (!target.name.equalsIgnoreCase(previousName)) {
+                renamed(target, previousName);
+            }
+            generator.resolveTypes(target);
+            if (!parsed) {
+                GeneratorLog.warn("Aviso: Não foi possível interpretar todo o ALTER TABLE de " + target.name
+                    + ": " + SQLParserJPAGenerator.abbreviate(statement));
+            }
+            return parsed;
+        }
+
+        if (statement.regionMatches(true, 0, "DROP", 0, 4)) {
+            List<String> names = parser.parseDropTable();
+            if (names == null) {
+                return false;
+            }
+            for (String name : names) {
+                // DROP TABLE IF EXISTS antes do CREATE TABLE (mysqldump) não encontra nada
+                SQLParserJPAGenerator.TableInfo table = byName.remove(name.toLowerCase());
+                if (table != null) {
+                    tables.set(positions.remove(table), null);
+                }
+            }
+            return true;
+        }
+
+        SQLParserJPAGenerator.TableInfo index = parser.parseCreateIndex();
+        if (index == null) {
+            GeneratorLog.warn("Aviso: Não foi possível interpretar a instrução: "
+                + SQLParserJPAGenerator.abbreviate(statement));
+            return false;
+        }
+        SQLParserJPAGenerator.TableInfo table = find(index.name, statement);
+        if (table == null) {
+            return false;
+        }
+        SQLParserJPAGenerator.TableInfo target = writable(table);
+        for (SQLParserJPAGenerator.IndexInfo added : index.indexes) {
+            if (added.name == null || findIndex(target, added.name) == null) {
+                target.indexes.add(added);
+            }
+        }
+        target.ddl = target.ddl + "\n" + statement;
+        generator.resolveTypes(target);
+        return true;
+    }
+
+    private static SQLParserJPAGenerator.IndexInfo findIndex(SQLParserJPAGenerator.TableInfo table, String name) {
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            if (name.equalsIgnoreCase(index.name)) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tabelas que existem no fim, pela ordem de criação.
+     */
+    List<SQLParserJPAGenerator.TableInfo> tables() {
+        List<SQLParserJPAGenerator.TableInfo> result = new ArrayList<>(positions.size());
+        for (SQLParserJPAGenerator.TableInfo table : tables) {
+            if (table != null) {
+                result.add(table);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tabelas analisadas a partir de CREATE TABLE nesta execução, sem as alterações posteriores.
+     */
+    List<SQLParserJPAGenerator.TableInfo> created() {
+        return Collections.unmodifiableList(created);
+    }
+
+    private SQLParserJPAGenerator.TableInfo find(String name, String statement) {
+        SQLParserJPAGenerator.TableInfo table = name != null ? byName.get(name.toLowerCase()) : null;
+        if (table == null) {
+            GeneratorLog.warn("Aviso: Instrução sobre uma tabela desconhecida: "
+                + SQLParserJPAGenerator.abbreviate(statement));
+        }
+        return table;
+    }
+
+    /**
+     * Depois de um RENAME TO, as chaves estrangeiras das outras tabelas passam a referir o nome novo.
+     */
+    private void renamed(SQLParserJPAGenerator.TableInfo table, String previousName) {
+        byName.remove(previousName.toLowerCase(), table);
+        byName.put(table.name.toLowerCase(), table);
+        List<SQLParserJPAGenerator.TableInfo> referencing = new ArrayList<>();
+        for (SQLParserJPAGenerator.TableInfo other : byName.values()) {
+            for (SQLParserJPAGenerator.ForeignKeyInfo fk : other.foreignKeys) {
+                if (fk.referencedTable.equalsIgnoreCase(previousName)) {
+                    referencing.add(other);
+                    break;
+                }
+            }
+        }
+        for (SQLParserJPAGenerator.TableInfo other : referencing) {
+            for (SQLParserJPAGenerator.ForeignKeyInfo fk : writable(other).foreignKeys) {
+                if (fk.referencedTable.equalsIgnoreCase(previousName)) {
+                    fk.referencedTable = table.name;
+                }
+            }
+        }
+    }
+
+    /**
+     * Devolve a tabela pronta a alterar, copiando-a na primeira alteração.
+     */
+    private SQLParserJPAGenerator.TableInfo writable(SQLParserJPAGenerator.TableInfo table) {
+        if (owned.containsKey(table)) {
+            return table;
+        }
+        SQLParserJPAGenerator.TableInfo copy = copy(table);
+        int position = positions.remove(table);
+        tables.set(position, copy);
+        positions.put(copy, position);
+        byName.replace(table.name.toLowerCase(), table, copy);
+        owned.put(copy, Boolean.TRUE);
+        return copy;
+    }
+
+    private static SQLParserJPAGenerator.TableInfo copy(SQLParserJPAGenerator.TableInfo table) {
+        SQLParserJPAGenerator.TableInfo copy = new SQLParserJPAGenerator.TableInfo();
+        copy.name = table.name;
+        copy.ddl = table.ddl;
+        copy.className = table.className;
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            SQLParserJPAGenerator.ColumnInfo columnCopy = new SQLParserJPAGenerator.ColumnInfo();
+            columnCopy.name = column.name;
+            columnCopy.fieldName = column.fieldName;
+            columnCopy.sqlType = column.sqlType;
+            columnCopy.javaType = column.javaType;
+            columnCopy.unsigned = column.unsigned;
+            columnCopy.nullable = column.nullable;
+            columnCopy.primaryKey = column.primaryKey;
+            columnCopy.autoIncrement = column.autoIncrement;
+            columnCopy.defaultValue = column.defaultValue;
+            columnCopy.unique = column.unique;
+            columnCopy.length = column.length;
+            copy.columns.add(columnCopy);
+        }
+        copy.primaryKeys.addAll(table.primaryKeys);
+        copy.primaryKeyName = table.primaryKeyName;
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            SQLParserJPAGenerator.ForeignKeyInfo fkCopy = new SQLParserJPAGenerator.ForeignKeyInfo();
+            fkCopy.name = fk.name;
+            fkCopy.columnName = fk.columnName;
+            fkCopy.referencedTable = fk.referencedTable;
+            fkCopy.referencedColumn = fk.referencedColumn;
+            copy.foreignKeys.add(fkCopy);
+        }
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            SQLParserJPAGenerator.IndexInfo indexCopy = new SQLParserJPAGenerator.IndexInfo();
+            indexCopy.name = index.name;
+            indexCopy.unique = index.unique;
+            for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+                SQLParserJPAGenerator.IndexColumnInfo columnCopy = new SQLParserJPAGenerator.IndexColumnInfo();
+                columnCopy.name = column.name;
+                columnCopy.prefixLength = column.prefixLength;
+                columnCopy.descending = column.descending;
+                indexCopy.columns.add(columnCopy);
+            }
+            copy.indexes.add(indexCopy);
+        }
+        if (!table.unparsedElements.isEmpty()) {
+            copy.unparsedElements = new ArrayList<>(table.unparsedElements);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Modo --watch: mantém o gerador (e o modelo já analisado) em memória e regenera as
+ * entidades sempre que o ficheiro SQL é gravado. Com um directório de migrações, regenera quando
+ * algum ficheiro .sql do directório ou de um subdirectório (como em MigrationDirectory.list) é criado,
+ * alterado ou apagado; os subdirectórios criados depois do arranque também passam a ser observados.
+ *
+ * Rajadas de eventos (editores que gravam em vários passos) são agrupadas numa só regeneração;
+ * só as tabelas cuja definição mudou voltam a ser analisadas e escritas.
+ */
+class SchemaWatcher {
+
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final SQLParserJPAGenerator generator;
+    private final String sqlFilePath;
+    private final String packageName;
+    private final String outputDir;
+    // Directórios observados (com migrações, todos os subdirectórios)
+    private final Set<Path> watched = new HashSet<>();
+
+    SchemaWatcher(SQLParserJPAGenerator generator, String sqlFilePath, String packageName, String outputDir) {
+        this.generator = generator;
+        this.sqlFilePath = sqlFilePath;
+        this.packageName = packageName;
+        this.outputDir = outputDir;
+    }
+
+    void run() throws IOException, InterruptedException {
+        Path file = Paths.get(sqlFilePath).toAbsolutePath();
+        boolean migrations = Files.isDirectory(file);
+        Path directory = migrations ? file : file.getParent();
+        // null: qualquer ficheiro .sql do directório de migrações
+        Path fileName = migrations ? null : file.getFileName();
+
+        generate();
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            // Observa-se o directório: muitos editores gravam num ficheiro temporário e renomeiam-no
+            register(watchService, directory, migrations);
+            GeneratorLog.info("A observar " + file + " (Ctrl+C para terminar)");
+
+            while (true) {
+                boolean changed = drain(watchService, watchService.take(), fileName);
+
+                // Esperar que a rajada de eventos acabe antes de regenerar
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(watchService, key, fileName);
+                }
+
+                if (changed) {
+                    generate();
+                }
+            }
+        }
+    }
+
+    private void generate() {
+        long start = System.nanoTime();
+        try {
+            generator.generateEntitiesFromSQL(sqlFilePath, packageName, outputDir);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            GeneratorLog.info("Regeneração concluída em " + elapsed + " ms");
+        } catch (IOException | RuntimeException e) {
+            // Um ficheiro a meio da gravação não deve terminar o modo watch
+            GeneratorLog.error("Erro ao gerar entidades: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Regista o directório e, se subtree, todos os seus subdirectórios (o WatchService não é recursivo).
+     */
+    private void register(WatchService watchService, Path directory, boolean subtree) throws IOException {
+        List<Path> directories;
+        if (subtree) {
+            try (Stream<Path> walk = Files.walk(directory)) {
+                directories = walk.filter(Files::isDirectory).collect(Collectors.toList());
+            }
+        } else {
+            directories = Collections.singletonList(directory);
+        }
+        for (Path each : directories) {
+            if (watched.add(each)) {
+                each.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private boolean drain(WatchService watchService, WatchKey key, Path fileName) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (fileName == null && event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                // Subdirectório novo (ou movido para aqui), talvez já com migrações
+                try {
+                    register(watchService, path, true);
+                } catch (IOException e) {
+                    GeneratorLog.warn("Aviso: Não foi possível observar " + path + ": " + e.getMessage());
+                }
+                changed = true;
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && watched.remove(path)) {
+                // Subdirectório apagado: as migrações que tinha deixaram de existir
+                changed = true;
+            } else if (matches(fileName, event.context())) {
+                changed = true;
+            }
+        }
+        if (!key.reset()) {
+            // O directório observado foi apagado (os eventos do directório pai podem chegar depois)
+            watched.remove(directory);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static boolean matches(Path fileName, Object context) {
+        if (fileName == null) {
+            return context instanceof Path && context.toString().toLowerCase().endsWith(".sql");
+        }
+        return fileName.equals(context);
+    }
+}
@@ -0,0 +1,41 @@
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destino dos ficheiros gerados (directório ou arquivo .srcjar / .jar).
+ */
+interface SourceSink extends Closeable {
+
+    /**
+     * Escreve um ficheiro gerado, em UTF-8.
+     *
+     * @param packageName pacote da classe (define o caminho dentro de um .srcjar)
+     * @param fileName nome do ficheiro, ex.: "Customers.java", ou caminho relativo ao pacote num subpacote
+     *                 (ex.: "projection/CustomersSummary.java")
+     * @return false se o ficheiro já existia com o mesmo conteúdo e não foi reescrito
+     */
+    boolean write(String packageName, String fileName, CharSequence content) throws IOException;
+
+    /**
+     * Escreve um ficheiro binário gerado, ex.: "Customers.class".
+     */
+    boolean write(String packageName, String fileName, byte[] content) throws IOException;
+
+    /**
+     * Indica se write pode ser chamado por várias threads em simultâneo e por qualquer ordem.
+     * Caso contrário, o gerador escreve os ficheiros pela ordem das tabelas, numa só thread.
+     */
+    boolean isConcurrent();
+
+    /**
+     * Total de bytes escritos até agora; ficheiros inalterados não contam.
+     */
+    long bytesWritten();
+
+    /**
+     * Confirma os ficheiros escritos, depois de gerada a última entidade. Um arquivo fechado sem
+     * commit (ex.: a geração falhou a meio) é descartado e o arquivo anterior fica intacto.
+     */
+    default void commit() throws IOException {
+    }
+}
@@ -0,0 +1,129 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escreve todas as entidades num único arquivo zip, com os caminhos do pacote: um .srcjar com o
+ * código-fonte ou, com --bytecode, um .jar com as classes compiladas.
+ *
+ * As entradas têm data fixa, por isso o mesmo esquema produz sempre o mesmo arquivo;
+ * se o resultado for igual ao arquivo existente, este não é substituído. O arquivo é escrito num
+ * ficheiro temporário e só substitui o destino em commit.
+ */
+class SrcJarSourceSink implements SourceSink {
+
+    // 1980-01-01, a data mínima representável em zip
+    private static final long FIXED_ENTRY_TIME = 315532800000L;
+
+    private final Path target;
+    private final Path temp;
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private long bytesWritten;
+    private boolean closed;
+
+    SrcJarSourceSink(Path target) throws IOException {
+        this.target = target.toAbsolutePath();
+        Path parent = this.target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.temp = this.target.resolveSibling(this.target.getFileName() + ".tmp");
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024));
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized boolean write(String packageName, String fileName, CharSequence content) throws IOException {
+        ZipEntry entry = putNextEntry(packageName, fileName);
+        writer.append(content);
+        writer.flush();
+        return closeEntry(entry);
+    }
+
+    @Override
+    public synchronized boolean write(String packageName, String fileName, byte[] content) throws IOException {
+        ZipEntry entry = putNextEntry(packageName, fileName);
+        zip.write(content);
+        return closeEntry(entry);
+    }
+
+    private ZipEntry putNextEntry(String packageName, String fileName) throws IOException {
+        String path = packageName.isEmpty() ? fileName : packageName.replace('.', '/') + "/" + fileName;
+        ZipEntry entry = new ZipEntry(path);
+        entry.setTime(FIXED_ENTRY_TIME);
+        zip.putNextEntry(entry);
+        return entry;
+    }
+
+    private boolean closeEntry(ZipEntry entry) throws IOException {
+        zip.closeEntry();
+        bytesWritten += entry.getSize();
+        return true;
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return false;
+    }
+
+    @Override
+    public synchronized long bytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public synchronized void commit() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Arquivo já fechado: " + target);
+        }
+        closed = true;
+        writer.close();
+        if (Files.isRegularFile(target) && sameContent(temp, target)) {
+            Files.delete(temp);
+        } else {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Sem commit, descarta o arquivo temporário e mantém o arquivo anterior.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.close();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static boolean sameContent(Path a, Path b) throws IOException {
+        if (Files.size(a) != Files.size(b)) {
+            return false;
+        }
+        try (InputStream inA = new BufferedInputStream(Files.newInputStream(a));
+             InputStream inB = new BufferedInputStream(Files.newInputStream(b))) {
+            int c;
+            while ((c = inA.read()) != -1) {
+                if (c != inB.read()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import sqltojpa.benchmarks.GeneratorPhases;
+
+/**
+ * Implementação de {@link GeneratorPhases} no pacote por omissão, com acesso directo
+ * aos métodos de pacote do gerador.
+ */
+public class GeneratorPhasesBridge implements GeneratorPhases {
+
+    private final SQLParserJPAGenerator generator = new SQLParserJPAGenerator();
+
+    @Override
+    public List<String> readStatements(byte[] sql) throws IOException {
+        List<String> statements = new ArrayList<>();
+        try (SQLStatementReader reader = new SQLStatementReader(
+                Channels.newChannel(new ByteArrayInputStream(sql)), "CREATE TABLE")) {
+            String statement;
+            while ((statement = reader.nextStatement()) != null) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    @Override
+    public List<Object> parseTables(List<String> statements) {
+        List<Object> tables = new ArrayList<>(statements.size());
+        for (String statement : statements) {
+            SQLParserJPAGenerator.TableInfo table = generator.parseSQL(statement);
+            if (table != null) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    @Override
+    public Object parseColumn(String definition) {
+        return new ColumnDefinitionParser(definition).parseColumnDefinition();
+    }
+
+    @Override
+    public void resolveRelationships(List<Object> tables) {
+        generator.processRelationships(asTables(tables));
+    }
+
+    @Override
+    public long renderEntities(List<Object> tables, String packageName) {
+        long length = 0;
+        for (SQLParserJPAGenerator.TableInfo table : asTables(tables)) {
+            length += generator.renderEntityClass(table, packageName).length();
+        }
+        return length;
+    }
+
+    @Override
+    public void generate(Path sqlFile, String packageName, Path outputDir, int threads) throws IOException {
+        GeneratorOptions options = new GeneratorOptions();
+        options.threads = threads;
+        options.full = true;
+        new SQLParserJPAGenerator(options).generateEntitiesFromSQL(sqlFile.toString(), packageName, outputDir.toString());
+    }
+
+    @Override
+    public Class<?> defineEntity(String createTable, String packageName, List<String> options) throws IOException {
+        SQLParserJPAGenerator entityGenerator = new SQLParserJPAGenerator(GeneratorOptions.parse(options));
+        List<String> statements = readStatements(createTable.getBytes(StandardCharsets.UTF_8));
+        SQLParserJPAGenerator.TableInfo table = entityGenerator.parseSQL(statements.get(0));
+        entityGenerator.processRelationships(Collections.singletonList(table));
+        entityGenerator.narrowTypes(Collections.singletonList(table));
+
+        byte[] classFile = new EntityBytecodeGenerator(entityGenerator).generate(table, packageName);
+        String className = packageName.isEmpty() ? table.className : packageName + "." + table.className;
+        return new ClassLoader(GeneratorPhasesBridge.class.getClassLoader()) {
+            Class<?> define() {
+                return defineClass(className, classFile, 0, classFile.length);
+            }
+        }.define();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SQLParserJPAGenerator.TableInfo> asTables(List<Object> tables) {
+        return (List<SQLParserJPAGenerator.TableInfo>) (List<?>) Collections.unmodifiableList(tables);
+    }
+}
@@ -0,0 +1,95 @@
+package sqltojpa.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Execução completa do gerador (ficheiro SQL em disco até às entidades escritas),
+ * sequencial e em paralelo. Todas as entidades são regeneradas e escritas em cada invocação: o directório
+ * de saída é apagado antes de cada uma, porque um ficheiro com o mesmo conteúdo não voltaria a ser escrito.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int tables;
+
+    @Param({"BALANCED", "WIDE", "DEEP_FK", "HUGE_ENUM", "HEAVY_COMMENTS"})
+    public SyntheticSchema.Shape shape;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private GeneratorPhases phases;
+    private Path workDir;
+    private Path sqlFile;
+    private Path outputDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        phases = GeneratorPhases.load();
+        workDir = Files.createTempDirectory("sqltojpa-bench");
+        sqlFile = workDir.resolve("schema.sql");
+        outputDir = workDir.resolve("entities");
+        Files.write(sqlFile, SyntheticSchema.generate(tables, shape).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearOutput() throws IOException {
+        if (Files.exists(outputDir)) {
+            delete(outputDir);
+        }
+    }
+
+    @Benchmark
+    public Path generate() throws IOException {
+        phases.generate(sqlFile, "com.example.entities", outputDir, threads);
+        return outputDir;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(workDir);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
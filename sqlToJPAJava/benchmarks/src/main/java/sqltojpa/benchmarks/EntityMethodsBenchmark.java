@@ -0,0 +1,118 @@
+package sqltojpa.benchmarks;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de equals, hashCode e toString das entidades geradas, com e sem
+ * --inline-object-methods (e com --primitives, em que as chaves deixam de ser objectos).
+ *
+ * Executar com "-prof gc": com --inline-object-methods, gc.alloc.rate.norm de hashCode
+ * e equals deve ser 0 B/op; sem a opção, Objects.hash aloca o array e os valores embrulhados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMethodsBenchmark {
+
+    // Chave composta com tipos mistos, e colunas de texto longo para toString
+    private static final String CREATE_TABLE =
+        "CREATE TABLE order_lines (\n" +
+        "  tenant_id BIGINT NOT NULL,\n" +
+        "  line_no INT NOT NULL,\n" +
+        "  sku VARCHAR(32) NOT NULL,\n" +
+        "  quantity INT NOT NULL,\n" +
+        "  unit_price DECIMAL(12,2) NOT NULL,\n" +
+        "  weight DOUBLE NOT NULL,\n" +
+        "  gift BOOLEAN NOT NULL,\n" +
+        "  notes TEXT,\n" +
+        "  PRIMARY KEY (tenant_id, line_no, sku)\n" +
+        ");\n";
+
+    // "none" = código por omissão
+    @Param({"none", "--inline-object-methods", "--inline-object-methods --primitives"})
+    public String options;
+
+    private Object entity;
+    private Object equalCopy;
+    private Object different;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<String> flags = options.equals("none")
+            ? Collections.emptyList()
+            : Arrays.asList(options.split(" "));
+        Class<?> entityClass = GeneratorPhases.load().defineEntity(CREATE_TABLE, "bench.entities", flags);
+
+        entity = newEntity(entityClass, "SKU-000042");
+        equalCopy = newEntity(entityClass, "SKU-000042");
+        different = newEntity(entityClass, "SKU-000043");
+    }
+
+    @Benchmark
+    public int hashCodeOf() {
+        return entity.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsEqual() {
+        return entity.equals(equalCopy);
+    }
+
+    @Benchmark
+    public boolean equalsDifferent() {
+        return entity.equals(different);
+    }
+
+    @Benchmark
+    public String toStringOf() {
+        return entity.toString();
+    }
+
+    /**
+     * Cria uma instância através do construtor vazio e preenche cada campo pelo setter,
+     * com o tipo (primitivo ou embrulhado) que o gerador escolheu.
+     */
+    private static Object newEntity(Class<?> entityClass, String sku) throws Exception {
+        Object instance = entityClass.getConstructor().newInstance();
+        set(instance, "setTenantId", 7L);
+        set(instance, "setLineNo", 3);
+        set(instance, "setSku", sku);
+        set(instance, "setQuantity", 12);
+        set(instance, "setUnitPrice", new BigDecimal("19.90"));
+        set(instance, "setWeight", 1.25d);
+        set(instance, "setGift", Boolean.FALSE);
+        set(instance, "setNotes", "Entregar no armazém central, cais 4");
+        return instance;
+    }
+
+    private static void set(Object instance, String setter, Object value) throws Exception {
+        for (Method method : instance.getClass().getMethods()) {
+            if (method.getName().equals(setter) && method.getParameterCount() == 1) {
+                method.invoke(instance, value);
+                return;
+            }
+        }
+        throw new IllegalStateException("Setter não encontrado: " + setter);
+    }
+}
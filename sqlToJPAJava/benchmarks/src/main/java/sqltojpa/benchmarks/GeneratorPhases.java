@@ -0,0 +1,59 @@
+package sqltojpa.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Acesso às fases do gerador a partir dos benchmarks.
+ *
+ * O gerador vive no pacote por omissão, que não pode ser importado de um pacote com nome;
+ * a implementação ({@code GeneratorPhasesBridge}) está no pacote por omissão e é carregada
+ * uma vez por nome, pelo que as chamadas medidas são chamadas de interface normais.
+ */
+public interface GeneratorPhases {
+
+    /**
+     * Divide o SQL em instruções CREATE TABLE (leitura, remoção de comentários e normalização).
+     */
+    List<String> readStatements(byte[] sql) throws IOException;
+
+    /**
+     * Analisa cada instrução CREATE TABLE; devolve as tabelas (TableInfo) como objectos opacos.
+     */
+    List<Object> parseTables(List<String> statements);
+
+    /**
+     * Analisa uma definição de coluna isolada; devolve o ColumnInfo como objecto opaco.
+     */
+    Object parseColumn(String definition);
+
+    /**
+     * Resolve as chaves estrangeiras entre as tabelas analisadas.
+     */
+    void resolveRelationships(List<Object> tables);
+
+    /**
+     * Gera o código de todas as entidades, sem escrever em disco; devolve o total de caracteres.
+     */
+    long renderEntities(List<Object> tables, String packageName);
+
+    /**
+     * Execução completa: lê o ficheiro e escreve todas as entidades no directório indicado.
+     */
+    void generate(Path sqlFile, String packageName, Path outputDir, int threads) throws IOException;
+
+    /**
+     * Gera a entidade de uma única instrução CREATE TABLE já em bytecode, com as opções indicadas
+     * (por exemplo "--inline-object-methods"), e carrega-a num ClassLoader próprio.
+     */
+    Class<?> defineEntity(String createTable, String packageName, List<String> options) throws IOException;
+
+    static GeneratorPhases load() {
+        try {
+            return (GeneratorPhases) Class.forName("GeneratorPhasesBridge").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("GeneratorPhasesBridge não encontrado no classpath", e);
+        }
+    }
+}
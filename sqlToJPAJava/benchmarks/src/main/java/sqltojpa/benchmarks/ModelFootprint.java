@@ -0,0 +1,55 @@
+package sqltojpa.benchmarks;
+
+import java.util.Locale;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import sqltojpa.EntityGenerator;
+import sqltojpa.SchemaModel;
+
+/**
+ * Mede, com o JOL, a memória retida por um SchemaModel de um esquema sintético grande:
+ * o total, por tabela e por coluna, com e sem o texto DDL das tabelas, e o histograma das classes.
+ *
+ * Não é um benchmark JMH: executar com
+ * "java -cp target/benchmarks.jar sqltojpa.benchmarks.ModelFootprint [tabelas] [forma] [máx. bytes/tabela]".
+ * Com o terceiro argumento, termina com código 1 se o modelo sem DDL ultrapassar esse valor por tabela.
+ */
+public final class ModelFootprint {
+
+    private ModelFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        SyntheticSchema.Shape shape = args.length > 1 ? SyntheticSchema.Shape.valueOf(args[1]) : SyntheticSchema.Shape.BALANCED;
+        long maxBytesPerTable = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        EntityGenerator generator = EntityGenerator.create("--threads=" + Runtime.getRuntime().availableProcessors());
+        SchemaModel model = generator.parse(SyntheticSchema.generate(tables, shape));
+        int columns = 0;
+        for (SchemaModel.Table table : model.getTables()) {
+            columns += table.getColumns().size();
+        }
+
+        GraphLayout layout = GraphLayout.parseInstance(model);
+        long ddlBytes = 0;
+        for (SchemaModel.Table table : model.getTables()) {
+            ddlBytes += GraphLayout.parseInstance(table.getDdl()).totalSize();
+        }
+        long withoutDdl = layout.totalSize() - ddlBytes;
+
+        System.out.println(layout.toFootprint());
+        System.out.printf(Locale.ROOT, "%d tabelas, %d colunas (%s)%n", tables, columns, shape);
+        System.out.printf(Locale.ROOT, "Modelo:      %,14d bytes (%,d por tabela, %,d por coluna)%n",
+            layout.totalSize(), layout.totalSize() / tables, layout.totalSize() / Math.max(1, columns));
+        System.out.printf(Locale.ROOT, "Sem o DDL:   %,14d bytes (%,d por tabela, %,d por coluna)%n",
+            withoutDdl, withoutDdl / tables, withoutDdl / Math.max(1, columns));
+
+        if (maxBytesPerTable > 0 && withoutDdl / tables > maxBytesPerTable) {
+            System.err.printf(Locale.ROOT, "%,d bytes por tabela excede o limite de %,d%n",
+                withoutDdl / tables, maxBytesPerTable);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package sqltojpa.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks de cada fase do gerador, isoladas: leitura/limpeza, análise das tabelas,
+ * análise de colunas, resolução de relacionamentos e geração do código (sem I/O).
+ *
+ * Executar com "-prof gc" para obter também a taxa de alocação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhaseBenchmarks {
+
+    @Param({"10", "1000", "50000"})
+    public int tables;
+
+    @Param({"BALANCED", "WIDE", "DEEP_FK", "HUGE_ENUM", "HEAVY_COMMENTS"})
+    public SyntheticSchema.Shape shape;
+
+    private GeneratorPhases phases;
+    private byte[] sql;
+    private List<String> statements;
+    private List<String> columnDefinitions;
+    private List<Object> parsedTables;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        phases = GeneratorPhases.load();
+        sql = SyntheticSchema.generate(tables, shape).getBytes(StandardCharsets.UTF_8);
+        statements = phases.readStatements(sql);
+        parsedTables = phases.parseTables(statements);
+        phases.resolveRelationships(parsedTables);
+        columnDefinitions = columnDefinitions(statements);
+    }
+
+    @Benchmark
+    public List<String> readStatements() throws IOException {
+        return phases.readStatements(sql);
+    }
+
+    @Benchmark
+    public List<Object> parseTables() {
+        return phases.parseTables(statements);
+    }
+
+    @Benchmark
+    public void parseColumns(Blackhole blackhole) {
+        for (String definition : columnDefinitions) {
+            blackhole.consume(phases.parseColumn(definition));
+        }
+    }
+
+    @Benchmark
+    public List<Object> resolveRelationships() {
+        phases.resolveRelationships(parsedTables);
+        return parsedTables;
+    }
+
+    @Benchmark
+    public long renderEntities() {
+        return phases.renderEntities(parsedTables, "com.example.entities");
+    }
+
+    /**
+     * Extrai as definições de coluna da primeira tabela, para medir a análise de colunas isolada.
+     */
+    private static List<String> columnDefinitions(List<String> statements) {
+        List<String> definitions = new ArrayList<>();
+        if (statements.isEmpty()) {
+            return definitions;
+        }
+        String statement = statements.get(0);
+        String body = statement.substring(statement.indexOf('(') + 1, statement.lastIndexOf(')'));
+        int depth = 0;
+        int start = 0;
+        boolean quoted = false;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')') {
+                depth--;
+            } else if (!quoted && depth == 0 && c == ',') {
+                addColumn(definitions, body.substring(start, i));
+                start = i + 1;
+            }
+        }
+        addColumn(definitions, body.substring(start));
+        return definitions;
+    }
+
+    private static void addColumn(List<String> definitions, String element) {
+        String trimmed = element.trim();
+        if (trimmed.startsWith("`")) {
+            definitions.add(trimmed);
+        }
+    }
+}
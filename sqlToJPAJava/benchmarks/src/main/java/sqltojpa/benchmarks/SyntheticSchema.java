@@ -0,0 +1,132 @@
+package sqltojpa.benchmarks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Gera esquemas SQL sintéticos, com formas realistas, para os benchmarks.
+ *
+ * O resultado depende apenas do número de tabelas e da forma (semente fixa),
+ * por isso execuções diferentes medem exactamente o mesmo texto.
+ */
+public final class SyntheticSchema {
+
+    /**
+     * Formas de esquema exercitadas pelos benchmarks.
+     */
+    public enum Shape {
+        // Tabelas com ~12 colunas de tipos variados e 1 a 2 chaves estrangeiras
+        BALANCED,
+        // Tabelas com 150 colunas
+        WIDE,
+        // Cada tabela referencia as 4 anteriores (cadeias longas de chaves estrangeiras)
+        DEEP_FK,
+        // Cada tabela tem uma coluna ENUM com 500 valores
+        HUGE_ENUM,
+        // Muitos comentários de linha e de bloco, e COMMENT em cada coluna
+        HEAVY_COMMENTS
+    }
+
+    private static final String[] TYPES = {
+        "INT", "BIGINT UNSIGNED", "VARCHAR(255)", "CHAR(2)", "DECIMAL(12, 2)", "TEXT",
+        "TIMESTAMP", "DATE", "BOOLEAN", "DOUBLE", "SMALLINT", "JSON", "BLOB", "TINYINT(1)"
+    };
+
+    private SyntheticSchema() {
+    }
+
+    public static String generate(int tables, Shape shape) {
+        StringBuilder sb = new StringBuilder(tables * 700);
+        Random random = new Random(42L * tables + shape.ordinal());
+
+        sb.append("-- Esquema sintético: ").append(tables).append(" tabelas, forma ").append(shape).append('\n');
+        for (int t = 0; t < tables; t++) {
+            appendTable(sb, random, t, shape);
+        }
+        return sb.toString();
+    }
+
+    private static void appendTable(StringBuilder sb, Random random, int index, Shape shape) {
+        if (shape == Shape.HEAVY_COMMENTS) {
+            sb.append("\n-- ------------------------------------------------------------\n");
+            sb.append("-- Tabela ").append(index).append(": dados de teste; inclui \"aspas\" e ponto e vírgula;\n");
+            sb.append("/* Bloco de documentação da tabela ").append(index).append("\n");
+            for (int i = 0; i < 5; i++) {
+                sb.append(" * Linha ").append(i).append(" do comentário, com CREATE TABLE falso (x INT);\n");
+            }
+            sb.append(" */\n");
+        }
+
+        sb.append("CREATE TABLE IF NOT EXISTS `table_").append(index).append("` (\n");
+        sb.append("    `id` BIGINT NOT NULL AUTO_INCREMENT");
+        appendComment(sb, shape, "chave primária");
+
+        int columns = shape == Shape.WIDE ? 150 : 10 + random.nextInt(5);
+        for (int c = 0; c < columns; c++) {
+            sb.append(",\n    `column_").append(c).append("` ").append(TYPES[random.nextInt(TYPES.length)]);
+            if (random.nextBoolean()) {
+                sb.append(" NOT NULL");
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append(" DEFAULT ").append(random.nextBoolean() ? "'valor, com vírgula'" : "0");
+            }
+            appendComment(sb, shape, "coluna " + c);
+        }
+
+        if (shape == Shape.HUGE_ENUM) {
+            sb.append(",\n    `status` ENUM(");
+            for (int v = 0; v < 500; v++) {
+                if (v > 0) {
+                    sb.append(", ");
+                }
+                sb.append("'VALUE_").append(v).append('\'');
+            }
+            sb.append(") NOT NULL DEFAULT 'VALUE_0'");
+        }
+
+        sb.append(",\n    `created_at` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP");
+        sb.append(",\n    `updated_at` TIMESTAMP NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP");
+
+        int foreignKeys = index == 0 ? 0 : shape == Shape.DEEP_FK ? Math.min(index, 4) : 1 + random.nextInt(2);
+        for (int f = 0; f < foreignKeys; f++) {
+            sb.append(",\n    `ref_").append(f).append("_id` BIGINT");
+        }
+        sb.append(",\n    PRIMARY KEY (`id`)");
+        for (int f = 0; f < foreignKeys; f++) {
+            int target = shape == Shape.DEEP_FK ? index - 1 - f : random.nextInt(index);
+            sb.append(",\n    KEY `idx_ref_").append(f).append("` (`ref_").append(f).append("_id`)");
+            sb.append(",\n    CONSTRAINT `fk_").append(index).append('_').append(f)
+                .append("` FOREIGN KEY (`ref_").append(f).append("_id`) REFERENCES `table_")
+                .append(target).append("` (`id`) ON DELETE CASCADE");
+        }
+        sb.append("\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;\n\n");
+
+        // Instruções que o gerador deve percorrer sem guardar
+        sb.append("INSERT INTO `table_").append(index).append("` (`id`) VALUES (1), (2), (3);\n");
+    }
+
+    private static void appendComment(StringBuilder sb, Shape shape, String text) {
+        if (shape == Shape.HEAVY_COMMENTS) {
+            sb.append(" COMMENT '").append(text).append("' /* nota; ignorada */ -- fim da coluna\n   ");
+        }
+    }
+
+    /**
+     * Escreve um esquema sintético em ficheiro, para uso fora dos benchmarks.
+     * Uso: SyntheticSchema &lt;tabelas&gt; &lt;forma&gt; &lt;ficheiro&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Uso: SyntheticSchema <tabelas> <BALANCED|WIDE|DEEP_FK|HUGE_ENUM|HEAVY_COMMENTS> <ficheiro>");
+            return;
+        }
+        String sql = generate(Integer.parseInt(args[0]), Shape.valueOf(args[1]));
+        try (Writer writer = Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+            writer.write(sql);
+        }
+    }
+}
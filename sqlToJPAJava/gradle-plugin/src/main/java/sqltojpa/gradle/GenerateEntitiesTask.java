@@ -0,0 +1,91 @@
+package sqltojpa.gradle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import sqltojpa.EntityGenerator;
+import sqltojpa.SchemaModel;
+
+/**
+ * Gera as entidades JPA dentro do daemon do Gradle.
+ *
+ * As entradas e a saída estão declaradas, por isso o Gradle salta a tarefa quando nada mudou e
+ * pode reutilizar o resultado da cache de build (local ou remota). Conta o conteúdo dos ficheiros
+ * SQL e o seu caminho relativo, não a sua localização: num directório de migrações, os nomes dos
+ * ficheiros decidem a ordem (V2__x.sql renomeado para V3__x.sql muda o resultado). A versão do gerador
+ * faz parte do classpath do plugin, que o Gradle também inclui na chave da cache.
+ */
+@CacheableTask
+public abstract class GenerateEntitiesTask extends DefaultTask {
+
+    /**
+     * Ficheiros SQL ou directórios de migrações, analisados pela ordem indicada.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSchemaFiles();
+
+    @Input
+    public abstract Property<String> getPackageName();
+
+    @Input
+    public abstract ListProperty<String> getOptions();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDirectory();
+
+    @Inject
+    protected abstract FileSystemOperations getFileSystemOperations();
+
+    @TaskAction
+    public void generate() {
+        Path output = getOutputDirectory().get().getAsFile().toPath();
+        try {
+            EntityGenerator generator = EntityGenerator.create(getOptions().get().toArray(new String[0]));
+            // As sequências (CREATE SEQUENCE) também contam: --id-strategy=sequence reutiliza-as
+            List<SchemaModel.Table> tables = new ArrayList<>();
+            List<SchemaModel.Sequence> sequences = new ArrayList<>();
+            for (File schemaFile : getSchemaFiles()) {
+                SchemaModel model = generator.parse(schemaFile.toPath());
+                tables.addAll(model.getTables());
+                sequences.addAll(model.getSequences());
+            }
+
+            // A saída pertence à tarefa: começar de um directório vazio remove entidades de tabelas apagadas
+            getFileSystemOperations().delete(spec -> spec.delete(output.toFile()));
+            Files.createDirectories(output);
+            String packageName = getPackageName().get();
+            generator.generate(new SchemaModel(tables, sequences), packageName, (className, source) -> {
+                Path file = output.resolve(className.replace('.', File.separatorChar) + ".java");
+                Files.createDirectories(file.getParent());
+                Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+            });
+        } catch (IllegalArgumentException e) {
+            throw new GradleException("Opções inválidas: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new GradleException("Erro ao gerar entidades: " + e.getMessage(), e);
+        }
+    }
+}
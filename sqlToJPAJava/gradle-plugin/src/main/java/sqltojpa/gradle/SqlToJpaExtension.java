@@ -0,0 +1,26 @@
+package sqltojpa.gradle;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * Configuração do bloco {@code sqlToJpa { ... }}.
+ */
+public abstract class SqlToJpaExtension {
+
+    /**
+     * Ficheiros SQL, analisados em conjunto pela ordem indicada.
+     */
+    public abstract ConfigurableFileCollection getSchemaFiles();
+
+    public abstract Property<String> getPackageName();
+
+    /**
+     * Opções do gerador, no formato da linha de comandos (ex.: "--threads=4").
+     */
+    public abstract ListProperty<String> getOptions();
+
+    public abstract DirectoryProperty getOutputDirectory();
+}
@@ -0,0 +1,36 @@
+package sqltojpa.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.plugins.JavaPlugin;
+import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
+
+/**
+ * Regista a tarefa generateJpaEntities e, com o plugin java, junta o resultado às fontes de main
+ * (compileJava passa a depender da tarefa).
+ */
+public class SqlToJpaPlugin implements Plugin<Project> {
+
+    @Override
+    public void apply(Project project) {
+        SqlToJpaExtension extension = project.getExtensions().create("sqlToJpa", SqlToJpaExtension.class);
+        extension.getPackageName().convention("com.example.entities");
+        extension.getOutputDirectory().convention(
+            project.getLayout().getBuildDirectory().dir("generated/sources/sqltojpa/java/main"));
+
+        TaskProvider<GenerateEntitiesTask> generate = project.getTasks().register(
+            "generateJpaEntities", GenerateEntitiesTask.class, task -> {
+                task.setGroup("build");
+                task.setDescription("Gera as entidades JPA a partir dos ficheiros SQL.");
+                task.getSchemaFiles().from(extension.getSchemaFiles());
+                task.getPackageName().set(extension.getPackageName());
+                task.getOptions().set(extension.getOptions());
+                task.getOutputDirectory().set(extension.getOutputDirectory());
+            });
+
+        project.getPlugins().withType(JavaPlugin.class, java ->
+            project.getExtensions().getByType(SourceSetContainer.class)
+                .getByName("main").getJava().srcDir(generate));
+    }
+}
@@ -0,0 +1,214 @@
+package sqltojpa.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import sqltojpa.EntityGenerator;
+import sqltojpa.SchemaModel;
+
+/**
+ * Gera as entidades JPA a partir de ficheiros SQL, dentro da JVM do Maven.
+ *
+ * As entradas (conteúdo dos ficheiros SQL, pacote, opções e versão do plugin) são resumidas numa
+ * impressão digital guardada no directório de saída; se não mudou desde a última execução,
+ * o gerador não corre. O directório de saída é acrescentado às fontes do projecto.
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateEntitiesMojo extends AbstractMojo {
+
+    static final String STAMP_FILE = ".sqltojpa-inputs";
+
+    /**
+     * Ficheiros SQL ou directórios de migrações (V1__x.sql, V2__y.sql, ...), analisados em conjunto
+     * pela ordem indicada (as chaves estrangeiras podem referir tabelas de outro ficheiro).
+     */
+    @Parameter(required = true)
+    private List<File> schemaFiles;
+
+    @Parameter(property = "sqltojpa.packageName", defaultValue = "com.example.entities")
+    private String packageName;
+
+    @Parameter(property = "sqltojpa.outputDirectory",
+               defaultValue = "${project.build.directory}/generated-sources/sqltojpa")
+    private File outputDirectory;
+
+    /**
+     * Opções do gerador, no formato da linha de comandos (ex.: "--threads=4").
+     */
+    @Parameter
+    private List<String> options = new ArrayList<>();
+
+    @Parameter(property = "sqltojpa.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true, required = true)
+    private PluginDescriptor plugin;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        if (skip) {
+            getLog().info("Geração de entidades desactivada (sqltojpa.skip)");
+            return;
+        }
+        project.addCompileSourceRoot(outputDirectory.getPath());
+
+        try {
+            List<Path> schemas = new ArrayList<>();
+            for (File schemaFile : schemaFiles) {
+                File file = schemaFile.isAbsolute() ? schemaFile : new File(project.getBasedir(), schemaFile.getPath());
+                if (!file.isFile() && !file.isDirectory()) {
+                    throw new MojoExecutionException("Ficheiro SQL ou directório de migrações não encontrado: " + file);
+                }
+                schemas.add(file.toPath());
+            }
+
+            Path output = outputDirectory.toPath();
+            Path stamp = output.resolve(STAMP_FILE);
+            String inputs = inputsFingerprint(schemas);
+            if (Files.isRegularFile(stamp) && inputs.equals(new String(Files.readAllBytes(stamp), StandardCharsets.UTF_8))) {
+                getLog().info("Entidades actualizadas, nada a gerar");
+                return;
+            }
+
+            EntityGenerator generator = EntityGenerator.create(options.toArray(new String[0]));
+            // As sequências (CREATE SEQUENCE) também contam: --id-strategy=sequence reutiliza-as
+            List<SchemaModel.Table> tables = new ArrayList<>();
+            List<SchemaModel.Sequence> sequences = new ArrayList<>();
+            for (Path schema : schemas) {
+                SchemaModel model = generator.parse(schema);
+                tables.addAll(model.getTables());
+                sequences.addAll(model.getSequences());
+            }
+
+            Files.createDirectories(output);
+            Set<Path> generated = new HashSet<>();
+            int[] written = new int[1];
+            generator.generate(new SchemaModel(tables, sequences), packageName, (className, source) -> {
+                Path file = output.resolve(className.replace('.', File.separatorChar) + ".java");
+                generated.add(file);
+                if (writeIfChanged(file, source)) {
+                    written[0]++;
+                }
+            });
+            int removed = deleteStaleSources(output, generated);
+
+            Files.write(stamp, inputs.getBytes(StandardCharsets.UTF_8));
+            getLog().info(generated.size() + " entidades geradas em " + output + " (" + written[0]
+                + " alteradas, " + removed + " removidas)");
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Opções inválidas: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Erro ao gerar entidades: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Impressão digital de tudo o que determina o resultado.
+     */
+    private String inputsFingerprint(List<Path> schemas) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder header = new StringBuilder();
+        header.append(plugin.getVersion()).append('\n');
+        header.append(packageName).append('\n');
+        for (String option : options) {
+            header.append(option).append('\n');
+        }
+        digest.update(header.toString().getBytes(StandardCharsets.UTF_8));
+
+        byte[] buffer = new byte[64 * 1024];
+        for (Path schema : schemas) {
+            // O resultado depende só do conteúdo e da ordem dos ficheiros, não da sua localização;
+            // num directório de migrações, os nomes relativos dos ficheiros decidem a ordem e também contam
+            if (Files.isDirectory(schema)) {
+                List<Path> migrations;
+                try (Stream<Path> files = Files.walk(schema)) {
+                    migrations = files.filter(file -> Files.isRegularFile(file)
+                            && file.getFileName().toString().toLowerCase().endsWith(".sql"))
+                        .sorted().collect(Collectors.toList());
+                }
+                digest.update((migrations.size() + " migrações\n").getBytes(StandardCharsets.UTF_8));
+                for (Path migration : migrations) {
+                    String name = schema.relativize(migration).toString().replace(File.separatorChar, '/');
+                    digest.update((name + "\n").getBytes(StandardCharsets.UTF_8));
+                    update(digest, migration, buffer);
+                }
+            } else {
+                update(digest, schema, buffer);
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, Path file, byte[] buffer) throws IOException {
+        digest.update((Files.size(file) + "\n").getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Escreve o ficheiro só se o conteúdo mudou, para não forçar a recompilação das entidades inalteradas.
+     */
+    private static boolean writeIfChanged(Path file, CharSequence source) throws IOException {
+        byte[] content = source.toString().getBytes(StandardCharsets.UTF_8);
+        if (Files.isRegularFile(file) && Files.size(file) == content.length
+                && Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        return true;
+    }
+
+    /**
+     * Remove ficheiros .java de execuções anteriores que já não correspondem a nenhuma tabela.
+     */
+    private static int deleteStaleSources(Path output, Set<Path> generated) throws IOException {
+        List<Path> stale;
+        try (Stream<Path> files = Files.walk(output)) {
+            stale = files.filter(file -> file.toString().endsWith(".java") && !generated.contains(file))
+                .collect(Collectors.toList());
+        }
+        for (Path file : stale) {
+            Files.delete(file);
+        }
+        return stale.size();
+    }
+}
@@ -0,0 +1,80 @@
+package sqltojpa;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API para gerar entidades JPA em memória, sem escrever ficheiros.
+ *
+ * Uma instância não guarda estado entre chamadas e pode ser usada por várias threads em simultâneo.
+ * O gerador vive no pacote por omissão, que não pode ser importado daqui; {@link #create(String...)}
+ * carrega-o por nome.
+ *
+ * <pre>
+ * EntityGenerator generator = EntityGenerator.create();
+ * Map&lt;String, CharSequence&gt; sources = generator.generate(generator.parse(sql), "com.example.entities");
+ * </pre>
+ */
+public interface EntityGenerator {
+
+    /**
+     * Recebe cada entidade gerada. O código só é válido durante a chamada
+     * (é o buffer reutilizado do gerador); para o guardar, usar toString().
+     */
+    @FunctionalInterface
+    interface SourceCallback {
+        void accept(String qualifiedClassName, CharSequence source) throws IOException;
+    }
+
+    /**
+     * Analisa o SQL e resolve as chaves estrangeiras entre as tabelas encontradas.
+     */
+    SchemaModel parse(CharSequence sql);
+
+    /**
+     * Como {@link #parse(CharSequence)}, lendo do Reader até ao fim; o Reader não é fechado.
+     */
+    SchemaModel parse(Reader sql) throws IOException;
+
+    /**
+     * Como {@link #parse(CharSequence)}, lendo um ficheiro em UTF-8 ou, se o caminho for um directório,
+     * aplicando as migrações V&lt;versão&gt;__&lt;descrição&gt;.sql por ordem de versão.
+     */
+    SchemaModel parse(Path sqlFile) throws IOException;
+
+    /**
+     * Gera o código de todas as entidades do esquema.
+     *
+     * @return mapa imutável de nome qualificado da classe para código, pela ordem das tabelas
+     */
+    Map<String, CharSequence> generate(SchemaModel schema, String packageName);
+
+    /**
+     * Gera as entidades uma a uma, sem as guardar, e entrega cada uma ao callback pela ordem das tabelas.
+     */
+    void generate(SchemaModel schema, String packageName, SourceCallback callback) throws IOException;
+
+    /**
+     * Cria um gerador com as opções da linha de comandos que afectam o código gerado (ex.: "--threads=4").
+     * Lança IllegalArgumentException para opções desconhecidas ou valores inválidos.
+     */
+    static EntityGenerator create(String... options) {
+        List<String> flags = Arrays.asList(options);
+        try {
+            return (EntityGenerator) Class.forName("SQLParserJPAGenerator")
+                .getConstructor(List.class).newInstance(flags);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("SQLParserJPAGenerator não encontrado no classpath", e);
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package sqltojpa;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Modelo imutável de um esquema analisado: as tabelas pela ordem do ficheiro SQL,
+ * com as colunas, chaves primárias e chaves estrangeiras já resolvidas, e as sequências declaradas.
+ *
+ * Pode ser partilhado entre threads e passado a {@link EntityGenerator#generate(SchemaModel, String)}.
+ *
+ * O modelo é compacto, para catálogos com centenas de milhares de tabelas: as listas são arrays
+ * (as vazias partilhadas), os nomes de colunas e de tipos são String.intern() (as mesmas instâncias
+ * em todas as tabelas), os indicadores de cada coluna ocupam um byte, e os nomes de classe e de campo
+ * só são guardados quando diferem de {@link #javaName(String, boolean)}; os restantes são derivados a pedido.
+ */
+public final class SchemaModel {
+
+    private static final Table[] NO_TABLES = {};
+    private static final Sequence[] NO_SEQUENCES = {};
+    private static final Column[] NO_COLUMNS = {};
+    private static final String[] NO_STRINGS = {};
+    private static final ForeignKey[] NO_FOREIGN_KEYS = {};
+    private static final Index[] NO_INDEXES = {};
+    private static final IndexColumn[] NO_INDEX_COLUMNS = {};
+
+    private final Table[] tables;
+    private final Sequence[] sequences;
+    // Construído na primeira chamada a getTable
+    private volatile Map<String, Table> tablesByName;
+
+    public SchemaModel(List<Table> tables) {
+        this(tables, Collections.<Sequence>emptyList());
+    }
+
+    public SchemaModel(List<Table> tables, List<Sequence> sequences) {
+        this.tables = tables.toArray(NO_TABLES);
+        this.sequences = sequences.toArray(NO_SEQUENCES);
+    }
+
+    public List<Table> getTables() {
+        return new ArrayView<>(tables);
+    }
+
+    /**
+     * Sequências declaradas com CREATE SEQUENCE, pela ordem do ficheiro SQL.
+     */
+    public List<Sequence> getSequences() {
+        return new ArrayView<>(sequences);
+    }
+
+    /**
+     * Tabela com o nome indicado (a última, se o nome se repetir), ou null.
+     */
+    public Table getTable(String name) {
+        Map<String, Table> byName = tablesByName;
+        if (byName == null) {
+            byName = new HashMap<>(tables.length * 4 / 3 + 1);
+            for (Table table : tables) {
+                byName.put(table.name, table);
+            }
+            tablesByName = byName;
+        }
+        return byName.get(name);
+    }
+
+    /**
+     * Nome Java de um identificador SQL: sem '_' e '-', com a letra seguinte a cada um em maiúscula
+     * e as restantes em minúsculas (ex.: order_items dá OrderItems ou orderItems).
+     * É a regra do gerador para nomes de classes e de campos.
+     */
+    public static String javaName(String sqlName, boolean capitalizeFirst) {
+        if (sqlName == null || sqlName.isEmpty()) {
+            return sqlName;
+        }
+        StringBuilder result = new StringBuilder(sqlName.length());
+        boolean capitalizeNext = capitalizeFirst;
+        for (int i = 0; i < sqlName.length(); i++) {
+            char c = sqlName.charAt(i);
+            if (c == '_' || c == '-') {
+                capitalizeNext = true;
+            } else if (capitalizeNext) {
+                result.append(Character.toUpperCase(c));
+                capitalizeNext = false;
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Nome a guardar: null se for o derivado de sqlName, para não reter outra String.
+     */
+    private static String unlessDerived(String name, String sqlName, boolean capitalizeFirst) {
+        return name == null || name.equals(javaName(sqlName, capitalizeFirst)) ? null : name;
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    private static String[] internAll(List<String> values) {
+        if (values.isEmpty()) {
+            return NO_STRINGS;
+        }
+        String[] array = new String[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = intern(values.get(i));
+        }
+        return array;
+    }
+
+    /**
+     * Vista imutável de um array, sem cópia.
+     */
+    private static final class ArrayView<E> extends AbstractList<E> implements RandomAccess {
+        private final E[] array;
+
+        ArrayView(E[] array) {
+            this.array = array;
+        }
+
+        @Override
+        public E get(int index) {
+            return array[index];
+        }
+
+        @Override
+        public int size() {
+            return array.length;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaModel" + tables;
+    }
+
+    public static final class Table {
+        private final String name;
+        // null quando é javaName(name, true)
+        private final String className;
+        private final String ddl;
+        private final Column[] columns;
+        private final String[] primaryKeys;
+        private final ForeignKey[] foreignKeys;
+        private final Index[] indexes;
+
+        public Table(String name, String className, String ddl, List<Column> columns,
+                     List<String> primaryKeys, List<ForeignKey> foreignKeys) {
+            this(name, className, ddl, columns, primaryKeys, foreignKeys, Collections.<Index>emptyList());
+        }
+
+        public Table(String name, String className, String ddl, List<Column> columns,
+                     List<String> primaryKeys, List<ForeignKey> foreignKeys, List<Index> indexes) {
+            this.name = name;
+            this.className = unlessDerived(className, name, true);
+            this.ddl = ddl;
+            this.columns = columns.toArray(NO_COLUMNS);
+            this.primaryKeys = internAll(primaryKeys);
+            this.foreignKeys = foreignKeys.toArray(NO_FOREIGN_KEYS);
+            this.indexes = indexes.toArray(NO_INDEXES);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getClassName() {
+            return className != null ? className : javaName(name, true);
+        }
+
+        /**
+         * Instrução CREATE TABLE normalizada (sem comentários, espaços colapsados).
+         */
+        public String getDdl() {
+            return ddl;
+        }
+
+        public List<Column> getColumns() {
+            return new ArrayView<>(columns);
+        }
+
+        public List<String> getPrimaryKeys() {
+            return new ArrayView<>(primaryKeys);
+        }
+
+        public List<ForeignKey> getForeignKeys() {
+            return new ArrayView<>(foreignKeys);
+        }
+
+        /**
+         * Índices e restrições UNIQUE declarados na tabela, pela ordem do SQL (sem a chave primária).
+         */
+        public List<Index> getIndexes() {
+            return new ArrayView<>(indexes);
+        }
+
+        @Override
+        public String toString() {
+            return name + getColumns();
+        }
+    }
+
+    public static final class Column {
+        private static final byte UNSIGNED = 1;
+        private static final byte NULLABLE = 2;
+        private static final byte PRIMARY_KEY = 4;
+        private static final byte AUTO_INCREMENT = 8;
+        private static final byte UNIQUE = 16;
+
+        private final String name;
+        // null quando é javaName(name, false)
+        private final String fieldName;
+        private final String sqlType;
+        private final String javaType;
+        private final String defaultValue;
+        private final int length;
+        private final byte flags;
+
+        public Column(String name, String fieldName, String sqlType, String javaType, boolean unsigned,
+                      boolean nullable, boolean primaryKey, boolean autoIncrement, String defaultValue) {
+            this(name, fieldName, sqlType, javaType, unsigned, nullable, primaryKey, autoIncrement, defaultValue, false);
+        }
+
+        public Column(String name, String fieldName, String sqlType, String javaType, boolean unsigned,
+                      boolean nullable, boolean primaryKey, boolean autoIncrement, String defaultValue,
+                      boolean unique) {
+            this(name, fieldName, sqlType, javaType, unsigned, nullable, primaryKey, autoIncrement, defaultValue,
+                unique, 0);
+        }
+
+        public Column(String name, String fieldName, String sqlType, String javaType, boolean unsigned,
+                      boolean nullable, boolean primaryKey, boolean autoIncrement, String defaultValue,
+                      boolean unique, int length) {
+            this.name = intern(name);
+            this.fieldName = unlessDerived(fieldName, name, false);
+            this.sqlType = intern(sqlType);
+            this.javaType = intern(javaType);
+            this.defaultValue = intern(defaultValue);
+            this.length = length;
+            this.flags = (byte) ((unsigned ? UNSIGNED : 0) | (nullable ? NULLABLE : 0) | (primaryKey ? PRIMARY_KEY : 0)
+                | (autoIncrement ? AUTO_INCREMENT : 0) | (unique ? UNIQUE : 0));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFieldName() {
+            return fieldName != null ? fieldName : javaName(name, false);
+        }
+
+        public String getSqlType() {
+            return sqlType;
+        }
+
+        public String getJavaType() {
+            return javaType;
+        }
+
+        public boolean isUnsigned() {
+            return (flags & UNSIGNED) != 0;
+        }
+
+        public boolean isNullable() {
+            return (flags & NULLABLE) != 0;
+        }
+
+        public boolean isPrimaryKey() {
+            return (flags & PRIMARY_KEY) != 0;
+        }
+
+        public boolean isAutoIncrement() {
+            return (flags & AUTO_INCREMENT) != 0;
+        }
+
+        /**
+         * Expressão DEFAULT tal como aparece no SQL, ou null.
+         */
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * Coluna com uma restrição UNIQUE só sobre ela, sem nome (gerada como @Column(unique = true)).
+         */
+        public boolean isUnique() {
+            return (flags & UNIQUE) != 0;
+        }
+
+        /**
+         * Comprimento declarado, ex.: 255 em VARCHAR(255); 0 se não foi indicado
+         * e Integer.MAX_VALUE para VARCHAR(MAX).
+         */
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + sqlType;
+        }
+    }
+
+    public static final class ForeignKey {
+        private final String columnName;
+        private final String referencedTable;
+        private final String referencedColumn;
+        // null quando é javaName(referencedTable, true) ou a tabela não existe (ver resolved)
+        private final String referencedClassName;
+        private final boolean resolved;
+
+        public ForeignKey(String columnName, String referencedTable, String referencedColumn,
+                          String referencedClassName) {
+            this.columnName = intern(columnName);
+            this.referencedTable = intern(referencedTable);
+            this.referencedColumn = intern(referencedColumn);
+            this.referencedClassName = unlessDerived(referencedClassName, referencedTable, true);
+            this.resolved = referencedClassName != null;
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+
+        public String getReferencedTable() {
+            return referencedTable;
+        }
+
+        public String getReferencedColumn() {
+            return referencedColumn;
+        }
+
+        /**
+         * Classe da entidade referenciada, ou null se a tabela não existe no esquema
+         * (nesse caso a coluna é gerada como um campo simples).
+         */
+        public String getReferencedClassName() {
+            if (!resolved) {
+                return null;
+            }
+            return referencedClassName != null ? referencedClassName : javaName(referencedTable, true);
+        }
+
+        @Override
+        public String toString() {
+            return columnName + " -> " + referencedTable + "(" + referencedColumn + ")";
+        }
+    }
+
+    public static final class Index {
+        private final String name;
+        private final boolean unique;
+        private final IndexColumn[] columns;
+
+        public Index(String name, boolean unique, List<IndexColumn> columns) {
+            this.name = name;
+            this.unique = unique;
+            this.columns = columns.toArray(NO_INDEX_COLUMNS);
+        }
+
+        /**
+         * Nome do índice ou da restrição, ou null se não foi indicado.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        public List<IndexColumn> getColumns() {
+            return new ArrayView<>(columns);
+        }
+
+        @Override
+        public String toString() {
+            return (unique ? "UNIQUE " : "INDEX ") + (name != null ? name + " " : "") + getColumns();
+        }
+    }
+
+    public static final class IndexColumn {
+        private final String name;
+        private final int prefixLength;
+        private final boolean descending;
+
+        public IndexColumn(String name, int prefixLength, boolean descending) {
+            this.name = intern(name);
+            this.prefixLength = prefixLength;
+            this.descending = descending;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Comprimento do prefixo indexado (ex.: KEY (name(10))), ou 0 se o índice cobre a coluna inteira.
+         */
+        public int getPrefixLength() {
+            return prefixLength;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        @Override
+        public String toString() {
+            return name + (prefixLength > 0 ? "(" + prefixLength + ")" : "") + (descending ? " DESC" : "");
+        }
+    }
+
+    public static final class Sequence {
+        private final String name;
+        private final long start;
+        private final long increment;
+
+        public Sequence(String name, long start, long increment) {
+            this.name = name;
+            this.start = start;
+            this.increment = increment;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Valor de START WITH (1 se não foi indicado).
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * Valor de INCREMENT BY (1 se não foi indicado).
+         */
+        public long getIncrement() {
+            return increment;
+        }
+
+        @Override
+        public String toString() {
+            return "SEQUENCE " + name + " START " + start + " INCREMENT " + increment;
+        }
+    }
+}
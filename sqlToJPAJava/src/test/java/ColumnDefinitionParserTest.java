@@ -0,0 +1,258 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ColumnDefinitionParserTest {
+
+    @Test
+    void readsQuotedAndBracketedIdentifiers() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE [dbo].[Order Items] ("
+            + "\"Order Id\" INT NOT NULL, "
+            + "`unit price` DECIMAL(10, 2), "
+            + "[Qty] INT, "
+            + "PRIMARY KEY (\"Order Id\"))");
+        assertEquals("Order Items", table.name);
+        assertEquals(List.of("Order Id", "unit price", "Qty"), columnNames(table));
+        assertEquals(List.of("Order Id"), table.primaryKeys);
+        assertFalse(column(table, "Order Id").nullable);
+        assertEquals(10, column(table, "unit price").length);
+        assertTrue(table.unparsedElements.isEmpty());
+    }
+
+    @Test
+    void readsSchemaQualifiedAndIfNotExistsNames() {
+        assertEquals("customers", parse("CREATE TABLE IF NOT EXISTS shop.customers (id INT)").name);
+        assertEquals("Events", parse("create temporary table \"public\".\"Events\" (id int)").name);
+    }
+
+    @Test
+    void readsDefaultValues() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t ("
+            + "a INT DEFAULT -1 NOT NULL, "
+            + "b DECIMAL(5, 2) DEFAULT -0.5, "
+            + "c VARCHAR(10) DEFAULT 'it''s, (really)', "
+            + "d TIMESTAMP DEFAULT CURRENT_TIMESTAMP(3), "
+            + "e UUID DEFAULT gen_random_uuid(), "
+            + "f TEXT DEFAULT 'x'::text, "
+            + "g BIT DEFAULT b'1', "
+            + "h INT DEFAULT (1 + 2), "
+            + "i BOOLEAN DEFAULT FALSE, "
+            + "j BIGINT DEFAULT nextval('seq_j'::regclass))");
+        assertEquals(10, table.columns.size());
+        assertEquals("-1", column(table, "a").defaultValue);
+        assertFalse(column(table, "a").nullable);
+        assertEquals("-0.5", column(table, "b").defaultValue);
+        assertEquals("'it''s, (really)'", column(table, "c").defaultValue);
+        assertEquals("CURRENT_TIMESTAMP(3)", column(table, "d").defaultValue);
+        assertEquals("gen_random_uuid()", column(table, "e").defaultValue);
+        assertEquals("'x'::text", column(table, "f").defaultValue);
+        assertEquals("b'1'", column(table, "g").defaultValue);
+        assertEquals("(1 + 2)", column(table, "h").defaultValue);
+        assertEquals("FALSE", column(table, "i").defaultValue);
+        assertEquals("nextval('seq_j'::regclass)", column(table, "j").defaultValue);
+        assertTrue(table.unparsedElements.isEmpty());
+    }
+
+    @Test
+    void skipsOnUpdateExpressions() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t ("
+            + "updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP(6) COMMENT 'x', "
+            + "customer_id INT REFERENCES customers (id) ON DELETE SET NULL ON UPDATE CASCADE NOT NULL, "
+            + "next_col INT)");
+        assertEquals(List.of("updated_at", "customer_id", "next_col"), columnNames(table));
+        SQLParserJPAGenerator.ColumnInfo updatedAt = column(table, "updated_at");
+        assertEquals("CURRENT_TIMESTAMP", updatedAt.defaultValue);
+        assertFalse(updatedAt.nullable);
+
+        assertEquals(1, table.foreignKeys.size());
+        SQLParserJPAGenerator.ForeignKeyInfo fk = table.foreignKeys.get(0);
+        assertEquals("customer_id", fk.columnName);
+        assertEquals("customers", fk.referencedTable);
+        assertEquals("id", fk.referencedColumn);
+        assertFalse(column(table, "customer_id").nullable);
+    }
+
+    @Test
+    void readsColumnLevelConstraints() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t ("
+            + "id INT PRIMARY KEY AUTO_INCREMENT, "
+            + "code VARCHAR(10) NOT NULL UNIQUE, "
+            + "qty INT CHECK (qty > 0 AND qty < (10 * 2)), "
+            + "ref_id INT CONSTRAINT fk_ref REFERENCES other (id), "
+            + "status INT CONSTRAINT ck_status CHECK (status IN (1, 2)) DEFAULT 1)");
+        assertEquals(List.of("id", "code", "qty", "ref_id", "status"), columnNames(table));
+        assertEquals(List.of("id"), table.primaryKeys);
+        assertTrue(column(table, "id").primaryKey);
+        assertTrue(column(table, "id").autoIncrement);
+        assertTrue(column(table, "code").unique);
+        assertFalse(column(table, "code").nullable);
+        assertFalse(column(table, "qty").unique);
+        assertEquals("1", column(table, "status").defaultValue);
+
+        assertEquals(1, table.foreignKeys.size());
+        assertEquals("ref_id", table.foreignKeys.get(0).columnName);
+        assertEquals("other", table.foreignKeys.get(0).referencedTable);
+        assertTrue(table.unparsedElements.isEmpty());
+    }
+
+    @Test
+    void readsMySqlKeyShorthandAsPrimaryKey() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t (id INT KEY, name VARCHAR(20))");
+        assertEquals(List.of("id"), table.primaryKeys);
+        assertTrue(column(table, "id").primaryKey);
+    }
+
+    @Test
+    void readsTableLevelConstraints() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t ("
+            + "a INT, b INT, c INT, d VARCHAR(20), e VARCHAR(200), f INT, "
+            + "CONSTRAINT pk_t PRIMARY KEY (a, b), "
+            + "CONSTRAINT fk_t_other FOREIGN KEY (a, b) REFERENCES other (x, y) ON DELETE CASCADE, "
+            + "FOREIGN KEY fk_c_index (c) REFERENCES z (id), "
+            + "UNIQUE (c), "
+            + "CONSTRAINT uq_d UNIQUE (d), "
+            + "KEY ix_e (e(10) DESC), "
+            + "INDEX (f), "
+            + "CHECK (a > 0), "
+            + "CONSTRAINT ck_b CHECK (b < 10 OR (b IS NULL)))");
+        assertEquals(6, table.columns.size());
+        assertTrue(table.unparsedElements.isEmpty(), table.unparsedElements.toString());
+
+        assertEquals(List.of("a", "b"), table.primaryKeys);
+        assertEquals("pk_t", table.primaryKeyName);
+
+        assertEquals(2, table.foreignKeys.size());
+        SQLParserJPAGenerator.ForeignKeyInfo composite = table.foreignKeys.get(0);
+        assertEquals("fk_t_other", composite.name);
+        assertEquals("a, b", composite.columnName);
+        assertEquals("other", composite.referencedTable);
+        assertEquals("x, y", composite.referencedColumn);
+        SQLParserJPAGenerator.ForeignKeyInfo mysql = table.foreignKeys.get(1);
+        assertEquals("fk_c_index", mysql.name);
+        assertEquals("c", mysql.columnName);
+        assertEquals("z", mysql.referencedTable);
+
+        assertEquals(4, table.indexes.size());
+        SQLParserJPAGenerator.IndexInfo uniqueC = table.indexes.get(0);
+        assertTrue(uniqueC.unique);
+        assertNull(uniqueC.name);
+        assertEquals("c", uniqueC.columns.get(0).name);
+
+        SQLParserJPAGenerator.IndexInfo uniqueD = table.indexes.get(1);
+        assertTrue(uniqueD.unique);
+        assertEquals("uq_d", uniqueD.name);
+
+        SQLParserJPAGenerator.IndexInfo indexE = table.indexes.get(2);
+        assertFalse(indexE.unique);
+        assertEquals("ix_e", indexE.name);
+        assertEquals(10, indexE.columns.get(0).prefixLength);
+        assertTrue(indexE.columns.get(0).descending);
+
+        SQLParserJPAGenerator.IndexInfo indexF = table.indexes.get(3);
+        assertFalse(indexF.unique);
+        assertNull(indexF.name);
+        assertEquals("f", indexF.columns.get(0).name);
+    }
+
+    @Test
+    void ignoresExpressionIndexes() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t (a VARCHAR(10), INDEX ix_lower ((lower(a))))");
+        assertTrue(table.indexes.isEmpty());
+        assertEquals(1, table.columns.size());
+    }
+
+    @Test
+    void readsMultiWordTypes() {
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t ("
+            + "a DOUBLE PRECISION, "
+            + "b TIMESTAMP(6) WITH TIME ZONE NOT NULL, "
+            + "c CHARACTER VARYING(40), "
+            + "d TIME WITHOUT TIME ZONE DEFAULT '00:00', "
+            + "e LONG VARCHAR, "
+            + "f INT UNSIGNED ZEROFILL, "
+            + "g NVARCHAR(MAX))");
+        assertEquals(List.of("a", "b", "c", "d", "e", "f", "g"), columnNames(table));
+        assertEquals("DOUBLE", column(table, "a").sqlType);
+        assertEquals("TIMESTAMP", column(table, "b").sqlType);
+        assertFalse(column(table, "b").nullable);
+        assertEquals("CHARACTER", column(table, "c").sqlType);
+        assertEquals(40, column(table, "c").length);
+        assertEquals("TIME", column(table, "d").sqlType);
+        assertEquals("'00:00'", column(table, "d").defaultValue);
+        assertEquals("TEXT", column(table, "e").sqlType);
+        assertEquals("INT", column(table, "f").sqlType);
+        assertTrue(column(table, "f").unsigned);
+        assertEquals(SQLParserJPAGenerator.ColumnInfo.MAX_LENGTH, column(table, "g").length);
+    }
+
+    @Test
+    void parsesASingleColumnDefinition() {
+        SQLParserJPAGenerator.ColumnInfo column =
+            new ColumnDefinitionParser("price DECIMAL(10, 2) NOT NULL DEFAULT 0").parseColumnDefinition();
+        assertNotNull(column);
+        assertEquals("price", column.name);
+        assertEquals("DECIMAL", column.sqlType);
+        assertEquals(10, column.length);
+        assertFalse(column.nullable);
+        assertEquals("0", column.defaultValue);
+
+        assertNull(new ColumnDefinitionParser("(price)").parseColumnDefinition());
+    }
+
+    @Test
+    void survivesUnterminatedQuotes() {
+        // A string sem fecho consome o resto da instrução: a coluna fica com o que foi lido até aí
+        SQLParserJPAGenerator.TableInfo table = parse("CREATE TABLE t (a VARCHAR(10) DEFAULT 'abc, b INT)");
+        assertEquals(List.of("a"), columnNames(table));
+        assertEquals("'abc, b INT)", column(table, "a").defaultValue);
+
+        // Identificador sem fecho no nome da tabela: não há lista de colunas
+        assertNull(new ColumnDefinitionParser("CREATE TABLE \"t (a INT)").parseCreateTable());
+        assertNull(new ColumnDefinitionParser("CREATE TABLE [t (a INT)").parseCreateTable());
+
+        // Identificador sem fecho numa coluna
+        SQLParserJPAGenerator.TableInfo unclosedColumn = parse("CREATE TABLE t (id INT, `name VARCHAR(10))");
+        assertEquals(List.of("id"), columnNames(unclosedColumn));
+
+        SQLParserJPAGenerator.ColumnInfo column = new ColumnDefinitionParser("name VARCHAR(10) DEFAULT 'oops")
+            .parseColumnDefinition();
+        assertEquals("'oops", column.defaultValue);
+    }
+
+    @Test
+    void rejectsStatementsWithoutAColumnList() {
+        assertNull(new ColumnDefinitionParser("CREATE TABLE t AS SELECT * FROM u").parseCreateTable());
+        assertNull(new ColumnDefinitionParser("CREATE VIEW v AS SELECT 1").parseCreateTable());
+    }
+
+    private static SQLParserJPAGenerator.TableInfo parse(String sql) {
+        SQLParserJPAGenerator.TableInfo table = new ColumnDefinitionParser(sql).parseCreateTable();
+        assertNotNull(table, sql);
+        return table;
+    }
+
+    private static List<String> columnNames(SQLParserJPAGenerator.TableInfo table) {
+        List<String> names = new ArrayList<>();
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    private static SQLParserJPAGenerator.ColumnInfo column(SQLParserJPAGenerator.TableInfo table, String name) {
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            if (column.name.equals(name)) {
+                return column;
+            }
+        }
+        return fail("coluna " + name + " não encontrada em " + columnNames(table));
+    }
+}
@@ -0,0 +1,345 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Compara as classes escritas por --bytecode com as que o javac compila a partir do código-fonte gerado
+ * para o mesmo esquema: mesmos membros, anotações e comportamento de equals/hashCode/toString.
+ */
+class EntityBytecodeGeneratorTest {
+
+    private static final String SCHEMA = ""
+        + "CREATE TABLE categories (id INT PRIMARY KEY AUTO_INCREMENT, name VARCHAR(100) NOT NULL UNIQUE,\n"
+        + "  description TEXT);\n"
+        + "CREATE TABLE products (\n"
+        + "  id BIGINT PRIMARY KEY AUTO_INCREMENT,\n"
+        + "  category_id INT NOT NULL,\n"
+        + "  sku CHAR(12) NOT NULL,\n"
+        + "  price DECIMAL(10, 2) NOT NULL,\n"
+        + "  weight DOUBLE NOT NULL,\n"
+        + "  rating FLOAT,\n"
+        + "  stock SMALLINT NOT NULL,\n"
+        + "  flags TINYINT NOT NULL,\n"
+        + "  active BOOLEAN NOT NULL DEFAULT TRUE,\n"
+        + "  photo BLOB,\n"
+        + "  manual VARCHAR(4000),\n"
+        + "  released DATE,\n"
+        + "  updated_at TIMESTAMP,\n"
+        + "  status ENUM('NEW', 'OLD') NOT NULL,\n"
+        + "  FOREIGN KEY (category_id) REFERENCES categories (id),\n"
+        + "  INDEX ix_products_sku (sku)\n"
+        + ");\n"
+        + "CREATE TABLE order_lines (\n"
+        + "  order_id BIGINT NOT NULL,\n"
+        + "  line_no INT NOT NULL,\n"
+        + "  product_id BIGINT NOT NULL,\n"
+        + "  quantity INT NOT NULL,\n"
+        + "  unit_price DECIMAL(10, 2),\n"
+        + "  PRIMARY KEY (order_id, line_no),\n"
+        + "  UNIQUE (product_id, order_id),\n"
+        + "  FOREIGN KEY (product_id) REFERENCES products (id)\n"
+        + ");\n";
+
+    // Os mesmos objectos nos dois lados: toString de um byte[] depende da identidade do array
+    private static final Map<Class<?>, Object[]> SAMPLES = new HashMap<>();
+
+    static {
+        SAMPLES.put(long.class, new Object[] {7L, 8L});
+        SAMPLES.put(Long.class, new Object[] {7L, 8L});
+        SAMPLES.put(int.class, new Object[] {3, 4});
+        SAMPLES.put(Integer.class, new Object[] {3, 4});
+        SAMPLES.put(short.class, new Object[] {(short) 5, (short) 6});
+        SAMPLES.put(Short.class, new Object[] {(short) 5, (short) 6});
+        SAMPLES.put(byte.class, new Object[] {(byte) 1, (byte) 2});
+        SAMPLES.put(Byte.class, new Object[] {(byte) 1, (byte) 2});
+        SAMPLES.put(boolean.class, new Object[] {true, false});
+        SAMPLES.put(Boolean.class, new Object[] {true, false});
+        SAMPLES.put(double.class, new Object[] {1.5, 2.5});
+        SAMPLES.put(Double.class, new Object[] {1.5, 2.5});
+        SAMPLES.put(float.class, new Object[] {0.25f, 0.75f});
+        SAMPLES.put(Float.class, new Object[] {0.25f, 0.75f});
+        SAMPLES.put(String.class, new Object[] {"abc", "xyz"});
+        SAMPLES.put(BigDecimal.class, new Object[] {new BigDecimal("9.99"), new BigDecimal("1.00")});
+        SAMPLES.put(LocalDate.class, new Object[] {LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1)});
+        SAMPLES.put(LocalDateTime.class,
+            new Object[] {LocalDateTime.of(2024, 2, 29, 12, 0), LocalDateTime.of(2024, 3, 1, 8, 30)});
+        SAMPLES.put(byte[].class, new Object[] {new byte[] {1, 2, 3}, new byte[] {4}});
+    }
+
+    @TempDir
+    Path temp;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "--primitives --inline-object-methods --tostring-skip-large",
+        "--one-to-many --cache=categories --dynamic-update=products --id-strategy=sequence --allocation-size=10",
+        "--one-to-many=subselect --primitives --lob-threshold=1000 --lob-streams --id-strategy=table,products:identity"
+    })
+    void matchesTheClassesCompiledFromSource(String arguments) throws Exception {
+        Path schema = temp.resolve("schema.sql");
+        Files.write(schema, SCHEMA.getBytes(StandardCharsets.UTF_8));
+        List<String> options = arguments.isEmpty()
+            ? Collections.emptyList() : Arrays.asList(arguments.split(" "));
+
+        Path jar = temp.resolve("entities.jar");
+        List<String> bytecodeOptions = new ArrayList<>(options);
+        bytecodeOptions.add("--bytecode=" + jar);
+        new SQLParserJPAGenerator(GeneratorOptions.parse(bytecodeOptions))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", temp.resolve("unused").toString());
+
+        Path sources = temp.resolve("src");
+        new SQLParserJPAGenerator(GeneratorOptions.parse(options))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", sources.toString());
+        Path compiled = compile(sources);
+
+        List<String> classNames = classNames(jar);
+        assertEquals(List.of("com.example.Categories", "com.example.OrderLines", "com.example.Products"), classNames);
+        assertEquals(classNames, compiledClassNames(compiled));
+
+        try (URLClassLoader fromJavac = loader(compiled);
+             URLClassLoader fromBytecode = loader(jar)) {
+            for (String className : classNames) {
+                // As classes de um URLClassLoader passam sempre pelo verificador (só as do arranque o dispensam);
+                // inicializá-las obriga à verificação de todos os métodos agora e não só quando são chamados
+                Class<?> expected = Class.forName(className, true, fromJavac);
+                Class<?> actual = Class.forName(className, true, fromBytecode);
+                assertEquals(describe(expected), describe(actual), className + " com " + options);
+                assertSameBehaviour(expected, actual);
+            }
+        }
+    }
+
+    /**
+     * Uma chave binária é comparada pelo conteúdo, e hashCode dá o mesmo valor em todos os modos e nas duas classes.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "--inline-object-methods"})
+    void comparesBinaryKeysByContent(String arguments) throws Exception {
+        Path schema = temp.resolve("schema.sql");
+        Files.write(schema, ("CREATE TABLE file_chunks (file_hash BINARY(16) NOT NULL, chunk_no BIGINT NOT NULL, "
+            + "data BLOB, PRIMARY KEY (file_hash, chunk_no))").getBytes(StandardCharsets.UTF_8));
+        List<String> options = arguments.isEmpty() ? new ArrayList<>() : new ArrayList<>(List.of(arguments));
+
+        Path sources = temp.resolve("src");
+        new SQLParserJPAGenerator(GeneratorOptions.parse(options))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", sources.toString());
+        Path jar = temp.resolve("entities.jar");
+        options.add("--bytecode=" + jar);
+        new SQLParserJPAGenerator(GeneratorOptions.parse(options))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", temp.resolve("unused").toString());
+
+        byte[] hash = {1, 2, 3, 4};
+        int expectedHash = 31 * (31 + Arrays.hashCode(hash)) + Long.hashCode(9L);
+        try (URLClassLoader fromJavac = loader(compile(sources));
+             URLClassLoader fromBytecode = loader(jar)) {
+            for (URLClassLoader loader : List.of(fromJavac, fromBytecode)) {
+                Class<?> type = Class.forName("com.example.FileChunks", true, loader);
+                Object chunk = fileChunk(type, hash.clone(), 9L);
+                Object copy = fileChunk(type, hash.clone(), 9L);
+                assertEquals(chunk, copy);
+                assertEquals(expectedHash, chunk.hashCode());
+                assertEquals(expectedHash, copy.hashCode());
+                assertNotEquals(chunk, fileChunk(type, new byte[] {1, 2, 3, 5}, 9L));
+            }
+        }
+    }
+
+    private static Object fileChunk(Class<?> type, byte[] fileHash, long chunkNo) throws Exception {
+        Object chunk = type.getConstructor().newInstance();
+        type.getMethod("setFileHash", byte[].class).invoke(chunk, (Object) fileHash);
+        type.getMethod("setChunkNo", Long.class).invoke(chunk, chunkNo);
+        return chunk;
+    }
+
+    /**
+     * Equals, hashCode e toString dão o mesmo resultado nas duas classes, com os mesmos valores nos campos.
+     */
+    private static void assertSameBehaviour(Class<?> expected, Class<?> actual) throws Exception {
+        Object javacEntity = populated(expected, 0);
+        Object bytecodeEntity = populated(actual, 0);
+        assertEquals(javacEntity.toString(), bytecodeEntity.toString());
+        assertEquals(javacEntity.hashCode(), bytecodeEntity.hashCode(), actual.getName() + ".hashCode()");
+
+        // Os Set das relações inversas são inicializados pelo construtor
+        for (Method getter : actual.getDeclaredMethods()) {
+            if (getter.getName().startsWith("get") && getter.getReturnType() == Set.class) {
+                assertNotNull(getter.invoke(bytecodeEntity), getter.getName());
+            }
+        }
+
+        assertTrue(bytecodeEntity.equals(bytecodeEntity));
+        assertFalse(bytecodeEntity.equals(null));
+        assertFalse(bytecodeEntity.equals(javacEntity), "classes diferentes nunca são iguais");
+        assertEquals(javacEntity.equals(populated(expected, 0)), bytecodeEntity.equals(populated(actual, 0)));
+        assertEquals(javacEntity.equals(populated(expected, 1)), bytecodeEntity.equals(populated(actual, 1)));
+        if (hasPrimaryKey(actual)) {
+            assertTrue(bytecodeEntity.equals(populated(actual, 0)));
+            assertNotEquals(bytecodeEntity, populated(actual, 1));
+        }
+
+        // O construtor com os campos obrigatórios atribui os mesmos campos
+        for (Constructor<?> constructor : actual.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() > 0) {
+                Constructor<?> javacConstructor = expected.getDeclaredConstructor(constructor.getParameterTypes());
+                Object[] arguments = new Object[constructor.getParameterCount()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = SAMPLES.get(constructor.getParameterTypes()[i])[1];
+                }
+                assertEquals(javacConstructor.newInstance(arguments).toString(),
+                    constructor.newInstance(arguments).toString());
+            }
+        }
+    }
+
+    private static Object populated(Class<?> entityClass, int sample) throws Exception {
+        Object entity = entityClass.getConstructor().newInstance();
+        for (Method setter : entityClass.getDeclaredMethods()) {
+            Object[] values = setter.getParameterCount() == 1 ? SAMPLES.get(setter.getParameterTypes()[0]) : null;
+            if (setter.getName().startsWith("set") && values != null) {
+                setter.invoke(entity, values[sample]);
+            }
+        }
+        return entity;
+    }
+
+    private static boolean hasPrimaryKey(Class<?> entityClass) {
+        for (Field field : entityClass.getDeclaredFields()) {
+            if (field.isAnnotationPresent(javax.persistence.Id.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A classe sob reflexão, uma linha por membro: os campos pela ordem de declaração, os métodos e
+     * construtores por ordem alfabética (a reflexão não garante a ordem dos métodos).
+     */
+    private static List<String> describe(Class<?> type) throws IllegalAccessException {
+        List<String> lines = new ArrayList<>();
+        lines.add(Modifier.toString(type.getModifiers()) + " " + type.getName()
+            + " extends " + type.getGenericSuperclass().getTypeName()
+            + " implements " + Arrays.toString(type.getGenericInterfaces()) + annotations(type.getDeclaredAnnotations()));
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isSynthetic()) {
+                continue;
+            }
+            String line = field.toGenericString() + annotations(field.getDeclaredAnnotations());
+            if (Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                line += " = " + field.get(null);
+            }
+            lines.add(line);
+        }
+        TreeSet<String> executables = new TreeSet<>();
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            executables.add(constructor.toGenericString() + annotations(constructor.getDeclaredAnnotations()));
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            if (!method.isSynthetic()) {
+                executables.add(method.toGenericString() + annotations(method.getDeclaredAnnotations())
+                    + annotations(Stream.of(method.getParameterAnnotations()).flatMap(Stream::of)
+                        .toArray(Annotation[]::new)));
+            }
+        }
+        lines.addAll(executables);
+        return lines;
+    }
+
+    private static String annotations(Annotation[] annotations) {
+        return annotations.length == 0 ? "" : " " + Arrays.toString(annotations);
+    }
+
+    private Path compile(Path sources) throws IOException {
+        Path classes = Files.createDirectories(temp.resolve("classes"));
+        List<String> arguments = new ArrayList<>(List.of("-d", classes.toString(), "-encoding", "UTF-8",
+            "-proc:none", "-classpath", location(javax.persistence.Entity.class) + File.pathSeparator
+                + location(org.hibernate.annotations.BatchSize.class)));
+        try (Stream<Path> files = Files.list(sources)) {
+            files.filter(file -> file.toString().endsWith(".java")).forEach(file -> arguments.add(file.toString()));
+        }
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(javac, "os testes têm de correr num JDK");
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int status = javac.run(null, null, errors, arguments.toArray(new String[0]));
+        assertEquals(0, status, () -> "o código-fonte gerado não compila:\n"
+            + new String(errors.toByteArray(), StandardCharsets.UTF_8));
+        return classes;
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URLClassLoader loader(Path classPath) throws IOException {
+        return new URLClassLoader(new URL[] {classPath.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    private static List<String> classNames(Path jar) throws IOException {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            return file.stream()
+                .map(entry -> entry.getName())
+                .filter(name -> name.endsWith(".class"))
+                .map(EntityBytecodeGeneratorTest::className)
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> compiledClassNames(Path classes) throws IOException {
+        try (Stream<Path> files = Files.walk(classes)) {
+            return files
+                .filter(file -> file.toString().endsWith(".class"))
+                .map(file -> className(classes.relativize(file).toString().replace(File.separatorChar, '/')))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static String className(String entryName) {
+        return entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+    }
+}
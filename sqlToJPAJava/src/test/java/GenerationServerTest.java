@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class GenerationServerTest {
+
+    private static final String SQL = "CREATE TABLE documents (id BIGINT PRIMARY KEY AUTO_INCREMENT, "
+        + "version INT NOT NULL, body TEXT, img BLOB, summary VARCHAR(2000))";
+
+    @Test
+    void reusesTheParsedModelWithOtherGenerationOptions() {
+        GenerationServer server = new GenerationServer(GeneratorOptions.parse(Arrays.asList("--serve")));
+
+        String plain = request(server, "");
+        assertTrue(plain.contains("\"cached\": false"), plain);
+        assertTrue(plain.contains("private String body;"), plain);
+        assertTrue(plain.contains("private byte[] img;"), plain);
+        assertTrue(plain.contains("private Integer version;"), plain);
+
+        // O mesmo SQL com opções que mudam os tipos Java: o modelo vem da cache, os tipos seguem as opções
+        String streams = request(server, "\"--lob-streams\"");
+        assertTrue(streams.contains("\"cached\": true"), streams);
+        assertTrue(streams.contains("private Clob body;"), streams);
+        assertTrue(streams.contains("private Blob img;"), streams);
+        assertTrue(streams.contains("private String summary;"), streams);
+
+        String threshold = request(server, "\"--lob-streams\", \"--lob-threshold=1000\"");
+        assertTrue(threshold.contains("\"cached\": true"), threshold);
+        assertTrue(threshold.contains("private Clob summary;"), threshold);
+
+        String primitives = request(server, "\"--primitives\"");
+        assertTrue(primitives.contains("\"cached\": true"), primitives);
+        assertTrue(primitives.contains("private int version;"), primitives);
+        assertTrue(primitives.contains("private Long id;"), primitives);
+
+        // E a cache não ficou com os tipos de um pedido anterior
+        String again = request(server, "");
+        assertTrue(again.contains("private String body;"), again);
+        assertTrue(again.contains("private Integer version;"), again);
+        assertFalse(again.contains("Clob"), again);
+    }
+
+    private static String request(GenerationServer server, String options) {
+        StringBuilder response = new StringBuilder();
+        assertTrue(server.handle("{\"id\": 1, \"sql\": \"" + SQL + "\", \"options\": [" + options + "]}", response),
+            response.toString());
+        return response.toString();
+    }
+}
@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import sqltojpa.EntityGenerator;
+
+class IdStrategyTest {
+
+    private static final String SQL = ""
+        + "CREATE SEQUENCE orders_seq START WITH 1000 INCREMENT BY 20;\n"
+        + "CREATE TABLE orders (id BIGINT NOT NULL DEFAULT nextval('orders_seq') PRIMARY KEY, qty INT NOT NULL);\n"
+        + "CREATE TABLE customers (id BIGINT PRIMARY KEY AUTO_INCREMENT, age INT NOT NULL);\n"
+        + "CREATE TABLE countries (code INT NOT NULL PRIMARY KEY, name VARCHAR(50) NOT NULL);\n";
+
+    @Test
+    void reusesTheDeclaredSequence() {
+        String orders = generate("com.example.Orders", "--id-strategy=sequence");
+        assertTrue(orders.contains("@SequenceGenerator(name = \"OrdersIdGenerator\", sequenceName = \"orders_seq\", "
+            + "initialValue = 1000, allocationSize = 20)"), orders);
+
+        String customers = generate("com.example.Customers", "--id-strategy=sequence");
+        assertTrue(customers.contains("sequenceName = \"customers_seq\", allocationSize = 50)"), customers);
+    }
+
+    @Test
+    void keepsGeneratedKeysBoxedWithPrimitives() {
+        for (String strategy : new String[] {"identity", "sequence", "table"}) {
+            String[] options = {"--primitives", "--id-strategy=" + strategy};
+            // O JPA reconhece uma entidade nova pela chave null: uma chave gerada nunca pode ser long
+            String orders = generate("com.example.Orders", options);
+            assertTrue(orders.contains("private Long id;"), strategy + ":\n" + orders);
+            assertTrue(orders.contains("private int qty;"), orders);
+            String customers = generate("com.example.Customers", options);
+            assertTrue(customers.contains("private Long id;"), strategy + ":\n" + customers);
+            assertTrue(customers.contains("private int age;"), customers);
+
+            // Chave atribuída pela aplicação
+            String countries = generate("com.example.Countries", options);
+            assertTrue(countries.contains("private int code;"), strategy + ":\n" + countries);
+            assertFalse(countries.contains("@GeneratedValue"), countries);
+        }
+    }
+
+    private static String generate(String className, String... options) {
+        EntityGenerator generator = EntityGenerator.create(options);
+        Map<String, CharSequence> sources = generator.generate(generator.parse(SQL), "com.example");
+        return sources.get(className).toString();
+    }
+}
@@ -0,0 +1,225 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Lê um esquema de uma base H2 em memória e verifica o modelo produzido por JdbcSchemaReader.
+ */
+class JdbcSchemaReaderTest {
+
+    private static final String URL = "jdbc:h2:mem:jdbc_schema_reader;DB_CLOSE_DELAY=-1";
+
+    // Mantém a base em memória aberta durante os testes
+    private static Connection keepAlive;
+    private static Map<String, SQLParserJPAGenerator.TableInfo> tables;
+
+    @BeforeAll
+    static void createSchema() throws Exception {
+        keepAlive = DriverManager.getConnection(URL);
+        try (Statement statement = keepAlive.createStatement()) {
+            statement.execute("CREATE SCHEMA shop");
+            statement.execute("CREATE TABLE shop.customers ("
+                + "id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "email VARCHAR(120) NOT NULL, "
+                + "name VARCHAR(80))");
+            statement.execute("CREATE UNIQUE INDEX ux_customers_email ON shop.customers (email)");
+            statement.execute("CREATE TABLE shop.orders ("
+                + "id BIGINT PRIMARY KEY, "
+                + "customer_id BIGINT NOT NULL, "
+                + "created_at TIMESTAMP, "
+                + "total DECIMAL(10, 2), "
+                + "CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES shop.customers (id))");
+            statement.execute("CREATE INDEX ix_orders_created ON shop.orders (customer_id, created_at DESC)");
+            statement.execute("CREATE TABLE shop.order_items ("
+                + "order_id BIGINT NOT NULL, "
+                + "line_no INT NOT NULL, "
+                + "quantity INT NOT NULL, "
+                + "PRIMARY KEY (order_id, line_no), "
+                + "CONSTRAINT fk_items_order FOREIGN KEY (order_id) REFERENCES shop.orders (id))");
+            statement.execute("CREATE TABLE shop.item_notes ("
+                + "id INT PRIMARY KEY, "
+                + "order_id BIGINT, "
+                + "line_no INT, "
+                + "note VARCHAR(200), "
+                + "CONSTRAINT fk_notes_item FOREIGN KEY (order_id, line_no) "
+                + "REFERENCES shop.order_items (order_id, line_no))");
+            // Esquema fora de --schemas: não pode aparecer no resultado
+            statement.execute("CREATE SCHEMA other");
+            statement.execute("CREATE TABLE other.ignored (id INT PRIMARY KEY)");
+        }
+
+        GeneratorOptions options = GeneratorOptions.parse(Arrays.asList("--schemas=SHOP", "--jdbc-connections=2"));
+        SQLParserJPAGenerator generator = new SQLParserJPAGenerator(options);
+        SchemaReplay replay = new JdbcSchemaReader(generator, URL).read(new GeneratorStats(URL, 1, false));
+        tables = new HashMap<>();
+        for (SQLParserJPAGenerator.TableInfo table : replay.tables()) {
+            tables.put(table.name, table);
+        }
+    }
+
+    @AfterAll
+    static void dropDatabase() throws SQLException {
+        keepAlive.close();
+    }
+
+    @Test
+    void readsOnlyTheRequestedSchema() {
+        assertEquals(4, tables.size(), tables.keySet().toString());
+        assertFalse(tables.containsKey("IGNORED"));
+    }
+
+    @Test
+    void readsColumns() {
+        SQLParserJPAGenerator.TableInfo customers = table("CUSTOMERS");
+        assertEquals(Arrays.asList("ID", "EMAIL", "NAME"), columnNames(customers));
+
+        SQLParserJPAGenerator.ColumnInfo id = column(customers, "ID");
+        assertEquals("BIGINT", id.sqlType);
+        assertEquals("Long", id.javaType);
+        assertTrue(id.autoIncrement);
+        assertTrue(id.primaryKey);
+
+        SQLParserJPAGenerator.ColumnInfo email = column(customers, "EMAIL");
+        assertEquals("VARCHAR", email.sqlType);
+        assertEquals(120, email.length);
+        assertFalse(email.nullable);
+        // O índice único tem nome: fica em @Table(indexes) e não em @Column(unique = true)
+        assertFalse(email.unique);
+
+        assertTrue(column(customers, "NAME").nullable);
+        assertEquals("BigDecimal", column(table("ORDERS"), "TOTAL").javaType);
+        assertEquals("LocalDateTime", column(table("ORDERS"), "CREATED_AT").javaType);
+    }
+
+    @Test
+    void readsCompositePrimaryKeyInKeyOrder() {
+        SQLParserJPAGenerator.TableInfo items = table("ORDER_ITEMS");
+        assertEquals(Arrays.asList("ORDER_ID", "LINE_NO"), items.primaryKeys);
+        assertTrue(column(items, "ORDER_ID").primaryKey);
+        assertTrue(column(items, "LINE_NO").primaryKey);
+        assertFalse(column(items, "QUANTITY").primaryKey);
+    }
+
+    @Test
+    void readsForeignKeys() {
+        SQLParserJPAGenerator.ForeignKeyInfo orderCustomer = foreignKey(table("ORDERS"), "FK_ORDERS_CUSTOMER");
+        assertEquals("CUSTOMER_ID", orderCustomer.columnName);
+        assertEquals("CUSTOMERS", orderCustomer.referencedTable);
+        assertEquals("ID", orderCustomer.referencedColumn);
+
+        SQLParserJPAGenerator.ForeignKeyInfo itemOrder = foreignKey(table("ORDER_ITEMS"), "FK_ITEMS_ORDER");
+        assertEquals("ORDER_ID", itemOrder.columnName);
+        assertEquals("ORDERS", itemOrder.referencedTable);
+
+        // Chave composta: uma só ForeignKeyInfo, com as colunas pela ordem de KEY_SEQ
+        SQLParserJPAGenerator.TableInfo notes = table("ITEM_NOTES");
+        assertEquals(1, notes.foreignKeys.size());
+        SQLParserJPAGenerator.ForeignKeyInfo noteItem = notes.foreignKeys.get(0);
+        assertEquals("FK_NOTES_ITEM", noteItem.name);
+        assertEquals("ORDER_ID, LINE_NO", noteItem.columnName);
+        assertEquals("ORDER_ITEMS", noteItem.referencedTable);
+        assertEquals("ORDER_ID, LINE_NO", noteItem.referencedColumn);
+
+        assertTrue(table("CUSTOMERS").foreignKeys.isEmpty());
+    }
+
+    @Test
+    void readsUniqueAndNonUniqueIndexes() {
+        SQLParserJPAGenerator.IndexInfo email = index(table("CUSTOMERS"), "UX_CUSTOMERS_EMAIL");
+        assertTrue(email.unique);
+        assertEquals(1, email.columns.size());
+        assertEquals("EMAIL", email.columns.get(0).name);
+
+        SQLParserJPAGenerator.IndexInfo created = index(table("ORDERS"), "IX_ORDERS_CREATED");
+        assertFalse(created.unique);
+        assertEquals(2, created.columns.size());
+        assertEquals("CUSTOMER_ID", created.columns.get(0).name);
+        assertFalse(created.columns.get(0).descending);
+        assertEquals("CREATED_AT", created.columns.get(1).name);
+        assertTrue(created.columns.get(1).descending);
+    }
+
+    @Test
+    void skipsThePrimaryKeyIndex() {
+        for (SQLParserJPAGenerator.TableInfo table : tables.values()) {
+            for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+                List<String> columns = new ArrayList<>();
+                for (SQLParserJPAGenerator.IndexColumnInfo column : index.columns) {
+                    columns.add(column.name);
+                }
+                assertFalse(index.unique && columns.equals(table.primaryKeys),
+                    "índice da chave primária em " + table.name + ": " + index.name);
+            }
+        }
+    }
+
+    @Test
+    void describesTheTableAsDdl() {
+        String ddl = table("ORDERS").ddl;
+        assertNotNull(ddl);
+        assertTrue(ddl.startsWith("CREATE TABLE SHOP.ORDERS ("), ddl);
+        assertTrue(ddl.contains("CUSTOMER_ID BIGINT NOT NULL"), ddl);
+    }
+
+    private static SQLParserJPAGenerator.TableInfo table(String name) {
+        SQLParserJPAGenerator.TableInfo table = tables.get(name);
+        assertNotNull(table, "tabela " + name + " não lida; lidas: " + tables.keySet());
+        return table;
+    }
+
+    private static List<String> columnNames(SQLParserJPAGenerator.TableInfo table) {
+        List<String> names = new ArrayList<>();
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    private static SQLParserJPAGenerator.ColumnInfo column(SQLParserJPAGenerator.TableInfo table, String name) {
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            if (column.name.equals(name)) {
+                return column;
+            }
+        }
+        return fail("coluna " + table.name + "." + name + " não encontrada");
+    }
+
+    private static SQLParserJPAGenerator.ForeignKeyInfo foreignKeyOrNull(SQLParserJPAGenerator.TableInfo table, String name) {
+        for (SQLParserJPAGenerator.ForeignKeyInfo fk : table.foreignKeys) {
+            if (name.equals(fk.name)) {
+                return fk;
+            }
+        }
+        return null;
+    }
+
+    private static SQLParserJPAGenerator.ForeignKeyInfo foreignKey(SQLParserJPAGenerator.TableInfo table, String name) {
+        SQLParserJPAGenerator.ForeignKeyInfo fk = foreignKeyOrNull(table, name);
+        return fk != null ? fk : fail("chave estrangeira " + name + " não encontrada em " + table.name);
+    }
+
+    private static SQLParserJPAGenerator.IndexInfo index(SQLParserJPAGenerator.TableInfo table, String name) {
+        for (SQLParserJPAGenerator.IndexInfo index : table.indexes) {
+            if (name.equals(index.name)) {
+                return index;
+            }
+        }
+        return fail("índice " + name + " não encontrado em " + table.name);
+    }
+}
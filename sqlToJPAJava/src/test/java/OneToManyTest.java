@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import sqltojpa.EntityGenerator;
+
+/**
+ * O lado inverso de cada chave estrangeira com --one-to-many, e a estratégia de leitura da colecção.
+ */
+class OneToManyTest {
+
+    private static final String SQL = ""
+        + "CREATE TABLE customers (id BIGINT PRIMARY KEY AUTO_INCREMENT, name VARCHAR(50));\n"
+        + "CREATE TABLE orders (id BIGINT PRIMARY KEY AUTO_INCREMENT, customer_id BIGINT NOT NULL REFERENCES customers (id));\n";
+
+    @Test
+    void generatesABatchFetchedInverseCollection() {
+        Map<String, CharSequence> sources = generate("--one-to-many");
+        String customers = sources.get("com.example.Customers").toString();
+        assertTrue(customers.contains("@NamedEntityGraph(name = \"Customers.orders\", "
+            + "attributeNodes = @NamedAttributeNode(\"orders\"))"), customers);
+        assertTrue(customers.contains("    @OneToMany(mappedBy = \"customers\")\n"
+            + "    @BatchSize(size = 25)\n"
+            + "    private Set<Orders> orders = new HashSet<>();"), customers);
+
+        // mappedBy nomeia o campo @ManyToOne do outro lado
+        String orders = sources.get("com.example.Orders").toString();
+        assertTrue(orders.contains("@ManyToOne(fetch = FetchType.LAZY)"), orders);
+        assertTrue(orders.contains("private Customers customers;"), orders);
+
+        String sized = generate("--one-to-many=batch:100").get("com.example.Customers").toString();
+        assertTrue(sized.contains("@BatchSize(size = 100)"), sized);
+    }
+
+    @Test
+    void usesASubselectWhenRequested() {
+        String customers = generate("--one-to-many=subselect").get("com.example.Customers").toString();
+        assertTrue(customers.contains("    @OneToMany(mappedBy = \"customers\")\n"
+            + "    @Fetch(FetchMode.SUBSELECT)\n"), customers);
+        assertFalse(customers.contains("@BatchSize"), customers);
+    }
+
+    @Test
+    void leavesTheFetchStrategyToTheProviderWithNone() {
+        String customers = generate("--one-to-many=none").get("com.example.Customers").toString();
+        assertTrue(customers.contains("    @OneToMany(mappedBy = \"customers\")\n"
+            + "    private Set<Orders> orders = new HashSet<>();"), customers);
+        assertFalse(customers.contains("@BatchSize"), customers);
+        assertFalse(customers.contains("@Fetch("), customers);
+    }
+
+    @Test
+    void leavesTheInverseSideOutByDefault() {
+        String customers = generate().get("com.example.Customers").toString();
+        assertFalse(customers.contains("@OneToMany"), customers);
+        assertFalse(customers.contains("Set<Orders>"), customers);
+    }
+
+    private static Map<String, CharSequence> generate(String... options) {
+        EntityGenerator generator = EntityGenerator.create(options);
+        return generator.generate(generator.parse(SQL), "com.example");
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * O arquivo gerado com --srcjar ou --bytecode tem de ser o mesmo, byte a byte, com qualquer número de threads.
+ */
+class ParallelGenerationTest {
+
+    @TempDir
+    Path temp;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"--srcjar", "--srcjar --projections", "--bytecode"})
+    void archiveDoesNotDependOnTheThreadCount(String arguments) throws IOException {
+        Path schema = temp.resolve("schema.sql");
+        Files.write(schema, schema(40).getBytes(StandardCharsets.UTF_8));
+
+        byte[] sequential = generate(schema, arguments, 1);
+        for (int threads : new int[] {2, 8}) {
+            assertArrayEquals(sequential, generate(schema, arguments, threads), arguments + " --threads=" + threads);
+        }
+        if (arguments.contains("--projections")) {
+            // Cada entidade é seguida da sua projecção e do seu repositório
+            assertEquals(List.of("com/example/Table0.java", "com/example/projection/Table0Summary.java",
+                    "com/example/repository/Table0Repository.java", "com/example/Table1.java"),
+                entries(temp.resolve("1.jar")).subList(0, 4));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void regeneratesAMissingProjectionOfAnUnchangedEntity(int threads) throws IOException {
+        Path schema = temp.resolve("schema.sql");
+        Files.write(schema, schema(3).getBytes(StandardCharsets.UTF_8));
+        Path output = temp.resolve("out");
+        List<String> options = Arrays.asList("--projections", "--threads=" + threads);
+        new SQLParserJPAGenerator(GeneratorOptions.parse(options))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", output.toString());
+
+        Path projection = output.resolve("projection/Table1Summary.java");
+        String content = new String(Files.readAllBytes(projection), StandardCharsets.UTF_8);
+        Files.delete(projection);
+        new SQLParserJPAGenerator(GeneratorOptions.parse(options))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", output.toString());
+        assertTrue(Files.isRegularFile(projection));
+        assertEquals(content, new String(Files.readAllBytes(projection), StandardCharsets.UTF_8));
+    }
+
+    private byte[] generate(Path schema, String arguments, int threads) throws IOException {
+        Path archive = temp.resolve(threads + ".jar");
+        List<String> options = new ArrayList<>();
+        for (String argument : arguments.split(" ")) {
+            options.add(argument.equals("--projections") ? argument : argument + "=" + archive);
+        }
+        options.add("--threads=" + threads);
+        new SQLParserJPAGenerator(GeneratorOptions.parse(options))
+            .generateEntitiesFromSQL(schema.toString(), "com.example", temp.resolve("unused").toString());
+        return Files.readAllBytes(archive);
+    }
+
+    private static List<String> entries(Path archive) throws IOException {
+        try (JarFile jar = new JarFile(archive.toFile())) {
+            return jar.stream().map(entry -> entry.getName()).filter(name -> name.endsWith(".java"))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tabelas encadeadas por chaves estrangeiras, com colunas de tamanhos diferentes para que as tarefas
+     * não acabem pela ordem em que foram submetidas.
+     */
+    private static String schema(int tables) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < tables; i++) {
+            sql.append("CREATE TABLE table").append(i).append(" (\n  id BIGINT PRIMARY KEY AUTO_INCREMENT");
+            if (i > 0) {
+                sql.append(",\n  parent_id BIGINT REFERENCES table").append(i - 1).append(" (id)");
+            }
+            for (int c = 0; c < (i * 7) % 23; c++) {
+                sql.append(",\n  column").append(c).append(c % 2 == 0 ? " VARCHAR(50) NOT NULL" : " TEXT");
+            }
+            sql.append("\n);\n");
+        }
+        return sql.toString();
+    }
+}
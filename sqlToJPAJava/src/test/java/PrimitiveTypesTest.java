@@ -0,0 +1,42 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import sqltojpa.EntityGenerator;
+
+/**
+ * Com --primitives, só as colunas NOT NULL de tipos numéricos e booleanos passam a tipos primitivos.
+ */
+class PrimitiveTypesTest {
+
+    private static final String SQL = "CREATE TABLE items (id BIGINT PRIMARY KEY AUTO_INCREMENT, qty INT NOT NULL, "
+        + "price DECIMAL(10,2) NOT NULL, active BOOLEAN NOT NULL, weight DOUBLE, rating SMALLINT NOT NULL DEFAULT 3)";
+
+    @Test
+    void narrowsNotNullColumns() {
+        String items = generate("--primitives");
+        assertTrue(items.contains("private int qty;"), items);
+        assertTrue(items.contains("private boolean active;"), items);
+        assertTrue(items.contains("private short rating;"), items);
+        assertTrue(items.contains("public Items(int qty, BigDecimal price, boolean active, short rating) {"), items);
+        assertTrue(items.contains("public int getQty() {"), items);
+
+        // Colunas que aceitam NULL, tipos sem primitivo e a chave gerada ficam como estão
+        assertTrue(items.contains("private Double weight;"), items);
+        assertTrue(items.contains("private BigDecimal price;"), items);
+        assertTrue(items.contains("private Long id;"), items);
+    }
+
+    @Test
+    void keepsWrappersByDefault() {
+        String items = generate();
+        assertTrue(items.contains("private Integer qty;"), items);
+        assertTrue(items.contains("private Boolean active;"), items);
+        assertTrue(items.contains("private Short rating;"), items);
+    }
+
+    private static String generate(String... options) {
+        EntityGenerator generator = EntityGenerator.create(options);
+        return generator.generate(generator.parse(SQL), "com.example").get("com.example.Items").toString();
+    }
+}
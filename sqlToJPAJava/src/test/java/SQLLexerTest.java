@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SQLLexerTest {
+
+    @Test
+    void splitsWordsNumbersAndPunctuation() {
+        assertEquals(List.of("WORD:price", "WORD:DECIMAL", "LPAREN:(", "NUMBER:10", "COMMA:,", "NUMBER:2",
+                "RPAREN:)", "WORD:DEFAULT", "SYMBOL:-", "NUMBER:0.5"),
+            tokens("price DECIMAL(10, 2) DEFAULT -0.5"));
+    }
+
+    @Test
+    void readsQuotedAndBracketedIdentifiers() {
+        SQLLexer lexer = new SQLLexer("\"Order Id\" `unit price` [Qty Ordered]");
+        assertEquals(SQLLexer.QUOTED_IDENTIFIER, lexer.type());
+        assertEquals("Order Id", lexer.identifier());
+        assertEquals("\"Order Id\"", lexer.text());
+        lexer.next();
+        assertEquals(SQLLexer.QUOTED_IDENTIFIER, lexer.type());
+        assertEquals("unit price", lexer.identifier());
+        lexer.next();
+        assertEquals(SQLLexer.QUOTED_IDENTIFIER, lexer.type());
+        assertEquals("Qty Ordered", lexer.identifier());
+        assertEquals(SQLLexer.EOF, lexer.next());
+    }
+
+    @Test
+    void keepsEscapedQuotesInsideStrings() {
+        assertEquals(List.of("STRING:'it''s'", "STRING:'a\\'b'", "WORD:x"), tokens("'it''s' 'a\\'b' x"));
+        // Aspas duplicadas dentro de um identificador entre aspas não o terminam
+        assertEquals(List.of("QUOTED_IDENTIFIER:\"a\"\"b\"", "WORD:c"), tokens("\"a\"\"b\" c"));
+    }
+
+    @Test
+    void unterminatedQuotesRunToTheEndOfTheInput() {
+        assertEquals(List.of("WORD:DEFAULT", "STRING:'abc, b INT)"), tokens("DEFAULT 'abc, b INT)"));
+        assertEquals(List.of("QUOTED_IDENTIFIER:\"t (a INT)"), tokens("\"t (a INT)"));
+        assertEquals(List.of("QUOTED_IDENTIFIER:[t"), tokens("[t"));
+
+        SQLLexer lexer = new SQLLexer("[t");
+        assertEquals("t", lexer.identifier());
+    }
+
+    @Test
+    void matchesKeywordsIgnoringCase() {
+        SQLLexer lexer = new SQLLexer("not Null \"NULL\"");
+        assertTrue(lexer.isWord("NOT"));
+        assertFalse(lexer.isWord("NO"));
+        assertTrue(lexer.accept("NOT"));
+        assertTrue(lexer.accept("NULL"));
+        // Um identificador entre aspas nunca é uma palavra reservada
+        assertFalse(lexer.isWord("NULL"));
+        assertTrue(lexer.isIdentifier());
+    }
+
+    @Test
+    void detectsLiteralPrefixes() {
+        SQLLexer lexer = new SQLLexer("b'0101' N 'x'");
+        assertTrue(lexer.isFollowedImmediatelyBy('\''));
+        lexer.next();
+        assertEquals(SQLLexer.STRING, lexer.type());
+        lexer.next();
+        assertFalse(lexer.isFollowedImmediatelyBy('\''));
+    }
+
+    private static List<String> tokens(String sql) {
+        String[] names = {"EOF", "WORD", "QUOTED_IDENTIFIER", "STRING", "NUMBER", "LPAREN", "RPAREN", "COMMA", "SYMBOL"};
+        List<String> tokens = new ArrayList<>();
+        SQLLexer lexer = new SQLLexer(sql);
+        while (lexer.type() != SQLLexer.EOF) {
+            tokens.add(names[lexer.type()] + ":" + lexer.text());
+            lexer.next();
+        }
+        return tokens;
+    }
+}
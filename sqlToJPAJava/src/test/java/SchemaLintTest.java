@@ -0,0 +1,178 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Cada regra do --lint sobre um esquema mínimo, o relatório JSON e o resultado de --fail-on.
+ */
+class SchemaLintTest {
+
+    private static final Pattern FINDING = Pattern.compile(
+        "\\{\"rule\": \"([^\"]+)\", \"severity\": \"([^\"]+)\", \"table\": \"([^\"]+)\", \"columns\": \\[([^\\]]*)\\]");
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void reportsForeignKeysWithoutAnIndex() throws IOException {
+        List<String> findings = lint(""
+            + "CREATE TABLE customers (id BIGINT PRIMARY KEY);\n"
+            + "CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT REFERENCES customers (id));\n");
+        assertEquals(List.of("unindexed-foreign-key error orders [\"customer_id\"]"), findings);
+
+        // Coberta por um índice, ou pelo início da chave primária
+        assertEquals(List.of(), lint(""
+            + "CREATE TABLE customers (id BIGINT PRIMARY KEY);\n"
+            + "CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT REFERENCES customers (id));\n"
+            + "CREATE INDEX idx_orders_customer ON orders (customer_id, id);\n"));
+        assertEquals(List.of("composite-primary-key info order_lines [\"order_id\", \"line_no\"]"), lint(""
+            + "CREATE TABLE orders (id BIGINT PRIMARY KEY);\n"
+            + "CREATE TABLE order_lines (order_id BIGINT NOT NULL REFERENCES orders (id), line_no INT NOT NULL, "
+            + "PRIMARY KEY (order_id, line_no));\n"));
+    }
+
+    @Test
+    void separatesDuplicateFromRedundantIndexes() throws IOException {
+        List<String> findings = lint(""
+            + "CREATE TABLE products (id BIGINT PRIMARY KEY, sku VARCHAR(20) NOT NULL, name VARCHAR(50), "
+            + "price INT);\n"
+            + "CREATE INDEX idx_products_id ON products (id);\n"
+            + "CREATE INDEX idx_products_sku ON products (sku);\n"
+            + "CREATE INDEX idx_products_sku2 ON products (sku);\n"
+            + "CREATE INDEX idx_products_name ON products (name);\n"
+            + "CREATE INDEX idx_products_name_price ON products (name, price);\n"
+            + "CREATE UNIQUE INDEX uq_products_price ON products (price);\n"
+            + "CREATE INDEX idx_products_price_name ON products (price, name);\n");
+        assertEquals(List.of(
+            "duplicate-index warning products [\"id\"]",
+            "duplicate-index warning products [\"sku\"]",
+            "redundant-index info products [\"name\"]"), findings);
+    }
+
+    @Test
+    void reportsWideRows() throws IOException {
+        assertEquals(List.of("wide-row warning notes []"), lint(
+            "CREATE TABLE notes (id BIGINT PRIMARY KEY, a VARCHAR(4000), b VARCHAR(4000), c VARCHAR(100));\n"));
+        assertEquals(List.of(), lint(
+            "CREATE TABLE notes (id BIGINT PRIMARY KEY, a VARCHAR(4000), b VARCHAR(4000));\n"));
+
+        StringBuilder columns = new StringBuilder("CREATE TABLE settings (id BIGINT PRIMARY KEY");
+        for (int i = 0; i < 50; i++) {
+            columns.append(", flag").append(i).append(" BOOLEAN");
+        }
+        assertEquals(List.of("wide-row warning settings []"), lint(columns.append(");\n").toString()));
+    }
+
+    @Test
+    void reportsLargeColumnsUnlessProjectionsAreGenerated() throws IOException {
+        String sql = "CREATE TABLE documents (id BIGINT PRIMARY KEY, title VARCHAR(200), body TEXT, img BLOB);\n";
+        assertEquals(List.of("large-column-without-projection info documents [\"body\", \"img\"]"), lint(sql));
+        assertEquals(List.of(), lint(sql, "--projections"));
+    }
+
+    @Test
+    void writesTheSummaryBySeverity() throws IOException {
+        Path schema = write(""
+            + "CREATE TABLE customers (id BIGINT PRIMARY KEY);\n"
+            + "CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT REFERENCES customers (id), "
+            + "note TEXT);\n");
+        Path report = temp.resolve("reports/lint.json");
+        assertTrue(generator("--lint=" + report).lintSQL(schema.toString()));
+
+        String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"sqlFile\": \"" + schema.toString().replace("\\", "\\\\") + "\""), json);
+        assertTrue(json.contains("\"summary\": {\"info\": 1, \"warning\": 0, \"error\": 1}"), json);
+        assertTrue(json.contains("\"message\": \"A chave estrangeira customer_id -> customers não é a primeira "
+            + "coluna de nenhum índice\""), json);
+
+        lint("CREATE TABLE customers (id BIGINT PRIMARY KEY);\n");
+        json = new String(Files.readAllBytes(temp.resolve("lint.json")), StandardCharsets.UTF_8);
+        assertTrue(json.endsWith("\"findings\": []\n}\n"), json);
+    }
+
+    /**
+     * Esquema cujo resultado mais grave tem a severidade "highest", com um resultado de cada severidade abaixo.
+     */
+    @ParameterizedTest
+    @CsvSource({
+        "info,    info,    false",
+        "info,    warning, true",
+        "info,    error,   true",
+        "warning, info,    false",
+        "warning, warning, false",
+        "warning, error,   true",
+        "error,   info,    false",
+        "error,   warning, false",
+        "error,   error,   false",
+    })
+    void failsOnFindingsAtOrAboveTheThreshold(String highest, String failOn, boolean passes) throws IOException {
+        StringBuilder sql = new StringBuilder("CREATE TABLE documents (id BIGINT PRIMARY KEY, body TEXT);\n");
+        if (!highest.equals("info")) {
+            sql.append("CREATE TABLE notes (id BIGINT PRIMARY KEY, a VARCHAR(9000));\n");
+        }
+        if (highest.equals("error")) {
+            sql.append("CREATE TABLE tags (id BIGINT PRIMARY KEY, note_id BIGINT REFERENCES notes (id));\n");
+        }
+        Path schema = write(sql.toString());
+        String lintFile = "--lint=" + temp.resolve("lint.json");
+
+        assertEquals(passes, generator(lintFile, "--fail-on=" + failOn).lintSQL(schema.toString()),
+            highest + " com --fail-on=" + failOn);
+        // Sem --fail-on, os resultados nunca falham a análise
+        assertTrue(generator(lintFile).lintSQL(schema.toString()));
+    }
+
+    @Test
+    void rejectsAnUnknownSeverity() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> SchemaLint.Severity.parse("fatal"));
+        assertTrue(e.getMessage().contains("fatal"), e.getMessage());
+        assertEquals(SchemaLint.Severity.WARNING, SchemaLint.Severity.parse("WARNING"));
+        assertFalse(SchemaLint.Severity.INFO.compareTo(SchemaLint.Severity.WARNING) >= 0);
+    }
+
+    /**
+     * Resultados do relatório JSON, um por linha: regra, severidade, tabela e colunas.
+     */
+    private List<String> lint(String sql, String... options) throws IOException {
+        Path schema = write(sql);
+        Path report = temp.resolve("lint.json");
+        List<String> arguments = new ArrayList<>(Arrays.asList(options));
+        arguments.add("--lint=" + report);
+        generator(arguments.toArray(new String[0])).lintSQL(schema.toString());
+
+        List<String> findings = new ArrayList<>();
+        Matcher matcher = FINDING.matcher(new String(Files.readAllBytes(report), StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            findings.add(matcher.group(1) + " " + matcher.group(2) + " " + matcher.group(3)
+                + " [" + matcher.group(4) + "]");
+        }
+        return findings;
+    }
+
+    private Path write(String sql) throws IOException {
+        Path schema = temp.resolve("schema.sql");
+        Files.write(schema, sql.getBytes(StandardCharsets.UTF_8));
+        return schema;
+    }
+
+    private static SQLParserJPAGenerator generator(String... options) {
+        return new SQLParserJPAGenerator(GeneratorOptions.parse(Arrays.asList(options)));
+    }
+}
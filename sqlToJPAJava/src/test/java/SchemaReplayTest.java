@@ -0,0 +1,255 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import sqltojpa.SchemaModel;
+
+/**
+ * Aplicação de ALTER TABLE, DROP TABLE e CREATE INDEX ao modelo, directamente e a partir de um directório
+ * de migrações ao estilo do Flyway.
+ */
+class SchemaReplayTest {
+
+    private static final String V1 = ""
+        + "CREATE TABLE customers (id BIGINT PRIMARY KEY, email VARCHAR(100), legacy_code INT);\n"
+        + "CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT,\n"
+        + "  CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES customers (id));\n"
+        + "CREATE TABLE audit_log (id INT PRIMARY KEY, message TEXT);\n"
+        + "CREATE INDEX ix_orders_customer ON orders (customer_id);\n";
+    // Versão 1.1: entre V1 e V2, apesar do nome
+    private static final String V1_1 = ""
+        + "INSERT INTO customers VALUES (1, 'a@example.com', 7);\n"
+        + "CREATE INDEX ix_customers_legacy ON customers (legacy_code);\n";
+    private static final String V2 = ""
+        + "ALTER TABLE customers ADD COLUMN phone VARCHAR(20) NOT NULL, DROP COLUMN legacy_code;\n"
+        + "ALTER TABLE customers RENAME TO clients;\n"
+        + "DROP TABLE audit_log;\n"
+        + "CREATE UNIQUE INDEX ux_clients_email ON clients (email);\n";
+    private static final String V3 = ""
+        + "CREATE TABLE audit_log (id BIGINT PRIMARY KEY, entry VARCHAR(500), created_at TIMESTAMP);\n"
+        + "ALTER TABLE orders ADD COLUMN audit_id BIGINT,\n"
+        + "  ADD CONSTRAINT fk_orders_audit FOREIGN KEY (audit_id) REFERENCES audit_log (id);\n"
+        + "ALTER TABLE orders RENAME COLUMN customer_id TO client_id;\n";
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void replaysAMigrationDirectory() throws IOException {
+        Path migrations = migrations(true);
+        SchemaModel model = new SQLParserJPAGenerator().parse(migrations);
+        assertFinalSchema(model);
+    }
+
+    @Test
+    void ignoresFilesThatAreNotVersionedMigrations() throws IOException {
+        Path migrations = migrations(true);
+        write(migrations.resolve("R__views.sql"), "CREATE TABLE not_a_migration (id INT);");
+        write(migrations.resolve("README.txt"), "CREATE TABLE not_sql (id INT);");
+        List<String> names = new ArrayList<>();
+        for (MigrationDirectory.Migration migration : MigrationDirectory.list(migrations)) {
+            names.add(migration.name + "@" + migration.version);
+        }
+        assertEquals(List.of("V1__init.sql@1", "V1_1__seed.sql@1.1", "release/V2__changes.sql@2",
+            "V3__recreate.sql@3"), names);
+        assertNull(new SQLParserJPAGenerator().parse(migrations).getTable("not_a_migration"));
+    }
+
+    @Test
+    void rejectsRepeatedVersions() throws IOException {
+        Path migrations = migrations(false);
+        write(migrations.resolve("V1.0__again.sql"), "CREATE TABLE again (id INT);");
+        assertThrows(IllegalArgumentException.class, () -> MigrationDirectory.list(migrations));
+    }
+
+    @Test
+    void appliesOnlyNewMigrationsOnTopOfTheCachedModel() throws IOException {
+        Path migrations = migrations(false);
+        Path incremental = temp.resolve("incremental");
+        new SQLParserJPAGenerator().generateEntitiesFromSQL(migrations.toString(), "com.example", incremental.toString());
+        assertTrue(Files.isRegularFile(incremental.resolve(MigrationDirectory.CACHE_FILE_NAME)));
+
+        // A segunda execução parte do modelo guardado depois de V2 e só aplica V3
+        write(migrations.resolve("V3__recreate.sql"), V3);
+        new SQLParserJPAGenerator().generateEntitiesFromSQL(migrations.toString(), "com.example", incremental.toString());
+
+        Path full = temp.resolve("full");
+        new SQLParserJPAGenerator().generateEntitiesFromSQL(migrations.toString(), "com.example", full.toString());
+        for (String entity : List.of("Clients.java", "Orders.java", "AuditLog.java")) {
+            assertEquals(read(full.resolve(entity)),
+                read(incremental.resolve(entity)), entity);
+        }
+        assertFalse(Files.exists(incremental.resolve("Customers.java")));
+        assertTrue(read(incremental.resolve("Orders.java")).contains("private Clients clients;"));
+    }
+
+    @Test
+    void copiesSharedTablesBeforeChangingThem() {
+        SQLParserJPAGenerator generator = new SQLParserJPAGenerator();
+        SQLParserJPAGenerator.TableInfo customers = table(generator,
+            "CREATE TABLE customers (id BIGINT PRIMARY KEY, email VARCHAR(100))");
+        SQLParserJPAGenerator.TableInfo orders = table(generator,
+            "CREATE TABLE orders (id BIGINT PRIMARY KEY, customer_id BIGINT REFERENCES customers (id))");
+        String customersDdl = customers.ddl;
+
+        // As tabelas vêm da cache de análise e são partilhadas com a execução anterior
+        SchemaReplay replay = new SchemaReplay(generator);
+        replay.create(customers);
+        replay.create(orders);
+        assertTrue(replay.apply("ALTER TABLE customers ADD COLUMN phone VARCHAR(20)"));
+        assertTrue(replay.apply("ALTER TABLE customers RENAME TO clients"));
+        assertTrue(replay.apply("CREATE INDEX ix_clients_email ON clients (email)"));
+
+        // Os originais ficam como estavam
+        assertEquals("customers", customers.name);
+        assertEquals(2, customers.columns.size());
+        assertTrue(customers.indexes.isEmpty());
+        assertEquals(customersDdl, customers.ddl);
+        assertEquals("customers", orders.foreignKeys.get(0).referencedTable);
+
+        List<SQLParserJPAGenerator.TableInfo> tables = replay.tables();
+        assertEquals(2, tables.size());
+        SQLParserJPAGenerator.TableInfo clients = tables.get(0);
+        assertNotSame(customers, clients);
+        assertEquals("clients", clients.name);
+        assertEquals(List.of("id", "email", "phone"), columnNames(clients));
+        assertEquals("ix_clients_email", clients.indexes.get(0).name);
+        assertTrue(clients.ddl.startsWith(customersDdl));
+        assertTrue(clients.ddl.endsWith("CREATE INDEX ix_clients_email ON clients (email)"));
+
+        // A chave estrangeira da outra tabela passa a referir o nome novo, numa cópia
+        SQLParserJPAGenerator.TableInfo ordersCopy = tables.get(1);
+        assertNotSame(orders, ordersCopy);
+        assertEquals("clients", ordersCopy.foreignKeys.get(0).referencedTable);
+
+        // O CREATE TABLE original continua disponível para a cache
+        assertEquals(List.of(customers, orders), replay.created());
+    }
+
+    @Test
+    void changesRestoredTablesInPlace() {
+        SQLParserJPAGenerator generator = new SQLParserJPAGenerator();
+        SQLParserJPAGenerator.TableInfo customers = table(generator,
+            "CREATE TABLE customers (id BIGINT PRIMARY KEY, email VARCHAR(100))");
+        SchemaReplay replay = new SchemaReplay(generator);
+        replay.restore(customers);
+        assertTrue(replay.apply("ALTER TABLE customers DROP COLUMN email"));
+        assertSame(customers, replay.tables().get(0));
+        assertEquals(List.of("id"), columnNames(customers));
+    }
+
+    @Test
+    void reportsStatementsOnUnknownTables() {
+        SchemaReplay replay = new SchemaReplay(new SQLParserJPAGenerator());
+        assertFalse(replay.apply("ALTER TABLE missing ADD COLUMN x INT"));
+        assertFalse(replay.apply("CREATE INDEX ix_missing ON missing (x)"));
+        // DROP TABLE IF EXISTS antes do CREATE TABLE não é um erro
+        assertTrue(replay.apply("DROP TABLE IF EXISTS missing"));
+    }
+
+    private static void assertFinalSchema(SchemaModel model) {
+        List<String> names = new ArrayList<>();
+        for (SchemaModel.Table table : model.getTables()) {
+            names.add(table.getName());
+        }
+        // audit_log foi removida em V2 e criada de novo em V3, por isso fica no fim
+        assertEquals(List.of("clients", "orders", "audit_log"), names);
+
+        SchemaModel.Table clients = model.getTable("clients");
+        assertEquals(List.of("id", "email", "phone"), columnNames(clients));
+        assertFalse(column(clients, "phone").isNullable());
+        assertEquals(1, clients.getIndexes().size());
+        SchemaModel.Index email = clients.getIndexes().get(0);
+        assertEquals("ux_clients_email", email.getName());
+        assertTrue(email.isUnique());
+        // ix_customers_legacy (V1.1) desapareceu com a coluna legacy_code
+        assertNull(model.getTable("customers"));
+
+        SchemaModel.Table orders = model.getTable("orders");
+        assertEquals(List.of("id", "client_id", "audit_id"), columnNames(orders));
+        assertEquals(2, orders.getForeignKeys().size());
+        SchemaModel.ForeignKey toClients = orders.getForeignKeys().get(0);
+        assertEquals("client_id", toClients.getColumnName());
+        assertEquals("clients", toClients.getReferencedTable());
+        assertEquals("Clients", toClients.getReferencedClassName());
+        SchemaModel.ForeignKey toAudit = orders.getForeignKeys().get(1);
+        assertEquals("audit_id", toAudit.getColumnName());
+        assertEquals("audit_log", toAudit.getReferencedTable());
+        assertEquals(1, orders.getIndexes().size());
+        assertEquals("ix_orders_customer", orders.getIndexes().get(0).getName());
+        assertEquals("client_id", orders.getIndexes().get(0).getColumns().get(0).getName());
+
+        SchemaModel.Table auditLog = model.getTable("audit_log");
+        assertEquals(List.of("id", "entry", "created_at"), columnNames(auditLog));
+        assertEquals("Long", column(auditLog, "id").getJavaType());
+    }
+
+    private Path migrations(boolean withV3) throws IOException {
+        Path directory = temp.resolve("migrations");
+        write(directory.resolve("V1__init.sql"), V1);
+        write(directory.resolve("V1_1__seed.sql"), V1_1);
+        write(directory.resolve("release/V2__changes.sql"), V2);
+        if (withV3) {
+            write(directory.resolve("V3__recreate.sql"), V3);
+        }
+        return directory;
+    }
+
+    private static SQLParserJPAGenerator.TableInfo table(SQLParserJPAGenerator generator, String ddl) {
+        SQLParserJPAGenerator.TableInfo table = new ColumnDefinitionParser(ddl).parseCreateTable();
+        assertNotNull(table, ddl);
+        table.ddl = ddl;
+        generator.resolveTypes(table);
+        return table;
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> columnNames(SQLParserJPAGenerator.TableInfo table) {
+        List<String> names = new ArrayList<>();
+        for (SQLParserJPAGenerator.ColumnInfo column : table.columns) {
+            names.add(column.name);
+        }
+        return names;
+    }
+
+    private static List<String> columnNames(SchemaModel.Table table) {
+        assertNotNull(table);
+        List<String> names = new ArrayList<>();
+        for (SchemaModel.Column column : table.getColumns()) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    private static SchemaModel.Column column(SchemaModel.Table table, String name) {
+        for (SchemaModel.Column column : table.getColumns()) {
+            if (column.getName().equals(name)) {
+                return column;
+            }
+        }
+        throw new AssertionError("coluna " + name + " não encontrada em " + table.getName());
+    }
+}
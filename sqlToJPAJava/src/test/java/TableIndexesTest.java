@@ -0,0 +1,55 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import sqltojpa.EntityGenerator;
+
+/**
+ * KEY, INDEX, UNIQUE KEY e CREATE INDEX passam para @Table(indexes, uniqueConstraints).
+ */
+class TableIndexesTest {
+
+    private static final String SQL = ""
+        + "CREATE TABLE customers (id BIGINT PRIMARY KEY AUTO_INCREMENT, email VARCHAR(100) NOT NULL UNIQUE,\n"
+        + "  name VARCHAR(50), city VARCHAR(50), KEY idx_name_city (name, city), UNIQUE KEY uq_name (name, email));\n"
+        + "CREATE TABLE orders (id BIGINT PRIMARY KEY AUTO_INCREMENT, customer_id BIGINT NOT NULL REFERENCES customers (id));\n"
+        + "CREATE INDEX idx_orders_customer ON orders (customer_id);\n"
+        + "CREATE UNIQUE INDEX uq_orders_customer_id ON orders (customer_id, id);\n";
+
+    @Test
+    void emitsIndexesAndUniqueConstraints() {
+        Map<String, CharSequence> sources = generate();
+        String customers = sources.get("com.example.Customers").toString();
+        assertTrue(customers.contains("@Table(name = \"customers\", "
+            + "indexes = @Index(name = \"idx_name_city\", columnList = \"name, city\"), "
+            + "uniqueConstraints = @UniqueConstraint(name = \"uq_name\", columnNames = {\"name\", \"email\"}))"),
+            customers);
+        // UNIQUE sobre uma só coluna fica na própria coluna
+        assertTrue(customers.contains("@Column(name = \"email\", nullable = false, unique = true)"), customers);
+
+        // Índices criados depois da tabela aplicam-se à tabela
+        String orders = sources.get("com.example.Orders").toString();
+        assertTrue(orders.contains("@Table(name = \"orders\", "
+            + "indexes = @Index(name = \"idx_orders_customer\", columnList = \"customer_id\"), "
+            + "uniqueConstraints = @UniqueConstraint(name = \"uq_orders_customer_id\", "
+            + "columnNames = {\"customer_id\", \"id\"}))"), orders);
+    }
+
+    @Test
+    void leavesTablesWithoutIndexesAlone() {
+        EntityGenerator generator = EntityGenerator.create();
+        String plain = generator.generate(generator.parse("CREATE TABLE tags (id BIGINT PRIMARY KEY, label VARCHAR(20))"),
+            "com.example").get("com.example.Tags").toString();
+        assertTrue(plain.contains("@Table(name = \"tags\")"), plain);
+        assertFalse(plain.contains("@Index"), plain);
+        assertFalse(plain.contains("@UniqueConstraint"), plain);
+    }
+
+    private static Map<String, CharSequence> generate() {
+        EntityGenerator generator = EntityGenerator.create();
+        return generator.generate(generator.parse(SQL), "com.example");
+    }
+}